@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
+import org.eclipse.leshan.core.model.StaticModel;
+import org.eclipse.leshan.core.node.LwM2mMultipleResource;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mObject;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+
+/**
+ * Representative nodes shared by the codec benchmarks. Only default object models are used so every payload can be
+ * decoded back with {@link #model()}.
+ */
+final class CodecFixtures {
+
+    static final LwM2mPath BATTERY_LEVEL_PATH = new LwM2mPath(3, 0, 9);
+    static final LwM2mPath PACKAGE_PATH = new LwM2mPath(5, 0, 0);
+    static final LwM2mPath DEVICE_PATH = new LwM2mPath(3, 0);
+    static final LwM2mPath SERVER_PATH = new LwM2mPath(1);
+    static final LwM2mPath LOCATION_PATH = new LwM2mPath(6, 0);
+
+    private CodecFixtures() {
+    }
+
+    static LwM2mModel model() {
+        return new StaticModel(ObjectLoader.loadDefault());
+    }
+
+    /**
+     * /3/0/9 battery level, an integer.
+     */
+    static LwM2mSingleResource batteryLevel() {
+        return LwM2mSingleResource.newIntegerResource(9, 100);
+    }
+
+    /**
+     * /5/0/0 firmware package, a 64 bytes opaque value.
+     */
+    static LwM2mSingleResource firmwareChunk() {
+        byte[] chunk = new byte[64];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = (byte) i;
+        }
+        return LwM2mSingleResource.newBinaryResource(0, chunk);
+    }
+
+    /**
+     * /3/0 device instance, with strings, integers, a date and a multiple resource.
+     */
+    static LwM2mObjectInstance device() {
+        return new LwM2mObjectInstance(0, //
+                LwM2mSingleResource.newStringResource(0, "Open Mobile Alliance"), //
+                LwM2mSingleResource.newStringResource(1, "Lightweight M2M Client"), //
+                LwM2mSingleResource.newStringResource(2, "345000123"), //
+                LwM2mSingleResource.newStringResource(3, "1.0"), //
+                new LwM2mMultipleResource(7, Type.INTEGER, //
+                        LwM2mResourceInstance.newIntegerInstance(0, 3800), //
+                        LwM2mResourceInstance.newIntegerInstance(1, 5000)), //
+                LwM2mSingleResource.newIntegerResource(9, 100), //
+                LwM2mSingleResource.newIntegerResource(10, 15), //
+                LwM2mSingleResource.newDateResource(13, new Date(1367491215000L)), //
+                LwM2mSingleResource.newStringResource(14, "+02:00"), //
+                LwM2mSingleResource.newStringResource(16, "U"));
+    }
+
+    /**
+     * /1 server object with 4 instances.
+     */
+    static LwM2mObject servers() {
+        List<LwM2mObjectInstance> instances = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            instances.add(new LwM2mObjectInstance(i, //
+                    LwM2mSingleResource.newIntegerResource(0, 100 + i), //
+                    LwM2mSingleResource.newIntegerResource(1, 86400), //
+                    LwM2mSingleResource.newBooleanResource(6, true), //
+                    LwM2mSingleResource.newStringResource(7, "U")));
+        }
+        return new LwM2mObject(1, instances);
+    }
+
+    /**
+     * 20 positions of /6/0 location instance, 10 seconds apart.
+     */
+    static List<TimestampedLwM2mNode> track() {
+        List<TimestampedLwM2mNode> track = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            track.add(new TimestampedLwM2mNode(1600000000L + i * 10, new LwM2mObjectInstance(0, //
+                    LwM2mSingleResource.newFloatResource(0, 43.6 + i * 0.001), //
+                    LwM2mSingleResource.newFloatResource(1, 1.45 + i * 0.002))));
+        }
+        return track;
+    }
+
+    /**
+     * Resources of several objects, as used by Read-Composite or Send.
+     */
+    static Map<LwM2mPath, LwM2mNode> composite() {
+        Map<LwM2mPath, LwM2mNode> nodes = new LinkedHashMap<>();
+        nodes.put(new LwM2mPath(3, 0, 9), LwM2mSingleResource.newIntegerResource(9, 100));
+        nodes.put(new LwM2mPath(3, 0, 13), LwM2mSingleResource.newDateResource(13, new Date(1367491215000L)));
+        nodes.put(new LwM2mPath(6, 0, 0), LwM2mSingleResource.newFloatResource(0, 43.6));
+        nodes.put(new LwM2mPath(6, 0, 1), LwM2mSingleResource.newFloatResource(1, 1.45));
+        nodes.put(new LwM2mPath(1, 0, 1), LwM2mSingleResource.newIntegerResource(1, 86400));
+        return nodes;
+    }
+}
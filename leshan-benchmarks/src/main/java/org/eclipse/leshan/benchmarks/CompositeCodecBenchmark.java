@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeDecoder;
+import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeEncoder;
+import org.eclipse.leshan.core.node.codec.LwM2mNodeDecoder;
+import org.eclipse.leshan.core.node.codec.LwM2mNodeEncoder;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures {@link DefaultLwM2mNodeEncoder} and {@link DefaultLwM2mNodeDecoder} for multi-node (composite) operations,
+ * in every content format supporting them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeCodecBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompositeCodecBenchmark.class);
+
+    @Param({ "SENML_JSON", "SENML_CBOR" })
+    public String format;
+
+    private final LwM2mNodeEncoder encoder = new DefaultLwM2mNodeEncoder();
+    private final LwM2mNodeDecoder decoder = new DefaultLwM2mNodeDecoder();
+
+    private LwM2mModel model;
+    private ContentFormat contentFormat;
+    private Map<LwM2mPath, LwM2mNode> nodes;
+    private List<LwM2mPath> paths;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        model = CodecFixtures.model();
+        contentFormat = ContentFormat.fromName(format);
+        nodes = CodecFixtures.composite();
+        paths = new ArrayList<>(nodes.keySet());
+        payload = encode();
+
+        LOG.info("{} payload size: {} bytes", format, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoder.encodeNodes(nodes, contentFormat, model);
+    }
+
+    @Benchmark
+    public Map<LwM2mPath, LwM2mNode> decode() {
+        return decoder.decodeNodes(payload, contentFormat, paths, model);
+    }
+}
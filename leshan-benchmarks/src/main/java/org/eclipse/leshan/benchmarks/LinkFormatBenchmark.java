@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.Link;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures CoRE Link Format parsing and serialization of a registration payload with 200 links.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkFormatBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LinkFormatBenchmark.class);
+
+    private byte[] payload;
+    private Link[] links;
+
+    @Setup
+    public void setup() {
+        StringBuilder b = new StringBuilder("</>;rt=\"oma.lwm2m\";ct=\"60 110 112 11542 11543\"");
+        b.append(",</1>;ver=1.1,</1/0>,</3>;ver=1.1,</3/0>");
+        int count = 5;
+        for (int object = 3300; count < 200; object++) {
+            b.append(",</").append(object).append(">;ver=1.0");
+            count++;
+            for (int instance = 0; instance < 4 && count < 200; instance++) {
+                b.append(",</").append(object).append('/').append(instance).append('>');
+                count++;
+            }
+        }
+        payload = b.toString().getBytes(StandardCharsets.UTF_8);
+        links = Link.parse(payload);
+
+        LOG.info("{} links, payload size: {} bytes", links.length, payload.length);
+    }
+
+    @Benchmark
+    public Link[] parse() {
+        return Link.parse(payload);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return Link.serialize(links);
+    }
+}
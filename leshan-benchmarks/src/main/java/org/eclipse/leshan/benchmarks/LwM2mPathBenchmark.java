@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mPathCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link LwM2mPath} parsing, formatting and lookup, as done for each request URI and SenML record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LwM2mPathBenchmark {
+
+    private final LwM2mPathCache cache = new LwM2mPathCache(LwM2mPathCache.DEFAULT_SIZE);
+    private final Map<LwM2mPath, Object> map = new HashMap<>();
+
+    private String uri;
+    private LwM2mPath path;
+
+    @Setup
+    public void setup() {
+        uri = "/3303/0/5700";
+        path = new LwM2mPath(3303, 0, 5700);
+        for (int i = 0; i < 100; i++) {
+            map.put(new LwM2mPath(3303, 0, 5600 + i), Boolean.TRUE);
+        }
+    }
+
+    @Benchmark
+    public LwM2mPath parse() {
+        return new LwM2mPath(uri);
+    }
+
+    @Benchmark
+    public LwM2mPath parseCached() {
+        return cache.get(uri);
+    }
+
+    @Benchmark
+    public String format() {
+        return new LwM2mPath(3303, 0, 5700).toString();
+    }
+
+    @Benchmark
+    public Object lookup() {
+        return map.get(path);
+    }
+}
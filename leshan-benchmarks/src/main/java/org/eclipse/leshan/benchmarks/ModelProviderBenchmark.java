@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.Link;
+import org.eclipse.leshan.core.model.ResourceModel;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.server.model.LwM2mModelProvider;
+import org.eclipse.leshan.server.model.StandardModelProvider;
+import org.eclipse.leshan.server.registration.Registration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the resolution of the model of a registration and a resource lookup in it, as done for each request sent
+ * and each notification received.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelProviderBenchmark {
+
+    private final LwM2mModelProvider provider = new StandardModelProvider();
+    private Registration registration;
+
+    @Setup
+    public void setup() {
+        Registration.Builder builder = new Registration.Builder("id", "endpoint",
+                Identity.unsecure(InetSocketAddress.createUnresolved("localhost", 5683)));
+        builder.objectLinks(Link.parse("</>;rt=\"oma.lwm2m\",</1/0>,</2/0>,</3/0>,</4/0>,</5/0>,</6/0>,</7/0>"
+                .getBytes()));
+        registration = builder.build();
+    }
+
+    @Benchmark
+    public ResourceModel resourceModel() {
+        return provider.getObjectModel(registration).getResourceModel(6, 5);
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeDecoder;
+import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeEncoder;
+import org.eclipse.leshan.core.node.codec.LwM2mNodeDecoder;
+import org.eclipse.leshan.core.node.codec.LwM2mNodeEncoder;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures {@link DefaultLwM2mNodeEncoder} and {@link DefaultLwM2mNodeDecoder} for several payload shapes, in every
+ * content format supporting them:
+ * <ul>
+ * <li>OBJECT: the /1 server object with several instances,</li>
+ * <li>OBJECT_INSTANCE: the /3/0 device instance,</li>
+ * <li>TIMESTAMPED: a series of timestamped /6/0 location instances. TLV does not support timestamped values, so this
+ * combination fails at setup, use <code>-p shape=TIMESTAMPED -p format=JSON,SENML_JSON,SENML_CBOR</code> to skip
+ * it.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeCodecBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NodeCodecBenchmark.class);
+
+    public enum Shape {
+        OBJECT, OBJECT_INSTANCE, TIMESTAMPED
+    }
+
+    @Param({ "OBJECT", "OBJECT_INSTANCE", "TIMESTAMPED" })
+    public Shape shape;
+
+    @Param({ "TLV", "JSON", "SENML_JSON", "SENML_CBOR" })
+    public String format;
+
+    private final LwM2mNodeEncoder encoder = new DefaultLwM2mNodeEncoder();
+    private final LwM2mNodeDecoder decoder = new DefaultLwM2mNodeDecoder();
+
+    private LwM2mModel model;
+    private ContentFormat contentFormat;
+    private LwM2mPath path;
+    private LwM2mNode node;
+    private List<TimestampedLwM2mNode> timestampedNodes;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        model = CodecFixtures.model();
+        contentFormat = ContentFormat.fromName(format);
+        switch (shape) {
+        case OBJECT:
+            path = CodecFixtures.SERVER_PATH;
+            node = CodecFixtures.servers();
+            break;
+        case OBJECT_INSTANCE:
+            path = CodecFixtures.DEVICE_PATH;
+            node = CodecFixtures.device();
+            break;
+        case TIMESTAMPED:
+            if (contentFormat == ContentFormat.TLV) {
+                throw new IllegalStateException("TLV does not support timestamped values");
+            }
+            path = CodecFixtures.LOCATION_PATH;
+            timestampedNodes = CodecFixtures.track();
+            break;
+        }
+        payload = encode();
+
+        LOG.info("{} {} payload size: {} bytes", shape, format, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        if (timestampedNodes != null) {
+            return encoder.encodeTimestampedData(timestampedNodes, contentFormat, path, model);
+        }
+        return encoder.encode(node, contentFormat, path, model);
+    }
+
+    @Benchmark
+    public Object decode() {
+        if (timestampedNodes != null) {
+            return decoder.decodeTimestampedData(payload, contentFormat, path, model);
+        }
+        return decoder.decode(payload, contentFormat, path, model);
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.ObjectModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading of the default object models, as done at each server, bootstrap server or client startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectLoaderBenchmark {
+
+    private static final String[] DDF_FILES = new String[] { "0-1_0.xml", "0-1_1.xml", "1-1_0.xml", "1-1_1.xml",
+                            "2-1_0.xml", "3-1_0.xml", "3-1_1.xml", "4-1_0.xml", "4-1_1.xml", "4-1_2.xml", "5-1_0.xml",
+                            "6.xml", "7.xml", "21-1_0.xml", };
+
+    @Benchmark
+    public List<ObjectModel> loadAllDefault() {
+        return ObjectLoader.loadAllDefault();
+    }
+
+    @Benchmark
+    public List<ObjectModel> parseDdfFiles() throws Exception {
+        return ObjectLoader.loadDdfResources("/models/", DDF_FILES);
+    }
+
+    @Benchmark
+    public List<ObjectModel> parseAndValidateDdfFiles() throws Exception {
+        return ObjectLoader.loadDdfResources("/models/", DDF_FILES, true);
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.StaticModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mResource;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeEncoder;
+import org.eclipse.leshan.core.node.codec.LwM2mNodeEncoder;
+import org.eclipse.leshan.core.node.codec.senml.LwM2mNodeSenMLCborDecoder;
+import org.eclipse.leshan.core.node.codec.senml.LwM2mNodeSenMLDecoder;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.eclipse.leshan.senml.cbor.upokecenter.SenMLCborUpokecenterEncoderDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares SenML-CBOR decoding through {@link LwM2mNodeSenMLDecoder} (CBOR object tree, SenML pack then grouping of
+ * resolved records) with the single pass {@link LwM2mNodeSenMLCborDecoder}.
+ * <p>
+ * Run with <code>-prof gc</code> to get allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SenMLCborDecoderBenchmark {
+
+    private static final LwM2mPath INSTANCE_PATH = new LwM2mPath(3, 0);
+    private static final LwM2mPath RESOURCE_PATH = new LwM2mPath(3, 0, 9);
+
+    private final LwM2mNodeSenMLDecoder treeDecoder = new LwM2mNodeSenMLDecoder(
+            new SenMLCborUpokecenterEncoderDecoder());
+    private final LwM2mNodeSenMLCborDecoder directDecoder = new LwM2mNodeSenMLCborDecoder();
+
+    private LwM2mModel model;
+    private byte[] instancePayload;
+    private byte[] timestampedPayload;
+
+    @Setup
+    public void setup() {
+        model = new StaticModel(ObjectLoader.loadDefault());
+        LwM2mNodeEncoder encoder = new DefaultLwM2mNodeEncoder();
+
+        LwM2mObjectInstance device = new LwM2mObjectInstance(0, //
+                LwM2mSingleResource.newStringResource(0, "Open Mobile Alliance"), //
+                LwM2mSingleResource.newStringResource(1, "Lightweight M2M Client"), //
+                LwM2mSingleResource.newStringResource(2, "345000123"), //
+                LwM2mSingleResource.newStringResource(3, "1.0"), //
+                LwM2mSingleResource.newIntegerResource(9, 100), //
+                LwM2mSingleResource.newIntegerResource(10, 15), //
+                LwM2mSingleResource.newDateResource(13, new Date(1367491215000L)), //
+                LwM2mSingleResource.newStringResource(14, "+02:00"), //
+                LwM2mSingleResource.newStringResource(16, "U"));
+        instancePayload = encoder.encode(device, ContentFormat.SENML_CBOR, INSTANCE_PATH, model);
+
+        List<TimestampedLwM2mNode> series = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            series.add(new TimestampedLwM2mNode(1600000000L + i * 10,
+                    LwM2mSingleResource.newIntegerResource(9, 100 - i)));
+        }
+        timestampedPayload = encoder.encodeTimestampedData(series, ContentFormat.SENML_CBOR, RESOURCE_PATH, model);
+    }
+
+    @Benchmark
+    public LwM2mNode objectInstanceTree() {
+        return treeDecoder.decode(instancePayload, INSTANCE_PATH, model, LwM2mObjectInstance.class);
+    }
+
+    @Benchmark
+    public LwM2mNode objectInstanceDirect() {
+        return directDecoder.decode(instancePayload, INSTANCE_PATH, model, LwM2mObjectInstance.class);
+    }
+
+    @Benchmark
+    public List<TimestampedLwM2mNode> timestampedTree() {
+        return treeDecoder.decodeTimestampedData(timestampedPayload, RESOURCE_PATH, model, LwM2mResource.class);
+    }
+
+    @Benchmark
+    public List<TimestampedLwM2mNode> timestampedDirect() {
+        return directDecoder.decodeTimestampedData(timestampedPayload, RESOURCE_PATH, model, LwM2mResource.class);
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
+import org.eclipse.leshan.core.model.StaticModel;
+import org.eclipse.leshan.core.node.LwM2mMultipleResource;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+import org.eclipse.leshan.core.node.codec.LwM2mValueChecker;
+import org.eclipse.leshan.core.node.codec.LwM2mValueConverter;
+import org.eclipse.leshan.core.node.codec.senml.LwM2mNodeSenMLEncoder;
+import org.eclipse.leshan.senml.SenMLEncoder;
+import org.eclipse.leshan.senml.cbor.upokecenter.SenMLCborUpokecenterEncoderDecoder;
+import org.eclipse.leshan.senml.json.jackson.SenMLJsonJacksonEncoderDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures {@link LwM2mNodeSenMLEncoder} with and without compact records (base name and base time factoring).
+ * <p>
+ * Payload sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SenMLEncoderBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SenMLEncoderBenchmark.class);
+
+    private static final LwM2mPath INSTANCE_PATH = new LwM2mPath(3, 0);
+    private static final LwM2mPath SENSOR_PATH = new LwM2mPath(3303, 0);
+
+    @Param({ "SENML_JSON", "SENML_CBOR" })
+    public String format;
+
+    @Param({ "false", "true" })
+    public boolean compact;
+
+    private final LwM2mValueConverter converter = new LwM2mValueChecker();
+
+    private LwM2mModel model;
+    private LwM2mNodeSenMLEncoder encoder;
+    private LwM2mObjectInstance device;
+    private List<TimestampedLwM2mNode> series;
+    private Map<LwM2mPath, LwM2mNode> composite;
+
+    @Setup
+    public void setup() {
+        model = new StaticModel(ObjectLoader.loadDefault());
+        SenMLEncoder senMLEncoder = format.equals("SENML_JSON") ? new SenMLJsonJacksonEncoderDecoder()
+                : new SenMLCborUpokecenterEncoderDecoder();
+        encoder = new LwM2mNodeSenMLEncoder(senMLEncoder, compact);
+
+        device = new LwM2mObjectInstance(0, //
+                LwM2mSingleResource.newStringResource(0, "Open Mobile Alliance"), //
+                LwM2mSingleResource.newStringResource(1, "Lightweight M2M Client"), //
+                LwM2mSingleResource.newStringResource(2, "345000123"), //
+                new LwM2mMultipleResource(7, Type.INTEGER, //
+                        LwM2mResourceInstance.newIntegerInstance(0, 3800), //
+                        LwM2mResourceInstance.newIntegerInstance(1, 5000)), //
+                LwM2mSingleResource.newIntegerResource(9, 100), //
+                LwM2mSingleResource.newDateResource(13, new Date(1367491215000L)));
+
+        series = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            series.add(new TimestampedLwM2mNode(1600000000L + i * 10, new LwM2mObjectInstance(0, //
+                    LwM2mSingleResource.newFloatResource(5700, 20 + i * 0.25), //
+                    LwM2mSingleResource.newStringResource(5701, "Cel"))));
+        }
+
+        composite = new LinkedHashMap<>();
+        composite.put(new LwM2mPath(3303, 0, 5700), LwM2mSingleResource.newFloatResource(5700, 21.5));
+        composite.put(new LwM2mPath(3303, 0, 5701), LwM2mSingleResource.newStringResource(5701, "Cel"));
+        composite.put(new LwM2mPath(3303, 0, 5601), LwM2mSingleResource.newFloatResource(5601, 18.25));
+        composite.put(new LwM2mPath(3303, 0, 5602), LwM2mSingleResource.newFloatResource(5602, 24.75));
+
+        LOG.info("{} compact={} payload sizes: objectInstance={}, timestamped={}, composite={} bytes", format, compact,
+                objectInstance().length, timestamped().length, composite().length);
+    }
+
+    @Benchmark
+    public byte[] objectInstance() {
+        return encoder.encode(device, INSTANCE_PATH, model, converter);
+    }
+
+    @Benchmark
+    public byte[] timestamped() {
+        return encoder.encodeTimestampedData(series, SENSOR_PATH, model, converter);
+    }
+
+    @Benchmark
+    public byte[] composite() {
+        return encoder.encodeNodes(composite, model, converter);
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.util.json.JsonException;
+import org.eclipse.leshan.senml.SenMLException;
+import org.eclipse.leshan.senml.SenMLPack;
+import org.eclipse.leshan.senml.SenMLRecord;
+import org.eclipse.leshan.senml.json.jackson.SenMLJsonJacksonEncoderDecoder;
+import org.eclipse.leshan.senml.json.jackson.SenMLJsonRecordSerDes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares SenML-JSON decoding through a Jackson {@link JsonNode} tree with the streaming decoder used by
+ * {@link SenMLJsonJacksonEncoderDecoder}.
+ * <p>
+ * Run with <code>-prof gc</code> to get allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SenMLJsonDecoderBenchmark {
+
+    @Param({ "50" })
+    public int nbRecords;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SenMLJsonRecordSerDes serDes = new SenMLJsonRecordSerDes();
+    private final SenMLJsonJacksonEncoderDecoder decoder = new SenMLJsonJacksonEncoderDecoder();
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws SenMLException {
+        SenMLPack pack = new SenMLPack();
+        for (int i = 0; i < nbRecords; i++) {
+            SenMLRecord record = new SenMLRecord();
+            if (i == 0) {
+                record.setBaseName("/3442/0/");
+                record.setBaseTime(1617807200L);
+            }
+            record.setName(Integer.toString(i % 5 * 10 + 110));
+            record.setTime((long) i);
+            switch (i % 3) {
+            case 0:
+                record.setFloatValue(i * 1.5d);
+                break;
+            case 1:
+                record.setFloatValue((long) i);
+                break;
+            default:
+                record.setStringValue("value" + i);
+                break;
+            }
+            pack.addRecord(record);
+        }
+        payload = decoder.toSenML(pack);
+    }
+
+    @Benchmark
+    public List<SenMLRecord> tree() throws IOException, JsonException {
+        JsonNode node = mapper.readTree(payload);
+        return serDes.deserialize(node.iterator());
+    }
+
+    @Benchmark
+    public SenMLPack streaming() throws SenMLException {
+        return decoder.fromSenML(payload);
+    }
+}
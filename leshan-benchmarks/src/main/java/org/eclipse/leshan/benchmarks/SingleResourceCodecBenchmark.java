@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeDecoder;
+import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeEncoder;
+import org.eclipse.leshan.core.node.codec.LwM2mNodeDecoder;
+import org.eclipse.leshan.core.node.codec.LwM2mNodeEncoder;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures {@link DefaultLwM2mNodeEncoder} and {@link DefaultLwM2mNodeDecoder} for a single resource, in every content
+ * format.
+ * <p>
+ * The resource is the /3/0/9 integer, except for OPAQUE which only supports opaque resources: /5/0/0 with 64 bytes is
+ * used instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleResourceCodecBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SingleResourceCodecBenchmark.class);
+
+    @Param({ "TEXT", "OPAQUE", "TLV", "CBOR", "JSON", "SENML_JSON", "SENML_CBOR" })
+    public String format;
+
+    private final LwM2mNodeEncoder encoder = new DefaultLwM2mNodeEncoder();
+    private final LwM2mNodeDecoder decoder = new DefaultLwM2mNodeDecoder();
+
+    private LwM2mModel model;
+    private ContentFormat contentFormat;
+    private LwM2mPath path;
+    private LwM2mNode resource;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        model = CodecFixtures.model();
+        contentFormat = ContentFormat.fromName(format);
+        if (contentFormat == ContentFormat.OPAQUE) {
+            path = CodecFixtures.PACKAGE_PATH;
+            resource = CodecFixtures.firmwareChunk();
+        } else {
+            path = CodecFixtures.BATTERY_LEVEL_PATH;
+            resource = CodecFixtures.batteryLevel();
+        }
+        payload = encode();
+
+        LOG.info("{} payload size: {} bytes", format, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoder.encode(resource, contentFormat, path, model);
+    }
+
+    @Benchmark
+    public LwM2mNode decode() {
+        return decoder.decode(payload, contentFormat, path, model);
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.StaticModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.codec.tlv.LwM2mNodeTlvDecoder;
+import org.eclipse.leshan.core.tlv.Tlv;
+import org.eclipse.leshan.core.tlv.Tlv.TlvType;
+import org.eclipse.leshan.core.tlv.TlvDecoder;
+import org.eclipse.leshan.core.tlv.TlvException;
+import org.eclipse.leshan.core.tlv.TlvReader;
+import org.eclipse.leshan.core.util.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading a TLV payload through the {@link Tlv} tree built by {@link TlvDecoder} with reading it in place
+ * with a {@link TlvReader}, and measures the {@link LwM2mNodeTlvDecoder} which is built on the latter.
+ * <p>
+ * Run with <code>-prof gc</code> to get allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TlvDecoderBenchmark {
+
+    private static final LwM2mPath INSTANCE_PATH = new LwM2mPath(3, 0);
+
+    private final LwM2mNodeTlvDecoder nodeDecoder = new LwM2mNodeTlvDecoder();
+
+    private LwM2mModel model;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        model = new StaticModel(ObjectLoader.loadDefault());
+        // the /3/0 from liwblwm2m
+        payload = Hex.decodeHex(("C800144F70656E204D6F62696C6520416C6C69616E6365C801164C69676874776569676874204D324D20436C69656E74"
+                + "C80209333435303030313233C303312E30860641000141010588070842000ED842011388870841007D42010384C10964"
+                + "C10A0F830B410000C40D5182428FC60E2B30323A3030C10F55").toCharArray());
+    }
+
+    @Benchmark
+    public long tlvTree() throws TlvException {
+        long sum = 0;
+        for (Tlv tlv : TlvDecoder.decode(ByteBuffer.wrap(payload))) {
+            if (tlv.getType() == TlvType.MULTIPLE_RESOURCE) {
+                for (Tlv child : tlv.getChildren()) {
+                    sum += child.getValue().length;
+                }
+            } else {
+                sum += tlv.getValue().length;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long tlvReader() throws TlvException {
+        long sum = 0;
+        TlvReader reader = new TlvReader(ByteBuffer.wrap(payload));
+        while (reader.next()) {
+            if (reader.getType() == TlvType.MULTIPLE_RESOURCE) {
+                TlvReader children = reader.children();
+                while (children.next()) {
+                    sum += children.getLength();
+                }
+            } else {
+                sum += reader.getLength();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public LwM2mNode objectInstance() {
+        return nodeDecoder.decode(payload, INSTANCE_PATH, model, LwM2mObjectInstance.class);
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
+import org.eclipse.leshan.core.model.StaticModel;
+import org.eclipse.leshan.core.node.LwM2mMultipleResource;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mResource;
+import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
+import org.eclipse.leshan.core.node.codec.LwM2mValueChecker;
+import org.eclipse.leshan.core.node.codec.LwM2mValueConverter;
+import org.eclipse.leshan.core.node.codec.tlv.LwM2mNodeTlvEncoder;
+import org.eclipse.leshan.core.tlv.Tlv;
+import org.eclipse.leshan.core.tlv.Tlv.TlvType;
+import org.eclipse.leshan.core.tlv.TlvEncoder;
+import org.eclipse.leshan.core.tlv.TlvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares TLV encoding of a device object instance through a {@link Tlv} tree and {@link TlvEncoder} with the single
+ * pass {@link TlvWriter} used by {@link LwM2mNodeTlvEncoder}.
+ * <p>
+ * <code>tlvTree</code> and <code>tlvWriter</code> only compare the TLV layer, <code>objectInstance*</code> measure the
+ * whole {@link LwM2mNodeTlvEncoder} (model lookup, value conversion and paths included).
+ * <p>
+ * Run with <code>-prof gc</code> to get allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TlvEncoderBenchmark {
+
+    private static final LwM2mPath INSTANCE_PATH = new LwM2mPath(3, 0);
+
+    private final LwM2mNodeTlvEncoder nodeEncoder = new LwM2mNodeTlvEncoder();
+    private final LwM2mValueConverter converter = new LwM2mValueChecker();
+
+    private LwM2mModel model;
+    private LwM2mObjectInstance device;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        model = new StaticModel(ObjectLoader.loadDefault());
+        device = new LwM2mObjectInstance(0, //
+                LwM2mSingleResource.newStringResource(0, "Open Mobile Alliance"), //
+                LwM2mSingleResource.newStringResource(1, "Lightweight M2M Client"), //
+                LwM2mSingleResource.newStringResource(2, "345000123"), //
+                LwM2mSingleResource.newStringResource(3, "1.0"), //
+                new LwM2mMultipleResource(7, Type.INTEGER, //
+                        LwM2mResourceInstance.newIntegerInstance(0, 3800), //
+                        LwM2mResourceInstance.newIntegerInstance(1, 5000)), //
+                LwM2mSingleResource.newIntegerResource(9, 100), //
+                LwM2mSingleResource.newIntegerResource(10, 15), //
+                LwM2mSingleResource.newDateResource(13, new Date(1367491215000L)), //
+                LwM2mSingleResource.newStringResource(14, "+02:00"), //
+                LwM2mSingleResource.newStringResource(16, "U"));
+        buffer = ByteBuffer.allocate(1024);
+    }
+
+    @Benchmark
+    public ByteBuffer tlvTree() {
+        Tlv[] tlvs = new Tlv[device.getResources().size()];
+        int i = 0;
+        for (LwM2mResource resource : device.getResources().values()) {
+            if (resource.isMultiInstances()) {
+                Tlv[] instances = new Tlv[resource.getInstances().size()];
+                int j = 0;
+                for (LwM2mResourceInstance instance : resource.getInstances().values()) {
+                    instances[j++] = new Tlv(TlvType.RESOURCE_INSTANCE, null, encodeValue(instance.getValue()),
+                            instance.getId());
+                }
+                tlvs[i++] = new Tlv(TlvType.MULTIPLE_RESOURCE, instances, null, resource.getId());
+            } else {
+                tlvs[i++] = new Tlv(TlvType.RESOURCE_VALUE, null, encodeValue(resource.getValue()),
+                        resource.getId());
+            }
+        }
+        return TlvEncoder.encode(tlvs);
+    }
+
+    private static byte[] encodeValue(Object value) {
+        if (value instanceof String) {
+            return TlvEncoder.encodeString((String) value);
+        } else if (value instanceof Date) {
+            return TlvEncoder.encodeDate((Date) value);
+        } else {
+            return TlvEncoder.encodeInteger((Number) value);
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer tlvWriter() {
+        buffer.clear();
+        TlvWriter writer = new TlvWriter(buffer);
+        for (LwM2mResource resource : device.getResources().values()) {
+            if (resource.isMultiInstances()) {
+                writer.start(TlvType.MULTIPLE_RESOURCE, resource.getId());
+                for (LwM2mResourceInstance instance : resource.getInstances().values()) {
+                    writeValue(writer, TlvType.RESOURCE_INSTANCE, instance.getId(), instance.getValue());
+                }
+                writer.end();
+            } else {
+                writeValue(writer, TlvType.RESOURCE_VALUE, resource.getId(), resource.getValue());
+            }
+        }
+        return buffer;
+    }
+
+    private static void writeValue(TlvWriter writer, TlvType type, int id, Object value) {
+        if (value instanceof String) {
+            writer.writeString(type, id, (String) value);
+        } else if (value instanceof Date) {
+            writer.writeDate(type, id, (Date) value);
+        } else {
+            writer.writeLong(type, id, ((Number) value).longValue());
+        }
+    }
+
+    @Benchmark
+    public byte[] objectInstance() {
+        return nodeEncoder.encode(device, INSTANCE_PATH, model, converter);
+    }
+
+    @Benchmark
+    public ByteBuffer objectInstanceIntoBuffer() {
+        buffer.clear();
+        nodeEncoder.encode(device, INSTANCE_PATH, model, converter, buffer);
+        return buffer;
+    }
+}
@@ -28,6 +28,7 @@ import org.eclipse.leshan.server.bootstrap.BootstrapConfig;
 import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ServerSecurity;
 import org.eclipse.leshan.server.bootstrap.BootstrapConfigStore;
 import org.eclipse.leshan.server.bootstrap.EditableBootstrapConfigStore;
+import org.eclipse.leshan.server.bootstrap.PskIdentityIndexedBootstrapConfigStore;
 import org.eclipse.leshan.server.security.BootstrapSecurityStore;
 import org.eclipse.leshan.server.security.SecurityInfo;
 import org.slf4j.Logger;
@@ -43,7 +44,8 @@ import org.slf4j.LoggerFactory;
  * This {@link BootstrapSecurityStore} will search in {@link BootstrapConfigStore} to find security info.
  * <p>
  * {@link #getByIdentity(String)} could have some performance issue and strange behavior if you have several config with
- * same identity. (which is possible if you are using same identity for several bootstrap server)
+ * same identity. (which is possible if you are using same identity for several bootstrap server), unless the store is
+ * a {@link PskIdentityIndexedBootstrapConfigStore}.
  * <p>
  * <strong>WARNING : This store is not production ready.</strong>
  */
@@ -64,19 +66,35 @@ public class BootstrapConfigSecurityStore implements BootstrapSecurityStore {
     public SecurityInfo getByIdentity(String identity) {
         byte[] identityBytes = identity.getBytes(StandardCharsets.UTF_8);
 
+        if (bootstrapConfigStore instanceof PskIdentityIndexedBootstrapConfigStore) {
+            String endpoint = ((PskIdentityIndexedBootstrapConfigStore) bootstrapConfigStore)
+                    .getEndpointByPskIdentity(identity);
+            if (endpoint == null)
+                return null;
+            return getPskInfo(endpoint, bootstrapConfigStore.get(endpoint, null, null), identityBytes);
+        }
+
         // Acceptable for a demo but iterate over all the store to get PSK is not really acceptable for a production
         // server.
         // This could behave strangely if there is several config using same identity but with different bootstrap
         // server.
         for (Map.Entry<String, BootstrapConfig> e : bootstrapConfigStore.getAll().entrySet()) {
-            BootstrapConfig bsConfig = e.getValue();
-            if (bsConfig.security != null) {
-                for (Map.Entry<Integer, BootstrapConfig.ServerSecurity> ec : bsConfig.security.entrySet()) {
-                    ServerSecurity serverSecurity = ec.getValue();
-                    if (serverSecurity.bootstrapServer && serverSecurity.securityMode == SecurityMode.PSK
-                            && Arrays.equals(serverSecurity.publicKeyOrId, identityBytes)) {
-                        return SecurityInfo.newPreSharedKeyInfo(e.getKey(), identity, serverSecurity.secretKey);
-                    }
+            SecurityInfo info = getPskInfo(e.getKey(), e.getValue(), identityBytes);
+            if (info != null) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    private static SecurityInfo getPskInfo(String endpoint, BootstrapConfig bsConfig, byte[] identityBytes) {
+        if (bsConfig != null && bsConfig.security != null) {
+            for (Map.Entry<Integer, BootstrapConfig.ServerSecurity> ec : bsConfig.security.entrySet()) {
+                ServerSecurity serverSecurity = ec.getValue();
+                if (serverSecurity.bootstrapServer && serverSecurity.securityMode == SecurityMode.PSK
+                        && Arrays.equals(serverSecurity.publicKeyOrId, identityBytes)) {
+                    return SecurityInfo.newPreSharedKeyInfo(endpoint,
+                            new String(identityBytes, StandardCharsets.UTF_8), serverSecurity.secretKey);
                 }
             }
         }
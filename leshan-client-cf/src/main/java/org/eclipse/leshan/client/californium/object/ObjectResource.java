@@ -140,7 +140,7 @@ public class ObjectResource extends LwM2mClientCoapResource implements ObjectLis
                 ObserveRequest observeRequest = new ObserveRequest(requestedContentFormat, URI, coapRequest);
                 ObserveResponse response = nodeEnabler.observe(identity, observeRequest);
                 if (response.getCode() == org.eclipse.leshan.core.ResponseCode.CONTENT) {
-                    LwM2mPath path = new LwM2mPath(URI);
+                    LwM2mPath path = observeRequest.getPath();
                     LwM2mNode content = response.getContent();
                     LwM2mModel model = new StaticModel(nodeEnabler.getObjectModel());
                     ContentFormat format = getContentFormat(observeRequest, requestedContentFormat);
@@ -157,7 +157,7 @@ public class ObjectResource extends LwM2mClientCoapResource implements ObjectLis
                 ReadRequest readRequest = new ReadRequest(requestedContentFormat, URI, coapRequest);
                 ReadResponse response = nodeEnabler.read(identity, readRequest);
                 if (response.getCode() == org.eclipse.leshan.core.ResponseCode.CONTENT) {
-                    LwM2mPath path = new LwM2mPath(URI);
+                    LwM2mPath path = readRequest.getPath();
                     LwM2mNode content = response.getContent();
                     LwM2mModel model = new StaticModel(nodeEnabler.getObjectModel());
                     ContentFormat format = getContentFormat(readRequest, requestedContentFormat);
@@ -17,30 +17,20 @@ package org.eclipse.leshan.core;
 
 import java.io.Serializable;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
-import org.eclipse.leshan.core.util.StringUtils;
+import org.eclipse.leshan.core.link.DefaultLinkParser;
+import org.eclipse.leshan.core.link.DefaultLinkSerializer;
+import org.eclipse.leshan.core.link.LinkAttributeMap;
+import org.eclipse.leshan.core.link.LinkParseException;
 import org.eclipse.leshan.core.util.Validate;
 
 /**
  * A Link as defined in http://tools.ietf.org/html/rfc6690.
  */
-// TODO this class has several problems :
-// 1) Parsing is too permissive...
-// e.g. it should not accept URI-Reference which are not between < >.
-// e.g URI-reference should be parsed to respect RFC3986.
-//
-// 2) we should have Parser/Serializer class instead of static method to allow custom implementation.
-// 3) attributes is not well named, it does not respect rfc naming : url => uriRef
-//
-// Maybe we could look at existing implementation :
-// https://github.com/google/coapblaster/blob/master/src/main/java/com/google/iot/coap/LinkFormat.java
-// https://github.com/eclipse/californium/blob/2.0.x/californium-core/src/main/java/org/eclipse/californium/core/coap/LinkFormat.java
-// https://github.com/ARMmbed/java-coap/blob/master/coap-core/src/main/java/com/mbed/coap/linkformat/LinkFormat.java
+// TODO attributes is not well named, it does not respect rfc naming : url => uriRef
 public class Link implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -49,6 +39,9 @@ public class Link implements Serializable {
 
     private final Map<String, String> attributes;
 
+    private static final DefaultLinkParser PARSER = new DefaultLinkParser();
+    private static final DefaultLinkSerializer SERIALIZER = new DefaultLinkSerializer();
+
     /**
      * Creates a new Link without attributes.
      * 
@@ -67,11 +60,7 @@ public class Link implements Serializable {
     public Link(String url, Map<String, String> attributes) {
         Validate.notNull(url);
         this.url = url;
-        if (attributes != null) {
-            this.attributes = Collections.unmodifiableMap(new HashMap<>(attributes));
-        } else {
-            this.attributes = Collections.emptyMap();
-        }
+        this.attributes = LinkAttributeMap.copyOf(attributes);
     }
 
     /**
@@ -80,28 +69,10 @@ public class Link implements Serializable {
      * @param url the link URL
      * @param attributes the object link attributes or <code>null</code> if the link has no attributes
      */
-    @SuppressWarnings("unchecked")
     public <T> Link(String url, Map<String, T> attributes, Class<T> clazz) {
         Validate.notNull(url);
         this.url = url;
-        if (attributes == null || attributes.isEmpty()) {
-            this.attributes = Collections.emptyMap();
-        } else {
-            if (String.class.equals(clazz)) {
-                this.attributes = Collections.unmodifiableMap((Map<String, String>) new HashMap<>(attributes));
-            } else {
-                HashMap<String, String> attributesMap = new HashMap<>();
-                for (Entry<String, T> attr : attributes.entrySet()) {
-                    if (attr.getValue() == null) {
-                        attributesMap.put(attr.getKey(), null);
-                    } else {
-                        attributesMap.put(attr.getKey(), attr.getValue().toString());
-                    }
-
-                }
-                this.attributes = Collections.unmodifiableMap(attributesMap);
-            }
-        }
+        this.attributes = LinkAttributeMap.copyOf(attributes);
     }
 
     /**
@@ -121,11 +92,11 @@ public class Link implements Serializable {
                 throw new IllegalArgumentException("Each attributes key must have a value");
             }
 
-            HashMap<String, String> attributesMap = new HashMap<>();
+            Map<String, String> attributesMap = new LinkedHashMap<>();
             for (int i = 0; i < attributes.length; i = i + 2) {
                 attributesMap.put(attributes[i], attributes[i + 1]);
             }
-            this.attributes = Collections.unmodifiableMap(attributesMap);
+            this.attributes = LinkAttributeMap.copyOf(attributesMap);
         }
     }
 
@@ -145,21 +116,7 @@ public class Link implements Serializable {
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
-        builder.append('<');
-        builder.append(getUrl());
-        builder.append('>');
-
-        Map<String, String> attributes = getAttributes();
-        if (attributes != null && !attributes.isEmpty()) {
-            for (Entry<String, String> entry : attributes.entrySet()) {
-                builder.append(";");
-                builder.append(entry.getKey());
-                if (entry.getValue() != null) {
-                    builder.append("=");
-                    builder.append(entry.getValue());
-                }
-            }
-        }
+        SERIALIZER.append(builder, this);
         return builder.toString();
     }
 
@@ -168,46 +125,17 @@ public class Link implements Serializable {
      * 
      * @param content a byte arrays representing {@code String} encoding with UTF_8 {@link Charset}.
      * @return an array of {@code Link}
+     * @throws IllegalArgumentException if content is not a valid CoRE Link Format.
+     * @see DefaultLinkParser
      */
     public static Link[] parse(byte[] content) {
-        if (content == null) {
-            return new Link[] {};
-        }
-        String s = new String(content, StandardCharsets.UTF_8);
-        String[] links = s.split(",");
-        Link[] linksResult = new Link[links.length];
-        int index = 0;
-        for (String link : links) {
-            String[] linkParts = link.split(";");
-
-            // clean URL
-            String url = StringUtils.trim(linkParts[0]);
-            url = StringUtils.removeStart(StringUtils.removeEnd(url, ">"), "<");
-
-            // parse attributes
-            Map<String, String> attributes = new HashMap<>();
-
-            if (linkParts.length > 1) {
-                for (int i = 1; i < linkParts.length; i++) {
-                    String[] attParts = linkParts[i].split("=");
-                    if (attParts.length > 0) {
-                        String key = attParts[0];
-                        String value = null;
-                        if (attParts.length > 1) {
-                            value = attParts[1];
-                        }
-                        attributes.put(key, value);
-                    }
-                }
-            }
-            linksResult[index] = new Link(url, attributes);
-            index++;
+        try {
+            return PARSER.parse(content);
+        } catch (LinkParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
         }
-        return linksResult;
     }
 
-    private static final String TRAILER = ",";
-
     /***
      * Serialize severals {@code Link} to {@code String} as defined in http://tools.ietf.org/html/rfc6690.
      * 
@@ -215,16 +143,10 @@ public class Link implements Serializable {
      * 
      * @return a {@code String} representation like defined in http://tools.ietf.org/html/rfc6690. If LinkObjects is
      *         empty return an empty {@code String};
+     * @see DefaultLinkSerializer
      */
     public static String serialize(Link... linkObjects) {
-        StringBuilder builder = new StringBuilder();
-        if (linkObjects.length != 0) {
-            builder.append(linkObjects[0].toString());
-            for (int i = 1; i < linkObjects.length; i++) {
-                builder.append(TRAILER).append(linkObjects[i].toString());
-            }
-        }
-        return builder.toString();
+        return SERIALIZER.serialize(linkObjects);
     }
 
     @Override
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.link;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.leshan.core.Link;
+
+/**
+ * A {@link LinkParser} which scans the bytes of the payload once, without decoding it as a whole or splitting it.
+ * <p>
+ * The payload must follow RFC 6690 grammar:
+ *
+ * <pre>
+ * link-value-list = [ link-value *[ "," link-value ]]
+ * link-value      = "<" URI-Reference ">" *( ";" link-param )
+ * link-param      = parmname [ "=" ( ptoken / quoted-string ) ]
+ * </pre>
+ *
+ * Characters of URI-Reference, parmname and ptoken are validated, quoted-string must be terminated. Value of an
+ * attribute is kept as it is written, quotes included. To be tolerant with existing clients, whitespaces are accepted
+ * around "," and ";" separators.
+ * <p>
+ * Common attribute names and values (e.g. "rt", "ct", "ver", "\"oma.lwm2m\"") and the "/" URL are interned so links of
+ * a payload share the same instances, and links without attributes share the same empty map.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @since 2.0
+ */
+public class DefaultLinkParser implements LinkParser {
+
+    private static final String[] INTERNED_NAMES = { "rt", "ct", "if", "sz", "obs", "ver", "ssid", "uri", "pmin",
+                            "pmax", "gt", "lt", "st", "epmin", "epmax", "dim", "title", "anchor", "rel", "lwm2m" };
+    private static final String[] INTERNED_VALUES = { "\"oma.lwm2m\"", "oma.lwm2m", "1.0", "1.1", "1.2", "2.0",
+                            "\"1.0\"", "\"1.1\"", "\"1.2\"", "\"2.0\"", "0", "40", "42", "60", "110", "112", "1542",
+                            "1543", "11542", "11543" };
+    private static final byte[][] INTERNED_NAMES_BYTES = toBytes(INTERNED_NAMES);
+    private static final byte[][] INTERNED_VALUES_BYTES = toBytes(INTERNED_VALUES);
+
+    private static final boolean[] URI_CHARS = chars("-._~:/?#[]@!$&'()*+,;=");
+    private static final boolean[] PARMNAME_CHARS = chars("!#$&+-.^_`|~");
+    private static final boolean[] PTOKEN_CHARS = chars("!#$%&'()*+-./:<=>?@[]^_`{|}~");
+
+    @Override
+    public Link[] parse(byte[] bytes) throws LinkParseException {
+        if (bytes == null || bytes.length == 0) {
+            return new Link[0];
+        }
+
+        List<Link> links = new ArrayList<>();
+        // attributes of current link, reused between links
+        String[] names = new String[8];
+        String[] values = new String[8];
+
+        int i = skipWhitespaces(bytes, 0);
+        if (i == bytes.length) {
+            return new Link[0];
+        }
+        while (true) {
+            // URI-Reference
+            if (bytes[i] != '<') {
+                throw new LinkParseException("'<' expected at index %d", i);
+            }
+            int urlStart = ++i;
+            i = scanUri(bytes, i);
+            String url = i - urlStart == 1 && bytes[urlStart] == '/' ? "/"
+                    : new String(bytes, urlStart, i - urlStart, StandardCharsets.UTF_8);
+            i++; // '>'
+
+            // link-params
+            int count = 0;
+            i = skipWhitespaces(bytes, i);
+            while (i < bytes.length && bytes[i] == ';') {
+                i = skipWhitespaces(bytes, i + 1);
+
+                // parmname
+                int nameStart = i;
+                while (i < bytes.length && isChar(PARMNAME_CHARS, bytes[i])) {
+                    i++;
+                }
+                if (i < bytes.length && bytes[i] == '*' && i > nameStart) {
+                    // ext-name-star
+                    i++;
+                }
+                if (i == nameStart) {
+                    throw new LinkParseException("attribute name expected at index %d", i);
+                }
+                String name = intern(INTERNED_NAMES, INTERNED_NAMES_BYTES, bytes, nameStart, i);
+
+                // value
+                String value = null;
+                if (i < bytes.length && bytes[i] == '=') {
+                    int valueStart = ++i;
+                    if (i < bytes.length && bytes[i] == '"') {
+                        i = scanQuotedString(bytes, i);
+                    } else {
+                        while (i < bytes.length && isChar(PTOKEN_CHARS, bytes[i])) {
+                            i++;
+                        }
+                        if (i == valueStart) {
+                            throw new LinkParseException("value of attribute '%s' expected at index %d", name, i);
+                        }
+                    }
+                    value = intern(INTERNED_VALUES, INTERNED_VALUES_BYTES, bytes, valueStart, i);
+                }
+
+                // add attribute, last one wins if name is duplicated
+                int index = indexOf(names, count, name);
+                if (index < 0) {
+                    if (count == names.length) {
+                        names = Arrays.copyOf(names, count * 2);
+                        values = Arrays.copyOf(values, count * 2);
+                    }
+                    index = count++;
+                    names[index] = name;
+                }
+                values[index] = value;
+                i = skipWhitespaces(bytes, i);
+            }
+
+            if (count == 0) {
+                links.add(new Link(url));
+            } else {
+                links.add(new Link(url,
+                        new LinkAttributeMap(Arrays.copyOf(names, count), Arrays.copyOf(values, count))));
+            }
+
+            // next link-value
+            if (i == bytes.length) {
+                return links.toArray(new Link[links.size()]);
+            }
+            if (bytes[i] != ',') {
+                throw new LinkParseException("',' or ';' expected at index %d", i);
+            }
+            i = skipWhitespaces(bytes, i + 1);
+            if (i == bytes.length) {
+                throw new LinkParseException("link expected after ',' at index %d", i);
+            }
+        }
+    }
+
+    /**
+     * @return the index of the '>' ending the URI-Reference
+     */
+    private static int scanUri(byte[] bytes, int i) throws LinkParseException {
+        for (; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b == '>') {
+                return i;
+            } else if (b == '%') {
+                if (i + 2 >= bytes.length || !isHexDigit(bytes[i + 1]) || !isHexDigit(bytes[i + 2])) {
+                    throw new LinkParseException("invalid percent-encoding in URI at index %d", i);
+                }
+                i += 2;
+            } else if (!isChar(URI_CHARS, b)) {
+                throw new LinkParseException("invalid character in URI at index %d", i);
+            }
+        }
+        throw new LinkParseException("'>' expected at the end of URI");
+    }
+
+    /**
+     * @return the index following the closing quote
+     */
+    private static int scanQuotedString(byte[] bytes, int i) throws LinkParseException {
+        int start = i++;
+        for (; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b == '"') {
+                return i + 1;
+            } else if (b == '\\') {
+                // quoted-pair
+                i++;
+                if (i == bytes.length) {
+                    break;
+                } else if (bytes[i] < 0) {
+                    throw new LinkParseException("invalid quoted-pair in quoted-string at index %d", i);
+                }
+            } else if (b >= 0 && b < 0x20 && b != '\t' || b == 0x7F) {
+                throw new LinkParseException("invalid character in quoted-string at index %d", i);
+            }
+        }
+        throw new LinkParseException("unterminated quoted-string starting at index %d", start);
+    }
+
+    private static int skipWhitespaces(byte[] bytes, int i) {
+        while (i < bytes.length && (bytes[i] == ' ' || bytes[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String intern(String[] strings, byte[][] stringsBytes, byte[] bytes, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < stringsBytes.length; i++) {
+            byte[] candidate = stringsBytes[i];
+            if (candidate.length == length && regionMatches(candidate, bytes, start)) {
+                return strings[i];
+            }
+        }
+        return new String(bytes, start, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean regionMatches(byte[] candidate, byte[] bytes, int start) {
+        for (int i = 0; i < candidate.length; i++) {
+            if (candidate[i] != bytes[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isChar(boolean[] chars, byte b) {
+        return b >= 0 && chars[b];
+    }
+
+    private static boolean isHexDigit(byte b) {
+        return (b >= '0' && b <= '9') || (b >= 'a' && b <= 'f') || (b >= 'A' && b <= 'F');
+    }
+
+    /**
+     * @return ASCII table of ALPHA, DIGIT and given characters
+     */
+    private static boolean[] chars(String others) {
+        boolean[] chars = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) {
+            chars[c] = true;
+            chars[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            chars[c] = true;
+        }
+        for (int i = 0; i < others.length(); i++) {
+            chars[others.charAt(i)] = true;
+        }
+        return chars;
+    }
+
+    private static byte[][] toBytes(String[] strings) {
+        byte[][] bytes = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            bytes[i] = strings[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+}
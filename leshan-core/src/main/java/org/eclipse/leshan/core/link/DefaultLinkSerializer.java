@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.link;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.leshan.core.Link;
+
+/**
+ * A {@link LinkSerializer} writing all links in a single {@link StringBuilder}.
+ * <p>
+ * Attribute values are written as they are stored, quotes included.
+ *
+ * @since 2.0
+ */
+public class DefaultLinkSerializer implements LinkSerializer {
+
+    @Override
+    public String serialize(Link... links) {
+        if (links == null || links.length == 0) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(links.length * 16);
+        for (int i = 0; i < links.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            append(builder, links[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends one link to the given builder.
+     */
+    public void append(StringBuilder builder, Link link) {
+        builder.append('<').append(link.getUrl()).append('>');
+
+        Map<String, String> attributes = link.getAttributes();
+        if (attributes instanceof LinkAttributeMap) {
+            // avoid entries allocation
+            LinkAttributeMap map = (LinkAttributeMap) attributes;
+            for (int i = 0; i < map.size(); i++) {
+                appendAttribute(builder, map.keyAt(i), map.valueAt(i));
+            }
+        } else {
+            for (Entry<String, String> attribute : attributes.entrySet()) {
+                appendAttribute(builder, attribute.getKey(), attribute.getValue());
+            }
+        }
+    }
+
+    private static void appendAttribute(StringBuilder builder, String name, String value) {
+        builder.append(';').append(name);
+        if (value != null) {
+            builder.append('=').append(value);
+        }
+    }
+}
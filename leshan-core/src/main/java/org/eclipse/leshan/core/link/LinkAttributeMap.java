@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.link;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.eclipse.leshan.core.Link;
+
+/**
+ * An immutable and compact {@link Map} of {@link Link} attributes.
+ * <p>
+ * Keys and values are stored in 2 arrays, in insertion order. A link has usually few attributes, so lookups are a
+ * linear search and no entry is allocated except when iterating over {@link #entrySet()}.
+ *
+ * @since 2.0
+ */
+public final class LinkAttributeMap extends AbstractMap<String, String> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] keys;
+    private final String[] values;
+
+    // arrays are owned by this map, keys must be unique
+    LinkAttributeMap(String[] keys, String[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Returns an immutable copy of the given attributes where values are converted using {@link Object#toString()}.
+     * <p>
+     * No copy is done if attributes are already a {@link LinkAttributeMap}, an empty map is shared if there is no
+     * attribute.
+     *
+     * @param attributes the attributes, could be <code>null</code>.
+     */
+    public static Map<String, String> copyOf(Map<String, ?> attributes) {
+        if (attributes instanceof LinkAttributeMap) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> map = (Map<String, String>) attributes;
+            return map;
+        }
+        if (attributes == null || attributes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String[] keys = new String[attributes.size()];
+        String[] values = new String[keys.length];
+        int i = 0;
+        for (Entry<String, ?> attribute : attributes.entrySet()) {
+            keys[i] = attribute.getKey();
+            values[i] = attribute.getValue() == null ? null : attribute.getValue().toString();
+            i++;
+        }
+        return new LinkAttributeMap(keys, values);
+    }
+
+    int indexOf(Object key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (key == null ? keys[i] == null : key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String keyAt(int index) {
+        return keys[index];
+    }
+
+    String valueAt(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry = new SimpleImmutableEntry<>(keys[next], values[next]);
+                        next++;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("link attributes are immutable");
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < keys.length; i++) {
+            hash += (keys[i] == null ? 0 : keys[i].hashCode()) ^ (values[i] == null ? 0 : values[i].hashCode());
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.link;
+
+/**
+ * Raised by a {@link LinkParser} if a payload is not a valid CoRE Link Format (RFC 6690).
+ *
+ * @since 2.0
+ */
+public class LinkParseException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public LinkParseException(String m) {
+        super(m);
+    }
+
+    public LinkParseException(String m, Object... args) {
+        super(String.format(m, args));
+    }
+
+    public LinkParseException(String m, Throwable e) {
+        super(m, e);
+    }
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.link;
+
+import org.eclipse.leshan.core.Link;
+
+/**
+ * A parser for CoRE Link Format payloads (RFC 6690).
+ *
+ * @see DefaultLinkParser
+ * @since 2.0
+ */
+public interface LinkParser {
+
+    /**
+     * Parses a CoRE Link Format payload encoded in UTF-8.
+     *
+     * @param bytes the payload, could be <code>null</code> or empty.
+     * @return the links of the payload, an empty array if there is no link.
+     * @throws LinkParseException if the payload is not a valid CoRE Link Format.
+     */
+    Link[] parse(byte[] bytes) throws LinkParseException;
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.link;
+
+import org.eclipse.leshan.core.Link;
+
+/**
+ * A serializer for CoRE Link Format payloads (RFC 6690).
+ *
+ * @see DefaultLinkSerializer
+ * @since 2.0
+ */
+public interface LinkSerializer {
+
+    /**
+     * Serializes links to a CoRE Link Format payload.
+     *
+     * @param links the links to serialize.
+     * @return the payload, an empty {@code String} if there is no link.
+     */
+    String serialize(Link... links);
+}
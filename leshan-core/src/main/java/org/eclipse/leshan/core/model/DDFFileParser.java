@@ -27,6 +27,8 @@ import java.util.Map;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.eclipse.leshan.core.LwM2m.Version;
 import org.eclipse.leshan.core.model.ResourceModel.Operations;
@@ -38,19 +40,31 @@ import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * A parser for Object DDF files.
+ * <p>
+ * Without validation, files are read with a streaming SAX parser which only keeps the elements needed to build
+ * {@link ObjectModel}. With validation, a DOM document is needed by {@link DDFFileValidator}.
+ * <p>
+ * A parser can be used concurrently by several threads: XML parsers are reused per thread.
  */
 public class DDFFileParser {
 
     private static final Logger LOG = LoggerFactory.getLogger(DDFFileParser.class);
 
     private final DocumentBuilderFactory factory;
+    private final SAXParserFactory saxFactory;
     private final DDFFileValidatorFactory ddfValidatorFactory;
     private final DDFFileValidator ddfValidator;
 
+    // XML parsers are not thread-safe but can be reused
+    private final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<>();
+    private final ThreadLocal<SAXParser> saxParsers = new ThreadLocal<>();
+
     public DDFFileParser() {
         this(null, null);
     }
@@ -77,6 +91,8 @@ public class DDFFileParser {
     private DDFFileParser(DDFFileValidator ddfValidator, DDFFileValidatorFactory ddfFileValidatorFactory) {
         factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
+        saxFactory = SAXParserFactory.newInstance();
+        saxFactory.setNamespaceAware(true);
         this.ddfValidator = ddfValidator;
         this.ddfValidatorFactory = ddfFileValidatorFactory;
     }
@@ -107,10 +123,13 @@ public class DDFFileParser {
 
         LOG.debug("Parsing DDF file {}", streamName);
 
+        if (ddfValidator == null && ddfValidatorFactory == null) {
+            return stream(inputStream, streamName);
+        }
+
         try {
             // Parse XML file
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(inputStream);
+            Document document = getDocumentBuilder().parse(inputStream);
 
             // Get DDF file validator
             Version lwm2mVersion;
@@ -143,6 +162,45 @@ public class DDFFileParser {
         }
     }
 
+    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = documentBuilders.get();
+        if (builder == null) {
+            synchronized (factory) {
+                builder = factory.newDocumentBuilder();
+            }
+            documentBuilders.set(builder);
+        } else {
+            builder.reset();
+        }
+        return builder;
+    }
+
+    private SAXParser getSaxParser() throws ParserConfigurationException, SAXException {
+        SAXParser parser = saxParsers.get();
+        if (parser == null) {
+            synchronized (saxFactory) {
+                parser = saxFactory.newSAXParser();
+            }
+            saxParsers.set(parser);
+        } else {
+            parser.reset();
+        }
+        return parser;
+    }
+
+    private List<ObjectModel> stream(InputStream inputStream, String streamName)
+            throws InvalidDDFFileException, IOException {
+        try {
+            DDFHandler handler = new DDFHandler();
+            getSaxParser().parse(inputStream, handler);
+            return handler.objects;
+        } catch (SAXException e) {
+            throw new InvalidDDFFileException(e, "Invalid DDF file %s", streamName);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to create SAX Parser", e);
+        }
+    }
+
     private ObjectModel parseObject(Node object, String streamName, Version schemaVersion, boolean validate)
             throws InvalidDDFFileException {
 
@@ -184,18 +242,10 @@ public class DDFFileParser {
                 }
                 break;
             case "MultipleInstances":
-                if ("Multiple".equals(field.getTextContent())) {
-                    multiple = true;
-                } else if ("Single".equals(field.getTextContent())) {
-                    multiple = false;
-                }
+                multiple = toMultiple(field.getTextContent(), multiple);
                 break;
             case "Mandatory":
-                if ("Mandatory".equals(field.getTextContent())) {
-                    mandatory = true;
-                } else if ("Optional".equals(field.getTextContent())) {
-                    mandatory = false;
-                }
+                mandatory = toMandatory(field.getTextContent(), mandatory);
                 break;
             case "Resources":
                 for (int j = 0; j < field.getChildNodes().getLength(); j++) {
@@ -263,62 +313,16 @@ public class DDFFileParser {
                 name = field.getTextContent();
                 break;
             case "Operations":
-                String strOp = field.getTextContent();
-                if (strOp != null && !strOp.isEmpty()) {
-                    operations = Operations.valueOf(strOp);
-                } else {
-                    operations = Operations.NONE;
-                }
+                operations = toOperations(field.getTextContent());
                 break;
             case "MultipleInstances":
-                if ("Multiple".equals(field.getTextContent())) {
-                    multiple = true;
-                } else if ("Single".equals(field.getTextContent())) {
-                    multiple = false;
-                }
+                multiple = toMultiple(field.getTextContent(), multiple);
                 break;
             case "Mandatory":
-                if ("Mandatory".equals(field.getTextContent())) {
-                    mandatory = true;
-                } else if ("Optional".equals(field.getTextContent())) {
-                    mandatory = false;
-                }
+                mandatory = toMandatory(field.getTextContent(), mandatory);
                 break;
             case "Type":
-                switch (field.getTextContent()) {
-                case "String":
-                    type = Type.STRING;
-                    break;
-                case "Integer":
-                    type = Type.INTEGER;
-                    break;
-                case "Float":
-                    type = Type.FLOAT;
-                    break;
-                case "Boolean":
-                    type = Type.BOOLEAN;
-                    break;
-                case "Opaque":
-                    type = Type.OPAQUE;
-                    break;
-                case "Time":
-                    type = Type.TIME;
-                    break;
-                case "Objlnk":
-                    type = Type.OBJLNK;
-                    break;
-                case "Unsigned Integer":
-                    type = Type.UNSIGNED_INTEGER;
-                    break;
-                case "Corelnk":
-                    type = Type.CORELINK;
-                    break;
-                case "":
-                    type = Type.NONE;
-                    break;
-                default:
-                    break;
-                }
+                type = toType(field.getTextContent());
                 break;
             case "RangeEnumeration":
                 rangeEnumeration = field.getTextContent();
@@ -335,4 +339,253 @@ public class DDFFileParser {
         }
         return new ResourceModel(id, name, operations, multiple, mandatory, type, rangeEnumeration, units, description);
     }
+
+    private static Boolean toMultiple(String value, Boolean defaultValue) {
+        if ("Multiple".equals(value)) {
+            return true;
+        } else if ("Single".equals(value)) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    private static Boolean toMandatory(String value, Boolean defaultValue) {
+        if ("Mandatory".equals(value)) {
+            return true;
+        } else if ("Optional".equals(value)) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    private static Operations toOperations(String value) {
+        if (value != null && !value.isEmpty()) {
+            return Operations.valueOf(value);
+        } else {
+            return Operations.NONE;
+        }
+    }
+
+    private static Type toType(String value) {
+        switch (value) {
+        case "String":
+            return Type.STRING;
+        case "Integer":
+            return Type.INTEGER;
+        case "Float":
+            return Type.FLOAT;
+        case "Boolean":
+            return Type.BOOLEAN;
+        case "Opaque":
+            return Type.OPAQUE;
+        case "Time":
+            return Type.TIME;
+        case "Objlnk":
+            return Type.OBJLNK;
+        case "Unsigned Integer":
+            return Type.UNSIGNED_INTEGER;
+        case "Corelnk":
+            return Type.CORELINK;
+        case "":
+            return Type.NONE;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Builds {@link ObjectModel} from SAX events, like {@link DDFFileParser#parseObject(Node, String, Version, boolean)}
+     * without validation.
+     */
+    private static class DDFHandler extends DefaultHandler {
+
+        private final List<ObjectModel> objects = new ArrayList<>();
+
+        // depth of current element, and depth of the current Object, Resources and Item elements (-1 if none)
+        private int depth = 0;
+        private int objectDepth = -1;
+        private int resourcesDepth = -1;
+        private int itemDepth = -1;
+
+        // text of the current field, if any
+        private StringBuilder text;
+
+        // current object
+        private Integer id;
+        private String name;
+        private String description;
+        private String version;
+        private Boolean multiple;
+        private Boolean mandatory;
+        private Map<Integer, ResourceModel> resources;
+        private String urn;
+        private String description2;
+        private String lwm2mVersion;
+
+        // current resource
+        private Integer resourceId;
+        private String resourceName;
+        private Operations operations;
+        private Boolean resourceMultiple;
+        private Boolean resourceMandatory;
+        private Type type;
+        private String rangeEnumeration;
+        private String units;
+        private String resourceDescription;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            depth++;
+            if (text != null) {
+                // element inside a field, its text is part of the field text
+                return;
+            }
+            if (objectDepth < 0) {
+                if ("Object".equals(qName)) {
+                    startObject();
+                }
+            } else if (resourcesDepth < 0) {
+                if (depth == objectDepth + 1) {
+                    if ("Resources".equals(qName)) {
+                        resourcesDepth = depth;
+                    } else {
+                        text = new StringBuilder();
+                    }
+                }
+            } else if (itemDepth < 0) {
+                if (depth == resourcesDepth + 1 && "Item".equals(qName)) {
+                    startResource(attributes.getValue("ID"));
+                }
+            } else if (depth == itemDepth + 1) {
+                text = new StringBuilder();
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (text != null) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (text != null && (depth == objectDepth + 1 || depth == itemDepth + 1)) {
+                String value = text.toString();
+                text = null;
+                if (itemDepth < 0) {
+                    objectField(qName, value);
+                } else {
+                    resourceField(qName, value);
+                }
+            } else if (depth == itemDepth) {
+                itemDepth = -1;
+                resources.put(resourceId, new ResourceModel(resourceId, resourceName, operations, resourceMultiple,
+                        resourceMandatory, type, rangeEnumeration, units, resourceDescription));
+            } else if (depth == resourcesDepth) {
+                resourcesDepth = -1;
+            } else if (depth == objectDepth) {
+                objectDepth = -1;
+                objects.add(new ObjectModel(id, name, description, version, multiple, mandatory, resources.values(),
+                        urn, lwm2mVersion, description2));
+            }
+            depth--;
+        }
+
+        private void startObject() {
+            objectDepth = depth;
+            id = null;
+            name = null;
+            description = null;
+            version = ObjectModel.DEFAULT_VERSION;
+            multiple = null;
+            mandatory = null;
+            resources = new HashMap<>();
+            urn = null;
+            description2 = null;
+            lwm2mVersion = ObjectModel.DEFAULT_VERSION;
+        }
+
+        private void objectField(String field, String value) {
+            switch (field) {
+            case "ObjectID":
+                id = Integer.valueOf(value);
+                break;
+            case "Name":
+                name = value;
+                break;
+            case "Description1":
+                description = value;
+                break;
+            case "ObjectVersion":
+                if (!StringUtils.isEmpty(value)) {
+                    version = value;
+                }
+                break;
+            case "MultipleInstances":
+                multiple = toMultiple(value, multiple);
+                break;
+            case "Mandatory":
+                mandatory = toMandatory(value, mandatory);
+                break;
+            case "ObjectURN":
+                urn = value;
+                break;
+            case "LWM2MVersion":
+                if (!StringUtils.isEmpty(value)) {
+                    lwm2mVersion = value;
+                }
+                break;
+            case "Description2":
+                description2 = value;
+                break;
+            default:
+                break;
+            }
+        }
+
+        private void startResource(String idAttribute) {
+            itemDepth = depth;
+            resourceId = Integer.valueOf(idAttribute);
+            resourceName = null;
+            operations = null;
+            resourceMultiple = false;
+            resourceMandatory = false;
+            type = null;
+            rangeEnumeration = null;
+            units = null;
+            resourceDescription = null;
+        }
+
+        private void resourceField(String field, String value) {
+            switch (field) {
+            case "Name":
+                resourceName = value;
+                break;
+            case "Operations":
+                operations = toOperations(value);
+                break;
+            case "MultipleInstances":
+                resourceMultiple = toMultiple(value, resourceMultiple);
+                break;
+            case "Mandatory":
+                resourceMandatory = toMandatory(value, resourceMandatory);
+                break;
+            case "Type":
+                type = toType(value);
+                break;
+            case "RangeEnumeration":
+                rangeEnumeration = value;
+                break;
+            case "Units":
+                units = value;
+                break;
+            case "Description":
+                resourceDescription = value;
+                break;
+            default:
+                break;
+            }
+        }
+    }
 }
@@ -37,6 +37,8 @@ import org.xml.sax.SAXException;
  * Validate a DDF File against the embedded LWM2M schema.
  * <p>
  * Support LWM2M version 1.0 and 1.1.
+ * <p>
+ * The schema is compiled once and a {@link Validator} is reused per thread, so a validator can be used concurrently.
  */
 
 public class DefaultDDFFileValidator implements DDFFileValidator {
@@ -45,6 +47,9 @@ public class DefaultDDFFileValidator implements DDFFileValidator {
 
     private final String schema;
 
+    private volatile Schema compiledSchema;
+    private final ThreadLocal<Validator> validators = new ThreadLocal<>();
+
     /**
      * Create a {@link DDFFileValidator} using the LWM2M v1.1 schema.
      */
@@ -83,7 +88,18 @@ public class DefaultDDFFileValidator implements DDFFileValidator {
      * @throws IOException see {@link Validator#validate(Source)}
      */
     public void validate(Source xmlToValidate) throws SAXException, IOException {
-        Validator validator = getEmbeddedLwM2mSchema().newValidator();
+        Validator validator = validators.get();
+        if (validator == null) {
+            Schema lwm2mSchema = compiledSchema;
+            if (lwm2mSchema == null) {
+                lwm2mSchema = getEmbeddedLwM2mSchema();
+                compiledSchema = lwm2mSchema;
+            }
+            validator = lwm2mSchema.newValidator();
+            validators.set(validator);
+        } else {
+            validator.reset();
+        }
         validator.validate(xmlToValidate);
     }
 
@@ -24,10 +24,15 @@ import org.w3c.dom.NodeList;
  * Create {@link DefaultDDFFileValidator}.
  * <p>
  * Support LWM2M version 1.0 and 1.1.
+ * <p>
+ * Validators are created once per version and shared, so their schema is compiled only once.
  */
 
 public class DefaultDDFFileValidatorFactory implements DDFFileValidatorFactory {
 
+    private final DDFFileValidator v1_0Validator = new DefaultDDFFileValidator(Version.V1_0);
+    private final DDFFileValidator v1_1Validator = new DefaultDDFFileValidator(Version.V1_1);
+
     @Override
     public Version extractLWM2MVersion(Document document, String DocumentName) throws InvalidDDFFileException {
         NodeList nodes = document.getElementsByTagName("LWM2M");
@@ -54,6 +59,11 @@ public class DefaultDDFFileValidatorFactory implements DDFFileValidatorFactory {
 
     @Override
     public DDFFileValidator create(Version lwm2mVersion) {
+        if (Version.V1_0.equals(lwm2mVersion)) {
+            return v1_0Validator;
+        } else if (Version.V1_1.equals(lwm2mVersion)) {
+            return v1_1Validator;
+        }
         return new DefaultDDFFileValidator(lwm2mVersion);
     }
 }
\ No newline at end of file
@@ -0,0 +1,344 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.leshan.core.util.StringUtils;
+import org.eclipse.leshan.core.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A {@link LwM2mModelRepository} which parses DDF files only when an object definition is used.
+ * <p>
+ * At construction, DDF files of a directory are only scanned to index them by object id and version. A definition is
+ * parsed on first lookup and kept in memory, up to a maximum number of definitions : then the least recently used
+ * ones are evicted (following the CLOCK algorithm) and parsed again if needed. Looking up a definition which is in
+ * memory does not lock nor allocate.
+ * <p>
+ * So startup time and memory depend on the objects actually used rather than on the number of DDF files.
+ *
+ * <pre>
+ * new VersionedModelProvider(new LazyLwM2mModelRepository(new File("models")));
+ * </pre>
+ *
+ * @since 2.0
+ */
+public class LazyLwM2mModelRepository extends LwM2mModelRepository {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LazyLwM2mModelRepository.class);
+
+    public static final int DEFAULT_MAX_LOADED_MODELS = 128;
+
+    private final DDFFileParser ddfFileParser;
+    private final ObjectModelValidator modelValidator;
+
+    // sorted object ids and, at the same index, the sources of all the versions available for this object.
+    private final int[] objectIds;
+    private final Source[][] objectSources;
+
+    // sources of models currently loaded
+    private final Source[] loaded;
+    private int loadedCount = 0;
+    private int clockHand = 0;
+
+    /**
+     * Index DDF files of the given directory, without validation.
+     */
+    public LazyLwM2mModelRepository(File modelsDir) {
+        this(modelsDir, new DDFFileParser(), null, DEFAULT_MAX_LOADED_MODELS);
+    }
+
+    /**
+     * Index DDF files of the given directory. Files which can not be indexed are logged and ignored.
+     *
+     * @param modelsDir the directory containing all the ddf file definition.
+     * @param ddfFileParser the parser used when a definition is needed, which could do validation optionally.
+     * @param modelValidator an Object model validator to ensure model is valid, see
+     *        {@link DefaultObjectModelValidator}. If {@code null} then there will be no validation.
+     * @param maxLoadedModels the maximum number of definitions kept in memory.
+     */
+    public LazyLwM2mModelRepository(File modelsDir, DDFFileParser ddfFileParser, ObjectModelValidator modelValidator,
+            int maxLoadedModels) {
+        super(Collections.<ObjectModel> emptyList());
+        Validate.notNull(ddfFileParser, "ddfFileParser must not be null");
+        Validate.isTrue(maxLoadedModels > 0, "maxLoadedModels must be positive");
+        this.ddfFileParser = ddfFileParser;
+        this.modelValidator = modelValidator;
+        this.loaded = new Source[maxLoadedModels];
+
+        Map<Integer, Map<String, Source>> index = index(modelsDir);
+        objectIds = new int[index.size()];
+        objectSources = new Source[index.size()][];
+        int i = 0;
+        for (Entry<Integer, Map<String, Source>> entry : index.entrySet()) {
+            objectIds[i] = entry.getKey();
+            objectSources[i] = entry.getValue().values().toArray(new Source[0]);
+            i++;
+        }
+    }
+
+    @Override
+    public ObjectModel getObjectModel(int objectId, String version) {
+        Validate.notNull(version, "version must not be null");
+
+        int index = Arrays.binarySearch(objectIds, objectId);
+        if (index < 0) {
+            return null;
+        }
+        for (Source source : objectSources[index]) {
+            if (version.equals(source.version)) {
+                return load(source);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ResourceModel getResourceModel(int objectId, String version, int resourceId) {
+        ObjectModel model = getObjectModel(objectId, version);
+        return model == null ? null : model.resources.get(resourceId);
+    }
+
+    /**
+     * @return the number of definitions currently in memory.
+     */
+    int getLoadedModelsCount() {
+        synchronized (loaded) {
+            return loadedCount;
+        }
+    }
+
+    private ObjectModel load(Source source) {
+        ObjectModel model = source.model;
+        if (model != null) {
+            source.referenced = true;
+            return model;
+        }
+
+        synchronized (source) {
+            model = source.model;
+            if (model != null) {
+                source.referenced = true;
+                return model;
+            }
+            if (source.invalid) {
+                return null;
+            }
+            model = parse(source);
+            if (model == null) {
+                source.invalid = true;
+                return null;
+            }
+            source.model = model;
+            source.referenced = true;
+        }
+        register(source);
+        return model;
+    }
+
+    private void register(Source source) {
+        synchronized (loaded) {
+            if (loadedCount < loaded.length) {
+                loaded[loadedCount++] = source;
+                return;
+            }
+            // evict the first model not used since the hand passed over it
+            while (true) {
+                Source candidate = loaded[clockHand];
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                } else {
+                    candidate.model = null;
+                    loaded[clockHand] = source;
+                    clockHand = (clockHand + 1) % loaded.length;
+                    return;
+                }
+                clockHand = (clockHand + 1) % loaded.length;
+            }
+        }
+    }
+
+    private ObjectModel parse(Source source) {
+        LOG.debug("Loading object model {} in version {} from DDF file {}", source.objectId, source.version,
+                source.file.getAbsolutePath());
+        try (InputStream input = new FileInputStream(source.file)) {
+            List<ObjectModel> models = ddfFileParser.parse(input, source.file.getName());
+            if (modelValidator != null) {
+                modelValidator.validate(models, source.file.getName());
+            }
+            for (ObjectModel model : models) {
+                if (model.id != null && model.id == source.objectId && source.version.equals(model.version)) {
+                    return model;
+                }
+            }
+            LOG.warn("Object model {} in version {} not found in {}", source.objectId, source.version,
+                    source.file.getAbsolutePath());
+        } catch (IOException | InvalidModelException | InvalidDDFFileException | RuntimeException e) {
+            LOG.warn(MessageFormat.format("Unable to load object models for {0}", source.file.getAbsolutePath()), e);
+        }
+        return null;
+    }
+
+    private static Map<Integer, Map<String, Source>> index(File modelsDir) {
+        Map<Integer, Map<String, Source>> index = new TreeMap<>();
+        if (!modelsDir.isDirectory() || !modelsDir.canRead()) {
+            LOG.error(MessageFormat.format(
+                    "Models folder {0} is not a directory or you are not allowed to list its content",
+                    modelsDir.getPath()));
+            return index;
+        }
+
+        SAXParser parser;
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            parser = factory.newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Unable to create SAX Parser", e);
+        }
+
+        File[] files = modelsDir.listFiles();
+        Arrays.sort(files);
+        for (File file : files) {
+            if (!file.canRead() || !file.getName().endsWith(".xml"))
+                continue;
+
+            IndexHandler handler = new IndexHandler(file);
+            try (InputStream input = new FileInputStream(file)) {
+                parser.reset();
+                parser.parse(input, handler);
+            } catch (IOException | SAXException | RuntimeException e) {
+                LOG.warn(MessageFormat.format("Unable to index object models of {0}", file.getAbsolutePath()), e);
+                continue;
+            }
+            for (Source source : handler.sources) {
+                Map<String, Source> versions = index.get(source.objectId);
+                if (versions == null) {
+                    versions = new TreeMap<>();
+                    index.put(source.objectId, versions);
+                }
+                Source old = versions.put(source.version, source);
+                if (old != null) {
+                    LOG.debug("Model already exists for object {} in version {}. Overriding it.", source.objectId,
+                            source.version);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * A DDF file defining an object in a given version, and the definition if it is loaded.
+     */
+    private static class Source {
+        private final int objectId;
+        private final String version;
+        private final File file;
+
+        private volatile ObjectModel model;
+        // true if the model was used since the clock hand passed over it
+        private volatile boolean referenced;
+        // true if the model can not be loaded from the file
+        private volatile boolean invalid;
+
+        public Source(int objectId, String version, File file) {
+            this.objectId = objectId;
+            this.version = version;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Collects object id and version of each object of a DDF file, like {@link DDFFileParser}.
+     */
+    private static class IndexHandler extends DefaultHandler {
+
+        private final File file;
+        private final List<Source> sources = new ArrayList<>();
+
+        private int depth = 0;
+        private int objectDepth = -1;
+        private StringBuilder text;
+
+        private String objectId;
+        private String version;
+
+        public IndexHandler(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            depth++;
+            if (objectDepth < 0) {
+                if ("Object".equals(qName)) {
+                    objectDepth = depth;
+                    objectId = null;
+                    version = ObjectModel.DEFAULT_VERSION;
+                }
+            } else if (depth == objectDepth + 1 && ("ObjectID".equals(qName) || "ObjectVersion".equals(qName))) {
+                text = new StringBuilder();
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (text != null) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (text != null && depth == objectDepth + 1) {
+                if ("ObjectID".equals(qName)) {
+                    objectId = text.toString();
+                } else if (!StringUtils.isEmpty(text.toString())) {
+                    version = text.toString();
+                }
+                text = null;
+            } else if (depth == objectDepth) {
+                objectDepth = -1;
+                if (objectId == null) {
+                    throw new IllegalArgumentException(
+                            String.format("Model in %s is invalid : object id is missing.", file.getName()));
+                }
+                sources.add(new Source(Integer.parseInt(objectId), version, file));
+            }
+            depth--;
+        }
+    }
+}
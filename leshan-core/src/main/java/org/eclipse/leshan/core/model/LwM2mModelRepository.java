@@ -17,9 +17,9 @@ package org.eclipse.leshan.core.model;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.TreeMap;
 
 import org.eclipse.leshan.core.util.Validate;
@@ -33,50 +33,125 @@ import org.slf4j.LoggerFactory;
 public class LwM2mModelRepository {
     private static final Logger LOG = LoggerFactory.getLogger(LwM2mModelRepository.class);
 
-    // This map contains all the object models available. Different version could be used.
-    // This map is indexed by a string composed of objectid and version (objectid##version)
-    private final Map<String, ObjectModel> objects;
+    // This array contains the sorted ids of all the object models available,
+    // and the array below all the versions available for the object id at the same index.
+    // Lookup is a binary search on primitive ids, so it does not allocate.
+    private final int[] objectIds;
+    private final IndexedObjectModel[][] objectVersions;
 
     public LwM2mModelRepository(ObjectModel... objectModels) {
         this(Arrays.asList(objectModels));
     }
 
     public LwM2mModelRepository(Collection<ObjectModel> objectModels) {
-        if (objectModels == null) {
-            objects = new TreeMap<>();
-        } else {
-            Map<String, ObjectModel> map = new HashMap<>();
+        Map<Integer, Map<String, ObjectModel>> map = new TreeMap<>();
+        if (objectModels != null) {
             for (ObjectModel model : objectModels) {
-                String key = getKey(model);
-                if (key == null) {
+                if (model.id == null) {
                     throw new IllegalArgumentException(
                             String.format("Model %s is invalid : object id is missing.", model));
                 }
-                ObjectModel old = map.put(key, model);
+                Map<String, ObjectModel> versions = map.get(model.id);
+                if (versions == null) {
+                    versions = new HashMap<>();
+                    map.put(model.id, versions);
+                }
+                ObjectModel old = versions.put(model.version, model);
                 if (old != null) {
                     LOG.debug("Model already exists for object {} in version {}. Overriding it.", model.id,
                             model.version);
                 }
             }
-            objects = Collections.unmodifiableMap(map);
+        }
+
+        objectIds = new int[map.size()];
+        objectVersions = new IndexedObjectModel[map.size()][];
+        int i = 0;
+        for (Entry<Integer, Map<String, ObjectModel>> entry : map.entrySet()) {
+            objectIds[i] = entry.getKey();
+            objectVersions[i] = new IndexedObjectModel[entry.getValue().size()];
+            int j = 0;
+            for (ObjectModel model : entry.getValue().values()) {
+                objectVersions[i][j++] = new IndexedObjectModel(model);
+            }
+            i++;
         }
     }
 
     public ObjectModel getObjectModel(Integer objectId, String version) {
         Validate.notNull(objectId, "objectid must not be null");
-        Validate.notNull(version, "version must not be null");
+        return getObjectModel(objectId.intValue(), version);
+    }
 
-        return objects.get(getKey(objectId, version));
+    /**
+     * Returns the definition of the given object in the given version.
+     *
+     * @param objectId the object identifier
+     * @param version the object version
+     * @return the object definition or <code>null</code> if not found
+     * @since 2.0
+     */
+    public ObjectModel getObjectModel(int objectId, String version) {
+        IndexedObjectModel indexedModel = getIndexedObjectModel(objectId, version);
+        return indexedModel == null ? null : indexedModel.model;
     }
 
-    private String getKey(ObjectModel objectModel) {
-        return getKey(objectModel.id, objectModel.version);
+    /**
+     * Returns the definition of a resource of the given object in the given version.
+     * <p>
+     * Definitions which are not given at construction are looked up using {@link #getObjectModel(int, String)}, so
+     * subclasses providing their own object definitions do not need to override this method.
+     *
+     * @param objectId the object identifier
+     * @param version the object version
+     * @param resourceId the resource identifier
+     * @return the resource definition or <code>null</code> if not found
+     * @since 2.0
+     */
+    public ResourceModel getResourceModel(int objectId, String version, int resourceId) {
+        IndexedObjectModel indexedModel = getIndexedObjectModel(objectId, version);
+        if (indexedModel == null) {
+            ObjectModel model = getObjectModel(objectId, version);
+            return model == null ? null : model.resources.get(resourceId);
+        }
+        int index = Arrays.binarySearch(indexedModel.resourceIds, resourceId);
+        return index < 0 ? null : indexedModel.resources[index];
     }
 
-    private String getKey(Integer objectId, String version) {
-        if (objectId == null) {
+    private IndexedObjectModel getIndexedObjectModel(int objectId, String version) {
+        Validate.notNull(version, "version must not be null");
+
+        int index = Arrays.binarySearch(objectIds, objectId);
+        if (index < 0) {
             return null;
         }
-        return objectId + "##" + version;
+        for (IndexedObjectModel indexedModel : objectVersions[index]) {
+            if (version.equals(indexedModel.model.version)) {
+                return indexedModel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An object model with its resources indexed by sorted primitive ids.
+     */
+    private static class IndexedObjectModel {
+        private final ObjectModel model;
+        private final int[] resourceIds;
+        private final ResourceModel[] resources;
+
+        public IndexedObjectModel(ObjectModel model) {
+            this.model = model;
+            Map<Integer, ResourceModel> sortedResources = new TreeMap<>(model.resources);
+            resourceIds = new int[sortedResources.size()];
+            resources = new ResourceModel[sortedResources.size()];
+            int i = 0;
+            for (Entry<Integer, ResourceModel> resource : sortedResources.entrySet()) {
+                resourceIds[i] = resource.getKey();
+                resources[i] = resource.getValue();
+                i++;
+            }
+        }
     }
 }
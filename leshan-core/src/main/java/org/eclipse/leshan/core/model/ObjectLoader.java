@@ -20,11 +20,19 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
 
 import org.eclipse.leshan.core.LwM2m.Version;
 import org.eclipse.leshan.core.util.StringUtils;
@@ -39,6 +47,9 @@ public class ObjectLoader {
                             "3-1_0.xml", "3-1_1.xml", "4-1_0.xml", "4-1_1.xml", "4-1_2.xml", "5-1_0.xml", "6.xml",
                             "7.xml", "21-1_0.xml", };
 
+    // snapshot of models of the DDF files above, see ObjectModelSnapshot
+    static final String DEFAULT_SNAPSHOT = "/models/default-models.snapshot";
+
     /**
      * Load last embedded version of default LWM2M objects. So the list contain only one model by object.
      */
@@ -59,7 +70,7 @@ public class ObjectLoader {
         LOG.debug("Loading OMA standard object models for LWM2M {}", requiredVersion);
         try {
             Map<Integer, ObjectModel> models = new TreeMap<>();
-            for (ObjectModel model : loadDdfResources("/models/", ddfpaths)) {
+            for (ObjectModel model : loadEmbedded()) {
                 // skip model not compatible with the given version
                 if (Version.get(model.lwm2mVersion).newerThan(requiredVersion))
                     continue;
@@ -85,13 +96,75 @@ public class ObjectLoader {
         // standard objects
         LOG.debug("Loading OMA standard object models");
         try {
-            models.addAll(loadDdfResources("/models/", ddfpaths));
+            models.addAll(loadEmbedded());
         } catch (Exception e) {
             throw new IllegalStateException("Unable to load models", e);
         }
         return models;
     }
 
+    /**
+     * Load embedded models from their snapshot if it is up to date, else from DDF files.
+     */
+    private static List<ObjectModel> loadEmbedded() throws IOException, InvalidModelException, InvalidDDFFileException {
+        try (InputStream input = ObjectLoader.class.getResourceAsStream(DEFAULT_SNAPSHOT)) {
+            if (input != null) {
+                List<ObjectModel> models = ObjectModelSnapshot.read(input, defaultChecksum());
+                if (models != null) {
+                    return models;
+                }
+                LOG.warn("Snapshot {} is out of date, loading models from DDF files", DEFAULT_SNAPSHOT);
+            }
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable to read snapshot %s, loading models from DDF files", DEFAULT_SNAPSHOT), e);
+        }
+        return parseDefault();
+    }
+
+    static List<ObjectModel> parseDefault() throws IOException, InvalidModelException, InvalidDDFFileException {
+        return loadDdfResources("/models/", ddfpaths);
+    }
+
+    static long defaultChecksum() throws IOException {
+        CRC32 crc = new CRC32();
+        for (String filename : ddfpaths) {
+            String fullpath = "/models/" + filename;
+            try (InputStream input = ObjectLoader.class.getResourceAsStream(fullpath)) {
+                if (input == null) {
+                    throw new FileNotFoundException(String.format("%s not found", fullpath));
+                }
+                updateChecksum(crc, filename, input);
+            }
+        }
+        return crc.getValue();
+    }
+
+    static long dirChecksum(File modelsDir, boolean validate) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(validate ? 1 : 0);
+        File[] files = modelsDir.listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                if (file.getName().endsWith(".xml") && file.canRead()) {
+                    try (FileInputStream input = new FileInputStream(file)) {
+                        updateChecksum(crc, file.getName(), input);
+                    }
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void updateChecksum(CRC32 crc, String name, InputStream input) throws IOException {
+        crc.update(name.getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            crc.update(buffer, 0, read);
+        }
+    }
+
     /**
      * Load object definition from DDF file.
      * <p>
@@ -296,7 +369,7 @@ public class ObjectLoader {
      * @param modelsDir the directory containing all the ddf file definition.
      */
     public static List<ObjectModel> loadObjectsFromDir(File modelsDir) {
-        return loadObjectsFromDir(modelsDir, null, null);
+        return loadObjectsFromDir(modelsDir, new DDFFileParser(), null);
     }
 
     /**
@@ -327,6 +400,60 @@ public class ObjectLoader {
     public static List<ObjectModel> loadObjectsFromDir(File modelsDir, DDFFileParser ddfFileParser,
             ObjectModelValidator modelValidator) {
         List<ObjectModel> models = new ArrayList<>();
+        for (File file : listDdfFiles(modelsDir)) {
+            models.addAll(loadDdfFileOrLog(file, ddfFileParser, modelValidator));
+        }
+        return models;
+    }
+
+    /**
+     * Load object definitions from directory, parsing DDF files concurrently.
+     * <p>
+     * Invalid model will be logged and ignored. Models are returned in the same order than
+     * {@link #loadObjectsFromDir(File, DDFFileParser, ObjectModelValidator)}.
+     * 
+     * @param modelsDir the directory containing all the ddf file definition.
+     * @param ddfFileParser a ddfFileParser which could do validation optionally.
+     * @param modelValidator an Object model validator to ensure model is valid, see
+     *        {@link DefaultObjectModelValidator}. If {@code null} then there will be no validation.
+     * @param executor the executor used to parse DDF files, one task is submitted by file.
+     * @since 2.0
+     */
+    public static List<ObjectModel> loadObjectsFromDir(File modelsDir, final DDFFileParser ddfFileParser,
+            final ObjectModelValidator modelValidator, ExecutorService executor) {
+        List<Future<List<ObjectModel>>> results = new ArrayList<>();
+        for (final File file : listDdfFiles(modelsDir)) {
+            results.add(executor.submit(new Callable<List<ObjectModel>>() {
+                @Override
+                public List<ObjectModel> call() {
+                    return loadDdfFileOrLog(file, ddfFileParser, modelValidator);
+                }
+            }));
+        }
+
+        List<ObjectModel> models = new ArrayList<>();
+        try {
+            for (Future<List<ObjectModel>> result : results) {
+                models.addAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading object models", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to load object models", e.getCause());
+        } finally {
+            for (Future<List<ObjectModel>> result : results) {
+                result.cancel(false);
+            }
+        }
+        return models;
+    }
+
+    private static List<File> listDdfFiles(File modelsDir) {
+        List<File> files = new ArrayList<>();
 
         // check if the folder is usable
         if (!modelsDir.isDirectory() || !modelsDir.canRead()) {
@@ -336,21 +463,67 @@ public class ObjectLoader {
         } else {
             // get all files
             for (File file : modelsDir.listFiles()) {
-                if (!file.canRead())
-                    continue;
+                if (file.canRead() && file.getName().endsWith(".xml")) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
 
-                if (file.getName().endsWith(".xml")) {
-                    // from DDF file
-                    LOG.debug("Loading object models from DDF file {}", file.getAbsolutePath());
-                    try (FileInputStream input = new FileInputStream(file)) {
-                        models.addAll(loadDdfFile(input, file.getName(), ddfFileParser, modelValidator));
-                    } catch (IOException | InvalidModelException | InvalidDDFFileException e) {
-                        LOG.warn(MessageFormat.format("Unable to load object models for {0}", file.getAbsolutePath()),
-                                e);
-                    }
+    private static List<ObjectModel> loadDdfFileOrLog(File file, DDFFileParser ddfFileParser,
+            ObjectModelValidator modelValidator) {
+        // from DDF file
+        LOG.debug("Loading object models from DDF file {}", file.getAbsolutePath());
+        try (FileInputStream input = new FileInputStream(file)) {
+            return loadDdfFile(input, file.getName(), ddfFileParser, modelValidator);
+        } catch (IOException | InvalidModelException | InvalidDDFFileException e) {
+            LOG.warn(MessageFormat.format("Unable to load object models for {0}", file.getAbsolutePath()), e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Load object definitions from directory, using a snapshot of those definitions when it is up to date.
+     * <p>
+     * The snapshot is used only if it was compiled from the same DDF files (see {@link ObjectModelSnapshot}). Else DDF
+     * files are loaded like {@link #loadObjectsFromDir(File, boolean)} and the snapshot is (re)written, so next loads
+     * are fast.
+     * 
+     * @param modelsDir the directory containing all the ddf file definition.
+     * @param snapshot the snapshot file, which may not exist yet.
+     * @param validate true if you want model validation. Validation is not free and it could make sense to not validate
+     *        model if you already trust it.
+     * @since 2.0
+     */
+    public static List<ObjectModel> loadObjectsFromDir(File modelsDir, File snapshot, boolean validate) {
+        long checksum;
+        try {
+            checksum = dirChecksum(modelsDir, validate);
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format("Unable to compute checksum of models folder {0}", modelsDir.getPath()), e);
+            return loadObjectsFromDir(modelsDir, validate);
+        }
+
+        if (snapshot.isFile()) {
+            try (FileInputStream input = new FileInputStream(snapshot)) {
+                List<ObjectModel> models = ObjectModelSnapshot.read(input, checksum);
+                if (models != null) {
+                    LOG.debug("Loading object models from snapshot {}", snapshot.getAbsolutePath());
+                    return models;
                 }
+                LOG.debug("Snapshot {} is out of date", snapshot.getAbsolutePath());
+            } catch (IOException e) {
+                LOG.warn(MessageFormat.format("Unable to read snapshot {0}", snapshot.getAbsolutePath()), e);
             }
         }
+
+        List<ObjectModel> models = loadObjectsFromDir(modelsDir, validate);
+        try {
+            ObjectModelSnapshot.write(models, checksum, snapshot);
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format("Unable to write snapshot {0}", snapshot.getAbsolutePath()), e);
+        }
         return models;
     }
 }
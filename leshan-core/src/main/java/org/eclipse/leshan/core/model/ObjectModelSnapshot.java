@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.eclipse.leshan.core.model.ResourceModel.Operations;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
+
+/**
+ * A compact binary form of a list of {@link ObjectModel}, which can be loaded much faster than parsing DDF files.
+ * <p>
+ * A snapshot contains the checksum of the sources it was compiled from (see {@link ObjectLoader}), so a stale snapshot
+ * can be detected and ignored: {@link #read(InputStream, long)} returns <code>null</code> if the checksum or the format
+ * version does not match.
+ * <p>
+ * The snapshot of default models embedded in Leshan is regenerated with :
+ *
+ * <pre>
+ * java -cp ... org.eclipse.leshan.core.model.ObjectModelSnapshot src/main/resources/models/default-models.snapshot
+ * </pre>
+ *
+ * and the snapshot of a directory of DDF files with :
+ *
+ * <pre>
+ * java -cp ... org.eclipse.leshan.core.model.ObjectModelSnapshot models.snapshot path/to/ddf/directory
+ * </pre>
+ *
+ * @since 2.0
+ */
+public class ObjectModelSnapshot {
+
+    // "LWMS"
+    private static final int MAGIC = 0x4C574D53;
+    private static final int FORMAT_VERSION = 1;
+
+    private ObjectModelSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the given models.
+     *
+     * @param models the models to write.
+     * @param sourceChecksum the checksum of the sources of those models.
+     * @param output the stream to write to, which is not closed.
+     */
+    public static void write(Collection<ObjectModel> models, long sourceChecksum, OutputStream output)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(output), crc));
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(sourceChecksum);
+        out.writeInt(models.size());
+        for (ObjectModel model : models) {
+            writeInteger(out, model.id);
+            writeString(out, model.name);
+            writeString(out, model.description);
+            writeString(out, model.version);
+            writeBoolean(out, model.multiple);
+            writeBoolean(out, model.mandatory);
+            writeString(out, model.urn);
+            writeString(out, model.lwm2mVersion);
+            writeString(out, model.description2);
+            out.writeInt(model.resources.size());
+            for (ResourceModel resource : model.resources.values()) {
+                writeInteger(out, resource.id);
+                writeString(out, resource.name);
+                writeString(out, resource.operations == null ? null : resource.operations.name());
+                writeBoolean(out, resource.multiple);
+                writeBoolean(out, resource.mandatory);
+                writeString(out, resource.type == null ? null : resource.type.name());
+                writeString(out, resource.rangeEnumeration);
+                writeString(out, resource.units);
+                writeString(out, resource.description);
+            }
+        }
+        // written outside of the checked stream
+        out.flush();
+        long value = crc.getValue();
+        for (int i = 7; i >= 0; i--) {
+            output.write((int) (value >> (8 * i)));
+        }
+        output.flush();
+    }
+
+    /**
+     * Writes a snapshot of the given models in a file. The file is replaced only once the snapshot is complete.
+     */
+    public static void write(Collection<ObjectModel> models, long sourceChecksum, File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream output = new FileOutputStream(tmp)) {
+            write(models, sourceChecksum, output);
+        }
+        if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException(String.format("Unable to replace snapshot %s", file));
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(Collection, long, OutputStream)}.
+     * <p>
+     * The whole snapshot is read in memory and its CRC is checked before to decode it, so a corrupted snapshot is
+     * always rejected with an {@link IOException}.
+     *
+     * @param input the stream to read from, which is not closed.
+     * @param expectedSourceChecksum the checksum of the current sources of the models.
+     * @return the models or <code>null</code> if the snapshot was compiled from other sources or with another format
+     *         version.
+     * @throws IOException if the snapshot is truncated or corrupted.
+     */
+    public static List<ObjectModel> read(InputStream input, long expectedSourceChecksum) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        byte[] bytes = content.toByteArray();
+
+        // CRC is written after the checked content
+        if (bytes.length < 8) {
+            throw new IOException("Invalid snapshot : truncated");
+        }
+        int length = bytes.length - 8;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        if (new DataInputStream(new ByteArrayInputStream(bytes, length, 8)).readLong() != crc.getValue()) {
+            throw new IOException("Invalid snapshot : bad CRC");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, length));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Invalid snapshot : bad magic number");
+        }
+        if (in.readByte() != FORMAT_VERSION || in.readLong() != expectedSourceChecksum) {
+            return null;
+        }
+        try {
+            return readModels(in);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid snapshot", e);
+        }
+    }
+
+    private static List<ObjectModel> readModels(DataInputStream in) throws IOException {
+        int size = readCount(in);
+        List<ObjectModel> models = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Integer id = readInteger(in);
+            String name = readString(in);
+            String description = readString(in);
+            String version = readString(in);
+            Boolean multiple = readBoolean(in);
+            Boolean mandatory = readBoolean(in);
+            String urn = readString(in);
+            String lwm2mVersion = readString(in);
+            String description2 = readString(in);
+            int nbResources = readCount(in);
+            List<ResourceModel> resources = new ArrayList<>(nbResources);
+            for (int j = 0; j < nbResources; j++) {
+                Integer resourceId = readInteger(in);
+                String resourceName = readString(in);
+                String operations = readString(in);
+                Boolean resourceMultiple = readBoolean(in);
+                Boolean resourceMandatory = readBoolean(in);
+                String type = readString(in);
+                String rangeEnumeration = readString(in);
+                String units = readString(in);
+                String resourceDescription = readString(in);
+                resources.add(new ResourceModel(resourceId, resourceName,
+                        operations == null ? null : Operations.valueOf(operations), resourceMultiple,
+                        resourceMandatory, type == null ? null : Type.valueOf(type), rangeEnumeration, units,
+                        resourceDescription));
+            }
+            models.add(new ObjectModel(id, name, description, version, multiple, mandatory, resources, urn,
+                    lwm2mVersion, description2));
+        }
+        if (in.available() != 0) {
+            throw new IOException("Invalid snapshot : unexpected data after models");
+        }
+        return models;
+    }
+
+    // each element uses at least one byte, so a count can not be bigger than what is left to read
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException(String.format("Invalid snapshot : bad count %d", count));
+        }
+        return count;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte value = in.readByte();
+        return value < 0 ? null : value == 1;
+    }
+
+    // DataOutputStream.writeUTF is limited to 64KB, so UTF-8 bytes are prefixed by their length (-1 for null)
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.available()) {
+            throw new IOException(String.format("Invalid snapshot : bad string length %d", length));
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compiles DDF files to a snapshot.
+     * <p>
+     * Usage: <code>ObjectModelSnapshot &lt;snapshot file&gt; [DDF directory]</code>. Without DDF directory, a snapshot of
+     * default models embedded in Leshan is written.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ObjectModelSnapshot <snapshot file> [DDF directory]");
+            System.exit(1);
+        }
+        File snapshot = new File(args[0]);
+        if (args.length == 1) {
+            write(ObjectLoader.parseDefault(), ObjectLoader.defaultChecksum(), snapshot);
+        } else {
+            File modelsDir = new File(args[1]);
+            write(ObjectLoader.loadObjectsFromDir(modelsDir), ObjectLoader.dirChecksum(modelsDir, false), snapshot);
+        }
+    }
+}
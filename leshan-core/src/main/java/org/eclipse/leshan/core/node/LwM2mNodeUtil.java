@@ -50,13 +50,21 @@ public class LwM2mNodeUtil {
     }
 
     public static boolean isUnsignedInt(Integer id) {
-        return id != null && 0 <= id && id <= 65535;
+        return id != null && isUnsignedInt(id.intValue());
+    }
+
+    private static boolean isUnsignedInt(int id) {
+        return 0 <= id && id <= 65535;
     }
 
     public static boolean isValidObjectId(Integer id) {
         return isUnsignedInt(id);
     }
 
+    private static boolean isValidObjectId(int id) {
+        return isUnsignedInt(id);
+    }
+
     public static void validateObjectId(Integer id) {
         if (!isValidObjectId(id)) {
             throw new LwM2mNodeException("Invalid object id %d, It MUST be an unsigned int.", id);
@@ -64,8 +72,12 @@ public class LwM2mNodeUtil {
     }
 
     public static boolean isValidObjectInstanceId(Integer id) {
+        return id != null && isValidObjectInstanceId(id.intValue());
+    }
+
+    private static boolean isValidObjectInstanceId(int id) {
         // MAX_ID 65535 is a reserved value and MUST NOT be used for identifying an Object Instance.
-        return id != null && 0 <= id && id <= 65534;
+        return 0 <= id && id <= 65534;
     }
 
     public static void validateObjectInstanceId(Integer id) {
@@ -79,6 +91,10 @@ public class LwM2mNodeUtil {
         return isUnsignedInt(id);
     }
 
+    private static boolean isValidResourceId(int id) {
+        return isUnsignedInt(id);
+    }
+
     public static void validateResourceId(Integer id) {
         if (!isValidResourceId(id)) {
             throw new LwM2mNodeException("Invalid resource id %d, It MUST be an unsigned int.", id);
@@ -89,6 +105,10 @@ public class LwM2mNodeUtil {
         return isUnsignedInt(id);
     }
 
+    private static boolean isValidResourceInstanceId(int id) {
+        return isUnsignedInt(id);
+    }
+
     public static void validateResourceInstanceId(Integer id) {
         if (!isValidResourceInstanceId(id)) {
             throw new LwM2mNodeException("Invalid resource instance id %d, It MUST be an unsigned int.", id);
@@ -96,24 +116,23 @@ public class LwM2mNodeUtil {
     }
 
     public static void validatePath(LwM2mPath path) {
-        if (path.isObject()) {
-            LwM2mNodeUtil.validateObjectId(path.getObjectId());
-        } else if (path.isObjectInstance()) {
-            LwM2mNodeUtil.validateObjectId(path.getObjectId());
-            LwM2mNodeUtil.validateObjectInstanceId(path.getObjectInstanceId());
-        } else if (path.isResource()) {
-            LwM2mNodeUtil.validateObjectId(path.getObjectId());
-            LwM2mNodeUtil.validateObjectInstanceId(path.getObjectInstanceId());
-            LwM2mNodeUtil.validateResourceId(path.getResourceId());
-        } else if (path.isResourceInstance()) {
-            LwM2mNodeUtil.validateObjectId(path.getObjectId());
-            LwM2mNodeUtil.validateObjectInstanceId(path.getObjectInstanceId());
-            LwM2mNodeUtil.validateResourceId(path.getResourceId());
-            LwM2mNodeUtil.validateResourceInstanceId(path.getResourceInstanceId());
-        } else if (!path.isRoot()) {
-            throw new LwM2mNodeException("Invalid LWM2M path (%d,%d,%d,%d)", path.getObjectId(),
-                    path.getObjectInstanceId(), path.getResourceId(), path.getResourceInstanceId());
-        }
+        // ids are checked as primitive values, they are only boxed to report an invalid one
+        if (path.isRoot())
+            return;
+        if (!isValidObjectId(path.id(0)))
+            validateObjectId(path.getObjectId());
+        if (path.isObject())
+            return;
+        if (!isValidObjectInstanceId(path.id(1)))
+            validateObjectInstanceId(path.getObjectInstanceId());
+        if (path.isObjectInstance())
+            return;
+        if (!isValidResourceId(path.id(2)))
+            validateResourceId(path.getResourceId());
+        if (path.isResource())
+            return;
+        if (!isValidResourceInstanceId(path.id(3)))
+            validateResourceInstanceId(path.getResourceInstanceId());
     }
 
     public static void validateIncompletePath(LwM2mPath path) {
@@ -28,15 +28,20 @@ public class LwM2mPath {
     public static final byte RESOURCE_DEPTH = 4;
     public static final byte RESOURCE_INSTANCE_DEPTH = 5;
 
-    private final Integer objectId;
-    private final Integer objectInstanceId;
-    private final Integer resourceId;
-    private final Integer resourceInstanceId;
+    // ids are packed in primitive fields, only the first "length" ones are defined
+    private final int objectId;
+    private final int objectInstanceId;
+    private final int resourceId;
+    private final int resourceInstanceId;
+    private final byte length;
+
+    // lazily computed string form (racy single-check: String is immutable)
+    private String string;
 
     public final static LwM2mPath ROOTPATH = new LwM2mPath();
 
     private LwM2mPath() {
-        this(null, null, null, null);
+        this(0, 0, 0, 0, 0, "/");
     }
 
     /**
@@ -45,7 +50,7 @@ public class LwM2mPath {
      * @param objectId the object identifier
      */
     public LwM2mPath(int objectId) {
-        this(objectId, null, null, null);
+        this(1, objectId, 0, 0, 0, null);
         validate();
     }
 
@@ -56,7 +61,7 @@ public class LwM2mPath {
      * @param objectInstanceId the instance identifier
      */
     public LwM2mPath(int objectId, int objectInstanceId) {
-        this(objectId, objectInstanceId, null, null);
+        this(2, objectId, objectInstanceId, 0, 0, null);
         validate();
     }
 
@@ -68,7 +73,7 @@ public class LwM2mPath {
      * @param resourceId the resource identifier
      */
     public LwM2mPath(int objectId, int objectInstanceId, int resourceId) {
-        this(objectId, objectInstanceId, resourceId, null);
+        this(3, objectId, objectInstanceId, resourceId, 0, null);
         validate();
     }
 
@@ -81,43 +86,112 @@ public class LwM2mPath {
      * @param resourceInstanceId the resource instance identifier
      */
     public LwM2mPath(int objectId, int objectInstanceId, int resourceId, int resourceInstanceId) {
-        this((Integer) objectId, (Integer) objectInstanceId, (Integer) resourceId, (Integer) resourceInstanceId);
+        this(4, objectId, objectInstanceId, resourceId, resourceInstanceId, null);
         validate();
     }
 
     /**
      * Constructs a {@link LwM2mPath} from a string representation
+     * <p>
+     * The string is scanned in place (no split or substring). When it is already in canonical form (e.g. "/3/0/1"), it
+     * is kept as the result of {@link #toString()}.
      *
      * @param path the path (e.g. "/3/0/1" or "/3")
      */
     public LwM2mPath(String path) {
         Validate.notNull(path);
-        if (path.startsWith("/")) {
-            path = path.substring(1);
-        }
-        if (path.endsWith("/")) {
-            path = path.substring(0, path.length() - 1);
+        int end = path.length();
+        int start = end > 0 && path.charAt(0) == '/' ? 1 : 0;
+        if (end > start && path.charAt(end - 1) == '/') {
+            end--;
         }
-        String[] p = path.split("/");
-        if (0 > p.length || p.length > 4) {
-            throw new IllegalArgumentException("Invalid length for path: " + path);
-        }
-        try {
-            this.objectId = (p.length >= 1 && !p[0].isEmpty()) ? Integer.valueOf(p[0]) : null;
-            this.objectInstanceId = (p.length >= 2) ? Integer.valueOf(p[1]) : null;
-            this.resourceId = (p.length >= 3) ? Integer.valueOf(p[2]) : null;
-            this.resourceInstanceId = (p.length == 4) ? Integer.valueOf(p[3]) : null;
-            validate();
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid elements in path: " + path, e);
+
+        int count = 0;
+        int id0 = 0, id1 = 0, id2 = 0, id3 = 0;
+        boolean canonical = start == 1 && end == path.length();
+        int i = start;
+        while (i < end) {
+            if (count == 4) {
+                throw new IllegalArgumentException("Invalid length for path: " + path);
+            }
+            // scan one id
+            int segmentStart = i;
+            long id = 0;
+            for (; i < end && path.charAt(i) != '/'; i++) {
+                char c = path.charAt(i);
+                if (c < '0' || c > '9' || id > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Invalid elements in path: " + path);
+                }
+                id = id * 10 + (c - '0');
+            }
+            int segmentLength = i - segmentStart;
+            if (segmentLength == 0 || id > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid elements in path: " + path);
+            }
+            if (segmentLength > 1 && path.charAt(segmentStart) == '0') {
+                canonical = false;
+            }
+
+            switch (count++) {
+            case 0:
+                id0 = (int) id;
+                break;
+            case 1:
+                id1 = (int) id;
+                break;
+            case 2:
+                id2 = (int) id;
+                break;
+            default:
+                id3 = (int) id;
+                break;
+            }
+            // skip separator
+            i++;
         }
+
+        this.length = (byte) count;
+        this.objectId = id0;
+        this.objectInstanceId = id1;
+        this.resourceId = id2;
+        this.resourceInstanceId = id3;
+        this.string = canonical ? path : null;
+        validate();
     }
 
     protected LwM2mPath(Integer objectId, Integer objectInstanceId, Integer resourceId, Integer resourceInstanceId) {
+        this(lengthOf(objectId, objectInstanceId, resourceId, resourceInstanceId), valueOf(objectId),
+                valueOf(objectInstanceId), valueOf(resourceId), valueOf(resourceInstanceId), null);
+    }
+
+    private LwM2mPath(int length, int objectId, int objectInstanceId, int resourceId, int resourceInstanceId,
+            String string) {
+        this.length = (byte) length;
         this.objectId = objectId;
         this.objectInstanceId = objectInstanceId;
         this.resourceId = resourceId;
         this.resourceInstanceId = resourceInstanceId;
+        this.string = string;
+    }
+
+    private static int lengthOf(Integer objectId, Integer objectInstanceId, Integer resourceId,
+            Integer resourceInstanceId) {
+        Integer[] ids = { objectId, objectInstanceId, resourceId, resourceInstanceId };
+        int length = 0;
+        while (length < ids.length && ids[length] != null) {
+            length++;
+        }
+        for (int i = length; i < ids.length; i++) {
+            if (ids[i] != null) {
+                throw new LwM2mNodeException("Invalid LWM2M path (%d,%d,%d,%d)", objectId, objectInstanceId,
+                        resourceId, resourceInstanceId);
+            }
+        }
+        return length;
+    }
+
+    private static int valueOf(Integer id) {
+        return id == null ? 0 : id;
     }
 
     /**
@@ -138,7 +212,14 @@ public class LwM2mPath {
         if (isRoot()) {
             return pathToAdd;
         } else {
-            return new LwM2mPath(this.toString() + pathToAdd.toString());
+            if (length + pathToAdd.length > 4) {
+                throw new IllegalArgumentException("Invalid length for path: " + this + pathToAdd);
+            }
+            LwM2mPath result = this;
+            for (int i = 0; i < pathToAdd.length; i++) {
+                result = result.append(pathToAdd.id(i));
+            }
+            return result;
         }
     }
 
@@ -150,11 +231,11 @@ public class LwM2mPath {
         if (isRoot()) {
             return new LwM2mPath(end);
         } else if (isObject()) {
-            return new LwM2mPath(getObjectId(), end);
+            return new LwM2mPath(objectId, end);
         } else if (isObjectInstance()) {
-            return new LwM2mPath(getObjectId(), getObjectInstanceId(), end);
+            return new LwM2mPath(objectId, objectInstanceId, end);
         } else if (isResource()) {
-            return new LwM2mPath((int) getObjectId(), (int) getObjectInstanceId(), (int) getResourceId(), end);
+            return new LwM2mPath(objectId, objectInstanceId, resourceId, end);
         } else {
             throw new IllegalArgumentException(String.format(
                     "Unable to append Id(%d) to path %s. Resource instance level is the deeper one.", end, this));
@@ -166,40 +247,40 @@ public class LwM2mPath {
      * @return true if the current path start with the given path
      */
     public boolean startWith(LwM2mPath start) {
-        // object id
-        if (start.getObjectId() == null)
-            return true;
-        if (!start.getObjectId().equals(this.getObjectId())) {
-            return false;
-        }
-        // object instance id
-        if (start.getObjectInstanceId() == null)
-            return true;
-        if (!start.getObjectInstanceId().equals(this.getObjectInstanceId())) {
-            return false;
-        }
-        // resource id
-        if (start.getResourceId() == null)
-            return true;
-        if (!start.getResourceId().equals(this.getResourceId())) {
+        if (start.length > length) {
             return false;
         }
-        // resource instance id
-        if (start.getResourceInstanceId() == null)
-            return true;
-        if (!start.getResourceInstanceId().equals(this.getResourceInstanceId())) {
-            return false;
+        for (int i = 0; i < start.length; i++) {
+            if (start.id(i) != id(i)) {
+                return false;
+            }
         }
         return true;
     }
 
+    /**
+     * @return the id at the given index (0 for object id), undefined if index is not lower than the path length.
+     */
+    int id(int index) {
+        switch (index) {
+        case 0:
+            return objectId;
+        case 1:
+            return objectInstanceId;
+        case 2:
+            return resourceId;
+        default:
+            return resourceInstanceId;
+        }
+    }
+
     /**
      * Returns the object ID in the path.
      *
      * @return the object ID. Can be <code>null</code> when this is an root path.
      */
     public Integer getObjectId() {
-        return objectId;
+        return length >= 1 ? Integer.valueOf(objectId) : null;
     }
 
     /**
@@ -208,7 +289,7 @@ public class LwM2mPath {
      * @return the object instance ID. Can be <code>null</code> when this is an root/object path.
      */
     public Integer getObjectInstanceId() {
-        return objectInstanceId;
+        return length >= 2 ? Integer.valueOf(objectInstanceId) : null;
     }
 
     /**
@@ -217,7 +298,7 @@ public class LwM2mPath {
      * @return the resource ID. Can be <code>null</code> when this is a root/object/object instance path.
      */
     public Integer getResourceId() {
-        return resourceId;
+        return length >= 3 ? Integer.valueOf(resourceId) : null;
     }
 
     /**
@@ -227,50 +308,50 @@ public class LwM2mPath {
      *         path.
      */
     public Integer getResourceInstanceId() {
-        return resourceInstanceId;
+        return length >= 4 ? Integer.valueOf(resourceInstanceId) : null;
     }
 
     /**
      * @return <code>true</code> if this is the root path ("/").
      */
     public boolean isRoot() {
-        return objectId == null && objectInstanceId == null && resourceId == null && resourceInstanceId == null;
+        return length == 0;
     }
 
     /**
      * @return <code>true</code> if this is an Object path.
      */
     public boolean isObject() {
-        return objectId != null && objectInstanceId == null && resourceId == null && resourceInstanceId == null;
+        return length == 1;
     }
 
     /**
      * @return <code>true</code> if this is an ObjectInstance path.
      */
     public boolean isObjectInstance() {
-        return objectId != null && objectInstanceId != null && resourceId == null && resourceInstanceId == null;
+        return length == 2;
     }
 
     /**
      * @return <code>true</code> if this is a Resource path.
      */
     public boolean isResource() {
-        return objectId != null && objectInstanceId != null && resourceId != null && resourceInstanceId == null;
+        return length == 3;
     }
 
     /**
      * @return <code>true</code> if this is a Resource instance path.
      */
     public boolean isResourceInstance() {
-        return objectId != null && objectInstanceId != null && resourceId != null && resourceInstanceId != null;
+        return length == 4;
     }
 
     /**
      * @return a new {@link LwM2mPath} targeting an object from current path.
      */
     public LwM2mPath toObjectPath() {
-        if (getObjectId() != null)
-            return new LwM2mPath(getObjectId());
+        if (length >= 1)
+            return new LwM2mPath(objectId);
         throw new IllegalStateException(String.format("an object path can not be created from %s", this));
     }
 
@@ -278,8 +359,8 @@ public class LwM2mPath {
      * @return a new {@link LwM2mPath} targeting an object instance from current path.
      */
     public LwM2mPath toObjectInstancePath() {
-        if (getObjectInstanceId() != null)
-            return new LwM2mPath(getObjectId(), getObjectInstanceId());
+        if (length >= 2)
+            return new LwM2mPath(objectId, objectInstanceId);
         throw new IllegalStateException(String.format("an object instance path can not be created from %s", this));
     }
 
@@ -287,41 +368,42 @@ public class LwM2mPath {
      * @return a new {@link LwM2mPath} targeting an resource from current path.
      */
     public LwM2mPath toResourcePath() {
-        if (getResourceId() != null)
-            return new LwM2mPath(getObjectId(), getObjectInstanceId(), getResourceId());
+        if (length >= 3)
+            return new LwM2mPath(objectId, objectInstanceId, resourceId);
         throw new IllegalStateException(String.format("an resource path can not be created from %s", this));
     }
 
     /**
      * The string representation of the path: /{Object ID}/{ObjectInstance ID}/{Resource ID}/{ResourceInstance ID}
+     * <p>
+     * It is computed once then cached.
      */
     @Override
     public String toString() {
-        StringBuilder b = new StringBuilder();
-        b.append("/");
-        if (getObjectId() != null) {
-            b.append(getObjectId());
-            if (getObjectInstanceId() != null) {
-                b.append("/").append(getObjectInstanceId());
-                if (getResourceId() != null) {
-                    b.append("/").append(getResourceId());
-                    if (getResourceInstanceId() != null) {
-                        b.append("/").append(getResourceInstanceId());
-                    }
+        String s = string;
+        if (s == null) {
+            StringBuilder b = new StringBuilder(length * 6 + 1);
+            b.append("/");
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    b.append("/");
                 }
+                b.append(id(i));
             }
+            s = b.toString();
+            string = s;
         }
-        return b.toString();
+        return s;
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
-        int result = 1;
+        int result = length;
         result = prime * result + objectId;
-        result = prime * result + ((objectInstanceId == null) ? 0 : objectInstanceId.hashCode());
-        result = prime * result + ((resourceId == null) ? 0 : resourceId.hashCode());
-        result = prime * result + ((resourceInstanceId == null) ? 0 : resourceInstanceId.hashCode());
+        result = prime * result + objectInstanceId;
+        result = prime * result + resourceId;
+        result = prime * result + resourceInstanceId;
         return result;
     }
 
@@ -337,35 +419,7 @@ public class LwM2mPath {
             return false;
         }
         LwM2mPath other = (LwM2mPath) obj;
-        if (objectId == null) {
-            if (other.objectId != null) {
-                return false;
-            }
-        } else if (!objectId.equals(other.objectId)) {
-            return false;
-        }
-        if (objectInstanceId == null) {
-            if (other.objectInstanceId != null) {
-                return false;
-            }
-        } else if (!objectInstanceId.equals(other.objectInstanceId)) {
-            return false;
-        }
-        if (resourceId == null) {
-            if (other.resourceId != null) {
-                return false;
-            }
-        } else if (!resourceId.equals(other.resourceId)) {
-            return false;
-        }
-        if (resourceInstanceId == null) {
-            if (other.resourceInstanceId != null) {
-                return false;
-            }
-        } else if (!resourceInstanceId.equals(other.resourceInstanceId)) {
-            return false;
-        }
-        return true;
+        return length == other.length && objectId == other.objectId && objectInstanceId == other.objectInstanceId
+                && resourceId == other.resourceId && resourceInstanceId == other.resourceInstanceId;
     }
-
-}
\ No newline at end of file
+}
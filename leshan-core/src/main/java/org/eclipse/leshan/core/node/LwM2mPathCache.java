@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.node;
+
+import org.eclipse.leshan.core.util.Validate;
+
+/**
+ * A bounded cache of canonical {@link LwM2mPath}, looked up by their string form.
+ * <p>
+ * This is a fixed size table where each string is mapped to a slot by its hash code: a new path replaces the one which
+ * was in its slot, so frequent paths stay in cache while the memory used is bounded. Lookups do not lock and do not
+ * allocate when the path is already cached. As paths are immutable, cached instances can be shared between threads.
+ *
+ * @since 2.0
+ */
+public class LwM2mPathCache {
+
+    public static final int DEFAULT_SIZE = 1024;
+
+    private static final LwM2mPathCache DEFAULT = new LwM2mPathCache(DEFAULT_SIZE);
+
+    private static class Entry {
+        private final String key;
+        private final LwM2mPath path;
+
+        private Entry(String key, LwM2mPath path) {
+            this.key = key;
+            this.path = path;
+        }
+    }
+
+    // racy writes are safe as entries are immutable
+    private final Entry[] entries;
+    private final int mask;
+
+    /**
+     * @param size the maximum number of cached paths, rounded up to a power of two.
+     */
+    public LwM2mPathCache(int size) {
+        Validate.isTrue(size > 0 && size <= 1 << 20, "size must be between 1 and 2^20");
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the cache shared by Leshan codecs and observations.
+     */
+    public static LwM2mPathCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the {@link LwM2mPath} for the given string, parsing it only if it is not cached.
+     *
+     * @param path the path (e.g. "/3/0/1" or "/3")
+     * @throws IllegalArgumentException if path is invalid
+     * @throws LwM2mNodeException if path is invalid
+     * @see LwM2mPath#LwM2mPath(String)
+     */
+    public LwM2mPath get(String path) {
+        Validate.notNull(path);
+        int hash = path.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        Entry entry = entries[slot];
+        if (entry != null && entry.key.equals(path)) {
+            return entry.path;
+        }
+        LwM2mPath lwm2mPath = new LwM2mPath(path);
+        entries[slot] = new Entry(path, lwm2mPath);
+        return lwm2mPath;
+    }
+
+    /**
+     * Removes all cached paths.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+    }
+}
@@ -29,11 +29,14 @@ import org.eclipse.leshan.core.util.datatype.ULong;
 public class LwM2mSingleResource implements LwM2mResource {
 
     private final int id;
-
-    private final Object value;
-
     private final Type type;
 
+    // value of INTEGER and FLOAT resources, kept unboxed
+    private final long longValue;
+    private final double doubleValue;
+    // value of other resources, or boxed value created on first getValue() call
+    private volatile Object value;
+
     protected LwM2mSingleResource(int id, Object value, Type type) {
         LwM2mNodeUtil.validateNotNull(value, "value MUST NOT be null");
         LwM2mNodeUtil.validateResourceId(id);
@@ -41,16 +44,36 @@ public class LwM2mSingleResource implements LwM2mResource {
         this.id = id;
         this.value = value;
         this.type = type;
+        this.longValue = type == Type.INTEGER ? ((Number) value).longValue() : 0;
+        this.doubleValue = type == Type.FLOAT ? ((Number) value).doubleValue() : 0;
+    }
+
+    private LwM2mSingleResource(int id, long value) {
+        LwM2mNodeUtil.validateResourceId(id);
+
+        this.id = id;
+        this.type = Type.INTEGER;
+        this.longValue = value;
+        this.doubleValue = 0;
+    }
+
+    private LwM2mSingleResource(int id, double value) {
+        LwM2mNodeUtil.validateResourceId(id);
+
+        this.id = id;
+        this.type = Type.FLOAT;
+        this.longValue = 0;
+        this.doubleValue = value;
     }
 
     public static LwM2mSingleResource newResource(int id, Object value) {
         LwM2mNodeUtil.validateNotNull(value, "value MUST NOT be null");
 
         if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
-            return new LwM2mSingleResource(id, ((Number) value).longValue(), Type.INTEGER);
+            return new LwM2mSingleResource(id, ((Number) value).longValue());
         }
         if (value instanceof Float || value instanceof Double) {
-            return new LwM2mSingleResource(id, ((Number) value).doubleValue(), Type.FLOAT);
+            return new LwM2mSingleResource(id, ((Number) value).doubleValue());
         }
         if (value instanceof Boolean) {
             return new LwM2mSingleResource(id, value, Type.BOOLEAN);
@@ -121,7 +144,7 @@ public class LwM2mSingleResource implements LwM2mResource {
     }
 
     public static LwM2mSingleResource newIntegerResource(int id, long value) {
-        return new LwM2mSingleResource(id, value, Type.INTEGER);
+        return new LwM2mSingleResource(id, value);
     }
 
     public static LwM2mSingleResource newObjectLinkResource(int id, ObjectLink objlink) {
@@ -133,7 +156,7 @@ public class LwM2mSingleResource implements LwM2mResource {
     }
 
     public static LwM2mSingleResource newFloatResource(int id, double value) {
-        return new LwM2mSingleResource(id, value, Type.FLOAT);
+        return new LwM2mSingleResource(id, value);
     }
 
     public static LwM2mSingleResource newDateResource(int id, Date value) {
@@ -176,7 +199,37 @@ public class LwM2mSingleResource implements LwM2mResource {
      */
     @Override
     public Object getValue() {
-        return value;
+        Object v = value;
+        if (v == null) {
+            // box primitive value only when asked
+            v = type == Type.INTEGER ? (Object) Long.valueOf(longValue) : (Object) Double.valueOf(doubleValue);
+            value = v;
+        }
+        return v;
+    }
+
+    /**
+     * Returns the value of an {@link Type#INTEGER} resource without boxing it.
+     *
+     * @exception LwM2mNodeException if the type is not {@link Type#INTEGER}.
+     * @since 2.0
+     */
+    public long getLongValue() {
+        if (type != Type.INTEGER)
+            throw new LwM2mNodeException(String.format("Resource %d is not an INTEGER but a %s", id, type));
+        return longValue;
+    }
+
+    /**
+     * Returns the value of a {@link Type#FLOAT} resource without boxing it.
+     *
+     * @exception LwM2mNodeException if the type is not {@link Type#FLOAT}.
+     * @since 2.0
+     */
+    public double getDoubleValue() {
+        if (type != Type.FLOAT)
+            throw new LwM2mNodeException(String.format("Resource %d is not a FLOAT but a %s", id, type));
+        return doubleValue;
     }
 
     /**
@@ -224,9 +277,16 @@ public class LwM2mSingleResource implements LwM2mResource {
         result = prime * result + ((type == null) ? 0 : type.hashCode());
         if (type == Type.OPAQUE) {
             // Custom hashcode to handle byte arrays
-            result = prime * result + ((value == null) ? 0 : Arrays.hashCode((byte[]) value));
+            result = prime * result + Arrays.hashCode((byte[]) value);
+        } else if (type == Type.INTEGER) {
+            // same as Long.hashCode()
+            result = prime * result + (int) (longValue ^ (longValue >>> 32));
+        } else if (type == Type.FLOAT) {
+            // same as Double.hashCode()
+            long bits = Double.doubleToLongBits(doubleValue);
+            result = prime * result + (int) (bits ^ (bits >>> 32));
         } else {
-            result = prime * result + ((value == null) ? 0 : value.hashCode());
+            result = prime * result + value.hashCode();
         }
         return result;
     }
@@ -244,15 +304,17 @@ public class LwM2mSingleResource implements LwM2mResource {
             return false;
         if (type != other.type)
             return false;
-        if (value == null) {
-            if (other.value != null)
-                return false;
-        } else {
+        if (type == Type.OPAQUE) {
             // Custom equals to handle byte arrays
-            return type == Type.OPAQUE ? Arrays.equals((byte[]) value, (byte[]) other.value)
-                    : value.equals(other.value);
+            return Arrays.equals((byte[]) value, (byte[]) other.value);
+        } else if (type == Type.INTEGER) {
+            return longValue == other.longValue;
+        } else if (type == Type.FLOAT) {
+            // same as Double.equals()
+            return Double.doubleToLongBits(doubleValue) == Double.doubleToLongBits(other.doubleValue);
+        } else {
+            return value.equals(other.value);
         }
-        return true;
     }
 
     @Override
@@ -260,7 +322,7 @@ public class LwM2mSingleResource implements LwM2mResource {
         // We don't print OPAQUE value as this could be credentials one.
         // Not ideal but didn't find better way for now.
         return String.format("LwM2mSingleResource [id=%s, value=%s, type=%s]", id,
-                type == Type.OPAQUE ? ((byte[]) value).length + "Bytes" : value, type);
+                type == Type.OPAQUE ? ((byte[]) value).length + "Bytes" : getValue(), type);
     }
 
 }
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.node.codec;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.eclipse.leshan.core.util.Validate;
+
+/**
+ * A {@link LwM2mNodeEncoder} which keeps the payloads of the last encoded {@link LwM2mNode}.
+ * <p>
+ * Nodes are immutable and compared by content, so a node equal to a recently encoded one, for the same content format,
+ * path and model, is not encoded again. It is useful when the same nodes are written to many devices, like the
+ * server and access control instances of a bootstrap configuration template. Other methods are delegated.
+ * <p>
+ * Payloads are kept in a LRU cache of a bounded number of entries. Returned arrays are copies, so callers can modify
+ * them. Nodes of the Security (0) and OSCORE (21) objects are never cached, so credentials are not kept in memory
+ * longer than needed.
+ *
+ * @since 2.0
+ */
+public class CachingLwM2mNodeEncoder implements LwM2mNodeEncoder {
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final int SECURITY_OBJECT_ID = 0;
+    private static final int OSCORE_OBJECT_ID = 21;
+
+    private final LwM2mNodeEncoder encoder;
+    private final Map<Key, byte[]> payloads;
+
+    public CachingLwM2mNodeEncoder(LwM2mNodeEncoder encoder) {
+        this(encoder, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param encoder the encoder used when a node is not in cache.
+     * @param maxSize the maximum number of payloads kept in cache.
+     */
+    public CachingLwM2mNodeEncoder(LwM2mNodeEncoder encoder, final int maxSize) {
+        Validate.notNull(encoder, "encoder must not be null");
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        this.encoder = encoder;
+        this.payloads = new LinkedHashMap<Key, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public byte[] encode(LwM2mNode node, ContentFormat format, LwM2mPath path, LwM2mModel model)
+            throws CodecException {
+        if (node == null || !isCacheable(path)) {
+            return encoder.encode(node, format, path, model);
+        }
+        Key key = new Key(node, format, path, model);
+        byte[] payload;
+        synchronized (payloads) {
+            payload = payloads.get(key);
+        }
+        if (payload == null) {
+            payload = encoder.encode(node, format, path, model);
+            synchronized (payloads) {
+                payloads.put(key, payload);
+            }
+        }
+        return payload.clone();
+    }
+
+    private static boolean isCacheable(LwM2mPath path) {
+        if (path == null || path.isRoot()) {
+            // could contain any object
+            return false;
+        }
+        int objectId = path.getObjectId();
+        return objectId != SECURITY_OBJECT_ID && objectId != OSCORE_OBJECT_ID;
+    }
+
+    /**
+     * Removes all payloads from cache.
+     */
+    public void clear() {
+        synchronized (payloads) {
+            payloads.clear();
+        }
+    }
+
+    @Override
+    public byte[] encodeNodes(Map<LwM2mPath, LwM2mNode> nodes, ContentFormat format, LwM2mModel model)
+            throws CodecException {
+        return encoder.encodeNodes(nodes, format, model);
+    }
+
+    @Override
+    public byte[] encodeTimestampedData(List<TimestampedLwM2mNode> timestampedNodes, ContentFormat format,
+            LwM2mPath path, LwM2mModel model) throws CodecException {
+        return encoder.encodeTimestampedData(timestampedNodes, format, path, model);
+    }
+
+    @Override
+    public byte[] encodePaths(List<LwM2mPath> paths, ContentFormat format) throws CodecException {
+        return encoder.encodePaths(paths, format);
+    }
+
+    @Override
+    public boolean isSupported(ContentFormat format) {
+        return encoder.isSupported(format);
+    }
+
+    private static class Key {
+        private final LwM2mNode node;
+        private final ContentFormat format;
+        private final LwM2mPath path;
+        // models are compared by identity
+        private final LwM2mModel model;
+        private final int hashCode;
+
+        public Key(LwM2mNode node, ContentFormat format, LwM2mPath path, LwM2mModel model) {
+            this.node = node;
+            this.format = format;
+            this.path = path;
+            this.model = model;
+
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + node.hashCode();
+            result = prime * result + (format == null ? 0 : format.hashCode());
+            result = prime * result + (path == null ? 0 : path.hashCode());
+            result = prime * result + System.identityHashCode(model);
+            this.hashCode = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return hashCode == other.hashCode && model == other.model && node.equals(other.node)
+                    && (format == null ? other.format == null : format.equals(other.format))
+                    && (path == null ? other.path == null : path.equals(other.path));
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
 import org.eclipse.leshan.core.node.codec.cbor.LwM2mNodeCborDecoder;
 import org.eclipse.leshan.core.node.codec.json.LwM2mNodeJsonDecoder;
 import org.eclipse.leshan.core.node.codec.opaque.LwM2mNodeOpaqueDecoder;
+import org.eclipse.leshan.core.node.codec.senml.LwM2mNodeSenMLCborDecoder;
 import org.eclipse.leshan.core.node.codec.senml.LwM2mNodeSenMLDecoder;
 import org.eclipse.leshan.core.node.codec.senml.LwM2mPathSenMLDecoder;
 import org.eclipse.leshan.core.node.codec.text.LwM2mNodeTextDecoder;
@@ -74,7 +75,7 @@ public class DefaultLwM2mNodeDecoder implements LwM2mNodeDecoder {
         decoders.put(ContentFormat.OPAQUE, new LwM2mNodeOpaqueDecoder());
         decoders.put(ContentFormat.CBOR, new LwM2mNodeCborDecoder());
         decoders.put(ContentFormat.SENML_JSON, new LwM2mNodeSenMLDecoder(new SenMLJsonJacksonEncoderDecoder()));
-        decoders.put(ContentFormat.SENML_CBOR, new LwM2mNodeSenMLDecoder(new SenMLCborUpokecenterEncoderDecoder()));
+        decoders.put(ContentFormat.SENML_CBOR, new LwM2mNodeSenMLCborDecoder());
 
         // tlv
         LwM2mNodeTlvDecoder tlvDecoder = new LwM2mNodeTlvDecoder();
@@ -70,6 +70,23 @@ public class LwM2mNodeCborDecoder implements NodeDecoder {
             LOG.debug("Decoding CBOR resource or resource instance without model, type guessed {}", expectedType);
         }
 
+        // Numeric values are not boxed
+        if (expectedType == Type.INTEGER && cborObject.getType() == CBORType.Integer) {
+            long value = parseCborLong(cborObject, path);
+            if (path.isResource()) {
+                return (T) LwM2mSingleResource.newIntegerResource(path.getResourceId(), value);
+            } else {
+                return (T) LwM2mResourceInstance.newIntegerInstance(path.getResourceInstanceId(), value);
+            }
+        } else if (expectedType == Type.FLOAT && cborObject.getType() == CBORType.FloatingPoint) {
+            double value = cborObject.AsDoubleValue();
+            if (path.isResource()) {
+                return (T) LwM2mSingleResource.newFloatResource(path.getResourceId(), value);
+            } else {
+                return (T) LwM2mResourceInstance.newFloatInstance(path.getResourceInstanceId(), value);
+            }
+        }
+
         // Get Node Value
         Object nodeValue = parseCborValue(cborObject, expectedType, path);
 
@@ -108,6 +125,15 @@ public class LwM2mNodeCborDecoder implements NodeDecoder {
         }
     }
 
+    private long parseCborLong(CBORObject cborObject, LwM2mPath path) throws CodecException {
+        try {
+            return cborObject.AsInt64Value();
+        } catch (IllegalStateException | ArithmeticException e) {
+            throw new CodecException(e, "Unable to convert CBOR value %s of type %s in type %s for resource %s",
+                    cborObject.toString(), cborObject.getType(), Type.INTEGER, path);
+        }
+    }
+
     private Object parseCborValue(CBORObject cborObject, Type type, LwM2mPath path) throws CodecException {
         LOG.trace("CBOR value for path {} and expected type {}: {}", path, type, cborObject.toString());
 
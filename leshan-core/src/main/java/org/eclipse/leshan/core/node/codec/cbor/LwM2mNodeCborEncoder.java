@@ -27,8 +27,10 @@ import org.eclipse.leshan.core.node.LwM2mObjectInstance;
 import org.eclipse.leshan.core.node.LwM2mPath;
 import org.eclipse.leshan.core.node.LwM2mResource;
 import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.node.ObjectLink;
 import org.eclipse.leshan.core.node.codec.CodecException;
+import org.eclipse.leshan.core.node.codec.LwM2mValueChecker;
 import org.eclipse.leshan.core.node.codec.LwM2mValueConverter;
 import org.eclipse.leshan.core.node.codec.NodeEncoder;
 import org.eclipse.leshan.core.util.Validate;
@@ -54,6 +56,7 @@ public class LwM2mNodeCborEncoder implements NodeEncoder {
         internalEncoder.path = path;
         internalEncoder.model = model;
         internalEncoder.converter = converter;
+        internalEncoder.checkOnly = converter.getClass() == LwM2mValueChecker.class;
         node.accept(internalEncoder);
         return internalEncoder.encoded;
     }
@@ -63,6 +66,8 @@ public class LwM2mNodeCborEncoder implements NodeEncoder {
         private LwM2mPath path;
         private LwM2mModel model;
         private LwM2mValueConverter converter;
+        // numeric values can be encoded without boxing only if the converter does not change them
+        private boolean checkOnly;
 
         // visitor output
         private byte[] encoded = null;
@@ -86,6 +91,15 @@ public class LwM2mNodeCborEncoder implements NodeEncoder {
 
             ResourceModel rSpec = model.getResourceModel(path.getObjectId(), resource.getId());
             Type expectedType = rSpec != null ? rSpec.type : resource.getType();
+
+            // numeric values which already have the expected type are encoded without boxing
+            if (isUnboxed(resource, expectedType, Type.INTEGER)) {
+                encoded = CBORObject.FromObject(((LwM2mSingleResource) resource).getLongValue()).EncodeToBytes();
+                return;
+            } else if (isUnboxed(resource, expectedType, Type.FLOAT)) {
+                encoded = CBORObject.FromObject(((LwM2mSingleResource) resource).getDoubleValue()).EncodeToBytes();
+                return;
+            }
             Object val = converter.convertValue(resource.getValue(), resource.getType(), expectedType, path);
 
             if (expectedType == null) {
@@ -104,6 +118,15 @@ public class LwM2mNodeCborEncoder implements NodeEncoder {
 
             ResourceModel rSpec = model.getResourceModel(path.getObjectId(), path.getResourceId());
             Type expectedType = rSpec != null ? rSpec.type : instance.getType();
+
+            // numeric values which already have the expected type are encoded without boxing
+            if (checkOnly && instance.getType() == expectedType && expectedType == Type.INTEGER) {
+                encoded = CBORObject.FromObject(instance.getLongValue()).EncodeToBytes();
+                return;
+            } else if (checkOnly && instance.getType() == expectedType && expectedType == Type.FLOAT) {
+                encoded = CBORObject.FromObject(instance.getDoubleValue()).EncodeToBytes();
+                return;
+            }
             Object val = converter.convertValue(instance.getValue(), instance.getType(), expectedType, path);
 
             if (expectedType == null) {
@@ -116,6 +139,11 @@ public class LwM2mNodeCborEncoder implements NodeEncoder {
             encoded = cbor.EncodeToBytes();
         }
 
+        private boolean isUnboxed(LwM2mResource resource, Type expectedType, Type numericType) {
+            return checkOnly && resource instanceof LwM2mSingleResource && resource.getType() == expectedType
+                    && expectedType == numericType;
+        }
+
         private CBORObject getCborValue(Type expectedType, Object val) {
             CBORObject cbor;
             if (val == null) {
@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.node.codec.senml;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ResourceModel;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
+import org.eclipse.leshan.core.node.LwM2mMultipleResource;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mObject;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mResource;
+import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+import org.eclipse.leshan.core.node.codec.CodecException;
+import org.eclipse.leshan.core.util.Hex;
+import org.eclipse.leshan.core.util.datatype.ULong;
+import org.eclipse.leshan.senml.SenMLException;
+import org.eclipse.leshan.senml.SenMLRecord;
+import org.eclipse.leshan.senml.cbor.upokecenter.SenMLCborUpokecenterEncoderDecoder;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+
+/**
+ * A SenML-CBOR decoder which builds {@link LwM2mNode} directly while reading CBOR items.
+ * <p>
+ * {@link LwM2mNodeSenMLDecoder} first decodes the whole payload as a CBOR-Java object tree, then as a list of
+ * {@link SenMLRecord}, then resolves and groups them before creating nodes. This decoder reads the payload with a
+ * streaming {@link CBORParser}, resolves each record as soon as it is read and adds its value to the node being built.
+ * Base name, base time and time-stamp resolution are the ones of {@link LwM2mSenMLResolver}.
+ * <p>
+ * {@link #decodeNodes(byte[], List, LwM2mModel)} is not optimized and uses the {@link LwM2mNodeSenMLDecoder} way.
+ *
+ * @since 2.0
+ */
+public class LwM2mNodeSenMLCborDecoder extends LwM2mNodeSenMLDecoder {
+
+    private static final CBORFactory factory = new CBORFactory();
+
+    public LwM2mNodeSenMLCborDecoder() {
+        super(new SenMLCborUpokecenterEncoderDecoder());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends LwM2mNode> T decode(byte[] content, LwM2mPath path, LwM2mModel model, Class<T> nodeClass)
+            throws CodecException {
+        NodeBuilder builder = new NodeBuilder(path, model);
+        try (CBORParser parser = factory.createParser(content)) {
+            LwM2mSenMLResolver resolver = new LwM2mSenMLResolver();
+            startArray(parser);
+            SenMLRecord record;
+            while ((record = nextRecord(parser)) != null) {
+                LwM2mResolvedSenMLRecord resolvedRecord = resolver.resolve(record);
+
+                // Validate SenML resolved name
+                LwM2mPath nodePath = resolvedRecord.getPath();
+                if (!nodePath.isResourceInstance() && !nodePath.isResource()) {
+                    throw new CodecException(
+                            "Invalid path [%s] for resource, it should be a resource or a resource instance path",
+                            resolvedRecord.getName());
+                }
+                if (!nodePath.startWith(path)) {
+                    throw new CodecException("Invalid path [%s] for resource, it should start by %s", nodePath, path);
+                }
+                if (resolvedRecord.getTimeStamp() != null) {
+                    throw new CodecException("Unable to decode node[path:%s] : value should not be timestamped", path);
+                }
+                builder.add(nodePath, record);
+            }
+        } catch (SenMLException | IOException e) {
+            String hexValue = content != null ? Hex.encodeHexString(content) : "";
+            throw new CodecException(e, "Unable to decode node[path:%s] : %s", path, hexValue, e);
+        }
+        return (T) builder.build(nodeClass);
+    }
+
+    @Override
+    public List<TimestampedLwM2mNode> decodeTimestampedData(byte[] content, LwM2mPath path, LwM2mModel model,
+            Class<? extends LwM2mNode> nodeClass) throws CodecException {
+        // time-stamp => node builder, order by descending time-stamp, null time-stamp at first place
+        SortedMap<Long, NodeBuilder> buildersByTimestamp = new TreeMap<>(new Comparator<Long>() {
+            @Override
+            public int compare(Long o1, Long o2) {
+                // null at first place
+                if (o1 == null && o2 == null)
+                    return 0;
+                if (o1 == null)
+                    return -1;
+                if (o2 == null)
+                    return 1;
+                return Long.compare(o2, o1);
+            }
+        });
+
+        try (CBORParser parser = factory.createParser(content)) {
+            LwM2mSenMLResolver resolver = new LwM2mSenMLResolver();
+            startArray(parser);
+            SenMLRecord record;
+            while ((record = nextRecord(parser)) != null) {
+                LwM2mResolvedSenMLRecord resolvedRecord = resolver.resolve(record);
+
+                // Validate SenML resolved name
+                LwM2mPath nodePath = resolvedRecord.getPath();
+                if (!nodePath.isResourceInstance() && !nodePath.isResource()) {
+                    throw new CodecException(
+                            "Invalid path [%s] for resource, it should be a resource or a resource instance path",
+                            resolvedRecord.getName());
+                }
+                if (!nodePath.startWith(path)) {
+                    throw new CodecException("Invalid path [%s] for resource, it should start by %s",
+                            resolvedRecord.getName(), path);
+                }
+
+                // Get node builder for this time-stamp
+                NodeBuilder builder = buildersByTimestamp.get(resolvedRecord.getTimeStamp());
+                if (builder == null) {
+                    builder = new NodeBuilder(path, model);
+                    buildersByTimestamp.put(resolvedRecord.getTimeStamp(), builder);
+                }
+                builder.add(nodePath, record);
+            }
+        } catch (SenMLException | IOException e) {
+            String hexValue = content != null ? Hex.encodeHexString(content) : "";
+            throw new CodecException(e, "Unable to decode node[path:%s] : %s", path, hexValue, e);
+        }
+
+        // Ensure there is at least one entry for null timestamp
+        if (buildersByTimestamp.isEmpty()) {
+            buildersByTimestamp.put((Long) null, new NodeBuilder(path, model));
+        }
+
+        // Fill time-stamped nodes collection
+        List<TimestampedLwM2mNode> timestampedNodes = new ArrayList<>(buildersByTimestamp.size());
+        for (Entry<Long, NodeBuilder> entry : buildersByTimestamp.entrySet()) {
+            timestampedNodes.add(new TimestampedLwM2mNode(entry.getKey(), entry.getValue().build(nodeClass)));
+        }
+        return timestampedNodes;
+    }
+
+    private void startArray(CBORParser parser) throws IOException, SenMLException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw new SenMLException("Unable to parse SenML CBOR: Array expected but was %s", token);
+        }
+    }
+
+    /**
+     * @return the next record or <code>null</code> at the end of the SenML pack.
+     */
+    private SenMLRecord nextRecord(CBORParser parser) throws IOException, SenMLException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY)
+            return null;
+        if (token != JsonToken.START_OBJECT)
+            throw new SenMLException("Invalid SenML record : Map expected but was %s", token);
+
+        SenMLRecord record = new SenMLRecord();
+        boolean hasValue = false;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            token = parser.nextToken();
+            switch (field) {
+            case "-2": // bn
+                if (token == JsonToken.VALUE_STRING)
+                    record.setBaseName(parser.getText());
+                break;
+            case "-3": // bt
+                if (token.isNumeric())
+                    record.setBaseTime(parser.getValueAsLong());
+                break;
+            case "0": // n
+                if (token == JsonToken.VALUE_STRING)
+                    record.setName(parser.getText());
+                break;
+            case "6": // t
+                if (token.isNumeric())
+                    record.setTime(parser.getValueAsLong());
+                break;
+            case "2": // v
+                if (token.isNumeric()) {
+                    record.setFloatValue(readNumber(parser));
+                    hasValue = true;
+                }
+                break;
+            case "4": // vb
+                if (token.isBoolean()) {
+                    record.setBooleanValue(parser.getBooleanValue());
+                    hasValue = true;
+                }
+                break;
+            case "3": // vs
+                if (token == JsonToken.VALUE_STRING) {
+                    record.setStringValue(parser.getText());
+                    hasValue = true;
+                }
+                break;
+            case "vlo":
+                if (token == JsonToken.VALUE_STRING) {
+                    record.setObjectLinkValue(parser.getText());
+                    hasValue = true;
+                }
+                break;
+            case "8": // vd
+                if (token == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                    record.setOpaqueValue(parser.getBinaryValue());
+                    hasValue = true;
+                }
+                break;
+            default:
+                parser.skipChildren();
+                break;
+            }
+        }
+
+        if (!hasValue)
+            throw new SenMLException("Invalid SenML record : record must have a value (v,vb,vlo,vd,vs) : %s", record);
+
+        return record;
+    }
+
+    /**
+     * Read number as {@link SenMLCborUpokecenterEncoderDecoder} does : integers as {@link Long}, {@link ULong} or
+     * {@link BigInteger} and floating-points as {@link Double} or {@link BigDecimal} if it can not be represented
+     * exactly as a double.
+     */
+    private Number readNumber(CBORParser parser) throws IOException {
+        switch (parser.getNumberType()) {
+        case INT:
+        case LONG:
+            return parser.getLongValue();
+        case BIG_INTEGER:
+            BigInteger bigInteger = parser.getBigIntegerValue();
+            if (bigInteger.bitLength() < 64) {
+                return bigInteger.longValue();
+            } else if (bigInteger.signum() > 0 && bigInteger.bitLength() == 64) {
+                return ULong.valueOf(bigInteger.longValue());
+            } else {
+                return bigInteger;
+            }
+        case BIG_DECIMAL:
+            BigDecimal bigDecimal = parser.getDecimalValue();
+            double doubleValue = bigDecimal.doubleValue();
+            if (!Double.isInfinite(doubleValue) && new BigDecimal(doubleValue).compareTo(bigDecimal) == 0) {
+                return doubleValue;
+            }
+            return bigDecimal;
+        default:
+            return parser.getDoubleValue();
+        }
+    }
+
+    /**
+     * Accumulates values of SenML records targeting the same {@link LwM2mNode}.
+     */
+    private class NodeBuilder {
+        private final LwM2mPath requestPath;
+        private final LwM2mModel model;
+
+        // instanceId => resourceId => resource
+        private final Map<Integer, Map<Integer, LwM2mResource>> resourcesByInstance = new HashMap<>();
+        // instanceId => resourceId => resourceInstanceId => record
+        private final Map<Integer, Map<Integer, Map<Integer, SenMLRecord>>> multiResourcesByInstance = new HashMap<>();
+
+        public NodeBuilder(LwM2mPath requestPath, LwM2mModel model) {
+            this.requestPath = requestPath;
+            this.model = model;
+        }
+
+        public void add(LwM2mPath nodePath, SenMLRecord record) throws CodecException {
+            Integer instanceId = nodePath.getObjectInstanceId();
+            Map<Integer, LwM2mResource> resources = resourcesByInstance.get(instanceId);
+            if (resources == null) {
+                resources = new HashMap<>();
+                resourcesByInstance.put(instanceId, resources);
+            }
+
+            if (nodePath.isResourceInstance()) {
+                // Multi-instance resource
+                // Store multi-instance resource values in a map
+                // we will deal with it when building the node
+                Map<Integer, Map<Integer, SenMLRecord>> multiResources = multiResourcesByInstance.get(instanceId);
+                if (multiResources == null) {
+                    multiResources = new HashMap<>();
+                    multiResourcesByInstance.put(instanceId, multiResources);
+                }
+                Map<Integer, SenMLRecord> multiResource = multiResources.get(nodePath.getResourceId());
+                if (multiResource == null) {
+                    multiResource = new HashMap<>();
+                    multiResources.put(nodePath.getResourceId(), multiResource);
+                }
+                SenMLRecord previousResInstance = multiResource.put(nodePath.getResourceInstanceId(), record);
+                if (previousResInstance != null) {
+                    throw new CodecException(
+                            "2 RESOURCE_INSTANCE nodes (%s,%s) with the same identifier %d for path %s",
+                            previousResInstance, record, nodePath.getResourceInstanceId(), nodePath);
+                }
+            } else if (nodePath.isResource()) {
+                // Single resource
+                Type expectedType = getResourceType(nodePath, model, record);
+                Object resourceValue = parseResourceValue(record.getResourceValue(), expectedType, nodePath);
+                LwM2mResource res = LwM2mSingleResource.newResource(nodePath.getResourceId(), resourceValue,
+                        expectedType);
+                LwM2mResource previousRes = resources.put(nodePath.getResourceId(), res);
+                if (previousRes != null) {
+                    throw new CodecException("2 RESOURCE nodes (%s,%s) with the same identifier %d for path %s",
+                            previousRes, res, res.getId(), nodePath);
+                }
+            } else {
+                throw new CodecException(
+                        "Invalid path [%s] for resource, it should be a resource or a resource instance path",
+                        nodePath);
+            }
+        }
+
+        public LwM2mNode build(Class<? extends LwM2mNode> nodeClass) throws CodecException {
+            if (nodeClass == LwM2mObject.class) {
+                Collection<LwM2mObjectInstance> instances = new ArrayList<>(resourcesByInstance.size());
+                for (Integer instanceId : resourcesByInstance.keySet()) {
+                    instances.add(new LwM2mObjectInstance(instanceId, buildResources(instanceId).values()));
+                }
+                return new LwM2mObject(requestPath.getObjectId(), instances);
+            } else if (nodeClass == LwM2mObjectInstance.class) {
+                // validate we have resources for only 1 instance
+                if (resourcesByInstance.size() != 1)
+                    throw new CodecException("One instance expected in the payload [path:%s]", requestPath);
+
+                Integer instanceId = resourcesByInstance.keySet().iterator().next();
+                return new LwM2mObjectInstance(instanceId, buildResources(instanceId).values());
+            } else if (nodeClass == LwM2mResource.class) {
+                return buildSingleResource();
+            } else if (nodeClass == LwM2mResourceInstance.class) {
+                LwM2mResource resource = buildSingleResource();
+                if (!resource.isMultiInstances()) {
+                    throw new CodecException("Resource should be multi Instances resource [path:%s]", requestPath);
+                }
+
+                if (resource.getInstances().isEmpty()) {
+                    throw new CodecException("Resource instances should not be not empty [path:%s]", requestPath);
+                }
+
+                if (resource.getInstances().size() > 1) {
+                    throw new CodecException("Resource instances should not be > 1 [path:%s]", requestPath);
+                }
+
+                return resource.getInstance(requestPath.getResourceInstanceId());
+            } else {
+                throw new IllegalArgumentException("invalid node class: " + nodeClass);
+            }
+        }
+
+        private LwM2mResource buildSingleResource() throws CodecException {
+            // validate we have resources for only 1 instance
+            if (resourcesByInstance.size() > 1)
+                throw new CodecException("Only one instance expected in the payload [path:%s]", requestPath);
+
+            Map<Integer, LwM2mResource> resourcesMap = buildResources(requestPath.getObjectInstanceId());
+
+            // validate there is only 1 resource
+            if (resourcesMap.size() != 1)
+                throw new CodecException("One resource should be present in the payload [path:%s]", requestPath);
+
+            return resourcesMap.values().iterator().next();
+        }
+
+        private Map<Integer, LwM2mResource> buildResources(Integer instanceId) throws CodecException {
+            Map<Integer, LwM2mResource> resources = resourcesByInstance.get(instanceId);
+            if (resources == null) {
+                resources = new HashMap<>();
+            }
+
+            // Handle multiple resource instances.
+            Map<Integer, Map<Integer, SenMLRecord>> multiResources = multiResourcesByInstance.get(instanceId);
+            if (multiResources != null) {
+                for (Entry<Integer, Map<Integer, SenMLRecord>> entry : multiResources.entrySet()) {
+                    LwM2mPath resourcePath = new LwM2mPath(requestPath.getObjectId(), instanceId, entry.getKey());
+                    Map<Integer, SenMLRecord> entries = entry.getValue();
+
+                    Type expectedType = getResourceType(resourcePath, model, entries.values().iterator().next());
+                    Map<Integer, Object> values = new HashMap<>();
+                    for (Entry<Integer, SenMLRecord> e : entries.entrySet()) {
+                        values.put(e.getKey(),
+                                parseResourceValue(e.getValue().getResourceValue(), expectedType, resourcePath));
+                    }
+                    LwM2mResource resource = LwM2mMultipleResource.newResource(resourcePath.getResourceId(), values,
+                            expectedType);
+                    LwM2mResource previousRes = resources.put(resourcePath.getResourceId(), resource);
+                    if (previousRes != null) {
+                        throw new CodecException("2 RESOURCE nodes (%s,%s) with the same identifier %d for path %s",
+                                previousRes, resource, resource.getId(), resourcePath);
+                    }
+                }
+            }
+
+            // If we found nothing, we try to create an empty multi-instance resource
+            if (resources.isEmpty() && requestPath.isResource()) {
+                ResourceModel resourceModel = model.getResourceModel(requestPath.getObjectId(),
+                        requestPath.getResourceId());
+                // We create it only if this respect the model
+                if (resourceModel == null || resourceModel.multiple) {
+                    Type resourceType = getResourceType(requestPath, model, null);
+                    resources.put(requestPath.getResourceId(), LwM2mMultipleResource
+                            .newResource(requestPath.getResourceId(), new HashMap<Integer, Object>(), resourceType));
+                }
+            }
+            return resources;
+        }
+    }
+}
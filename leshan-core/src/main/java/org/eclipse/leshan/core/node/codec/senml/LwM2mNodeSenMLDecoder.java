@@ -464,7 +464,7 @@ public class LwM2mNodeSenMLDecoder implements TimestampedNodeDecoder, MultiNodeD
         return lwM2mResourceMap;
     }
 
-    private Object parseResourceValue(Object value, Type expectedType, LwM2mPath path) throws CodecException {
+    protected Object parseResourceValue(Object value, Type expectedType, LwM2mPath path) throws CodecException {
         LOG.trace("Parse SenML value for path {} and expected type {}: {}", path, expectedType, value);
 
         try {
@@ -493,7 +493,7 @@ public class LwM2mNodeSenMLDecoder implements TimestampedNodeDecoder, MultiNodeD
         }
     }
 
-    private Type getResourceType(LwM2mPath rscPath, LwM2mModel model, SenMLRecord record) {
+    protected Type getResourceType(LwM2mPath rscPath, LwM2mModel model, SenMLRecord record) {
         // Use model type in priority
         ResourceModel rscDesc = model.getResourceModel(rscPath.getObjectId(), rscPath.getResourceId());
         if (rscDesc != null && rscDesc.type != null)
@@ -27,6 +27,7 @@ import org.eclipse.leshan.core.node.LwM2mNodeVisitor;
 import org.eclipse.leshan.core.node.LwM2mObject;
 import org.eclipse.leshan.core.node.LwM2mObjectInstance;
 import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mPathCache;
 import org.eclipse.leshan.core.node.LwM2mResource;
 import org.eclipse.leshan.core.node.LwM2mResourceInstance;
 import org.eclipse.leshan.core.node.ObjectLink;
@@ -47,9 +48,22 @@ public class LwM2mNodeSenMLEncoder implements TimestampedNodeEncoder, MultiNodeE
     private static final Logger LOG = LoggerFactory.getLogger(LwM2mNodeSenMLEncoder.class);
 
     private final SenMLEncoder encoder;
+    private final boolean compact;
 
     public LwM2mNodeSenMLEncoder(SenMLEncoder encoder) {
+        this(encoder, false);
+    }
+
+    /**
+     * @param encoder the SenML encoder used to serialize the SenML pack.
+     * @param compact if <code>true</code>, the longest common path prefix of all records is written once as base name
+     *        and, for timestamped data, the time of the first record is written once as base time and other records
+     *        use a time relative to it. Else, base name is repeated for each node and each timestamp is absolute.
+     * @since 2.0
+     */
+    public LwM2mNodeSenMLEncoder(SenMLEncoder encoder, boolean compact) {
         this.encoder = encoder;
+        this.compact = compact;
     }
 
     @Override
@@ -67,6 +81,9 @@ public class LwM2mNodeSenMLEncoder implements TimestampedNodeEncoder, MultiNodeE
 
         SenMLPack pack = new SenMLPack();
         pack.setRecords(internalEncoder.records);
+        if (compact) {
+            compact(pack.getRecords());
+        }
 
         try {
             return encoder.toSenML(pack);
@@ -103,6 +120,10 @@ public class LwM2mNodeSenMLEncoder implements TimestampedNodeEncoder, MultiNodeE
             // Meaning that a given path could have no corresponding value.
         }
 
+        if (compact) {
+            compact(pack.getRecords());
+        }
+
         // Encodes SenML pack using internal encoder (it could be SenML-JSON or SenML-CBOR encoder)
         try {
             return encoder.toSenML(pack);
@@ -139,6 +160,9 @@ public class LwM2mNodeSenMLEncoder implements TimestampedNodeEncoder, MultiNodeE
             internalEncoder.records.get(0).setBaseTime(timestampedLwM2mNode.getTimestamp());
             pack.addRecords(internalEncoder.records);
         }
+        if (compact) {
+            compact(pack.getRecords());
+        }
 
         try {
             return encoder.toSenML(pack);
@@ -147,6 +171,77 @@ public class LwM2mNodeSenMLEncoder implements TimestampedNodeEncoder, MultiNodeE
         }
     }
 
+    /**
+     * Rewrites base names, names, base times and times of the given records to factor them as much as possible. Resolved
+     * names and times are not modified.
+     */
+    private void compact(List<SenMLRecord> records) {
+        if (records.isEmpty())
+            return;
+
+        // resolve names and times (see https://tools.ietf.org/html/rfc8428#section-4.5)
+        int size = records.size();
+        String[] names = new String[size];
+        long[] times = new long[size];
+        boolean timestamped = true;
+        String currentBaseName = "";
+        Long currentBaseTime = null;
+        for (int i = 0; i < size; i++) {
+            SenMLRecord record = records.get(i);
+            if (record.getBaseName() != null)
+                currentBaseName = record.getBaseName();
+            names[i] = record.getName() == null ? currentBaseName : currentBaseName + record.getName();
+
+            if (record.getBaseTime() != null)
+                currentBaseTime = record.getBaseTime();
+            if (currentBaseTime == null && record.getTime() == null) {
+                timestamped = false;
+            } else {
+                times[i] = (currentBaseTime == null ? 0 : currentBaseTime)
+                        + (record.getTime() == null ? 0 : record.getTime());
+            }
+        }
+
+        String baseName = commonPrefix(names);
+        for (int i = 0; i < size; i++) {
+            SenMLRecord record = records.get(i);
+            record.setBaseName(i == 0 && !baseName.isEmpty() ? baseName : null);
+            // no name when it is the base name
+            String name = names[i].substring(baseName.length());
+            record.setName(name.isEmpty() ? null : name);
+            if (timestamped) {
+                // time of first record is the base time
+                long time = times[i] - times[0];
+                record.setBaseTime(i == 0 ? times[0] : null);
+                record.setTime(time == 0 ? null : time);
+            }
+        }
+    }
+
+    /**
+     * @return the name if all names are equals, else their longest common prefix ending with a '/'.
+     */
+    private static String commonPrefix(String[] names) {
+        String first = names[0];
+        int length = first.length();
+        boolean allEqual = true;
+        for (int i = 1; i < names.length; i++) {
+            String name = names[i];
+            int max = Math.min(length, name.length());
+            int j = 0;
+            while (j < max && first.charAt(j) == name.charAt(j)) {
+                j++;
+            }
+            length = j;
+            allEqual &= name.equals(first);
+        }
+        if (allEqual) {
+            return first;
+        }
+        // cut after the last '/' to keep whole path segments in names
+        return first.substring(0, first.lastIndexOf('/', length - 1) + 1);
+    }
+
     private static class InternalEncoder implements LwM2mNodeVisitor {
         // visitor inputs
         private int objectId;
@@ -259,7 +354,7 @@ public class LwM2mNodeSenMLEncoder implements TimestampedNodeEncoder, MultiNodeE
             record.setName(n);
 
             // Convert value using expected type
-            LwM2mPath lwM2mResourcePath = new LwM2mPath(bn + n);
+            LwM2mPath lwM2mResourcePath = LwM2mPathCache.getDefault().get(bn + n);
             Object convertedValue = converter.convertValue(value, valueType, expectedType, lwM2mResourcePath);
             setResourceValue(convertedValue, expectedType, lwM2mResourcePath, record);
 
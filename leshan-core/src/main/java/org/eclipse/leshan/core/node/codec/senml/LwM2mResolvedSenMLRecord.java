@@ -17,6 +17,7 @@ package org.eclipse.leshan.core.node.codec.senml;
 
 import org.eclipse.leshan.core.node.LwM2mNodeException;
 import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mPathCache;
 import org.eclipse.leshan.senml.ResolvedSenMLRecord;
 import org.eclipse.leshan.senml.SenMLRecord;
 
@@ -36,7 +37,7 @@ public class LwM2mResolvedSenMLRecord extends ResolvedSenMLRecord {
     public LwM2mResolvedSenMLRecord(SenMLRecord unresolvedRecord, String resolvedName, Long resolvedTimestamp)
             throws IllegalArgumentException, LwM2mNodeException {
         super(unresolvedRecord, resolvedName, resolvedTimestamp);
-        this.path = new LwM2mPath(resolvedName);
+        this.path = LwM2mPathCache.getDefault().get(resolvedName);
     }
 
     /**
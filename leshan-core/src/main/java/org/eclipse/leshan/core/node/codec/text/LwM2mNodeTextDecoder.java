@@ -47,6 +47,17 @@ public class LwM2mNodeTextDecoder implements NodeDecoder {
 
         String strValue = content != null ? new String(content, StandardCharsets.UTF_8) : "";
 
+        // numeric values are not boxed
+        if (rDesc != null && rDesc.type == Type.INTEGER) {
+            long value = parseTextLong(strValue, path);
+            return path.isResource() ? (T) LwM2mSingleResource.newIntegerResource(path.getResourceId(), value)
+                    : (T) LwM2mResourceInstance.newIntegerInstance(path.getResourceInstanceId(), value);
+        } else if (rDesc != null && rDesc.type == Type.FLOAT) {
+            double value = parseTextDouble(strValue, path);
+            return path.isResource() ? (T) LwM2mSingleResource.newFloatResource(path.getResourceId(), value)
+                    : (T) LwM2mResourceInstance.newFloatInstance(path.getResourceInstanceId(), value);
+        }
+
         if (path.isResource()) {
             if (rDesc != null) {
                 return (T) LwM2mSingleResource.newResource(path.getResourceId(),
@@ -65,6 +76,22 @@ public class LwM2mNodeTextDecoder implements NodeDecoder {
         return (T) LwM2mResourceInstance.newStringInstance(path.getResourceInstanceId(), strValue);
     }
 
+    private long parseTextLong(String value, LwM2mPath path) throws CodecException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new CodecException("Invalid value [%s] for integer resource [%s]", value, path);
+        }
+    }
+
+    private double parseTextDouble(String value, LwM2mPath path) throws CodecException {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new CodecException("Invalid value [%s] for float resource [%s]", value, path);
+        }
+    }
+
     private Object parseTextValue(String value, Type type, LwM2mPath path) throws CodecException {
         LOG.trace("TEXT value for path {} and expected type {}: {}", path, type, value);
 
@@ -72,11 +99,7 @@ public class LwM2mNodeTextDecoder implements NodeDecoder {
         case STRING:
             return value;
         case INTEGER:
-            try {
-                return Long.valueOf(value);
-            } catch (NumberFormatException e) {
-                throw new CodecException("Invalid value [%s] for integer resource [%s]", value, path);
-            }
+            return parseTextLong(value, path);
         case UNSIGNED_INTEGER:
             try {
                 return ULong.valueOf(value);
@@ -93,11 +116,7 @@ public class LwM2mNodeTextDecoder implements NodeDecoder {
                 throw new CodecException("Invalid value [%s] for boolean resource [%s]", value, path);
             }
         case FLOAT:
-            try {
-                return Double.valueOf(value);
-            } catch (NumberFormatException e) {
-                throw new CodecException("Invalid value [%s] for float resource [%s]", value, path);
-            }
+            return parseTextDouble(value, path);
         case TIME:
             // number of seconds since 1970/1/1
             try {
@@ -28,8 +28,10 @@ import org.eclipse.leshan.core.node.LwM2mObjectInstance;
 import org.eclipse.leshan.core.node.LwM2mPath;
 import org.eclipse.leshan.core.node.LwM2mResource;
 import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.node.ObjectLink;
 import org.eclipse.leshan.core.node.codec.CodecException;
+import org.eclipse.leshan.core.node.codec.LwM2mValueChecker;
 import org.eclipse.leshan.core.node.codec.LwM2mValueConverter;
 import org.eclipse.leshan.core.node.codec.NodeEncoder;
 import org.eclipse.leshan.core.util.Base64;
@@ -52,6 +54,7 @@ public class LwM2mNodeTextEncoder implements NodeEncoder {
         internalEncoder.path = path;
         internalEncoder.model = model;
         internalEncoder.converter = converter;
+        internalEncoder.checkOnly = converter.getClass() == LwM2mValueChecker.class;
         node.accept(internalEncoder);
         return internalEncoder.encoded;
     }
@@ -61,6 +64,8 @@ public class LwM2mNodeTextEncoder implements NodeEncoder {
         private LwM2mPath path;
         private LwM2mModel model;
         private LwM2mValueConverter converter;
+        // numeric values can be encoded without boxing only if the converter does not change them
+        private boolean checkOnly;
 
         // visitor output
         private byte[] encoded = null;
@@ -84,6 +89,15 @@ public class LwM2mNodeTextEncoder implements NodeEncoder {
 
             ResourceModel rSpec = model.getResourceModel(path.getObjectId(), resource.getId());
             Type expectedType = rSpec != null ? rSpec.type : resource.getType();
+
+            // numeric values which already have the expected type are encoded without boxing
+            if (isUnboxed(resource, expectedType, Type.INTEGER)) {
+                encoded = Long.toString(((LwM2mSingleResource) resource).getLongValue()).getBytes(StandardCharsets.UTF_8);
+                return;
+            } else if (isUnboxed(resource, expectedType, Type.FLOAT)) {
+                encoded = Double.toString(((LwM2mSingleResource) resource).getDoubleValue()).getBytes(StandardCharsets.UTF_8);
+                return;
+            }
             Object val = converter.convertValue(resource.getValue(), resource.getType(), expectedType, path);
 
             if (expectedType == null) {
@@ -102,6 +116,15 @@ public class LwM2mNodeTextEncoder implements NodeEncoder {
 
             ResourceModel rSpec = model.getResourceModel(path.getObjectId(), path.getResourceId());
             Type expectedType = rSpec != null ? rSpec.type : instance.getType();
+
+            // numeric values which already have the expected type are encoded without boxing
+            if (checkOnly && instance.getType() == expectedType && expectedType == Type.INTEGER) {
+                encoded = Long.toString(instance.getLongValue()).getBytes(StandardCharsets.UTF_8);
+                return;
+            } else if (checkOnly && instance.getType() == expectedType && expectedType == Type.FLOAT) {
+                encoded = Double.toString(instance.getDoubleValue()).getBytes(StandardCharsets.UTF_8);
+                return;
+            }
             Object val = converter.convertValue(instance.getValue(), instance.getType(), expectedType, path);
 
             if (expectedType == null) {
@@ -114,6 +137,11 @@ public class LwM2mNodeTextEncoder implements NodeEncoder {
             encoded = strValue.getBytes(StandardCharsets.UTF_8);
         }
 
+        private boolean isUnboxed(LwM2mResource resource, Type expectedType, Type numericType) {
+            return checkOnly && resource instanceof LwM2mSingleResource && resource.getType() == expectedType
+                    && expectedType == numericType;
+        }
+
         private String getStringValue(Type expectedType, Object val) {
             String strValue;
             switch (expectedType) {
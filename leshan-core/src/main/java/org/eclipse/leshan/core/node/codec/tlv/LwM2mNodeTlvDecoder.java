@@ -35,10 +35,9 @@ import org.eclipse.leshan.core.node.LwM2mResourceInstance;
 import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.node.codec.CodecException;
 import org.eclipse.leshan.core.node.codec.NodeDecoder;
-import org.eclipse.leshan.core.tlv.Tlv;
 import org.eclipse.leshan.core.tlv.Tlv.TlvType;
-import org.eclipse.leshan.core.tlv.TlvDecoder;
 import org.eclipse.leshan.core.tlv.TlvException;
+import org.eclipse.leshan.core.tlv.TlvReader;
 import org.eclipse.leshan.core.util.Hex;
 import org.eclipse.leshan.core.util.datatype.ULong;
 import org.slf4j.Logger;
@@ -52,7 +51,7 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
     public <T extends LwM2mNode> T decode(byte[] content, LwM2mPath path, LwM2mModel model, Class<T> nodeClass)
             throws CodecException {
         try {
-            Tlv[] tlvs = TlvDecoder.decode(ByteBuffer.wrap(content != null ? content : new byte[0]));
+            TlvReader tlvs = new TlvReader(ByteBuffer.wrap(content != null ? content : new byte[0]));
             return parseTlv(tlvs, path, model, nodeClass);
         } catch (TlvException | LwM2mNodeException e) {
             throw new CodecException(String.format("Unable to decode tlv for path [%s]", path), e);
@@ -60,17 +59,20 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
     }
 
     @SuppressWarnings("unchecked")
-    private <T extends LwM2mNode> T parseTlv(Tlv[] tlvs, LwM2mPath path, LwM2mModel model, Class<T> nodeClass)
-            throws CodecException {
-        LOG.trace("Parsing TLV content for path {}: {}", path, tlvs);
+    private <T extends LwM2mNode> T parseTlv(TlvReader tlvs, LwM2mPath path, LwM2mModel model, Class<T> nodeClass)
+            throws CodecException, TlvException {
+        LOG.trace("Parsing TLV content for path {}", path);
+
+        int nbTlvs = tlvs.count();
 
         // Object
         if (nodeClass == LwM2mObject.class) {
-            Map<Integer, LwM2mObjectInstance> instances = new HashMap<>(tlvs.length);
+            Map<Integer, LwM2mObjectInstance> instances = new HashMap<>(nbTlvs);
 
             // is it an array of TLV resources?
-            if (tlvs.length > 0 && //
-                    (tlvs[0].getType() == TlvType.MULTIPLE_RESOURCE || tlvs[0].getType() == TlvType.RESOURCE_VALUE)) {
+            if (nbTlvs > 0 && //
+                    (first(tlvs).getType() == TlvType.MULTIPLE_RESOURCE
+                            || tlvs.getType() == TlvType.RESOURCE_VALUE)) {
 
                 ObjectModel oModel = model.getObjectModel(path.getObjectId());
                 if (oModel == null) {
@@ -85,13 +87,14 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
                             parseObjectInstanceTlvWithoutId(tlvs, path.getObjectId(), model));
                 }
             } else {
-                for (Tlv tlv : tlvs) {
-                    if (tlv.getType() != TlvType.OBJECT_INSTANCE)
+                tlvs.reset();
+                while (tlvs.next()) {
+                    if (tlvs.getType() != TlvType.OBJECT_INSTANCE)
                         throw new CodecException("Expected TLV of type OBJECT_INSTANCE but was %s  [path:%s]",
-                                tlv.getType().name(), path);
+                                tlvs.getType().name(), path);
 
-                    LwM2mObjectInstance objectInstance = parseObjectInstanceTlv(tlv.getChildren(), path.getObjectId(),
-                            tlv.getIdentifier(), model);
+                    LwM2mObjectInstance objectInstance = parseObjectInstanceTlv(tlvs.children(), path.getObjectId(),
+                            tlvs.getIdentifier(), model);
                     LwM2mObjectInstance previousObjectInstance = instances.put(objectInstance.getId(), objectInstance);
                     if (previousObjectInstance != null) {
                         throw new CodecException(
@@ -106,14 +109,13 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
         // Object instance
         else if (nodeClass == LwM2mObjectInstance.class) {
 
-            if (tlvs.length == 1 && tlvs[0].getType() == TlvType.OBJECT_INSTANCE) {
-                if (path.isObjectInstance() && tlvs[0].getIdentifier() != path.getObjectInstanceId()) {
+            if (nbTlvs == 1 && first(tlvs).getType() == TlvType.OBJECT_INSTANCE) {
+                if (path.isObjectInstance() && tlvs.getIdentifier() != path.getObjectInstanceId()) {
                     throw new CodecException("Id conflict between path [%s] and instance TLV [object instance id=%d]",
-                            path, tlvs[0].getIdentifier());
+                            path, tlvs.getIdentifier());
                 }
                 // object instance TLV
-                return (T) parseObjectInstanceTlv(tlvs[0].getChildren(), path.getObjectId(), tlvs[0].getIdentifier(),
-                        model);
+                return (T) parseObjectInstanceTlv(tlvs.children(), path.getObjectId(), tlvs.getIdentifier(), model);
             } else {
                 // array of TLV resources
                 // try to retrieve the instanceId from the path or the model
@@ -136,31 +138,31 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
         // Resource
         else if (nodeClass == LwM2mResource.class) {
             // The object instance level should not be here, but if it is provided and consistent we tolerate it
-            if (tlvs.length == 1 && tlvs[0].getType() == TlvType.OBJECT_INSTANCE) {
-                if (tlvs[0].getIdentifier() != path.getObjectInstanceId()) {
+            if (nbTlvs == 1 && first(tlvs).getType() == TlvType.OBJECT_INSTANCE) {
+                if (tlvs.getIdentifier() != path.getObjectInstanceId()) {
                     throw new CodecException("Id conflict between path [%s] and instance TLV [object instance id=%d]",
-                            path, tlvs[0].getIdentifier());
+                            path, tlvs.getIdentifier());
                 }
-                tlvs = tlvs[0].getChildren();
+                tlvs = tlvs.children();
+                nbTlvs = tlvs.count();
             }
 
             ResourceModel resourceModel = model.getResourceModel(path.getObjectId(), path.getResourceId());
-            if (tlvs.length == 0 && resourceModel != null && !resourceModel.multiple) {
+            if (nbTlvs == 0 && resourceModel != null && !resourceModel.multiple) {
                 // If there is no TlV value and we know that this resource is a single resource we raise an exception
                 // else we consider this is a multi-instance resource
                 throw new CodecException("TLV payload is mandatory for single resource %s", path);
-            } else if (tlvs.length == 1 && tlvs[0].getType() != TlvType.RESOURCE_INSTANCE) {
-                Tlv tlv = tlvs[0];
-                if (tlv.getType() != TlvType.RESOURCE_VALUE && tlv.getType() != TlvType.MULTIPLE_RESOURCE) {
+            } else if (nbTlvs == 1 && first(tlvs).getType() != TlvType.RESOURCE_INSTANCE) {
+                if (tlvs.getType() != TlvType.RESOURCE_VALUE && tlvs.getType() != TlvType.MULTIPLE_RESOURCE) {
                     throw new CodecException(
                             "Expected TLV of type RESOURCE_VALUE or MUlTIPLE_RESOURCE but was %s [path:%s]",
-                            tlv.getType().name(), path);
+                            tlvs.getType().name(), path);
                 }
-                if (path.isResource() && path.getResourceId() != tlv.getIdentifier()) {
+                if (path.isResource() && path.getResourceId() != tlvs.getIdentifier()) {
                     throw new CodecException("Id conflict between path [%s] and resource TLV [resource id=%s]", path,
-                            tlv.getIdentifier());
+                            tlvs.getIdentifier());
                 }
-                return (T) parseResourceTlv(tlv, path, model);
+                return (T) parseResourceTlv(tlvs, path, model);
             } else {
                 Type expectedRscType = getResourceType(path, model);
                 return (T) parseResourceInstancesTlv(tlvs, path, expectedRscType);
@@ -169,29 +171,39 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
 
         // Resource Instance
         else if (nodeClass == LwM2mResourceInstance.class) {
-            if (tlvs.length == 0) {
+            if (nbTlvs == 0) {
                 throw new CodecException("TLV payload is mandatory for resource instance %s", path);
-            } else if (tlvs.length > 1) {
+            } else if (nbTlvs > 1) {
                 throw new CodecException("TLV payload must contain only 1 resource instance for %s", path);
             } else {
-                Tlv tlv = tlvs[0];
-                if (path.isResourceInstance() && path.getResourceInstanceId() != tlv.getIdentifier()) {
+                first(tlvs);
+                if (path.isResourceInstance() && path.getResourceInstanceId() != tlvs.getIdentifier()) {
                     throw new CodecException("Id conflict between path [%s] and resource instance TLV [resource id=%s]",
-                            path, tlv.getIdentifier());
+                            path, tlvs.getIdentifier());
                 }
                 Type expectedType = getResourceType(path, model);
-                return (T) parseResourceInstanceTlv(tlv, path, expectedType);
+                return (T) parseResourceInstanceTlv(tlvs, path, expectedType);
             }
         }
         throw new IllegalArgumentException("invalid node class: " + nodeClass);
     }
 
-    private LwM2mObjectInstance parseObjectInstanceTlv(Tlv[] rscTlvs, int objectId, int instanceId, LwM2mModel model)
-            throws CodecException {
-        Map<Integer, LwM2mResource> resources = new HashMap<>(rscTlvs.length);
-        for (Tlv rscTlv : rscTlvs) {
-            LwM2mPath resourcePath = new LwM2mPath(objectId, instanceId, rscTlv.getIdentifier());
-            LwM2mResource resource = parseResourceTlv(rscTlv, resourcePath, model);
+    /**
+     * Move the reader on the first TLV.
+     */
+    private TlvReader first(TlvReader tlvs) throws TlvException {
+        tlvs.reset();
+        tlvs.next();
+        return tlvs;
+    }
+
+    private LwM2mObjectInstance parseObjectInstanceTlv(TlvReader rscTlvs, int objectId, int instanceId,
+            LwM2mModel model) throws CodecException, TlvException {
+        Map<Integer, LwM2mResource> resources = new HashMap<>();
+        rscTlvs.reset();
+        while (rscTlvs.next()) {
+            LwM2mPath resourcePath = new LwM2mPath(objectId, instanceId, rscTlvs.getIdentifier());
+            LwM2mResource resource = parseResourceTlv(rscTlvs, resourcePath, model);
             LwM2mResource previousResource = resources.put(resource.getId(), resource);
             if (previousResource != null) {
                 throw new CodecException("2 RESOURCE nodes (%s,%s) with the same identifier %d for path %s",
@@ -202,12 +214,13 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
 
     }
 
-    private LwM2mObjectInstance parseObjectInstanceTlvWithoutId(Tlv[] rscTlvs, int objectId, LwM2mModel model)
-            throws CodecException {
-        Map<Integer, LwM2mResource> resources = new HashMap<>(rscTlvs.length);
-        for (Tlv rscTlv : rscTlvs) {
-            LwM2mPath resourcePath = new LwM2mIncompletePath(objectId, rscTlv.getIdentifier());
-            LwM2mResource resource = parseResourceTlv(rscTlv, resourcePath, model);
+    private LwM2mObjectInstance parseObjectInstanceTlvWithoutId(TlvReader rscTlvs, int objectId, LwM2mModel model)
+            throws CodecException, TlvException {
+        Map<Integer, LwM2mResource> resources = new HashMap<>();
+        rscTlvs.reset();
+        while (rscTlvs.next()) {
+            LwM2mPath resourcePath = new LwM2mIncompletePath(objectId, rscTlvs.getIdentifier());
+            LwM2mResource resource = parseResourceTlv(rscTlvs, resourcePath, model);
             LwM2mResource previousResource = resources.put(resource.getId(), resource);
             if (previousResource != null) {
                 throw new CodecException("2 RESOURCE nodes (%s,%s) with the same identifier %d for path %s",
@@ -217,78 +230,113 @@ public class LwM2mNodeTlvDecoder implements NodeDecoder {
         return new LwM2mObjectInstance(resources.values());
     }
 
-    private LwM2mResource parseResourceTlv(Tlv tlv, LwM2mPath resourcePath, LwM2mModel model) throws CodecException {
+    private LwM2mResource parseResourceTlv(TlvReader tlv, LwM2mPath resourcePath, LwM2mModel model)
+            throws CodecException, TlvException {
         Type expectedType = getResourceType(resourcePath, model);
         Integer resourceId = tlv.getIdentifier();
         switch (tlv.getType()) {
         case MULTIPLE_RESOURCE:
-            return parseResourceInstancesTlv(tlv.getChildren(), resourcePath, expectedType);
+            return parseResourceInstancesTlv(tlv.children(), resourcePath, expectedType);
         case RESOURCE_VALUE:
-            return LwM2mSingleResource.newResource(resourceId,
-                    parseTlvValue(tlv.getValue(), expectedType, resourcePath), expectedType);
+            // numeric values are not boxed
+            if (expectedType == Type.INTEGER) {
+                return LwM2mSingleResource.newIntegerResource(resourceId, parseTlvLong(tlv, resourcePath));
+            } else if (expectedType == Type.FLOAT) {
+                return LwM2mSingleResource.newFloatResource(resourceId, parseTlvDouble(tlv, resourcePath));
+            }
+            return LwM2mSingleResource.newResource(resourceId, parseTlvValue(tlv, expectedType, resourcePath),
+                    expectedType);
         default:
             throw new CodecException("Invalid TLV type %s for resource %s", tlv.getType(), resourcePath);
         }
     }
 
-    private LwM2mMultipleResource parseResourceInstancesTlv(Tlv[] tlvs, LwM2mPath resourcePath, Type expectedType)
-            throws CodecException {
-        Map<Integer, LwM2mResourceInstance> instances = new HashMap<>(tlvs.length);
-        for (Tlv tlvChild : tlvs) {
-            if (tlvChild.getType() != TlvType.RESOURCE_INSTANCE)
+    private LwM2mMultipleResource parseResourceInstancesTlv(TlvReader tlvs, LwM2mPath resourcePath,
+            Type expectedType) throws CodecException, TlvException {
+        Map<Integer, LwM2mResourceInstance> instances = new HashMap<>();
+        tlvs.reset();
+        while (tlvs.next()) {
+            if (tlvs.getType() != TlvType.RESOURCE_INSTANCE)
                 throw new CodecException("Expected TLV of type RESOURCE_INSTANCE but was %s for path %s",
-                        tlvChild.getType().name(), resourcePath.append(tlvChild.getIdentifier()));
+                        tlvs.getType().name(), resourcePath.append(tlvs.getIdentifier()));
 
-            LwM2mResourceInstance resourceInstance = parseResourceInstanceTlv(tlvChild,
-                    resourcePath.append(tlvChild.getIdentifier()), expectedType);
-            LwM2mResourceInstance previousResourceInstance = instances.put(tlvChild.getIdentifier(), resourceInstance);
+            LwM2mResourceInstance resourceInstance = parseResourceInstanceTlv(tlvs,
+                    resourcePath.append(tlvs.getIdentifier()), expectedType);
+            LwM2mResourceInstance previousResourceInstance = instances.put(tlvs.getIdentifier(), resourceInstance);
             if (previousResourceInstance != null) {
                 throw new CodecException("2 RESOURCE_INSTANCE nodes (%s,%s) with the same identifier %d for path %s",
-                        previousResourceInstance, resourceInstance, tlvChild.getIdentifier(), resourcePath);
+                        previousResourceInstance, resourceInstance, tlvs.getIdentifier(), resourcePath);
             }
         }
         return new LwM2mMultipleResource(resourcePath.getResourceId(), expectedType, instances.values());
     }
 
-    private LwM2mResourceInstance parseResourceInstanceTlv(Tlv tlv, LwM2mPath resourceInstancePath, Type expectedType)
-            throws CodecException {
+    private LwM2mResourceInstance parseResourceInstanceTlv(TlvReader tlv, LwM2mPath resourceInstancePath,
+            Type expectedType) throws CodecException {
         Integer resourceInstanceId = tlv.getIdentifier();
         if (tlv.getType() != TlvType.RESOURCE_INSTANCE) {
             throw new CodecException("Expected TLV of type RESOURCE_INSTANCE but was %s for path %s", tlv.getType(),
                     resourceInstancePath);
+        } else if (expectedType == Type.INTEGER) {
+            return LwM2mResourceInstance.newIntegerInstance(resourceInstanceId,
+                    parseTlvLong(tlv, resourceInstancePath));
+        } else if (expectedType == Type.FLOAT) {
+            return LwM2mResourceInstance.newFloatInstance(resourceInstanceId,
+                    parseTlvDouble(tlv, resourceInstancePath));
         } else {
             return LwM2mResourceInstance.newInstance(resourceInstanceId,
-                    parseTlvValue(tlv.getValue(), expectedType, resourceInstancePath), expectedType);
+                    parseTlvValue(tlv, expectedType, resourceInstancePath), expectedType);
+        }
+
+    }
+
+    private long parseTlvLong(TlvReader tlv, LwM2mPath path) throws CodecException {
+        try {
+            return tlv.getLong();
+        } catch (TlvException e) {
+            throw new CodecException(e, "Invalid content [%s] for type %s for path %s",
+                    Hex.encodeHexString(tlv.getBytes()), Type.INTEGER, path);
         }
+    }
 
+    private double parseTlvDouble(TlvReader tlv, LwM2mPath path) throws CodecException {
+        try {
+            return tlv.getDouble();
+        } catch (TlvException e) {
+            throw new CodecException(e, "Invalid content [%s] for type %s for path %s",
+                    Hex.encodeHexString(tlv.getBytes()), Type.FLOAT, path);
+        }
     }
 
-    private Object parseTlvValue(byte[] value, Type expectedType, LwM2mPath path) throws CodecException {
+    private Object parseTlvValue(TlvReader tlv, Type expectedType, LwM2mPath path) throws CodecException {
         try {
-            LOG.trace("TLV value for path {} and expected type {}: {}", path, expectedType, value);
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("TLV value for path {} and expected type {}: {}", path, expectedType,
+                        Hex.encodeHexString(tlv.getBytes()));
+            }
             switch (expectedType) {
             case STRING:
-                return TlvDecoder.decodeString(value);
+                return tlv.getString();
             case INTEGER:
-                return TlvDecoder.decodeInteger(value).longValue();
+                return tlv.getLong();
             case UNSIGNED_INTEGER:
-                return ULong.valueOf(TlvDecoder.decodeInteger(value).longValue());
+                return ULong.valueOf(tlv.getLong());
             case FLOAT:
-                return TlvDecoder.decodeFloat(value).doubleValue();
+                return tlv.getDouble();
             case BOOLEAN:
-                return TlvDecoder.decodeBoolean(value);
+                return tlv.getBoolean();
             case TIME:
-                return TlvDecoder.decodeDate(value);
+                return tlv.getDate();
             case OPAQUE:
-                return value;
+                return tlv.getBytes();
             case OBJLNK:
-                return TlvDecoder.decodeObjlnk(value);
+                return tlv.getObjlnk();
             default:
                 throw new CodecException("Unsupported type %s for path %s", expectedType, path);
             }
         } catch (TlvException e) {
-            throw new CodecException(e, "Invalid content [%s] for type %s for path %s", Hex.encodeHexString(value),
-                    expectedType, path);
+            throw new CodecException(e, "Invalid content [%s] for type %s for path %s",
+                    Hex.encodeHexString(tlv.getBytes()), expectedType, path);
         }
     }
 
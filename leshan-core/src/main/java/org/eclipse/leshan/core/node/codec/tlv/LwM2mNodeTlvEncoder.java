@@ -15,8 +15,9 @@
  *******************************************************************************/
 package org.eclipse.leshan.core.node.codec.tlv;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map.Entry;
@@ -32,27 +33,74 @@ import org.eclipse.leshan.core.node.LwM2mObjectInstance;
 import org.eclipse.leshan.core.node.LwM2mPath;
 import org.eclipse.leshan.core.node.LwM2mResource;
 import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.node.ObjectLink;
 import org.eclipse.leshan.core.node.codec.CodecException;
+import org.eclipse.leshan.core.node.codec.LwM2mValueChecker;
 import org.eclipse.leshan.core.node.codec.LwM2mValueConverter;
 import org.eclipse.leshan.core.node.codec.NodeEncoder;
-import org.eclipse.leshan.core.tlv.Tlv;
 import org.eclipse.leshan.core.tlv.Tlv.TlvType;
-import org.eclipse.leshan.core.tlv.TlvEncoder;
+import org.eclipse.leshan.core.tlv.TlvWriter;
 import org.eclipse.leshan.core.util.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * TLV encoder for {@link LwM2mNode}.
+ * <p>
+ * Nodes are written in a single pass with a {@link TlvWriter}, either in a buffer given by the caller (see
+ * {@link #encode(LwM2mNode, LwM2mPath, LwM2mModel, LwM2mValueConverter, ByteBuffer)}) or in a buffer reused by each
+ * thread.
  */
 public class LwM2mNodeTlvEncoder implements NodeEncoder {
 
     private static final Logger LOG = LoggerFactory.getLogger(LwM2mNodeTlvEncoder.class);
 
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    // bigger buffers are not kept for next encoding
+    private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+
+    private final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        }
+    };
+
     @Override
     public byte[] encode(LwM2mNode node, LwM2mPath path, LwM2mModel model, LwM2mValueConverter converter)
             throws CodecException {
+        ByteBuffer buffer = buffers.get();
+        while (true) {
+            buffer.clear();
+            try {
+                encode(node, path, model, converter, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                if (buffer.capacity() <= MAX_REUSED_BUFFER_SIZE) {
+                    buffers.set(buffer);
+                }
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Serializes a {@link LwM2mNode} into the given buffer, starting at its position.
+     *
+     * @param node the object/instance/resource to serialize
+     * @param path the path of the node to serialize
+     * @param model the collection of supported object models
+     * @param converter a data type converter.
+     * @param buffer the buffer to write into, its position is moved after the encoded node.
+     *
+     * @throws CodecException if node can not be encoded.
+     * @throws BufferOverflowException if the buffer is too small, the buffer content is then undefined.
+     * @since 2.0
+     */
+    public void encode(LwM2mNode node, LwM2mPath path, LwM2mModel model, LwM2mValueConverter converter,
+            ByteBuffer buffer) throws CodecException {
         Validate.notNull(node);
         Validate.notNull(path);
         Validate.notNull(model);
@@ -61,8 +109,9 @@ public class LwM2mNodeTlvEncoder implements NodeEncoder {
         internalEncoder.path = path;
         internalEncoder.model = model;
         internalEncoder.converter = converter;
+        internalEncoder.checkOnly = converter.getClass() == LwM2mValueChecker.class;
+        internalEncoder.out = new TlvWriter(buffer);
         node.accept(internalEncoder);
-        return internalEncoder.out.toByteArray();
     }
 
     private static class InternalEncoder implements LwM2mNodeVisitor {
@@ -71,30 +120,22 @@ public class LwM2mNodeTlvEncoder implements NodeEncoder {
         private LwM2mPath path;
         private LwM2mModel model;
         private LwM2mValueConverter converter;
+        // numeric values can be encoded without boxing only if the converter does not change them
+        private boolean checkOnly;
 
         // visitor output
-        private ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private TlvWriter out;
 
         @Override
         public void visit(LwM2mObject object) {
             LOG.trace("Encoding object {} into TLV", object);
 
-            Tlv[] tlvs;
-
             // encoded as an array of instances
-            tlvs = new Tlv[object.getInstances().size()];
-            int i = 0;
             for (Entry<Integer, LwM2mObjectInstance> instance : object.getInstances().entrySet()) {
-                Tlv[] resources = encodeResources(instance.getValue().getResources().values(),
+                out.start(TlvType.OBJECT_INSTANCE, instance.getKey());
+                encodeResources(instance.getValue().getResources().values(),
                         new LwM2mPath(object.getId(), instance.getKey()));
-                tlvs[i] = new Tlv(TlvType.OBJECT_INSTANCE, resources, null, instance.getKey());
-                i++;
-            }
-
-            try {
-                out.write(TlvEncoder.encode(tlvs).array());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                out.end();
             }
         }
 
@@ -102,23 +143,16 @@ public class LwM2mNodeTlvEncoder implements NodeEncoder {
         public void visit(LwM2mObjectInstance instance) {
             LOG.trace("Encoding object instance {} into TLV", instance);
 
-            Tlv[] tlvs;
             if (path.isObjectInstance() || instance.getId() == LwM2mObjectInstance.UNDEFINED) {
                 // the instanceId is part of the request path or is undefined
                 // so the instance TLV layer is not needed.
                 // encoded as an array of resource TLVs
-                tlvs = encodeResources(instance.getResources().values(), new LwM2mIncompletePath(path.getObjectId()));
+                encodeResources(instance.getResources().values(), new LwM2mIncompletePath(path.getObjectId()));
             } else {
                 // encoded as an instance TLV
-                Tlv[] resources = encodeResources(instance.getResources().values(),
-                        new LwM2mPath(path.getObjectId(), instance.getId()));
-                tlvs = new Tlv[] { new Tlv(TlvType.OBJECT_INSTANCE, resources, null, instance.getId()) };
-            }
-
-            try {
-                out.write(TlvEncoder.encode(tlvs).array());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                out.start(TlvType.OBJECT_INSTANCE, instance.getId());
+                encodeResources(instance.getResources().values(), new LwM2mPath(path.getObjectId(), instance.getId()));
+                out.end();
             }
         }
 
@@ -126,46 +160,39 @@ public class LwM2mNodeTlvEncoder implements NodeEncoder {
         public void visit(LwM2mResource resource) {
             LOG.trace("Encoding resource {} into TLV", resource);
 
-            Tlv rTlv = encodeResource(resource, path);
-
-            try {
-                out.write(TlvEncoder.encode(new Tlv[] { rTlv }).array());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            encodeResource(resource, path);
         }
 
-        private Tlv[] encodeResources(Collection<LwM2mResource> resources, LwM2mPath instancePath) {
-            Tlv[] rTlvs = new Tlv[resources.size()];
-            int i = 0;
+        private void encodeResources(Collection<LwM2mResource> resources, LwM2mPath instancePath) {
             for (LwM2mResource resource : resources) {
-                rTlvs[i] = encodeResource(resource, instancePath.append(resource.getId()));
-                i++;
+                encodeResource(resource, instancePath.append(resource.getId()));
             }
-            return rTlvs;
         }
 
-        private Tlv encodeResource(LwM2mResource resource, LwM2mPath resourcePath) {
+        private void encodeResource(LwM2mResource resource, LwM2mPath resourcePath) {
             ResourceModel rSpec = model.getResourceModel(path.getObjectId(), resource.getId());
             Type expectedType = rSpec != null ? rSpec.type : resource.getType();
 
-            Tlv rTlv;
             if (resource.isMultiInstances()) {
-                Tlv[] instances = new Tlv[resource.getInstances().size()];
-                int i = 0;
+                out.start(TlvType.MULTIPLE_RESOURCE, resource.getId());
                 for (LwM2mResourceInstance resourceInstance : resource.getInstances().values()) {
                     LwM2mPath resourceInstancePath = resourcePath.append(resourceInstance.getId());
-                    instances[i] = encodeResourceInstance(resourceInstance, resourceInstancePath, expectedType);
-                    i++;
+                    encodeResourceInstance(resourceInstance, resourceInstancePath, expectedType);
                 }
-                rTlv = new Tlv(TlvType.MULTIPLE_RESOURCE, instances, null, resource.getId());
+                out.end();
+            } else if (isUnboxed(resource, expectedType, Type.INTEGER)) {
+                // numeric values which already have the expected type are written without boxing
+                out.writeLong(TlvType.RESOURCE_VALUE, resource.getId(),
+                        ((LwM2mSingleResource) resource).getLongValue());
+            } else if (isUnboxed(resource, expectedType, Type.FLOAT)) {
+                out.writeDouble(TlvType.RESOURCE_VALUE, resource.getId(),
+                        ((LwM2mSingleResource) resource).getDoubleValue());
             } else {
                 Object convertedValue = converter.convertValue(resource.getValue(), resource.getType(), expectedType,
                         resourcePath);
-                rTlv = new Tlv(TlvType.RESOURCE_VALUE, null,
-                        this.encodeTlvValue(convertedValue, expectedType, resourcePath), resource.getId());
+                this.encodeTlvValue(TlvType.RESOURCE_VALUE, resource.getId(), convertedValue, expectedType,
+                        resourcePath);
             }
-            return rTlv;
         }
 
         @Override
@@ -175,24 +202,31 @@ public class LwM2mNodeTlvEncoder implements NodeEncoder {
             ResourceModel rSpec = model.getResourceModel(path.getObjectId(), path.getResourceId());
             Type expectedType = rSpec != null ? rSpec.type : resourceInstance.getType();
 
-            Tlv rTlv = encodeResourceInstance(resourceInstance, path, expectedType);
+            encodeResourceInstance(resourceInstance, path, expectedType);
+        }
 
-            try {
-                out.write(TlvEncoder.encode(new Tlv[] { rTlv }).array());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        private void encodeResourceInstance(LwM2mResourceInstance resourceInstance, LwM2mPath resourceInstancePath,
+                Type expectedType) {
+            if (checkOnly && resourceInstance.getType() == expectedType && expectedType == Type.INTEGER) {
+                // numeric values which already have the expected type are written without boxing
+                out.writeLong(TlvType.RESOURCE_INSTANCE, resourceInstance.getId(), resourceInstance.getLongValue());
+            } else if (checkOnly && resourceInstance.getType() == expectedType && expectedType == Type.FLOAT) {
+                out.writeDouble(TlvType.RESOURCE_INSTANCE, resourceInstance.getId(),
+                        resourceInstance.getDoubleValue());
+            } else {
+                Object convertedValue = converter.convertValue(resourceInstance.getValue(), resourceInstance.getType(),
+                        expectedType, resourceInstancePath);
+                this.encodeTlvValue(TlvType.RESOURCE_INSTANCE, resourceInstance.getId(), convertedValue, expectedType,
+                        resourceInstancePath);
             }
         }
 
-        private Tlv encodeResourceInstance(LwM2mResourceInstance resourceInstance, LwM2mPath resourceInstancePath,
-                Type expectedType) {
-            Object convertedValue = converter.convertValue(resourceInstance.getValue(), resourceInstance.getType(),
-                    expectedType, resourceInstancePath);
-            return new Tlv(TlvType.RESOURCE_INSTANCE, null,
-                    this.encodeTlvValue(convertedValue, expectedType, resourceInstancePath), resourceInstance.getId());
+        private boolean isUnboxed(LwM2mResource resource, Type expectedType, Type numericType) {
+            return checkOnly && resource instanceof LwM2mSingleResource && resource.getType() == expectedType
+                    && expectedType == numericType;
         }
 
-        private byte[] encodeTlvValue(Object value, Type type, LwM2mPath path) {
+        private void encodeTlvValue(TlvType tlvType, int id, Object value, Type type, LwM2mPath path) {
             LOG.trace("Encoding value {} in TLV", value);
             if (type == null || type == Type.NONE) {
                 throw new CodecException(
@@ -202,20 +236,31 @@ public class LwM2mNodeTlvEncoder implements NodeEncoder {
             try {
                 switch (type) {
                 case STRING:
-                    return TlvEncoder.encodeString((String) value);
+                    out.writeString(tlvType, id, (String) value);
+                    break;
                 case INTEGER:
                 case UNSIGNED_INTEGER:
-                    return TlvEncoder.encodeInteger((Number) value);
+                    out.writeLong(tlvType, id, ((Number) value).longValue());
+                    break;
                 case FLOAT:
-                    return TlvEncoder.encodeFloat((Number) value);
+                    if (value instanceof Float) {
+                        out.writeFloat(tlvType, id, (Float) value);
+                    } else {
+                        out.writeDouble(tlvType, id, ((Number) value).doubleValue());
+                    }
+                    break;
                 case BOOLEAN:
-                    return TlvEncoder.encodeBoolean((Boolean) value);
+                    out.writeBoolean(tlvType, id, (Boolean) value);
+                    break;
                 case TIME:
-                    return TlvEncoder.encodeDate((Date) value);
+                    out.writeDate(tlvType, id, (Date) value);
+                    break;
                 case OPAQUE:
-                    return (byte[]) value;
+                    out.writeBytes(tlvType, id, (byte[]) value);
+                    break;
                 case OBJLNK:
-                    return TlvEncoder.encodeObjlnk((ObjectLink) value);
+                    out.writeObjlnk(tlvType, id, (ObjectLink) value);
+                    break;
                 default:
                     throw new CodecException("Invalid value %s for type %s of %s", value, type, path);
                 }
@@ -224,4 +269,4 @@ public class LwM2mNodeTlvEncoder implements NodeEncoder {
             }
         }
     }
-}
\ No newline at end of file
+}
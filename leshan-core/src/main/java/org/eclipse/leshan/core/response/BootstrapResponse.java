@@ -22,12 +22,31 @@ import org.eclipse.leshan.core.ResponseCode;
  */
 public class BootstrapResponse extends AbstractLwM2mResponse {
 
+    private final Long retryAfter;
+
     public BootstrapResponse(ResponseCode code, String errorMessage) {
         this(code, errorMessage, null);
     }
 
     public BootstrapResponse(ResponseCode code, String errorMessage, Object coapResponse) {
+        this(code, errorMessage, null, coapResponse);
+    }
+
+    /**
+     * @param retryAfter the number of seconds the client should wait before to retry, or <code>null</code>.
+     * @since 2.0
+     */
+    public BootstrapResponse(ResponseCode code, String errorMessage, Long retryAfter, Object coapResponse) {
         super(code, errorMessage, coapResponse);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return the number of seconds the client should wait before to retry, or <code>null</code> if there is no hint.
+     * @since 2.0
+     */
+    public Long getRetryAfter() {
+        return retryAfter;
     }
 
     @Override
@@ -41,6 +60,7 @@ public class BootstrapResponse extends AbstractLwM2mResponse {
         case ResponseCode.CHANGED_CODE:
         case ResponseCode.BAD_REQUEST_CODE:
         case ResponseCode.INTERNAL_SERVER_ERROR_CODE:
+        case ResponseCode.SERVICE_UNAVAILABLE_CODE:
             return true;
         default:
             return false;
@@ -49,7 +69,10 @@ public class BootstrapResponse extends AbstractLwM2mResponse {
 
     @Override
     public String toString() {
-        if (errorMessage != null)
+        if (retryAfter != null)
+            return String.format("BootstrapResponse [code=%s, errormessage=%s, retryAfter=%s]", code, errorMessage,
+                    retryAfter);
+        else if (errorMessage != null)
             return String.format("BootstrapResponse [code=%s, errormessage=%s]", code, errorMessage);
         else
             return String.format("BootstrapResponse [code=%s]", code);
@@ -68,4 +91,12 @@ public class BootstrapResponse extends AbstractLwM2mResponse {
     public static BootstrapResponse internalServerError(String errorMessage) {
         return new BootstrapResponse(ResponseCode.INTERNAL_SERVER_ERROR, errorMessage);
     }
+
+    /**
+     * @param retryAfter the number of seconds the client should wait before to retry.
+     * @since 2.0
+     */
+    public static BootstrapResponse serviceUnavailable(String errorMessage, long retryAfter) {
+        return new BootstrapResponse(ResponseCode.SERVICE_UNAVAILABLE, errorMessage, retryAfter, null);
+    }
 }
@@ -15,12 +15,8 @@
  *******************************************************************************/
 package org.eclipse.leshan.core.tlv;
 
-import java.math.BigInteger;
 import java.nio.Buffer;
-import java.nio.BufferOverflowException;
-import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
@@ -37,114 +33,12 @@ public class TlvDecoder {
     private static final Logger LOG = LoggerFactory.getLogger(TlvDecoder.class);
 
     public static Tlv[] decode(ByteBuffer input) throws TlvException {
-
         try {
-            List<Tlv> tlvs = new ArrayList<>();
-
-            while (input.remaining() > 0) {
-                input.order(ByteOrder.BIG_ENDIAN);
-
-                // decode type
-                int typeByte = input.get() & 0xFF;
-                TlvType type;
-                switch (typeByte & 0b1100_0000) {
-                case 0b0000_0000:
-                    type = TlvType.OBJECT_INSTANCE;
-                    break;
-                case 0b0100_0000:
-                    type = TlvType.RESOURCE_INSTANCE;
-                    break;
-                case 0b1000_0000:
-                    type = TlvType.MULTIPLE_RESOURCE;
-                    break;
-                case 0b1100_0000:
-                    type = TlvType.RESOURCE_VALUE;
-                    break;
-                default:
-                    throw new TlvException("unknown type: " + (typeByte & 0b1100_0000));
-                }
-
-                // decode identifier
-                int identifier;
-                try {
-                    if ((typeByte & 0b0010_0000) == 0) {
-                        identifier = input.get() & 0xFF;
-                    } else {
-                        identifier = input.getShort() & 0xFFFF;
-                    }
-                } catch (BufferUnderflowException e) {
-                    throw new TlvException("Invalid 'identifier' length", e);
-                }
-                LOG.trace("decoding {} {}", type, identifier);
-
-                // decode length
-                int length;
-                int lengthType = typeByte & 0b0001_1000;
-                try {
-                    switch (lengthType) {
-                    case 0b0000_0000:
-                        // 2 bit length
-                        length = typeByte & 0b0000_0111;
-                        break;
-                    case 0b0000_1000:
-                        // 8 bit length
-                        length = input.get() & 0xFF;
-                        break;
-                    case 0b0001_0000:
-                        // 16 bit length
-                        length = input.getShort() & 0xFFFF;
-                        break;
-                    case 0b0001_1000:
-                        // 24 bit length
-                        int b = input.get() & 0x000000FF;
-                        int s = input.getShort() & 0x0000FFFF;
-                        length = (b << 16) | s;
-                        break;
-                    default:
-                        throw new TlvException("unknown length type: " + (typeByte & 0b0001_1000));
-                    }
-                } catch (BufferUnderflowException e) {
-                    throw new TlvException("Invalid 'length' length", e);
-                }
-                LOG.trace("length: {} (length type: {})", length, lengthType);
-
-                // decode value
-                if (type == TlvType.RESOURCE_VALUE || type == TlvType.RESOURCE_INSTANCE) {
-                    try {
-                        byte[] payload = new byte[length];
-                        input.get(payload);
-                        tlvs.add(new Tlv(type, null, payload, identifier));
-
-                        if (LOG.isTraceEnabled()) {
-                            LOG.trace("payload value: {}", Hex.encodeHexString(payload));
-                        }
-                    } catch (BufferOverflowException e) {
-                        throw new TlvException("Invalid 'value' length", e);
-                    }
-                } else {
-                    try {
-                        // create a view of the contained TLVs
-                        ByteBuffer slice = input.slice();
-                        // HACK the cast is necessary for binary backward compatibility bug introduce in Java 9
-                        // https://github.com/apache/felix/pull/114
-                        ((Buffer) slice).limit(length);
-
-                        Tlv[] children = decode(slice);
-
-                        // skip the children, it will be decoded by the view
-                        // HACK the cast is necessary for binary backward compatibility bug introduce in Java 9
-                        // https://github.com/apache/felix/pull/114
-                        ((Buffer) input).position(((Buffer) input).position() + length);
-
-                        Tlv tlv = new Tlv(type, children, null, identifier);
-                        tlvs.add(tlv);
-                    } catch (IllegalArgumentException e) {
-                        throw new TlvException("Invalid 'value' length", e);
-                    }
-                }
-            }
-
-            return tlvs.toArray(new Tlv[] {});
+            Tlv[] tlvs = decode(new TlvReader(input));
+            // HACK the cast is necessary for binary backward compatibility bug introduce in Java 9
+            // https://github.com/apache/felix/pull/114
+            ((Buffer) input).position(((Buffer) input).limit());
+            return tlvs;
         } catch (TlvException ex) {
             String printHexBinary = Hex.encodeHexString(input.array());
             throw new TlvException("Impossible to parse TLV: \n" + printHexBinary, ex);
@@ -154,6 +48,23 @@ public class TlvDecoder {
         }
     }
 
+    private static Tlv[] decode(TlvReader reader) throws TlvException {
+        List<Tlv> tlvs = new ArrayList<>();
+        while (reader.next()) {
+            if (reader.getType() == TlvType.RESOURCE_VALUE || reader.getType() == TlvType.RESOURCE_INSTANCE) {
+                byte[] payload = reader.getBytes();
+                tlvs.add(new Tlv(reader.getType(), null, payload, reader.getIdentifier()));
+
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("payload value: {}", Hex.encodeHexString(payload));
+                }
+            } else {
+                tlvs.add(new Tlv(reader.getType(), decode(reader.children()), null, reader.getIdentifier()));
+            }
+        }
+        return tlvs.toArray(new Tlv[tlvs.size()]);
+    }
+
     /**
      * Decodes a byte array into string value.
      */
@@ -182,9 +93,8 @@ public class TlvDecoder {
      * Decodes a byte array into a date value.
      */
     public static Date decodeDate(byte[] value) throws TlvException {
-        BigInteger bi = new BigInteger(value);
-        if (value.length <= 8) {
-            return new Date(bi.longValue() * 1000L);
+        if (value.length > 0 && value.length <= 8) {
+            return new Date(decodeLong(value) * 1000L);
         } else {
             throw new TlvException("Invalid length for a time value: " + value.length);
         }
@@ -194,40 +104,53 @@ public class TlvDecoder {
      * Decodes a byte array into a objlnk value.
      */
     public static ObjectLink decodeObjlnk(byte[] value) throws TlvException {
-        ByteBuffer bff = ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN);
-        bff.put(value);
-        int val1 = bff.getShort(0) & 0xFFFF;
-        int val2 = bff.getShort(2) & 0xFFFF;
+        if (value.length > 4) {
+            throw new TlvException("Invalid length for an objlnk value: " + value.length);
+        }
+        int val1 = (unsignedByte(value, 0) << 8) | unsignedByte(value, 1);
+        int val2 = (unsignedByte(value, 2) << 8) | unsignedByte(value, 3);
         return new ObjectLink(val1, val2);
     }
 
+    private static int unsignedByte(byte[] value, int index) {
+        // missing bytes are considered as 0
+        return index < value.length ? value[index] & 0xFF : 0;
+    }
+
     /**
      * Decodes a byte array into an integer value.
      */
     public static Number decodeInteger(byte[] value) throws TlvException {
-        BigInteger bi = new BigInteger(value);
         if (value.length == 1) {
-            return bi.byteValue();
-        } else if (value.length <= 2) {
-            return bi.shortValue();
-        } else if (value.length <= 4) {
-            return bi.intValue();
-        } else if (value.length <= 8) {
-            return bi.longValue();
+            return value[0];
+        } else if (value.length == 2) {
+            return (short) decodeLong(value);
+        } else if (value.length > 0 && value.length <= 4) {
+            return (int) decodeLong(value);
+        } else if (value.length > 0 && value.length <= 8) {
+            return decodeLong(value);
         } else {
             throw new TlvException("Invalid length for an integer value: " + value.length);
         }
     }
 
+    private static long decodeLong(byte[] value) {
+        // first byte is signed to extend the sign
+        long result = value[0];
+        for (int i = 1; i < value.length; i++) {
+            result = (result << 8) | (value[i] & 0xFF);
+        }
+        return result;
+    }
+
     /**
      * Decodes a byte array into a float value.
      */
     public static Number decodeFloat(byte[] value) throws TlvException {
-        ByteBuffer floatBb = ByteBuffer.wrap(value);
         if (value.length == 4) {
-            return floatBb.getFloat();
+            return Float.intBitsToFloat((int) decodeLong(value));
         } else if (value.length == 8) {
-            return floatBb.getDouble();
+            return Double.longBitsToDouble(decodeLong(value));
         } else {
             throw new TlvException("Invalid length for a float value: " + value.length);
         }
@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.tlv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.eclipse.leshan.core.node.ObjectLink;
+import org.eclipse.leshan.core.tlv.Tlv.TlvType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cursor over the TLVs of one level of a TLV payload.
+ * <p>
+ * Unlike {@link TlvDecoder#decode(ByteBuffer)}, this reader does not copy values and does not build a {@link Tlv} tree:
+ * it reads headers and values in place from the given {@link ByteBuffer}, children are only read if
+ * {@link #children()} is called, and primitive values are decoded directly from the bytes.
+ * <p>
+ * The position and limit of the {@link ByteBuffer} are not modified.
+ *
+ * <pre>
+ * TlvReader reader = new TlvReader(buffer);
+ * while (reader.next()) {
+ *     if (reader.getType() == TlvType.RESOURCE_VALUE) {
+ *         long value = reader.getLong();
+ *     } else {
+ *         TlvReader children = reader.children();
+ *     }
+ * }
+ * </pre>
+ *
+ * @since 2.0
+ */
+public class TlvReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TlvReader.class);
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int end;
+
+    // offset of next TLV header
+    private int position;
+
+    // current TLV
+    private TlvType type;
+    private int identifier;
+    private int valueOffset;
+    private int length;
+
+    /**
+     * Create a reader for the TLVs between the position and the limit of the given buffer.
+     */
+    public TlvReader(ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.limit());
+    }
+
+    private TlvReader(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        this.position = start;
+    }
+
+    /**
+     * Move to the next TLV of this level.
+     *
+     * @return <code>false</code> if there is no more TLV.
+     * @throws TlvException if the header of the next TLV is invalid.
+     */
+    public boolean next() throws TlvException {
+        if (position >= end) {
+            type = null;
+            return false;
+        }
+        position = readHeader(position);
+        return true;
+    }
+
+    /**
+     * Move back before the first TLV of this level.
+     */
+    public void reset() {
+        position = start;
+        type = null;
+    }
+
+    /**
+     * @return the number of TLVs of this level. Only headers are read and the cursor is not moved.
+     * @throws TlvException if a header is invalid.
+     */
+    public int count() throws TlvException {
+        TlvReader reader = new TlvReader(buffer, start, end);
+        int count = 0;
+        while (reader.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    public TlvType getType() {
+        return type;
+    }
+
+    public int getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return the length of the value of the current TLV.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return a reader for the children of the current TLV, which must be an {@link TlvType#OBJECT_INSTANCE} or a
+     *         {@link TlvType#MULTIPLE_RESOURCE}.
+     */
+    public TlvReader children() {
+        if (type != TlvType.OBJECT_INSTANCE && type != TlvType.MULTIPLE_RESOURCE) {
+            throw new IllegalStateException("a " + type + " can't have children");
+        }
+        return new TlvReader(buffer, valueOffset, valueOffset + length);
+    }
+
+    /**
+     * @return a copy of the value of the current TLV.
+     */
+    public byte[] getBytes() {
+        checkValue();
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = buffer.get(valueOffset + i);
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the current value as a UTF-8 string.
+     */
+    public String getString() {
+        checkValue();
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + valueOffset, length, StandardCharsets.UTF_8);
+        }
+        return new String(getBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the current value as a signed integer of 1 to 8 bytes.
+     */
+    public long getLong() throws TlvException {
+        checkValue();
+        if (length == 0 || length > 8) {
+            throw new TlvException("Invalid length for an integer value: " + length);
+        }
+        return readLong(valueOffset, length);
+    }
+
+    /**
+     * Decodes the current value as a 4 or 8 bytes float.
+     */
+    public double getDouble() throws TlvException {
+        checkValue();
+        if (length == 4) {
+            return Float.intBitsToFloat((int) readLong(valueOffset, 4));
+        } else if (length == 8) {
+            return Double.longBitsToDouble(readLong(valueOffset, 8));
+        } else {
+            throw new TlvException("Invalid length for a float value: " + length);
+        }
+    }
+
+    /**
+     * Decodes the current value as a boolean.
+     */
+    public boolean getBoolean() throws TlvException {
+        checkValue();
+        if (length != 1) {
+            throw new TlvException("Invalid length for a boolean value: " + length);
+        }
+        byte value = buffer.get(valueOffset);
+        if (value == 0) {
+            return false;
+        } else if (value == 1) {
+            return true;
+        } else {
+            LOG.warn("Boolean value should be encoded as integer with value 0 or 1, not {}", value);
+            return false;
+        }
+    }
+
+    /**
+     * Decodes the current value as a time, a signed integer of 1 to 8 bytes representing seconds since epoch.
+     */
+    public Date getDate() throws TlvException {
+        checkValue();
+        if (length == 0 || length > 8) {
+            throw new TlvException("Invalid length for a time value: " + length);
+        }
+        return new Date(readLong(valueOffset, length) * 1000L);
+    }
+
+    /**
+     * Decodes the current value as an object link.
+     */
+    public ObjectLink getObjlnk() throws TlvException {
+        checkValue();
+        if (length > 4) {
+            throw new TlvException("Invalid length for an objlnk value: " + length);
+        }
+        // missing bytes are considered as 0
+        int val1 = (byteAt(0) << 8) | byteAt(1);
+        int val2 = (byteAt(2) << 8) | byteAt(3);
+        return new ObjectLink(val1, val2);
+    }
+
+    private int byteAt(int index) {
+        return index < length ? buffer.get(valueOffset + index) & 0xFF : 0;
+    }
+
+    private long readLong(int offset, int size) {
+        // first byte is signed to extend the sign
+        long value = buffer.get(offset);
+        for (int i = 1; i < size; i++) {
+            value = (value << 8) | (buffer.get(offset + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private void checkValue() {
+        if (type != TlvType.RESOURCE_VALUE && type != TlvType.RESOURCE_INSTANCE) {
+            throw new IllegalStateException("a " + type + " can't have a value");
+        }
+    }
+
+    private int readHeader(int offset) throws TlvException {
+        // decode type
+        int typeByte = buffer.get(offset++) & 0xFF;
+        switch (typeByte & 0b1100_0000) {
+        case 0b0000_0000:
+            type = TlvType.OBJECT_INSTANCE;
+            break;
+        case 0b0100_0000:
+            type = TlvType.RESOURCE_INSTANCE;
+            break;
+        case 0b1000_0000:
+            type = TlvType.MULTIPLE_RESOURCE;
+            break;
+        default:
+            type = TlvType.RESOURCE_VALUE;
+            break;
+        }
+
+        // decode identifier
+        if ((typeByte & 0b0010_0000) == 0) {
+            checkRemaining(offset, 1, "identifier");
+            identifier = buffer.get(offset++) & 0xFF;
+        } else {
+            checkRemaining(offset, 2, "identifier");
+            identifier = readUnsigned(offset, 2);
+            offset += 2;
+        }
+
+        // decode length
+        int lengthType = typeByte & 0b0001_1000;
+        switch (lengthType) {
+        case 0b0000_0000:
+            // 2 bit length
+            length = typeByte & 0b0000_0111;
+            break;
+        case 0b0000_1000:
+            // 8 bit length
+            checkRemaining(offset, 1, "length");
+            length = buffer.get(offset++) & 0xFF;
+            break;
+        case 0b0001_0000:
+            // 16 bit length
+            checkRemaining(offset, 2, "length");
+            length = readUnsigned(offset, 2);
+            offset += 2;
+            break;
+        default:
+            // 24 bit length
+            checkRemaining(offset, 3, "length");
+            length = readUnsigned(offset, 3);
+            offset += 3;
+            break;
+        }
+
+        // check value
+        checkRemaining(offset, length, "value");
+        valueOffset = offset;
+
+        LOG.trace("reading {} {} (length: {})", type, identifier, length);
+        return valueOffset + length;
+    }
+
+    private int readUnsigned(int offset, int size) {
+        int value = 0;
+        for (int i = 0; i < size; i++) {
+            value = (value << 8) | (buffer.get(offset + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private void checkRemaining(int offset, int size, String field) throws TlvException {
+        if (end - offset < size) {
+            throw new TlvException("Invalid '" + field + "' length");
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.tlv;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.eclipse.leshan.core.node.ObjectLink;
+import org.eclipse.leshan.core.tlv.Tlv.TlvType;
+
+/**
+ * Writes TLVs directly into a {@link ByteBuffer}, in a single pass.
+ * <p>
+ * Unlike {@link TlvEncoder#encode(Tlv[])}, no {@link Tlv} tree and no intermediate value arrays are needed: primitive
+ * values are written in place. The length of an {@link TlvType#OBJECT_INSTANCE} or a {@link TlvType#MULTIPLE_RESOURCE}
+ * is not known when it is started, so the largest length field is reserved and patched when it is ended (content is
+ * moved back if a smaller length field is enough). The produced bytes are the same as {@link TlvEncoder}.
+ * <p>
+ * Writing starts at the position of the buffer which is moved forward, values are written in big endian whatever the
+ * order of the buffer. A {@link BufferOverflowException} is raised if
+ * the buffer is too small.
+ *
+ * <pre>
+ * TlvWriter writer = new TlvWriter(buffer);
+ * writer.start(TlvType.OBJECT_INSTANCE, 0);
+ * writer.writeString(TlvType.RESOURCE_VALUE, 0, "Open Mobile Alliance");
+ * writer.writeLong(TlvType.RESOURCE_VALUE, 9, 100);
+ * writer.end();
+ * </pre>
+ *
+ * @since 2.0
+ */
+public class TlvWriter {
+
+    private static final int MAX_LENGTH_8BIT = 256;
+    private static final int MAX_LENGTH_16BIT = 65_536;
+    private static final int MAX_LENGTH_24BIT = 16_777_216;
+
+    // size of the length field reserved for containers
+    private static final int RESERVED_LENGTH_SIZE = 3;
+
+    private final ByteBuffer buffer;
+
+    // position of the header of each started container
+    private int[] containers = new int[4];
+    private int depth = 0;
+
+    public TlvWriter(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Starts an {@link TlvType#OBJECT_INSTANCE} or a {@link TlvType#MULTIPLE_RESOURCE}. Following TLVs are its children
+     * until {@link #end()} is called.
+     */
+    public void start(TlvType type, int identifier) {
+        if (type != TlvType.OBJECT_INSTANCE && type != TlvType.MULTIPLE_RESOURCE) {
+            throw new IllegalArgumentException("a " + type + " can't have children");
+        }
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+        }
+        containers[depth++] = buffer.position();
+
+        // type byte is completed at the end, when length is known
+        buffer.put((byte) (typeBits(type) | identifierBits(identifier)));
+        putIdentifier(identifier);
+        if (buffer.remaining() < RESERVED_LENGTH_SIZE) {
+            throw new BufferOverflowException();
+        }
+        buffer.position(buffer.position() + RESERVED_LENGTH_SIZE);
+    }
+
+    /**
+     * Ends the last started {@link TlvType#OBJECT_INSTANCE} or {@link TlvType#MULTIPLE_RESOURCE}.
+     */
+    public void end() {
+        if (depth == 0) {
+            throw new IllegalStateException("no TLV started");
+        }
+        int header = containers[--depth];
+        int identifierSize = (buffer.get(header) & 0b0010_0000) == 0 ? 1 : 2;
+        int contentStart = header + 1 + identifierSize + RESERVED_LENGTH_SIZE;
+        int length = buffer.position() - contentStart;
+        int lengthSize = lengthSize(length);
+
+        // move content back to the end of the smaller length field
+        int shift = RESERVED_LENGTH_SIZE - lengthSize;
+        if (shift > 0) {
+            if (buffer.hasArray()) {
+                byte[] array = buffer.array();
+                int offset = buffer.arrayOffset();
+                System.arraycopy(array, offset + contentStart, array, offset + contentStart - shift, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    buffer.put(contentStart - shift + i, buffer.get(contentStart + i));
+                }
+            }
+            buffer.position(buffer.position() - shift);
+        }
+
+        // patch header
+        buffer.put(header, (byte) (buffer.get(header) | lengthBits(length)));
+        int lengthOffset = header + 1 + identifierSize;
+        for (int i = lengthSize - 1; i >= 0; i--) {
+            buffer.put(lengthOffset++, (byte) (length >> (8 * i)));
+        }
+    }
+
+    /**
+     * Writes a {@link TlvType#RESOURCE_VALUE} or a {@link TlvType#RESOURCE_INSTANCE} containing an integer, encoded on
+     * the smallest size among 1, 2, 4 or 8 bytes.
+     */
+    public void writeLong(TlvType type, int identifier, long value) {
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            putHeader(type, identifier, 1);
+            buffer.put((byte) value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            putHeader(type, identifier, 2);
+            putBigEndian(value, 2);
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            putHeader(type, identifier, 4);
+            putBigEndian(value, 4);
+        } else {
+            putHeader(type, identifier, 8);
+            putBigEndian(value, 8);
+        }
+    }
+
+    /**
+     * Writes a 4 bytes float.
+     */
+    public void writeFloat(TlvType type, int identifier, float value) {
+        putHeader(type, identifier, 4);
+        putBigEndian(Float.floatToIntBits(value), 4);
+    }
+
+    /**
+     * Writes a 8 bytes float.
+     */
+    public void writeDouble(TlvType type, int identifier, double value) {
+        putHeader(type, identifier, 8);
+        putBigEndian(Double.doubleToLongBits(value), 8);
+    }
+
+    public void writeBoolean(TlvType type, int identifier, boolean value) {
+        putHeader(type, identifier, 1);
+        buffer.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * Writes a time as a 4 bytes number of seconds since epoch.
+     */
+    public void writeDate(TlvType type, int identifier, Date value) {
+        putHeader(type, identifier, 4);
+        putBigEndian((int) (value.getTime() / 1000L), 4);
+    }
+
+    public void writeObjlnk(TlvType type, int identifier, ObjectLink value) {
+        putHeader(type, identifier, 4);
+        putBigEndian(value.getObjectId(), 2);
+        putBigEndian(value.getObjectInstanceId(), 2);
+    }
+
+    public void writeBytes(TlvType type, int identifier, byte[] value) {
+        putHeader(type, identifier, value.length);
+        buffer.put(value);
+    }
+
+    /**
+     * Writes a string encoded in UTF-8. Like {@link String#getBytes(java.nio.charset.Charset)}, unpaired surrogates are
+     * replaced by '?'.
+     */
+    public void writeString(TlvType type, int identifier, String value) {
+        int length = value.length();
+        putHeader(type, identifier, utf8Length(value));
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.put((byte) (0xF0 | (cp >> 18)));
+                    buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (cp & 0x3F)));
+                } else {
+                    buffer.put((byte) '?');
+                }
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else {
+                    size += 1;
+                }
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    private void putHeader(TlvType type, int identifier, int length) {
+        if (type != TlvType.RESOURCE_VALUE && type != TlvType.RESOURCE_INSTANCE) {
+            throw new IllegalArgumentException("a " + type + " can't have a value");
+        }
+        buffer.put((byte) (typeBits(type) | identifierBits(identifier) | lengthBits(length)));
+        putIdentifier(identifier);
+        putBigEndian(length, lengthSize(length));
+    }
+
+    private void putBigEndian(long value, int size) {
+        for (int i = size - 1; i >= 0; i--) {
+            buffer.put((byte) (value >> (8 * i)));
+        }
+    }
+
+    private void putIdentifier(int identifier) {
+        if (identifier < MAX_LENGTH_8BIT) {
+            buffer.put((byte) identifier);
+        } else {
+            putBigEndian(identifier, 2);
+        }
+    }
+
+    private static int typeBits(TlvType type) {
+        switch (type) {
+        case OBJECT_INSTANCE:
+            return 0b00_000000;
+        case RESOURCE_INSTANCE:
+            return 0b01_000000;
+        case MULTIPLE_RESOURCE:
+            return 0b10_000000;
+        case RESOURCE_VALUE:
+            return 0b11_000000;
+        default:
+            throw new IllegalArgumentException("unknown TLV type : '" + type + "'");
+        }
+    }
+
+    private static int identifierBits(int identifier) {
+        return identifier < MAX_LENGTH_8BIT ? 0b00_0000 : 0b10_0000;
+    }
+
+    private static int lengthBits(int length) {
+        if (length < 8) {
+            return length;
+        } else if (length < MAX_LENGTH_8BIT) {
+            return 0b0000_1000;
+        } else if (length < MAX_LENGTH_16BIT) {
+            return 0b0001_0000;
+        } else {
+            return 0b0001_1000;
+        }
+    }
+
+    private static int lengthSize(int length) {
+        if (length < 8) {
+            return 0;
+        } else if (length < MAX_LENGTH_8BIT) {
+            return 1;
+        } else if (length < MAX_LENGTH_16BIT) {
+            return 2;
+        } else if (length < MAX_LENGTH_24BIT) {
+            return 3;
+        } else {
+            throw new IllegalArgumentException("length should fit in max 24bits");
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public final class NamedThreadFactory implements ThreadFactory {
     private final String nameFormat;
+    private final boolean daemon;
     private final AtomicLong counter = new AtomicLong();
 
     /**
@@ -36,13 +37,29 @@ public final class NamedThreadFactory implements ThreadFactory {
      *        {@code xyz-2} etc.
      */
     public NamedThreadFactory(final String nameFormat) {
+        this(nameFormat, false);
+    }
+
+    /**
+     * Creates a new {@link NamedThreadFactory}.
+     * 
+     * @param nameFormat result of {@link String#format(String, Object...)} with this format and unique counter will be
+     *        used for thread name.
+     * @param daemon true if created threads must not prevent the JVM from exiting.
+     * @since 2.0
+     */
+    public NamedThreadFactory(final String nameFormat, final boolean daemon) {
         this.nameFormat = nameFormat;
+        this.daemon = daemon;
     }
 
     @Override
     public Thread newThread(final Runnable r) {
         final Thread thread = Executors.defaultThreadFactory().newThread(r);
         thread.setName(String.format(nameFormat, counter.getAndIncrement()));
+        if (daemon) {
+            thread.setDaemon(true);
+        }
         return thread;
     }
 }
\ No newline at end of file
@@ -181,7 +181,14 @@ public class SenMLCborPackSerDes {
                         else if (value instanceof Float) {
                             generator.writeNumber(value.floatValue());
                         } else if (value instanceof Double) {
-                            generator.writeNumber(value.doubleValue());
+                            // use single precision when there is no loss, as upokecenter implementation does
+                            double doubleValue = value.doubleValue();
+                            float floatValue = (float) doubleValue;
+                            if (floatValue == doubleValue) {
+                                generator.writeNumber(floatValue);
+                            } else {
+                                generator.writeNumber(doubleValue);
+                            }
                         } else if (value instanceof BigDecimal) {
                             generator.writeNumber((BigDecimal) value);
                         }
@@ -23,15 +23,15 @@ import org.eclipse.leshan.senml.SenMLException;
 import org.eclipse.leshan.senml.SenMLPack;
 
 import com.eclipsesource.json.ParseException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 
 /**
  * Helper for encoding/decoding SenML JSON using Jackson
  */
 public class SenMLJsonJacksonEncoderDecoder implements SenMLDecoder, SenMLEncoder {
     private final SenMLJsonRecordSerDes serDes;
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonFactory factory = new JsonFactory();
 
     public SenMLJsonJacksonEncoderDecoder() {
         this(false);
@@ -63,13 +63,8 @@ public class SenMLJsonJacksonEncoderDecoder implements SenMLDecoder, SenMLEncode
 
     @Override
     public SenMLPack fromSenML(byte[] jsonString) throws SenMLException {
-        try {
-            JsonNode node = mapper.readTree(jsonString);
-            if (!node.isArray()) {
-                throw new SenMLException("Unable to parse SenML JSON: JsonArray expected but was %s",
-                        node.getNodeType());
-            }
-            return new SenMLPack(serDes.deserialize(node.iterator()));
+        try (JsonParser parser = factory.createParser(jsonString)) {
+            return new SenMLPack(serDes.deserialize(parser));
         } catch (JsonException | ParseException | IOException e) {
             throw new SenMLException("Unable to parse SenML JSON.", e);
         }
@@ -14,8 +14,11 @@
 
 package org.eclipse.leshan.senml.json.jackson;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.leshan.core.model.ResourceModel.Type;
 import org.eclipse.leshan.core.util.Base64;
@@ -24,6 +27,8 @@ import org.eclipse.leshan.core.util.json.JacksonJsonSerDes;
 import org.eclipse.leshan.core.util.json.JsonException;
 import org.eclipse.leshan.senml.SenMLRecord;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -180,4 +185,99 @@ public class SenMLJsonRecordSerDes extends JacksonJsonSerDes<SenMLRecord> {
 
         return record;
     }
+
+    /**
+     * Deserialize a SenML-JSON array of records reading tokens directly from the given parser, without building an
+     * intermediate {@link JsonNode} tree.
+     * <p>
+     * Fields with unexpected type and unknown fields are ignored as {@link #deserialize(JsonNode)} does.
+     * 
+     * @param parser a parser positioned before the start of the array.
+     * @return the list of records.
+     * @throws JsonException if the content is not a valid SenML-JSON array.
+     * @throws IOException if the content is not valid JSON.
+     * @since 2.0
+     */
+    public List<SenMLRecord> deserialize(JsonParser parser) throws JsonException, IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonException("Unable to parse SenML JSON: JsonArray expected but was %s", token);
+        }
+
+        List<SenMLRecord> records = new ArrayList<>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonException("Invalid SenML record : JsonObject expected but was %s", token);
+            }
+            records.add(deserializeRecord(parser));
+        }
+        return records;
+    }
+
+    private SenMLRecord deserializeRecord(JsonParser parser) throws JsonException, IOException {
+        SenMLRecord record = new SenMLRecord();
+        boolean hasValue = false;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+            case "bn":
+                if (token == JsonToken.VALUE_STRING)
+                    record.setBaseName(parser.getText());
+                break;
+            case "bt":
+                if (token.isNumeric())
+                    record.setBaseTime(parser.getValueAsLong());
+                break;
+            case "n":
+                if (token == JsonToken.VALUE_STRING)
+                    record.setName(parser.getText());
+                break;
+            case "t":
+                if (token.isNumeric())
+                    record.setTime(parser.getValueAsLong());
+                break;
+            case "v":
+                if (token.isNumeric()) {
+                    record.setFloatValue(parser.getNumberValue());
+                    hasValue = true;
+                }
+                break;
+            case "vb":
+                if (token.isBoolean()) {
+                    record.setBooleanValue(parser.getBooleanValue());
+                    hasValue = true;
+                }
+                break;
+            case "vs":
+                if (token == JsonToken.VALUE_STRING) {
+                    record.setStringValue(parser.getText());
+                    hasValue = true;
+                }
+                break;
+            case "vlo":
+                if (token == JsonToken.VALUE_STRING) {
+                    record.setObjectLinkValue(parser.getText());
+                    hasValue = true;
+                }
+                break;
+            case "vd":
+                if (token == JsonToken.VALUE_STRING) {
+                    record.setOpaqueValue(Base64.decodeBase64(parser.getText()));
+                    hasValue = true;
+                }
+                break;
+            default:
+                break;
+            }
+            // ignore object or array values, even for known fields (no-op for scalar values)
+            parser.skipChildren();
+        }
+
+        if (!allowNoValue && !hasValue)
+            throw new JsonException("Invalid SenML record : record must have a value (v,vb,vlo,vd,vs) : %s", record);
+
+        return record;
+    }
 }
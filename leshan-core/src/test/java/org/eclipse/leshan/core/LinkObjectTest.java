@@ -55,19 +55,30 @@ public class LinkObjectTest {
 
     @Test
     public void parse_with_quoted_attributes() {
-        Link[] parse = Link
-                .parse("</>;k1=\"quotes\"inside\";k2=endwithquotes\";k3=noquotes;k4=\"startwithquotes".getBytes());
+        Link[] parse = Link.parse("</>;k1=\"quoted\\\"inside\";k2=\"a,b;c=d\";k3=noquotes".getBytes());
         Assert.assertEquals(1, parse.length);
         Assert.assertEquals("/", parse[0].getUrl());
 
         Map<String, String> attResult = new HashMap<>();
-        attResult.put("k1", "\"quotes\"inside\"");
-        attResult.put("k2", "endwithquotes\"");
+        attResult.put("k1", "\"quoted\\\"inside\"");
+        attResult.put("k2", "\"a,b;c=d\"");
         attResult.put("k3", "noquotes");
-        attResult.put("k4", "\"startwithquotes");
         Assert.assertEquals(attResult, parse[0].getAttributes());
     }
 
+    @Test
+    public void parse_invalid_quoted_attributes() {
+        String[] invalids = { "</>;k1=\"quotes\"inside\"", "</>;k2=endwithquotes\"", "</>;k4=\"startwithquotes" };
+        for (String invalid : invalids) {
+            try {
+                Link.parse(invalid.getBytes());
+                Assert.fail(invalid + " should not be parsed");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
     @Test
     public void serialyse_without_attribute() {
         Link obj1 = new Link("/1/0/1");
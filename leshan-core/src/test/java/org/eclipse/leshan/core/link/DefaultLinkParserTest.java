@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.link;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.leshan.core.Link;
+import org.junit.Test;
+
+public class DefaultLinkParserTest {
+
+    private final LinkParser parser = new DefaultLinkParser();
+    private final LinkSerializer serializer = new DefaultLinkSerializer();
+
+    @Test
+    public void parse_empty_payload() throws LinkParseException {
+        assertEquals(0, parser.parse(null).length);
+        assertEquals(0, parser.parse(new byte[0]).length);
+        assertEquals(0, parser.parse(" ".getBytes()).length);
+    }
+
+    @Test
+    public void parse_then_serialize_keeps_attributes_order() throws LinkParseException {
+        String payload = "</>;rt=\"oma.lwm2m\";ct=110,</1>;ver=1.1,</3/0>," //
+                + "</3303/0>;pmin=10;pmax=60;title*=UTF-8'en'%E2%82%AC";
+        Link[] links = parser.parse(payload.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(4, links.length);
+        assertEquals("1.1", links[1].getAttributes().get("ver"));
+        assertTrue(links[2].getAttributes().isEmpty());
+        assertEquals(payload, serializer.serialize(links));
+    }
+
+    @Test
+    public void parse_interns_common_names_and_values() throws LinkParseException {
+        Link[] links = parser.parse("</>;rt=\"oma.lwm2m\",</1>;ver=1.1,</2>;ver=1.1".getBytes());
+
+        assertSame("/", links[0].getUrl());
+        assertSame(links[1].getAttributes().keySet().iterator().next(),
+                links[2].getAttributes().keySet().iterator().next());
+        assertSame(links[1].getAttributes().get("ver"), links[2].getAttributes().get("ver"));
+        assertSame(links[0].getAttributes(), new Link("/", links[0].getAttributes()).getAttributes());
+    }
+
+    @Test
+    public void parse_utf8_quoted_value() throws LinkParseException {
+        Link[] links = parser.parse("</1>;title=\"été\"".getBytes(StandardCharsets.UTF_8));
+        assertEquals("\"été\"", links[0].getAttributes().get("title"));
+    }
+
+    @Test
+    public void reject_invalid_payloads() {
+        String[] invalids = { "/1", "<1", "</1>,", "</1>;", "</1>;=2", "</1>;a=", "</1> </2>", "</1 2>", "</%2>",
+                                "</1>;a=b c", "</1>;a\"b", "</1>,,</2>" };
+        for (String invalid : invalids) {
+            try {
+                parser.parse(invalid.getBytes());
+                fail(invalid + " should not be parsed");
+            } catch (LinkParseException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.model;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.leshan.core.model.ResourceModel.Operations;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
+import org.junit.Test;
+
+public class DDFFileParserTest {
+
+    @Test
+    public void streaming_parser_builds_same_models_than_dom_parser() throws Exception {
+        List<ObjectModel> streamed = ObjectLoader.loadDdfResources("/models/", ObjectLoader.ddfpaths,
+                new DDFFileParser(), null);
+        List<ObjectModel> validated = ObjectLoader.loadDdfResources("/models/", ObjectLoader.ddfpaths,
+                new DDFFileParser(new DefaultDDFFileValidatorFactory()), null);
+
+        assertEquals(validated.toString(), streamed.toString());
+    }
+
+    @Test
+    public void streaming_parser_keeps_only_direct_fields() throws Exception {
+        String ddf = "<LWM2M><Object ObjectType=\"MODefinition\">" //
+                + "<Name>Test</Name><ObjectID>3442</ObjectID><ObjectVersion></ObjectVersion>" //
+                + "<MultipleInstances>Multiple</MultipleInstances><Mandatory>Optional</Mandatory>" //
+                + "<Description1>a <b>rich</b> description</Description1>" //
+                + "<Resources>" //
+                + "<Item ID=\"0\"><Name>Value</Name><Operations>RW</Operations><Type>Integer</Type>" //
+                + "<Unknown><Name>ignored</Name></Unknown></Item>" //
+                + "<Item ID=\"1\"><Name>Reset</Name><Operations>E</Operations><Type></Type></Item>" //
+                + "</Resources></Object></LWM2M>";
+
+        List<ObjectModel> models = new DDFFileParser()
+                .parse(new ByteArrayInputStream(ddf.getBytes(StandardCharsets.UTF_8)), "test");
+
+        assertEquals(1, models.size());
+        ObjectModel model = models.get(0);
+        assertEquals(Integer.valueOf(3442), model.id);
+        assertEquals("Test", model.name);
+        assertEquals(ObjectModel.DEFAULT_VERSION, model.version);
+        assertEquals("a rich description", model.description);
+        assertTrue(model.multiple);
+        assertFalse(model.mandatory);
+        assertEquals(2, model.resources.size());
+        assertEquals("Value", model.resources.get(0).name);
+        assertEquals(Operations.RW, model.resources.get(0).operations);
+        assertEquals(Type.INTEGER, model.resources.get(0).type);
+        assertEquals(Operations.E, model.resources.get(1).operations);
+        assertEquals(Type.NONE, model.resources.get(1).type);
+    }
+
+    @Test(expected = InvalidDDFFileException.class)
+    public void streaming_parser_rejects_malformed_xml() throws Exception {
+        new DDFFileParser().parse(new ByteArrayInputStream("<LWM2M><Object>".getBytes(StandardCharsets.UTF_8)),
+                "test");
+    }
+}
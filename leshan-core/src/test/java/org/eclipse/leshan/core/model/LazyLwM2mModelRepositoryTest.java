@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LazyLwM2mModelRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File modelsDir;
+
+    @Before
+    public void setup() throws IOException {
+        modelsDir = folder.newFolder("models");
+        for (String filename : ObjectLoader.ddfpaths) {
+            copy("/models/" + filename, new File(modelsDir, filename));
+        }
+    }
+
+    @Test
+    public void models_are_parsed_on_first_use() throws Exception {
+        LazyLwM2mModelRepository repository = new LazyLwM2mModelRepository(modelsDir);
+        assertEquals(0, repository.getLoadedModelsCount());
+
+        ObjectModel device = repository.getObjectModel(3, "1.1");
+
+        assertEquals(Integer.valueOf(3), device.id);
+        assertEquals("1.1", device.version);
+        assertEquals(1, repository.getLoadedModelsCount());
+        assertSame(device, repository.getObjectModel(Integer.valueOf(3), "1.1"));
+        assertEquals("1.0", repository.getObjectModel(3, "1.0").version);
+        assertEquals(2, repository.getLoadedModelsCount());
+    }
+
+    @Test
+    public void resources_are_looked_up_in_parsed_models() {
+        LazyLwM2mModelRepository repository = new LazyLwM2mModelRepository(modelsDir);
+
+        ResourceModel manufacturer = repository.getResourceModel(3, "1.1", 0);
+
+        assertEquals("Manufacturer", manufacturer.name);
+        assertSame(manufacturer, repository.getObjectModel(3, "1.1").resources.get(0));
+        assertEquals(1, repository.getLoadedModelsCount());
+        assertNull(repository.getResourceModel(3, "1.1", 5700));
+        assertNull(repository.getResourceModel(3, "2.0", 0));
+    }
+
+    @Test
+    public void lazy_models_are_same_as_loaded_ones() throws Exception {
+        LazyLwM2mModelRepository repository = new LazyLwM2mModelRepository(modelsDir);
+
+        for (ObjectModel model : ObjectLoader.loadObjectsFromDir(modelsDir)) {
+            assertEquals(model.toString(), repository.getObjectModel(model.id, model.version).toString());
+        }
+    }
+
+    @Test
+    public void unknown_model_is_null() {
+        LazyLwM2mModelRepository repository = new LazyLwM2mModelRepository(modelsDir);
+
+        assertNull(repository.getObjectModel(3, "2.0"));
+        assertNull(repository.getObjectModel(3442, "1.0"));
+        assertEquals(0, repository.getLoadedModelsCount());
+    }
+
+    @Test
+    public void models_are_evicted_over_max_size() {
+        LazyLwM2mModelRepository repository = new LazyLwM2mModelRepository(modelsDir, new DDFFileParser(), null,
+                2);
+
+        ObjectModel device = repository.getObjectModel(3, "1.1");
+        ObjectModel server = repository.getObjectModel(1, "1.1");
+        ObjectModel security = repository.getObjectModel(0, "1.1");
+
+        assertEquals(2, repository.getLoadedModelsCount());
+        assertNotNull(security);
+        // evicted models are parsed again
+        assertEquals(device.toString(), repository.getObjectModel(3, "1.1").toString());
+        assertEquals(server.toString(), repository.getObjectModel(1, "1.1").toString());
+        assertEquals(2, repository.getLoadedModelsCount());
+    }
+
+    @Test
+    public void invalid_files_are_ignored() throws IOException {
+        try (OutputStream output = new FileOutputStream(new File(modelsDir, "invalid.xml"))) {
+            output.write("<LWM2M><Object>".getBytes(StandardCharsets.UTF_8));
+        }
+
+        LazyLwM2mModelRepository repository = new LazyLwM2mModelRepository(modelsDir);
+
+        assertNotNull(repository.getObjectModel(3, "1.1"));
+    }
+
+    private static void copy(String resource, File file) throws IOException {
+        try (InputStream input = LazyLwM2mModelRepositoryTest.class.getResourceAsStream(resource);
+                OutputStream output = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+}
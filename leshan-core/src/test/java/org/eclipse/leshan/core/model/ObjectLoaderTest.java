@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ObjectLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void load_directory_concurrently() throws Exception {
+        File modelsDir = folder.newFolder("models");
+        for (String filename : ObjectLoader.ddfpaths) {
+            copy("/models/" + filename, new File(modelsDir, filename));
+        }
+        // invalid file is ignored
+        try (OutputStream output = new FileOutputStream(new File(modelsDir, "invalid.xml"))) {
+            output.write("<LWM2M>".getBytes(StandardCharsets.UTF_8));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            DDFFileParser parser = new DDFFileParser(new DefaultDDFFileValidatorFactory());
+            ObjectModelValidator validator = new DefaultObjectModelValidator();
+
+            List<ObjectModel> models = ObjectLoader.loadObjectsFromDir(modelsDir, parser, validator, executor);
+
+            assertEquals(ObjectLoader.ddfpaths.length, models.size());
+            assertEquals(ObjectLoader.loadObjectsFromDir(modelsDir, parser, validator).toString(), models.toString());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void copy(String resource, File file) throws IOException {
+        try (InputStream input = ObjectLoaderTest.class.getResourceAsStream(resource);
+                OutputStream output = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+}
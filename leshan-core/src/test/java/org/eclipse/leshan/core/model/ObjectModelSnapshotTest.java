@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.model;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ObjectModelSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void embedded_snapshot_is_up_to_date() throws Exception {
+        List<ObjectModel> models;
+        try (InputStream input = ObjectLoader.class.getResourceAsStream(ObjectLoader.DEFAULT_SNAPSHOT)) {
+            models = ObjectModelSnapshot.read(input, ObjectLoader.defaultChecksum());
+        }
+
+        assertNotNull("embedded snapshot must be regenerated, see ObjectModelSnapshot", models);
+        assertEquals(ObjectLoader.parseDefault().toString(), models.toString());
+    }
+
+    @Test
+    public void snapshot_of_other_sources_is_ignored() throws Exception {
+        byte[] snapshot = write(ObjectLoader.parseDefault(), 42);
+
+        assertNull(ObjectModelSnapshot.read(new ByteArrayInputStream(snapshot), 43));
+    }
+
+    @Test(expected = IOException.class)
+    public void corrupted_snapshot_is_rejected() throws Exception {
+        byte[] snapshot = write(ObjectLoader.parseDefault(), 42);
+        snapshot[snapshot.length / 2] ^= 1;
+
+        ObjectModelSnapshot.read(new ByteArrayInputStream(snapshot), 42);
+    }
+
+    @Test(expected = IOException.class)
+    public void snapshot_with_bad_count_and_valid_crc_is_rejected() throws Exception {
+        byte[] snapshot = write(ObjectLoader.parseDefault(), 42);
+        // number of models, after magic number, format version and source checksum
+        writeInt(snapshot, 13, Integer.MAX_VALUE);
+
+        ObjectModelSnapshot.read(new ByteArrayInputStream(updateCrc(snapshot)), 42);
+    }
+
+    @Test(expected = IOException.class)
+    public void snapshot_with_bad_string_length_and_valid_crc_is_rejected() throws Exception {
+        byte[] snapshot = write(ObjectLoader.parseDefault(), 42);
+        // length of the name of the first model, after the number of models and its id
+        writeInt(snapshot, 22, Integer.MAX_VALUE);
+
+        ObjectModelSnapshot.read(new ByteArrayInputStream(updateCrc(snapshot)), 42);
+    }
+
+    @Test(expected = IOException.class)
+    public void snapshot_with_unknown_type_and_valid_crc_is_rejected() throws Exception {
+        byte[] snapshot = write(ObjectLoader.parseDefault(), 42);
+        byte[] type = "INTEGER".getBytes(StandardCharsets.UTF_8);
+        int index = indexOf(snapshot, type);
+        snapshot[index + type.length - 1] = 'X';
+
+        ObjectModelSnapshot.read(new ByteArrayInputStream(updateCrc(snapshot)), 42);
+    }
+
+    @Test
+    public void load_directory_with_corrupted_snapshot() throws Exception {
+        File modelsDir = folder.newFolder("models");
+        File snapshot = new File(folder.getRoot(), "models.snapshot");
+        copy("/models/3-1_0.xml", new File(modelsDir, "3.xml"));
+        List<ObjectModel> models = ObjectLoader.loadObjectsFromDir(modelsDir, snapshot, false);
+
+        byte[] corrupted = Files.readAllBytes(snapshot.toPath());
+        writeInt(corrupted, 13, Integer.MAX_VALUE);
+        Files.write(snapshot.toPath(), updateCrc(corrupted));
+
+        // DDF files are parsed and snapshot is compiled again
+        assertEquals(models.toString(), ObjectLoader.loadObjectsFromDir(modelsDir, snapshot, false).toString());
+        try (InputStream input = new FileInputStream(snapshot)) {
+            assertEquals(models.toString(),
+                    ObjectModelSnapshot.read(input, ObjectLoader.dirChecksum(modelsDir, false)).toString());
+        }
+    }
+
+    @Test
+    public void load_directory_with_snapshot() throws Exception {
+        File modelsDir = folder.newFolder("models");
+        File snapshot = new File(folder.getRoot(), "models.snapshot");
+        copy("/models/3-1_0.xml", new File(modelsDir, "3.xml"));
+
+        // first load compiles snapshot
+        List<ObjectModel> models = ObjectLoader.loadObjectsFromDir(modelsDir, snapshot, false);
+        assertEquals(1, models.size());
+        assertTrue(snapshot.isFile());
+        long lastSnapshotLength = snapshot.length();
+
+        // next load uses it
+        try (InputStream input = new FileInputStream(snapshot)) {
+            assertEquals(models.toString(),
+                    ObjectModelSnapshot.read(input, ObjectLoader.dirChecksum(modelsDir, false)).toString());
+        }
+        assertEquals(models.toString(), ObjectLoader.loadObjectsFromDir(modelsDir, snapshot, false).toString());
+
+        // snapshot is compiled again when DDF files change
+        copy("/models/6.xml", new File(modelsDir, "6.xml"));
+        models = ObjectLoader.loadObjectsFromDir(modelsDir, snapshot, false);
+        assertEquals(2, models.size());
+        assertNotEquals(lastSnapshotLength, snapshot.length());
+    }
+
+    private static byte[] write(List<ObjectModel> models, long checksum) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ObjectModelSnapshot.write(models, checksum, output);
+        return output.toByteArray();
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        ByteBuffer.wrap(bytes, offset, 4).putInt(value);
+    }
+
+    // CRC of the content is written in the last 8 bytes
+    private static byte[] updateCrc(byte[] snapshot) {
+        CRC32 crc = new CRC32();
+        crc.update(snapshot, 0, snapshot.length - 8);
+        ByteBuffer.wrap(snapshot, snapshot.length - 8, 8).putLong(crc.getValue());
+        return snapshot;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] searched) {
+        for (int i = 0; i <= bytes.length - searched.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + searched.length), searched)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("not found");
+    }
+
+    private static void copy(String resource, File file) throws IOException {
+        try (InputStream input = ObjectModelSnapshotTest.class.getResourceAsStream(resource);
+                OutputStream output = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+}
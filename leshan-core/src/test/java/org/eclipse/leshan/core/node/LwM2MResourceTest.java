@@ -118,6 +118,35 @@ public class LwM2MResourceTest {
                 LwM2mMultipleResource.newBinaryResource(10, values2));
     }
 
+    @Test
+    public void primitive_and_boxed_integers_are_equal() {
+        LwM2mSingleResource primitive = LwM2mSingleResource.newIntegerResource(10, 42);
+        LwM2mSingleResource boxed = LwM2mSingleResource.newResource(10, Long.valueOf(42), Type.INTEGER);
+
+        assertEquals(primitive, boxed);
+        assertEquals(primitive.hashCode(), boxed.hashCode());
+        assertEquals(42L, primitive.getValue());
+        assertEquals(42L, boxed.getLongValue());
+        assertNotEquals(primitive, LwM2mSingleResource.newIntegerResource(10, 43));
+    }
+
+    @Test
+    public void primitive_and_boxed_floats_are_equal() {
+        LwM2mResourceInstance primitive = LwM2mResourceInstance.newFloatInstance(1, Double.NaN);
+        LwM2mResourceInstance boxed = LwM2mResourceInstance.newInstance(1, Double.valueOf(Double.NaN), Type.FLOAT);
+
+        assertEquals(primitive, boxed);
+        assertEquals(primitive.hashCode(), boxed.hashCode());
+        assertEquals(Double.NaN, primitive.getValue());
+        assertEquals(Double.NaN, boxed.getDoubleValue(), 0);
+        assertNotEquals(LwM2mResourceInstance.newFloatInstance(1, 0.0), LwM2mResourceInstance.newFloatInstance(1, -0.0));
+    }
+
+    @Test(expected = LwM2mNodeException.class)
+    public void long_value_of_float_resource() {
+        LwM2mSingleResource.newFloatResource(1, 1.5).getLongValue();
+    }
+
     @Test(expected = LwM2mNodeException.class)
     public void string_resource_with_null_value() {
         LwM2mSingleResource.newStringResource(1, null);
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.node;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LwM2mPathTest {
+
+    @Test
+    public void parse_paths_of_each_level() {
+        assertTrue(new LwM2mPath("/").isRoot());
+        assertTrue(new LwM2mPath("").isRoot());
+        assertEquals(new LwM2mPath(3), new LwM2mPath("/3"));
+        assertEquals(new LwM2mPath(3, 0), new LwM2mPath("3/0"));
+        assertEquals(new LwM2mPath(3, 0, 9), new LwM2mPath("/3/0/9/"));
+        assertEquals(new LwM2mPath(3303, 0, 5700, 65534), new LwM2mPath("/3303/0/5700/65534"));
+
+        LwM2mPath path = new LwM2mPath("/3303/12/5700");
+        assertEquals(Integer.valueOf(3303), path.getObjectId());
+        assertEquals(Integer.valueOf(12), path.getObjectInstanceId());
+        assertEquals(Integer.valueOf(5700), path.getResourceId());
+        assertNull(path.getResourceInstanceId());
+        assertTrue(path.isResource());
+    }
+
+    @Test
+    public void string_form_is_canonical() {
+        String canonical = "/3/0/9";
+        assertSame(canonical, new LwM2mPath(canonical).toString());
+        assertEquals("/3/0/9", new LwM2mPath("3/0/9/").toString());
+        assertEquals("/3/0/9", new LwM2mPath("/03/0/009").toString());
+        assertEquals("/", LwM2mPath.ROOTPATH.toString());
+        assertEquals("/3303/0/5700/1", new LwM2mPath(3303, 0, 5700, 1).toString());
+    }
+
+    @Test
+    public void invalid_paths_are_rejected() {
+        String[] invalids = { "/3//0", "/3/a", "/-1", "/+3", "/3/0/1/2/3", "/99999999999", "3 /0" };
+        for (String invalid : invalids) {
+            try {
+                new LwM2mPath(invalid);
+                fail(invalid + " should be rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        try {
+            new LwM2mPath("/70000");
+            fail("out of range id should be rejected");
+        } catch (LwM2mNodeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void equals_hashcode_and_prefix() {
+        LwM2mPath resource = new LwM2mPath(3, 0, 9);
+        assertEquals(resource.hashCode(), new LwM2mPath("/3/0/9").hashCode());
+        assertNotEquals(new LwM2mPath(3, 0), new LwM2mPath(3, 0, 0));
+        assertNotEquals(new LwM2mPath(3, 0), new LwM2mIncompletePath(3));
+        assertEquals(LwM2mPath.ROOTPATH.hashCode(), new LwM2mPath("/").hashCode());
+
+        assertTrue(resource.startWith(LwM2mPath.ROOTPATH));
+        assertTrue(resource.startWith(new LwM2mPath(3, 0)));
+        assertTrue(resource.startWith(resource));
+        assertFalse(resource.startWith(new LwM2mPath(3, 1)));
+        assertFalse(resource.startWith(new LwM2mPath(3, 0, 9, 0)));
+
+        assertEquals(new LwM2mPath(3, 0, 9, 1), new LwM2mPath(3).append("0/9/1"));
+        assertEquals(new LwM2mPath(3, 0, 9), new LwM2mPath(3, 0).append(9));
+    }
+
+    @Test
+    public void cache_returns_same_instance() {
+        LwM2mPathCache cache = new LwM2mPathCache(4);
+        LwM2mPath path = cache.get("/3/0/9");
+        assertEquals(new LwM2mPath(3, 0, 9), path);
+        assertSame(path, cache.get(new String("/3/0/9")));
+
+        // bounded: other paths replace cached ones but results stay correct
+        for (int i = 0; i < 100; i++) {
+            assertEquals(new LwM2mPath(3, 0, i), cache.get("/3/0/" + i));
+        }
+        assertEquals(path, cache.get("/3/0/9"));
+    }
+}
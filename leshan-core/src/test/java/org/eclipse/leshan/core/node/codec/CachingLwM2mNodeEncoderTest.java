@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.node.codec;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.StaticModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.junit.Test;
+
+public class CachingLwM2mNodeEncoderTest {
+
+    private final LwM2mModel model = new StaticModel(ObjectLoader.loadDefault());
+    private final CountingEncoder delegate = new CountingEncoder();
+
+    @Test
+    public void equal_nodes_are_encoded_once() {
+        CachingLwM2mNodeEncoder encoder = new CachingLwM2mNodeEncoder(delegate);
+
+        byte[] first = encoder.encode(server(123, 3600), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+        byte[] second = encoder.encode(server(123, 3600), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+
+        assertEquals(1, delegate.count);
+        assertArrayEquals(first, second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void nodes_are_encoded_again_for_other_content_format_path_or_value() {
+        CachingLwM2mNodeEncoder encoder = new CachingLwM2mNodeEncoder(delegate);
+        encoder.encode(server(123, 3600), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+
+        encoder.encode(server(123, 3600), ContentFormat.SENML_JSON, new LwM2mPath(1, 0), model);
+        encoder.encode(server(123, 3600), ContentFormat.TLV, new LwM2mPath(1, 1), model);
+        encoder.encode(server(123, 60), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+
+        assertEquals(4, delegate.count);
+    }
+
+    @Test
+    public void least_recently_used_payload_is_evicted() {
+        CachingLwM2mNodeEncoder encoder = new CachingLwM2mNodeEncoder(delegate, 2);
+        encoder.encode(server(1, 60), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+        encoder.encode(server(2, 60), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+        encoder.encode(server(1, 60), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+        encoder.encode(server(3, 60), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+        assertEquals(3, delegate.count);
+
+        encoder.encode(server(1, 60), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+        assertEquals(3, delegate.count);
+        encoder.encode(server(2, 60), ContentFormat.TLV, new LwM2mPath(1, 0), model);
+        assertEquals(4, delegate.count);
+    }
+
+    @Test
+    public void security_and_oscore_nodes_are_not_cached() {
+        CachingLwM2mNodeEncoder encoder = new CachingLwM2mNodeEncoder(delegate);
+        LwM2mObjectInstance security = new LwM2mObjectInstance(0,
+                LwM2mSingleResource.newStringResource(0, "coaps://localhost:5684"),
+                LwM2mSingleResource.newBinaryResource(5, new byte[] { 1, 2, 3 }));
+        LwM2mObjectInstance oscore = new LwM2mObjectInstance(0,
+                LwM2mSingleResource.newStringResource(0, "master secret"));
+
+        encoder.encode(security, ContentFormat.TLV, new LwM2mPath(0, 0), model);
+        encoder.encode(security, ContentFormat.TLV, new LwM2mPath(0, 0), model);
+        encoder.encode(oscore, ContentFormat.TLV, new LwM2mPath(21, 0), model);
+        encoder.encode(oscore, ContentFormat.TLV, new LwM2mPath(21, 0), model);
+
+        assertEquals(4, delegate.count);
+    }
+
+    private static LwM2mObjectInstance server(int shortId, long lifetime) {
+        return new LwM2mObjectInstance(0, LwM2mSingleResource.newIntegerResource(0, shortId),
+                LwM2mSingleResource.newIntegerResource(1, lifetime));
+    }
+
+    private static class CountingEncoder implements LwM2mNodeEncoder {
+        private final LwM2mNodeEncoder encoder = new DefaultLwM2mNodeEncoder();
+        private int count = 0;
+
+        @Override
+        public byte[] encode(LwM2mNode node, ContentFormat format, LwM2mPath path, LwM2mModel model) {
+            count++;
+            return encoder.encode(node, format, path, model);
+        }
+
+        @Override
+        public byte[] encodeNodes(Map<LwM2mPath, LwM2mNode> nodes, ContentFormat format, LwM2mModel model) {
+            return encoder.encodeNodes(nodes, format, model);
+        }
+
+        @Override
+        public byte[] encodeTimestampedData(List<TimestampedLwM2mNode> timestampedNodes, ContentFormat format,
+                LwM2mPath path, LwM2mModel model) {
+            return encoder.encodeTimestampedData(timestampedNodes, format, path, model);
+        }
+
+        @Override
+        public byte[] encodePaths(List<LwM2mPath> paths, ContentFormat format) {
+            return encoder.encodePaths(paths, format);
+        }
+
+        @Override
+        public boolean isSupported(ContentFormat format) {
+            return encoder.isSupported(format);
+        }
+    }
+}
@@ -22,11 +22,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
 import org.eclipse.leshan.core.model.ObjectLoader;
 import org.eclipse.leshan.core.model.StaticModel;
 import org.eclipse.leshan.core.node.LwM2mMultipleResource;
@@ -40,8 +42,13 @@ import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
 import org.eclipse.leshan.core.node.codec.senml.LwM2mNodeSenMLEncoder;
 import org.eclipse.leshan.core.request.ContentFormat;
+import org.eclipse.leshan.core.tlv.Tlv;
+import org.eclipse.leshan.core.tlv.Tlv.TlvType;
+import org.eclipse.leshan.core.tlv.TlvEncoder;
 import org.eclipse.leshan.core.util.Hex;
+import org.eclipse.leshan.senml.cbor.jackson.SenMLCborJacksonEncoderDecoder;
 import org.eclipse.leshan.senml.cbor.upokecenter.SenMLCborUpokecenterEncoderDecoder;
+import org.eclipse.leshan.senml.json.jackson.SenMLJsonJacksonEncoderDecoder;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -85,6 +92,24 @@ public class LwM2mNodeEncoderTest {
         Assert.assertEquals("1367491215", new String(encoded, StandardCharsets.UTF_8));
     }
 
+    @Test
+    public void custom_converter_is_used_for_numeric_values_of_expected_type() {
+        LwM2mNodeEncoder customEncoder = new DefaultLwM2mNodeEncoder(new LwM2mValueConverter() {
+            @Override
+            public Object convertValue(Object value, Type currentType, Type expectedType, LwM2mPath resourcePath) {
+                return currentType == Type.INTEGER ? (Long) value * 2 : value;
+            }
+        });
+
+        for (ContentFormat format : new ContentFormat[] { ContentFormat.TEXT, ContentFormat.CBOR, ContentFormat.TLV }) {
+            byte[] encoded = customEncoder.encode(LwM2mSingleResource.newIntegerResource(9, 21), format,
+                    new LwM2mPath("/3/0/9"), model);
+            LwM2mSingleResource decoded = (LwM2mSingleResource) new DefaultLwM2mNodeDecoder().decode(encoded, format,
+                    new LwM2mPath("/3/0/9"), model);
+            Assert.assertEquals(format.toString(), 42L, decoded.getLongValue());
+        }
+    }
+
     @Test(expected = CodecException.class)
     public void text_encode_multiple_instances() {
         Map<Integer, Long> values = new HashMap<>();
@@ -186,6 +211,19 @@ public class LwM2mNodeEncoderTest {
         Assert.assertArrayEquals(ENCODED_DEVICE_WITH_INSTANCE, encoded);
     }
 
+    @Test
+    public void tlv_encode_object_instance_bigger_than_buffer() {
+        char[] manufacturer = new char[5000];
+        Arrays.fill(manufacturer, 'a');
+        LwM2mObjectInstance oInstance = new LwM2mObjectInstance(0,
+                LwM2mSingleResource.newStringResource(0, new String(manufacturer)));
+        byte[] encoded = encoder.encode(oInstance, ContentFormat.TLV, new LwM2mPath("/3"), model);
+
+        Tlv resource = new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeString(new String(manufacturer)), 0);
+        Tlv instance = new Tlv(TlvType.OBJECT_INSTANCE, new Tlv[] { resource }, null, 0);
+        Assert.assertArrayEquals(TlvEncoder.encode(new Tlv[] { instance }).array(), encoded);
+    }
+
     @Test
     public void json_encode_device_object_instance() {
 
@@ -425,6 +463,68 @@ public class LwM2mNodeEncoderTest {
         Assert.assertEquals(expected, new String(encoded));
     }
 
+    @Test
+    public void senml_json_compact_encode_timestamped_resources() throws CodecException {
+        List<TimestampedLwM2mNode> data = new ArrayList<>();
+        data.add(new TimestampedLwM2mNode(268_500_000L, LwM2mSingleResource.newFloatResource(1, 22.9)));
+        data.add(new TimestampedLwM2mNode(268_500_010L, LwM2mSingleResource.newFloatResource(1, 22.4)));
+        data.add(new TimestampedLwM2mNode(268_500_020L, LwM2mSingleResource.newFloatResource(1, 24.1)));
+
+        LwM2mNodeSenMLEncoder compactEncoder = new LwM2mNodeSenMLEncoder(new SenMLJsonJacksonEncoderDecoder(), true);
+        byte[] encoded = compactEncoder.encodeTimestampedData(data, new LwM2mPath(1024, 0, 1), model,
+                new LwM2mValueChecker());
+
+        StringBuilder b = new StringBuilder();
+        b.append("[{\"bn\":\"/1024/0/1\",\"bt\":268500000,\"v\":22.9},");
+        b.append("{\"t\":10,\"v\":22.4},");
+        b.append("{\"t\":20,\"v\":24.1}]");
+
+        String expected = b.toString();
+        Assert.assertEquals(expected, new String(encoded));
+    }
+
+    @Test
+    public void senml_json_compact_encode_mixed_resource_and_instance() {
+        Map<LwM2mPath, LwM2mNode> nodes = new LinkedHashMap<>();
+        nodes.put(new LwM2mPath("3/0/0"), LwM2mSingleResource.newStringResource(0, "Open Mobile Alliance"));
+        nodes.put(new LwM2mPath("3/0/9"), LwM2mSingleResource.newIntegerResource(9, 95));
+        nodes.put(new LwM2mPath("3/0/7"), new LwM2mMultipleResource(7, Type.INTEGER,
+                LwM2mResourceInstance.newIntegerInstance(0, 3800), LwM2mResourceInstance.newIntegerInstance(1, 5000)));
+
+        LwM2mNodeSenMLEncoder compactEncoder = new LwM2mNodeSenMLEncoder(new SenMLJsonJacksonEncoderDecoder(), true);
+        byte[] encoded = compactEncoder.encodeNodes(nodes, model, new LwM2mValueChecker());
+
+        StringBuilder b = new StringBuilder();
+        b.append("[{\"bn\":\"/3/0/\",\"n\":\"0\",\"vs\":\"Open Mobile Alliance\"},");
+        b.append("{\"n\":\"9\",\"v\":95},");
+        b.append("{\"n\":\"7/0\",\"v\":3800},");
+        b.append("{\"n\":\"7/1\",\"v\":5000}]");
+        Assert.assertEquals(b.toString(), new String(encoded));
+    }
+
+    @Test
+    public void senml_cbor_compact_encode_timestamped_instances_can_be_decoded() throws CodecException {
+        List<TimestampedLwM2mNode> data = new ArrayList<>();
+        data.add(new TimestampedLwM2mNode(268_500_000L, new LwM2mObjectInstance(0,
+                LwM2mSingleResource.newFloatResource(1, 22.9), LwM2mSingleResource.newStringResource(5, "Cel"))));
+        data.add(new TimestampedLwM2mNode(268_500_010L, new LwM2mObjectInstance(0,
+                LwM2mSingleResource.newFloatResource(1, 22.4), LwM2mSingleResource.newStringResource(5, "Cel"))));
+        data.add(new TimestampedLwM2mNode(268_500_005L, new LwM2mObjectInstance(0,
+                LwM2mSingleResource.newFloatResource(1, 24.1), LwM2mSingleResource.newStringResource(5, "Cel"))));
+
+        LwM2mNodeSenMLEncoder compactEncoder = new LwM2mNodeSenMLEncoder(new SenMLCborUpokecenterEncoderDecoder(),
+                true);
+        byte[] compact = compactEncoder.encodeTimestampedData(data, new LwM2mPath(3303, 0), model,
+                new LwM2mValueChecker());
+        byte[] notCompact = encoder.encodeTimestampedData(data, ContentFormat.SENML_CBOR, new LwM2mPath(3303, 0),
+                model);
+        Assert.assertTrue(compact.length < notCompact.length);
+
+        List<TimestampedLwM2mNode> decoded = new DefaultLwM2mNodeDecoder().decodeTimestampedData(compact,
+                ContentFormat.SENML_CBOR, new LwM2mPath(3303, 0), model);
+        Assert.assertEquals(new HashSet<>(data), new HashSet<>(decoded));
+    }
+
     @Test
     public void senml_json_encode_path_using_name() {
         // Prepare data to encode
@@ -463,4 +563,29 @@ public class LwM2mNodeEncoderTest {
         String expected = "81a221662f302f302f330843abcdef";
         Assert.assertEquals(expected, Hex.encodeHexString(cbor));
     }
+
+    @Test
+    public void senml_cbor_compact_encode_single_resource_without_name() {
+        LwM2mNodeSenMLEncoder compactEncoder = new LwM2mNodeSenMLEncoder(new SenMLCborJacksonEncoderDecoder(), true);
+        byte[] cbor = compactEncoder.encode(LwM2mSingleResource.newIntegerResource(9, 95), new LwM2mPath("/3/0/9"),
+                model, new LwM2mValueChecker());
+        // value : [{-2: "/3/0/9", 2: 95}]
+        String expected = "81a221662f332f302f3902185f";
+        Assert.assertEquals(expected, Hex.encodeHexString(cbor));
+    }
+
+    @Test
+    public void senml_cbor_jackson_encode_double_as_float_when_lossless() {
+        LwM2mNodeSenMLEncoder jacksonEncoder = new LwM2mNodeSenMLEncoder(new SenMLCborJacksonEncoderDecoder());
+
+        // 22.5 is exactly represented as a float : [{-2: "/3303/0/5700", 2: 22.5f}]
+        byte[] cbor = jacksonEncoder.encode(LwM2mSingleResource.newFloatResource(5700, 22.5),
+                new LwM2mPath("/3303/0/5700"), model, new LwM2mValueChecker());
+        Assert.assertEquals("81a2216c2f333330332f302f3537303002fa41b40000", Hex.encodeHexString(cbor));
+
+        // 22.9 is not, so it stays a double : [{-2: "/3303/0/5700", 2: 22.9}]
+        cbor = jacksonEncoder.encode(LwM2mSingleResource.newFloatResource(5700, 22.9), new LwM2mPath("/3303/0/5700"),
+                model, new LwM2mValueChecker());
+        Assert.assertEquals("81a2216c2f333330332f302f3537303002fb4036e66666666666", Hex.encodeHexString(cbor));
+    }
 }
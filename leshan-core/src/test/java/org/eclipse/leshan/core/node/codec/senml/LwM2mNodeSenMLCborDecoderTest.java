@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.node.codec.senml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.ObjectLoader;
+import org.eclipse.leshan.core.model.StaticModel;
+import org.eclipse.leshan.core.node.LwM2mNode;
+import org.eclipse.leshan.core.node.LwM2mObject;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mResource;
+import org.eclipse.leshan.core.node.LwM2mResourceInstance;
+import org.eclipse.leshan.core.node.TimestampedLwM2mNode;
+import org.eclipse.leshan.core.node.codec.CodecException;
+import org.eclipse.leshan.senml.cbor.upokecenter.SenMLCborUpokecenterEncoderDecoder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.upokecenter.cbor.CBORObject;
+
+/**
+ * Checks that {@link LwM2mNodeSenMLCborDecoder} decodes as {@link LwM2mNodeSenMLDecoder} does.
+ */
+public class LwM2mNodeSenMLCborDecoderTest {
+
+    private static LwM2mModel model;
+    private static LwM2mNodeSenMLDecoder expectedDecoder;
+    private static LwM2mNodeSenMLCborDecoder decoder;
+
+    @BeforeClass
+    public static void loadModel() {
+        model = new StaticModel(ObjectLoader.loadDefault());
+        expectedDecoder = new LwM2mNodeSenMLDecoder(new SenMLCborUpokecenterEncoderDecoder());
+        decoder = new LwM2mNodeSenMLCborDecoder();
+    }
+
+    @Test
+    public void decode_object_instance() {
+        byte[] content = pack( //
+                record("/3/0/", null, "0", null, "Open Mobile Alliance"), //
+                record(null, null, "9", null, 95), //
+                record(null, null, "6/0", null, 1), //
+                record(null, null, "6/1", null, 5), //
+                record(null, null, "13", null, 1367491215), //
+                record(null, null, "16", null, "U"));
+
+        assertSameDecoding(content, new LwM2mPath("/3/0"), LwM2mObjectInstance.class);
+        assertSameDecoding(content, new LwM2mPath("/3"), LwM2mObject.class);
+    }
+
+    @Test
+    public void decode_object_with_several_instances() {
+        byte[] content = pack( //
+                record("/2/0/", null, "0", null, 1), //
+                record(null, null, "2/101", null, 15), //
+                record("/2/1/", null, "0", null, 3), //
+                record(null, null, "2/0", null, 1), //
+                record(null, null, "3", null, 101));
+
+        assertSameDecoding(content, new LwM2mPath("/2"), LwM2mObject.class);
+    }
+
+    @Test
+    public void decode_resource_and_resource_instance() {
+        assertSameDecoding(pack(record("/3/0/9", null, null, null, 95)), new LwM2mPath("/3/0/9"),
+                LwM2mResource.class);
+        assertSameDecoding(pack(record("/3/0/6/1", null, null, null, 5)), new LwM2mPath("/3/0/6/1"),
+                LwM2mResourceInstance.class);
+    }
+
+    @Test
+    public void decode_numbers() {
+        // integer, unsigned long, big integer, float and big decimal values
+        Object[] values = new Object[] { 42, -42, new BigInteger("18446744073709551615"),
+                new BigInteger("-18446744073709551615"), 1.5f, 2.25d, new BigDecimal("0.1") };
+        for (Object value : values) {
+            byte[] content = pack(record("/3442/0/130", null, null, null, value));
+            assertSameDecoding(content, new LwM2mPath("/3442/0/130"), LwM2mResource.class);
+        }
+    }
+
+    @Test
+    public void decode_timestamped_resource() {
+        byte[] content = pack( //
+                record("/3/0/", 1600000000L, "9", 0L, 95), //
+                record(null, null, "9", -10L, 96), //
+                record(null, 1600000020L, "9", null, 97));
+
+        List<TimestampedLwM2mNode> nodes = decoder.decodeTimestampedData(content, new LwM2mPath("/3/0/9"), model,
+                LwM2mResource.class);
+        assertEquals(expectedDecoder.decodeTimestampedData(content, new LwM2mPath("/3/0/9"), model,
+                LwM2mResource.class), nodes);
+        assertEquals(3, nodes.size());
+        assertEquals(1600000020L, nodes.get(0).getTimestamp().longValue());
+    }
+
+    @Test
+    public void decode_timestamped_object_instance() {
+        byte[] content = pack( //
+                record("/3/0/", 1600000000L, "9", null, 95), //
+                record(null, null, "10", null, 15), //
+                record(null, 1600000010L, "9", null, 94), //
+                record(null, null, "10", null, 14));
+
+        assertEquals(
+                expectedDecoder.decodeTimestampedData(content, new LwM2mPath("/3/0"), model,
+                        LwM2mObjectInstance.class),
+                decoder.decodeTimestampedData(content, new LwM2mPath("/3/0"), model, LwM2mObjectInstance.class));
+    }
+
+    @Test(expected = CodecException.class)
+    public void decode_timestamped_value_as_node_fails() {
+        decoder.decode(pack(record("/3/0/9", 1600000000L, null, null, 95)), new LwM2mPath("/3/0/9"), model,
+                LwM2mResource.class);
+    }
+
+    @Test(expected = CodecException.class)
+    public void decode_record_without_value_fails() {
+        decoder.decode(pack(record("/3/0/9", null, null, null, null)), new LwM2mPath("/3/0/9"), model,
+                LwM2mResource.class);
+    }
+
+    @Test(expected = CodecException.class)
+    public void decode_duplicate_resource_fails() {
+        decoder.decode(pack(record("/3/0/9", null, null, null, 95), record("/3/0/9", null, null, null, 95)),
+                new LwM2mPath("/3/0"), model, LwM2mObjectInstance.class);
+    }
+
+    @Test(expected = CodecException.class)
+    public void decode_non_array_fails() {
+        decoder.decode(CBORObject.NewMap().EncodeToBytes(), new LwM2mPath("/3/0/9"), model, LwM2mResource.class);
+    }
+
+    private void assertSameDecoding(byte[] content, LwM2mPath path, Class<? extends LwM2mNode> nodeClass) {
+        assertEquals(expectedDecoder.decode(content, path, model, nodeClass),
+                decoder.decode(content, path, model, nodeClass));
+    }
+
+    private static CBORObject record(String bn, Long bt, String n, Long t, Object v) {
+        CBORObject record = CBORObject.NewMap();
+        if (bn != null)
+            record.Add(-2, bn);
+        if (bt != null)
+            record.Add(-3, bt);
+        if (n != null)
+            record.Add(0, n);
+        if (t != null)
+            record.Add(6, t);
+        if (v instanceof String) {
+            record.Add(3, v);
+        } else if (v instanceof Boolean) {
+            record.Add(4, v);
+        } else if (v != null) {
+            record.Add(2, CBORObject.FromObject(v));
+        }
+        return record;
+    }
+
+    private static byte[] pack(CBORObject... records) {
+        CBORObject pack = CBORObject.NewArray();
+        for (CBORObject record : records) {
+            pack.Add(record);
+        }
+        return pack.EncodeToBytes();
+    }
+}
@@ -15,6 +15,7 @@
 package org.eclipse.leshan.core.senml.cbor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -94,4 +95,36 @@ public class SenMLJsonSerDesTest extends AbstractSenMLTest {
         assertEquals(expected, new String(json));
     }
 
+    @Test
+    public void deserialize_ignores_unknown_fields() throws Exception {
+        byte[] json = "[{\"bn\":\"/0/0/3\",\"x\":{\"vd\":\"AA==\",\"y\":[1,{}]},\"vd\":\"q83v\",\"z\":[]}]".getBytes();
+        SenMLPack pack = decoder.fromSenML(json);
+
+        SenMLTestUtil.assertSenMLPackEquals(
+                getPackWithSingleOpaqueValue("/0/0/3", Hex.decodeHex("ABCDEF".toCharArray())), pack);
+    }
+
+    @Test
+    public void deserialize_ignores_known_fields_with_object_or_array_value() throws Exception {
+        byte[] json = ("[{\"bn\":\"/0/0/3\",\"n\":{\"vs\":\"x\",\"n\":\"/1\"},\"v\":[1,{\"vb\":true}],"
+                + "\"vd\":\"q83v\"}]").getBytes();
+        SenMLPack pack = decoder.fromSenML(json);
+
+        SenMLTestUtil.assertSenMLPackEquals(
+                getPackWithSingleOpaqueValue("/0/0/3", Hex.decodeHex("ABCDEF".toCharArray())), pack);
+    }
+
+    @Test
+    public void deserialize_non_array_fails() throws Exception {
+        // we skip this test with minimal-json because it raises an UnsupportedOperationException.
+        if (decoder instanceof SenMLJsonMinimalEncoderDecoder)
+            return;
+
+        try {
+            decoder.fromSenML("{\"bn\":\"/0/0/3\",\"vd\":\"q83v\"}".getBytes());
+            fail("SenMLException expected");
+        } catch (SenMLException e) {
+            // expected
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.tlv;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import org.eclipse.leshan.core.node.ObjectLink;
+import org.eclipse.leshan.core.tlv.Tlv.TlvType;
+import org.eclipse.leshan.core.util.Hex;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link TlvReader}
+ */
+public class TlvReaderTest {
+
+    @Test
+    public void read_device_object() throws TlvException {
+        // the /3// from liwblwm2m
+        String dataStr = "C800144F70656E204D6F62696C6520416C6C69616E6365C801164C69676874776569676874204D324D20436C69656E74C80209333435303030313233C303312E30860641000141010588070842000ED842011388870841007D42010384C10964C10A0F830B410000C40D5182428FC60E2B30323A3030C10F55";
+        ByteBuffer b = ByteBuffer.wrap(Hex.decodeHex(dataStr.toCharArray()));
+        TlvReader reader = new TlvReader(b);
+
+        assertEquals(13, reader.count());
+
+        assertTrue(reader.next());
+        assertEquals(TlvType.RESOURCE_VALUE, reader.getType());
+        assertEquals(0, reader.getIdentifier());
+        assertEquals("Open Mobile Alliance", reader.getString());
+
+        // skip to the first multiple resource without reading values
+        reader.next();
+        reader.next();
+        reader.next();
+        assertTrue(reader.next());
+        assertEquals(TlvType.MULTIPLE_RESOURCE, reader.getType());
+        assertEquals(6, reader.getIdentifier());
+
+        TlvReader children = reader.children();
+        assertEquals(2, children.count());
+        assertTrue(children.next());
+        assertEquals(TlvType.RESOURCE_INSTANCE, children.getType());
+        assertEquals(0, children.getIdentifier());
+        assertEquals(1, children.getLong());
+        assertTrue(children.next());
+        assertEquals(5, children.getLong());
+        assertFalse(children.next());
+
+        // the buffer itself is not consumed
+        assertEquals(0, b.position());
+    }
+
+    @Test
+    public void read_primitive_values() throws TlvException {
+        TlvReader reader = new TlvReader(ByteBuffer.wrap(TlvEncoder.encode(new Tlv[] { //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeInteger(-300), 1), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeInteger(Long.MIN_VALUE), 2), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeFloat(1.5), 3), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeBoolean(true), 4), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeDate(new Date(1367491215000L)), 5), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeObjlnk(new ObjectLink(3, 0)), 6), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, new byte[] { 1, 2, 3 }, 300) }).array()));
+
+        reader.next();
+        assertEquals(-300, reader.getLong());
+        reader.next();
+        assertEquals(Long.MIN_VALUE, reader.getLong());
+        reader.next();
+        assertEquals(1.5, reader.getDouble(), 0);
+        reader.next();
+        assertTrue(reader.getBoolean());
+        reader.next();
+        assertEquals(new Date(1367491215000L), reader.getDate());
+        reader.next();
+        assertEquals(new ObjectLink(3, 0), reader.getObjlnk());
+        reader.next();
+        assertEquals(300, reader.getIdentifier());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, reader.getBytes());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void read_from_buffer_position() throws TlvException {
+        ByteBuffer b = ByteBuffer.wrap(Hex.decodeHex("FFFFC10155".toCharArray()));
+        b.position(2);
+        TlvReader reader = new TlvReader(b);
+
+        assertTrue(reader.next());
+        assertEquals(1, reader.getIdentifier());
+        assertEquals(0x55, reader.getLong());
+        assertFalse(reader.next());
+
+        reader.reset();
+        assertTrue(reader.next());
+        assertEquals(1, reader.getIdentifier());
+    }
+
+    @Test(expected = TlvException.class)
+    public void read_truncated_value() throws TlvException {
+        // resource 1 announces 3 bytes but only 2 are present
+        TlvReader reader = new TlvReader(ByteBuffer.wrap(Hex.decodeHex("C3010102".toCharArray())));
+        reader.next();
+    }
+
+    @Test(expected = TlvException.class)
+    public void read_integer_with_invalid_length() throws TlvException {
+        TlvReader reader = new TlvReader(ByteBuffer.wrap(Hex.decodeHex("C801090102030405060708090A".toCharArray())));
+        reader.next();
+        reader.getLong();
+    }
+}
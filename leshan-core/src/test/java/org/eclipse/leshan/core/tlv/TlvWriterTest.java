@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.core.tlv;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.eclipse.leshan.core.node.ObjectLink;
+import org.eclipse.leshan.core.tlv.Tlv.TlvType;
+import org.eclipse.leshan.core.util.Hex;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link TlvWriter}
+ */
+public class TlvWriterTest {
+
+    @Test
+    public void write_device_object_as_tlv_encoder() throws TlvException {
+        // the /3// from liwblwm2m
+        String dataStr = "C800144F70656E204D6F62696C6520416C6C69616E6365C801164C69676874776569676874204D324D20436C69656E74C80209333435303030313233C303312E30860641000141010588070842000ED842011388870841007D42010384C10964C10A0F830B410000C40D5182428FC60E2B30323A3030C10F55";
+        byte[] bytes = Hex.decodeHex(dataStr.toCharArray());
+
+        ByteBuffer b = ByteBuffer.allocate(bytes.length);
+        TlvWriter writer = new TlvWriter(b);
+        for (Tlv tlv : TlvDecoder.decode(ByteBuffer.wrap(bytes))) {
+            write(writer, tlv);
+        }
+
+        assertEquals(bytes.length, b.position());
+        assertArrayEquals(bytes, b.array());
+    }
+
+    @Test
+    public void write_primitive_values_as_tlv_encoder() {
+        Tlv[] tlvs = new Tlv[] { //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeInteger(-300), 1), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeInteger(Long.MIN_VALUE), 2), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeFloat(1.5f), 3), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeFloat(1.5d), 4), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeBoolean(true), 5), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeDate(new Date(1367491215000L)), 6), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeObjlnk(new ObjectLink(3, 0)), 7), //
+                new Tlv(TlvType.RESOURCE_VALUE, null, TlvEncoder.encodeString("hé€😀\uD83D"), 300) };
+        byte[] expected = TlvEncoder.encode(tlvs).array();
+
+        // little endian order of buffer must be ignored
+        ByteBuffer b = ByteBuffer.allocate(expected.length).order(ByteOrder.LITTLE_ENDIAN);
+        TlvWriter writer = new TlvWriter(b);
+        writer.writeLong(TlvType.RESOURCE_VALUE, 1, -300);
+        writer.writeLong(TlvType.RESOURCE_VALUE, 2, Long.MIN_VALUE);
+        writer.writeFloat(TlvType.RESOURCE_VALUE, 3, 1.5f);
+        writer.writeDouble(TlvType.RESOURCE_VALUE, 4, 1.5d);
+        writer.writeBoolean(TlvType.RESOURCE_VALUE, 5, true);
+        writer.writeDate(TlvType.RESOURCE_VALUE, 6, new Date(1367491215000L));
+        writer.writeObjlnk(TlvType.RESOURCE_VALUE, 7, new ObjectLink(3, 0));
+        writer.writeString(TlvType.RESOURCE_VALUE, 300, "hé€😀\uD83D");
+
+        assertArrayEquals(expected, b.array());
+    }
+
+    @Test
+    public void write_container_for_each_length_size() {
+        for (int size : new int[] { 0, 5, 200, 1000, 70_000 }) {
+            byte[] value = new byte[size];
+            Arrays.fill(value, (byte) 7);
+            Tlv resource = new Tlv(TlvType.RESOURCE_VALUE, null, value, 1);
+            Tlv instance = new Tlv(TlvType.OBJECT_INSTANCE, new Tlv[] { resource }, null, 0);
+            byte[] expected = TlvEncoder.encode(new Tlv[] { instance }).array();
+
+            // use a direct buffer to not use the backing array
+            ByteBuffer b = ByteBuffer.allocateDirect(expected.length + 10);
+            TlvWriter writer = new TlvWriter(b);
+            writer.start(TlvType.OBJECT_INSTANCE, 0);
+            writer.writeBytes(TlvType.RESOURCE_VALUE, 1, value);
+            writer.end();
+
+            byte[] written = new byte[b.position()];
+            b.flip();
+            b.get(written);
+            assertArrayEquals("size " + size, expected, written);
+        }
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void write_in_too_small_buffer() {
+        TlvWriter writer = new TlvWriter(ByteBuffer.allocate(4));
+        writer.start(TlvType.OBJECT_INSTANCE, 0);
+    }
+
+    private static void write(TlvWriter writer, Tlv tlv) {
+        if (tlv.getChildren() != null) {
+            writer.start(tlv.getType(), tlv.getIdentifier());
+            for (Tlv child : tlv.getChildren()) {
+                write(writer, child);
+            }
+            writer.end();
+        } else {
+            writer.writeBytes(tlv.getType(), tlv.getIdentifier(), tlv.getValue());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.integration.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.leshan.core.observation.Observation;
+import org.eclipse.leshan.integration.tests.util.RedisIntegrationTestHelper;
+import org.eclipse.leshan.integration.tests.util.SynchronousRegistrationListener;
+import org.eclipse.leshan.server.redis.cluster.RedisEventBus;
+import org.eclipse.leshan.server.registration.Registration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.util.Pool;
+
+public class RedisEventBusTest {
+
+    private RedisIntegrationTestHelper helper = new RedisIntegrationTestHelper();
+    private Pool<Jedis> pool;
+    private String streamKey;
+
+    // node handling the client
+    private RedisEventBus localBus;
+    private SynchronousRegistrationListener localListener = new SynchronousRegistrationListener();
+    // other node of the cluster
+    private RedisEventBus remoteBus;
+    private SynchronousRegistrationListener remoteListener = new SynchronousRegistrationListener();
+
+    @Before
+    public void start() {
+        helper.initialize();
+        helper.createServer();
+        helper.server.start();
+        helper.createClient();
+
+        String redisURI = System.getenv("REDIS_URI");
+        if (redisURI == null)
+            redisURI = "";
+        pool = new JedisPool(redisURI);
+        streamKey = "EVT:TEST:" + UUID.randomUUID();
+
+        localBus = createBus("local");
+        localBus.addRegistrationListener(localListener);
+        helper.server.getRegistrationService().addListener(localBus);
+        localBus.start();
+
+        remoteBus = createBus("remote");
+        remoteBus.addRegistrationListener(remoteListener);
+        remoteBus.start();
+    }
+
+    private RedisEventBus createBus(String nodeId) {
+        return new RedisEventBus(pool, nodeId, streamKey, RedisEventBus.DEFAULT_BATCH_SIZE,
+                RedisEventBus.DEFAULT_FLUSH_INTERVAL, RedisEventBus.DEFAULT_MAX_LENGTH);
+    }
+
+    @After
+    public void stop() throws InterruptedException {
+        helper.client.destroy(true);
+        helper.server.destroy();
+        helper.dispose();
+        localBus.destroy();
+        remoteBus.destroy();
+        try (Jedis j = pool.getResource()) {
+            j.del(streamKey, deadLetterKey());
+        }
+        pool.destroy();
+    }
+
+    @Test
+    public void registration_events_are_dispatched_to_other_nodes() throws InterruptedException, TimeoutException {
+        helper.client.start();
+        helper.waitForRegistrationAtServerSide(1);
+
+        remoteListener.waitForRegister(5, TimeUnit.SECONDS);
+        assertEquals(helper.getCurrentRegistration(), remoteListener.getLastRegistration());
+
+        helper.client.stop(true);
+        helper.waitForDeregistrationAtServerSide(1);
+        remoteListener.waitForDeregister(5, TimeUnit.SECONDS);
+
+        // events of a node are not dispatched to itself
+        assertNull(localListener.getLastRegistration());
+    }
+
+    @Test
+    public void events_published_while_node_is_stopped_are_dispatched_on_restart()
+            throws InterruptedException, TimeoutException {
+        remoteBus.stop();
+
+        helper.client.start();
+        helper.waitForRegistrationAtServerSide(1);
+        // let the local node publish the event
+        Thread.sleep(500);
+        assertNull(remoteListener.getLastRegistration());
+
+        remoteBus.start();
+        remoteListener.waitForRegister(5, TimeUnit.SECONDS);
+        assertEquals(helper.getCurrentRegistration(), remoteListener.getLastRegistration());
+    }
+
+    @Test
+    public void events_which_failed_to_be_dispatched_are_dispatched_again()
+            throws InterruptedException, TimeoutException {
+        // a listener failing the first time it gets a registration
+        final AtomicInteger attempts = new AtomicInteger();
+        remoteBus.removeRegistrationListener(remoteListener);
+        remoteBus.addRegistrationListener(new SynchronousRegistrationListener() {
+            @Override
+            public void registered(Registration reg, Registration previousReg,
+                    Collection<Observation> previousObsersations) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("listener failure");
+                }
+                remoteListener.registered(reg, previousReg, previousObsersations);
+            }
+        });
+
+        helper.client.start();
+        helper.waitForRegistrationAtServerSide(1);
+
+        remoteListener.waitForRegister(10, TimeUnit.SECONDS);
+        assertEquals(helper.getCurrentRegistration(), remoteListener.getLastRegistration());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void events_which_always_fail_are_moved_to_dead_letter_stream() throws InterruptedException {
+        // a node giving up after 2 deliveries, with a listener always failing
+        remoteBus.destroy();
+        remoteBus = new RedisEventBus(pool, "remote", streamKey, RedisEventBus.DEFAULT_BATCH_SIZE,
+                RedisEventBus.DEFAULT_FLUSH_INTERVAL, RedisEventBus.DEFAULT_MAX_LENGTH, 2, deadLetterKey());
+        final AtomicInteger attempts = new AtomicInteger();
+        remoteBus.addRegistrationListener(new SynchronousRegistrationListener() {
+            @Override
+            public void registered(Registration reg, Registration previousReg,
+                    Collection<Observation> previousObsersations) {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("listener failure");
+            }
+        });
+        remoteBus.start();
+
+        helper.client.start();
+        helper.waitForRegistrationAtServerSide(1);
+
+        long deadLetters = 0;
+        for (int i = 0; i < 100 && deadLetters == 0; i++) {
+            Thread.sleep(100);
+            try (Jedis j = pool.getResource()) {
+                deadLetters = j.xlen(deadLetterKey());
+            }
+        }
+        assertEquals(1, deadLetters);
+        assertEquals(2, attempts.get());
+        // event is acknowledged, so it is not dispatched again
+        Thread.sleep(1500);
+        assertEquals(2, attempts.get());
+    }
+
+    private String deadLetterKey() {
+        return streamKey + ":DEAD";
+    }
+}
@@ -31,7 +31,7 @@ public class RedisSecureIntegrationTestHelper extends SecureIntegrationTestHelpe
         if (redisURI == null)
             redisURI = "";
         Pool<Jedis> jedis = new JedisPool(redisURI);
-        securityStore = new RedisSecurityStore(jedis);
+        securityStore = new RedisSecurityStore(jedis, 100, RedisSecurityStore.DEFAULT_BATCH_SIZE);
         return securityStore;
     }
 }
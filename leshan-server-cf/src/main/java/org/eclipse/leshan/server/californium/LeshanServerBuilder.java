@@ -24,6 +24,7 @@ import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 import org.eclipse.californium.core.network.CoapEndpoint;
 import org.eclipse.californium.core.network.config.NetworkConfig;
@@ -58,6 +59,7 @@ import org.eclipse.leshan.server.registration.RegistrationStore;
 import org.eclipse.leshan.server.security.Authorizer;
 import org.eclipse.leshan.server.security.DefaultAuthorizer;
 import org.eclipse.leshan.server.security.InMemorySecurityStore;
+import org.eclipse.leshan.server.security.NegativeCachingSecurityStore;
 import org.eclipse.leshan.server.security.SecurityInfo;
 import org.eclipse.leshan.server.security.SecurityStore;
 import org.slf4j.Logger;
@@ -98,6 +100,7 @@ public class LeshanServerBuilder {
     private boolean noSecuredEndpoint;
     private boolean noUnsecuredEndpoint;
     private boolean noQueueMode = false;
+    private Executor pskResolutionExecutor;
     /** @since 1.1 */
     protected boolean updateRegistrationOnNotification;
 
@@ -184,6 +187,9 @@ public class LeshanServerBuilder {
      * By default no security store is set. It is needed for secured connection if you are using the defaultAuthorizer
      * or if you want PSK feature activated. An {@link InMemorySecurityStore} is provided to start using secured
      * connection.
+     * <p>
+     * If lookups are expensive (e.g. remote store), the store can be wrapped in a {@link NegativeCachingSecurityStore}
+     * to avoid looking up the same unknown PSK identity repeatedly.
      * 
      */
     public LeshanServerBuilder setSecurityStore(SecurityStore securityStore) {
@@ -385,6 +391,22 @@ public class LeshanServerBuilder {
         return this;
     }
 
+    /**
+     * Resolve PSK of DTLS handshakes asynchronously using the given executor.
+     * <p>
+     * By default, PSK are resolved synchronously from the {@link SecurityStore} in DTLS connector threads. With a
+     * {@link SecurityStore} doing I/O (e.g. database or Redis based), slow lookups could delay all the handshakes.
+     * <p>
+     * The executor is not managed by the server : it is not shutdown on server destroy.
+     * 
+     * @param executor the executor used to resolve PSK, or null to resolve them synchronously.
+     * @since 2.0
+     */
+    public LeshanServerBuilder setPskResolutionExecutor(Executor executor) {
+        this.pskResolutionExecutor = executor;
+        return this;
+    }
+
     /**
      * The default Californium/CoAP {@link NetworkConfig} used by the builder.
      */
@@ -447,7 +469,8 @@ public class LeshanServerBuilder {
                 LOG.warn(
                         "PskStore should be automatically set by Leshan. Using a custom implementation is not advised.");
             } else if (securityStore != null) {
-                dtlsConfigBuilder.setAdvancedPskStore(new LwM2mPskStore(this.securityStore, registrationStore));
+                dtlsConfigBuilder.setAdvancedPskStore(new LwM2mPskStore(this.securityStore, registrationStore,
+                        pskResolutionExecutor));
             }
 
             // Handle secure address
@@ -16,12 +16,15 @@
 package org.eclipse.leshan.server.californium;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.crypto.SecretKey;
 
 import org.eclipse.californium.scandium.dtls.ConnectionId;
 import org.eclipse.californium.scandium.dtls.PskPublicInformation;
 import org.eclipse.californium.scandium.dtls.PskSecretResult;
+import org.eclipse.californium.scandium.dtls.PskSecretResultHandler;
 import org.eclipse.californium.scandium.dtls.pskstore.AdvancedPskStore;
 import org.eclipse.californium.scandium.util.SecretUtil;
 import org.eclipse.californium.scandium.util.ServerNames;
@@ -29,22 +32,44 @@ import org.eclipse.leshan.server.registration.Registration;
 import org.eclipse.leshan.server.registration.RegistrationStore;
 import org.eclipse.leshan.server.security.SecurityInfo;
 import org.eclipse.leshan.server.security.SecurityStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A {@link AdvancedPskStore} which retrieve PSK information from Leshan {@link SecurityStore}.
+ * <p>
+ * When an {@link Executor} is given, PSK are resolved asynchronously using this executor and the result is given to
+ * the {@link PskSecretResultHandler}, so DTLS connector threads do not wait for a slow {@link SecurityStore} (e.g.
+ * database or Redis based).
  */
 public class LwM2mPskStore implements AdvancedPskStore {
 
+    private static final Logger LOG = LoggerFactory.getLogger(LwM2mPskStore.class);
+
     private SecurityStore securityStore;
     private RegistrationStore registrationStore;
+    private final Executor executor;
+    private volatile PskSecretResultHandler resultHandler;
 
     public LwM2mPskStore(SecurityStore securityStore) {
         this(securityStore, null);
     }
 
     public LwM2mPskStore(SecurityStore securityStore, RegistrationStore registrationStore) {
+        this(securityStore, registrationStore, null);
+    }
+
+    /**
+     * @param securityStore the store used to resolve PSK.
+     * @param registrationStore the store used to find PSK identity of registered clients, could be null.
+     * @param executor the executor used to resolve PSK asynchronously, or null to resolve them synchronously in DTLS
+     *        connector threads.
+     * @since 2.0
+     */
+    public LwM2mPskStore(SecurityStore securityStore, RegistrationStore registrationStore, Executor executor) {
         this.securityStore = securityStore;
         this.registrationStore = registrationStore;
+        this.executor = executor;
     }
 
     @Override
@@ -53,11 +78,39 @@ public class LwM2mPskStore implements AdvancedPskStore {
     }
 
     @Override
-    public PskSecretResult requestPskSecretResult(ConnectionId cid, ServerNames serverName,
-            PskPublicInformation identity, String hmacAlgorithm, SecretKey otherSecret, byte[] seed) {
+    public PskSecretResult requestPskSecretResult(final ConnectionId cid, ServerNames serverName,
+            final PskPublicInformation identity, String hmacAlgorithm, SecretKey otherSecret, byte[] seed) {
         if (securityStore == null)
             return null;
 
+        if (executor == null)
+            return resolve(cid, identity);
+
+        final PskSecretResultHandler handler = resultHandler;
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    PskSecretResult result;
+                    try {
+                        result = resolve(cid, identity);
+                    } catch (RuntimeException e) {
+                        LOG.warn("Unable to resolve PSK for identity {}", identity.getPublicInfoAsString(), e);
+                        result = new PskSecretResult(cid, identity, null);
+                    }
+                    handler.apply(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Unable to resolve PSK for identity {} : executor rejected the task",
+                    identity.getPublicInfoAsString());
+            return new PskSecretResult(cid, identity, null);
+        }
+        // result will be given to the result handler
+        return null;
+    }
+
+    private PskSecretResult resolve(ConnectionId cid, PskPublicInformation identity) {
         SecurityInfo info = securityStore.getByIdentity(identity.getPublicInfoAsString());
         if (info == null || info.getPreSharedKey() == null) {
             return new PskSecretResult(cid, identity, null);
@@ -68,8 +121,9 @@ public class LwM2mPskStore implements AdvancedPskStore {
     }
 
     @Override
-    public void setResultHandler(org.eclipse.californium.scandium.dtls.PskSecretResultHandler resultHandler) {
-        // we don't use async mode.
+    public void setResultHandler(PskSecretResultHandler resultHandler) {
+        // only used in async mode.
+        this.resultHandler = resultHandler;
     }
 
     @Override
@@ -97,6 +97,10 @@ public class BootstrapResource extends LwM2mCoapResource {
         if (response.isSuccess()) {
             exchange.respond(toCoapResponseCode(response.getCode()));
         } else {
+            // tell device when to retry
+            if (response.getRetryAfter() != null) {
+                exchange.setMaxAge(response.getRetryAfter());
+            }
             exchange.respond(toCoapResponseCode(response.getCode()), response.getErrorMessage());
         }
         sendableResponse.sent();
@@ -24,6 +24,7 @@ import org.eclipse.californium.core.network.Endpoint;
 import org.eclipse.californium.core.network.config.NetworkConfig;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.node.codec.CachingLwM2mNodeEncoder;
 import org.eclipse.leshan.core.node.codec.LwM2mNodeDecoder;
 import org.eclipse.leshan.core.node.codec.LwM2mNodeEncoder;
 import org.eclipse.leshan.core.util.Validate;
@@ -121,7 +122,9 @@ public class LeshanBootstrapServer {
 
     protected LwM2mBootstrapRequestSender createRequestSender(Endpoint securedEndpoint, Endpoint unsecuredEndpoint,
             LwM2mModel model, LwM2mNodeEncoder encoder, LwM2mNodeDecoder decoder) {
-        return new CaliforniumLwM2mBootstrapRequestSender(securedEndpoint, unsecuredEndpoint, model, encoder, decoder);
+        // most of the nodes written during bootstrap are the same for many devices
+        return new CaliforniumLwM2mBootstrapRequestSender(securedEndpoint, unsecuredEndpoint, model,
+                new CachingLwM2mNodeEncoder(encoder), decoder);
     }
 
     protected CoapResource createBootstrapResource(BootstrapHandler handler) {
@@ -43,6 +43,8 @@ import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeDecoder;
 import org.eclipse.leshan.core.node.codec.DefaultLwM2mNodeEncoder;
 import org.eclipse.leshan.core.node.codec.LwM2mNodeDecoder;
 import org.eclipse.leshan.core.node.codec.LwM2mNodeEncoder;
+import org.eclipse.leshan.core.util.Validate;
+import org.eclipse.leshan.server.bootstrap.BootstrapAdmissionController;
 import org.eclipse.leshan.server.bootstrap.BootstrapConfig;
 import org.eclipse.leshan.server.bootstrap.BootstrapConfigurationStore;
 import org.eclipse.leshan.server.bootstrap.BootstrapConfigurationStoreAdapter;
@@ -73,6 +75,8 @@ public class LeshanBootstrapServerBuilder {
     private BootstrapSecurityStore securityStore;
     private BootstrapSessionManager sessionManager;
     private BootstrapHandlerFactory bootstrapHandlerFactory;
+    private BootstrapAdmissionController admissionController;
+    private int pipelineWindow = 1;
 
     private LwM2mModel model;
     private NetworkConfig coapConfig;
@@ -279,6 +283,38 @@ public class LeshanBootstrapServerBuilder {
         return this;
     }
 
+    /**
+     * Set the {@link BootstrapAdmissionController} used to limit the number of bootstrap sessions, e.g. when a lot of
+     * devices try to bootstrap at the same time.
+     * <p>
+     * By default, there is no limit. This is not used if a custom {@link BootstrapHandlerFactory} is set.
+     * 
+     * @param admissionController the controller used by {@link DefaultBootstrapHandler}.
+     * @return the builder for fluent Bootstrap Server creation.
+     * @since 2.0
+     */
+    public LeshanBootstrapServerBuilder setAdmissionController(BootstrapAdmissionController admissionController) {
+        this.admissionController = admissionController;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of write requests sent to a device without waiting for their responses during a
+     * bootstrap session.
+     * <p>
+     * By default, requests are sent one after another. This is not used if a custom {@link BootstrapHandlerFactory} is
+     * set.
+     * 
+     * @param pipelineWindow the pipeline window used by {@link DefaultBootstrapHandler}, must be positive.
+     * @return the builder for fluent Bootstrap Server creation.
+     * @since 2.0
+     */
+    public LeshanBootstrapServerBuilder setPipelineWindow(int pipelineWindow) {
+        Validate.isTrue(pipelineWindow > 0, "pipelineWindow must be positive");
+        this.pipelineWindow = pipelineWindow;
+        return this;
+    }
+
     /**
      * Advanced setter used to customize default {@link LwM2mModel}. This model is mainly used for data encoding of
      * Bootstrap write request.
@@ -412,7 +448,8 @@ public class LeshanBootstrapServerBuilder {
                 @Override
                 public BootstrapHandler create(BootstrapConfigurationStore store, LwM2mBootstrapRequestSender sender,
                         BootstrapSessionManager sessionManager) {
-                    return new DefaultBootstrapHandler(store, sender, sessionManager);
+                    return new DefaultBootstrapHandler(store, sender, sessionManager,
+                            DefaultBootstrapHandler.DEFAULT_TIMEOUT, admissionController, pipelineWindow);
                 }
             };
         if (model == null)
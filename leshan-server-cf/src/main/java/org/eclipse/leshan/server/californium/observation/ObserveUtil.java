@@ -20,7 +20,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.eclipse.californium.core.coap.Request;
-import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mPathCache;
 import org.eclipse.leshan.core.observation.Observation;
 import org.eclipse.leshan.core.request.ContentFormat;
 import org.eclipse.leshan.core.request.ObserveRequest;
@@ -67,7 +67,8 @@ public class ObserveUtil {
         if (request.getOptions().hasAccept()) {
             contentFormat = ContentFormat.fromCode(request.getOptions().getAccept());
         }
-        return new Observation(request.getToken().getBytes(), regId, new LwM2mPath(lwm2mPath), contentFormat, context);
+        return new Observation(request.getToken().getBytes(), regId, LwM2mPathCache.getDefault().get(lwm2mPath),
+                contentFormat, context);
     }
 
     /**
@@ -29,11 +29,15 @@ import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.eclipse.leshan.core.Link;
 import org.eclipse.leshan.core.californium.LwM2mCoapResource;
+import org.eclipse.leshan.core.link.DefaultLinkParser;
+import org.eclipse.leshan.core.link.LinkParseException;
+import org.eclipse.leshan.core.link.LinkParser;
 import org.eclipse.leshan.core.request.BindingMode;
 import org.eclipse.leshan.core.request.DeregisterRequest;
 import org.eclipse.leshan.core.request.Identity;
 import org.eclipse.leshan.core.request.RegisterRequest;
 import org.eclipse.leshan.core.request.UpdateRequest;
+import org.eclipse.leshan.core.request.exception.InvalidRequestException;
 import org.eclipse.leshan.core.response.DeregisterResponse;
 import org.eclipse.leshan.core.response.RegisterResponse;
 import org.eclipse.leshan.core.response.SendableResponse;
@@ -69,6 +73,7 @@ public class RegisterResource extends LwM2mCoapResource {
     public static final String RESOURCE_NAME = "rd";
 
     private final RegistrationHandler registrationHandler;
+    private final LinkParser linkParser = new DefaultLinkParser();
 
     public RegisterResource(RegistrationHandler registrationHandler) {
         super(RESOURCE_NAME);
@@ -135,7 +140,7 @@ public class RegisterResource extends LwM2mCoapResource {
         Boolean queueMode = null;
 
         // Get object Links
-        Link[] objectLinks = Link.parse(request.getPayload());
+        Link[] objectLinks = parseObjectLinks(request.getPayload());
 
         Map<String, String> additionalParams = new HashMap<>();
 
@@ -183,6 +188,17 @@ public class RegisterResource extends LwM2mCoapResource {
         sendableResponse.sent();
     }
 
+    /**
+     * @throws InvalidRequestException if payload is not a valid CoRE Link Format.
+     */
+    private Link[] parseObjectLinks(byte[] payload) {
+        try {
+            return linkParser.parse(payload);
+        } catch (LinkParseException e) {
+            throw new InvalidRequestException(e, "Invalid CoRE Link Format payload : %s", e.getMessage());
+        }
+    }
+
     protected void handleUpdate(CoapExchange exchange, Request request, String registrationId) {
         // Get identity
         Identity sender = extractIdentity(request.getSourceContext());
@@ -209,7 +225,7 @@ public class RegisterResource extends LwM2mCoapResource {
             }
         }
         if (request.getPayload() != null && request.getPayload().length > 0) {
-            objectLinks = Link.parse(request.getPayload());
+            objectLinks = parseObjectLinks(request.getPayload());
         }
         Request coapRequest = exchange.advanced().getRequest();
         UpdateRequest updateRequest = new UpdateRequest(registrationId, lifetime, smsNumber, binding, objectLinks,
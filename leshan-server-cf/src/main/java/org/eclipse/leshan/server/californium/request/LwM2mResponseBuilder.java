@@ -25,6 +25,9 @@ import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.leshan.core.Link;
 import org.eclipse.leshan.core.ResponseCode;
+import org.eclipse.leshan.core.link.DefaultLinkParser;
+import org.eclipse.leshan.core.link.LinkParseException;
+import org.eclipse.leshan.core.link.LinkParser;
 import org.eclipse.leshan.core.model.LwM2mModel;
 import org.eclipse.leshan.core.node.LwM2mNode;
 import org.eclipse.leshan.core.node.LwM2mPath;
@@ -82,6 +85,8 @@ public class LwM2mResponseBuilder<T extends LwM2mResponse> implements DownlinkRe
 
     private static final Logger LOG = LoggerFactory.getLogger(LwM2mResponseBuilder.class);
 
+    private static final LinkParser LINK_PARSER = new DefaultLinkParser();
+
     private LwM2mResponse lwM2mresponse;
     private final Request coapRequest;
     private final Response coapResponse;
@@ -127,7 +132,7 @@ public class LwM2mResponseBuilder<T extends LwM2mResponse> implements DownlinkRe
                 throw new InvalidResponseException("Client [%s] returned unexpected content format [%s] for [%s]",
                         clientEndpoint, coapResponse.getOptions().getContentFormat(), request);
             } else {
-                links = Link.parse(coapResponse.getPayload());
+                links = parseLinks(coapResponse, request);
             }
             lwM2mresponse = new DiscoverResponse(ResponseCode.CONTENT, links, null, coapResponse);
         } else {
@@ -305,7 +310,7 @@ public class LwM2mResponseBuilder<T extends LwM2mResponse> implements DownlinkRe
                 throw new InvalidResponseException("Client [%s] returned unexpected content format [%s] for [%s]",
                         clientEndpoint, coapResponse.getOptions().getContentFormat(), request);
             } else {
-                links = Link.parse(coapResponse.getPayload());
+                links = parseLinks(coapResponse, request);
             }
             lwM2mresponse = new BootstrapDiscoverResponse(ResponseCode.CONTENT, links, null, coapResponse);
         } else {
@@ -407,6 +412,16 @@ public class LwM2mResponseBuilder<T extends LwM2mResponse> implements DownlinkRe
         }
     }
 
+    private Link[] parseLinks(Response coapResponse, LwM2mRequest<?> request) {
+        try {
+            return LINK_PARSER.parse(coapResponse.getPayload());
+        } catch (LinkParseException e) {
+            throw new InvalidResponseException(e,
+                    "Unable to parse CoRE Link Format payload of request [%s] from client [%s]", request,
+                    clientEndpoint);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public T getResponse() {
         return (T) lwM2mresponse;
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.californium;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.scandium.dtls.ConnectionId;
+import org.eclipse.californium.scandium.dtls.PskPublicInformation;
+import org.eclipse.californium.scandium.dtls.PskSecretResult;
+import org.eclipse.californium.scandium.dtls.PskSecretResultHandler;
+import org.eclipse.leshan.server.security.InMemorySecurityStore;
+import org.eclipse.leshan.server.security.SecurityInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LwM2mPskStoreTest {
+
+    private static final byte[] KEY = new byte[] { 0x01, 0x02, 0x03 };
+    private static final ConnectionId CID = new ConnectionId(new byte[] { 0x0A });
+
+    private InMemorySecurityStore securityStore;
+    private ExecutorService executor;
+    private final LinkedBlockingQueue<PskSecretResult> results = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        securityStore = new InMemorySecurityStore();
+        securityStore.add(SecurityInfo.newPreSharedKeyInfo("endpoint", "identity", KEY));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private LwM2mPskStore createStore(ExecutorService executor) {
+        LwM2mPskStore store = new LwM2mPskStore(securityStore, null, executor);
+        store.setResultHandler(new PskSecretResultHandler() {
+            @Override
+            public void apply(PskSecretResult result) {
+                results.add(result);
+            }
+        });
+        return store;
+    }
+
+    @Test
+    public void resolve_psk_synchronously_without_executor() {
+        LwM2mPskStore store = createStore(null);
+
+        PskSecretResult result = store.requestPskSecretResult(CID, null, new PskPublicInformation("identity"), null,
+                null, null);
+
+        assertNotNull(result);
+        assertArrayEquals(KEY, result.getSecret().getEncoded());
+        assertEquals(0, results.size());
+    }
+
+    @Test
+    public void resolve_psk_asynchronously_with_executor() throws InterruptedException {
+        LwM2mPskStore store = createStore(executor);
+
+        assertNull(store.requestPskSecretResult(CID, null, new PskPublicInformation("identity"), null, null, null));
+
+        PskSecretResult result = results.poll(1, TimeUnit.SECONDS);
+        assertNotNull(result);
+        assertEquals("identity", result.getPskPublicInformation().getPublicInfoAsString());
+        assertArrayEquals(KEY, result.getSecret().getEncoded());
+    }
+
+    @Test
+    public void unknown_identity_is_resolved_asynchronously_without_secret() throws InterruptedException {
+        LwM2mPskStore store = createStore(executor);
+
+        assertNull(store.requestPskSecretResult(CID, null, new PskPublicInformation("unknown"), null, null, null));
+
+        PskSecretResult result = results.poll(1, TimeUnit.SECONDS);
+        assertNotNull(result);
+        assertNull(result.getSecret());
+    }
+
+    @Test
+    public void rejected_resolution_fails_synchronously() {
+        executor.shutdown();
+        LwM2mPskStore store = createStore(executor);
+
+        PskSecretResult result = store.requestPskSecretResult(CID, null, new PskPublicInformation("identity"), null,
+                null, null);
+
+        assertNotNull(result);
+        assertNull(result.getSecret());
+    }
+}
@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.bootstrap;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.leshan.core.util.NamedThreadFactory;
+import org.eclipse.leshan.core.util.Validate;
+
+/**
+ * Limits the load of a bootstrap server, typically when a lot of devices try to bootstrap at the same time (e.g. after
+ * a power outage).
+ * <p>
+ * A new session is :
+ * <ul>
+ * <li>rejected, if sessions are started faster than the configured rate (a token bucket allowing bursts) or if there
+ * are already too many queued sessions,</li>
+ * <li>queued, if there are already too many active sessions. Queued sessions are started when active ones end, in
+ * order of priority then arrival. A session queued for too long expires and is not started,</li>
+ * <li>admitted otherwise.</li>
+ * </ul>
+ * Queued sessions are started, or notified of their expiration, by an executor and never by the thread releasing an
+ * active session.
+ * <p>
+ * A rejected device should retry after the delay given by {@link #getRetryAfter()}. This delay is randomized so
+ * rejected devices do not all come back at the same time.
+ * <p>
+ * To be used with {@link DefaultBootstrapHandler}.
+ *
+ * @since 2.0
+ */
+public class BootstrapAdmissionController {
+
+    public static final long DEFAULT_MIN_RETRY_AFTER = 30; // in seconds
+    public static final long DEFAULT_MAX_QUEUE_WAIT = 60; // in seconds
+
+    public enum Decision {
+        ADMITTED, QUEUED, REJECTED
+    }
+
+    private final int maxActiveSessions;
+    private final int maxQueuedSessions;
+    private final long minRetryAfter;
+    private final long maxQueueWaitInNanos;
+    private final Executor executor;
+    private final Random random = new Random();
+
+    // token bucket
+    private final double maxTokens;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    private boolean refilled = false;
+
+    // sessions currently active or queued
+    private final Map<BootstrapSession, Entry> entries = new IdentityHashMap<>();
+    private final PriorityQueue<Entry> queue;
+    private int activeSessions = 0;
+    private long sequence = 0;
+
+    private final AtomicLong admittedSessions = new AtomicLong();
+    private final AtomicLong rejectedSessions = new AtomicLong();
+    private final AtomicLong expiredSessions = new AtomicLong();
+
+    /**
+     * Creates a controller with sessions queued in arrival order.
+     *
+     * @param maxActiveSessions the maximum number of sessions running at the same time.
+     * @param maxQueuedSessions the maximum number of sessions waiting for an active session to end.
+     * @param sessionsPerSecond the rate at which new sessions are accepted.
+     * @param burst the number of sessions which can be accepted at once over this rate.
+     */
+    public BootstrapAdmissionController(int maxActiveSessions, int maxQueuedSessions, double sessionsPerSecond,
+            int burst) {
+        this(maxActiveSessions, maxQueuedSessions, sessionsPerSecond, burst, null, DEFAULT_MIN_RETRY_AFTER);
+    }
+
+    /**
+     * @param maxActiveSessions the maximum number of sessions running at the same time.
+     * @param maxQueuedSessions the maximum number of sessions waiting for an active session to end.
+     * @param sessionsPerSecond the rate at which new sessions are accepted.
+     * @param burst the number of sessions which can be accepted at once over this rate.
+     * @param priority the order in which queued sessions are started, first ones first. If <code>null</code> sessions
+     *        are started in arrival order.
+     * @param minRetryAfter the minimum delay in seconds that rejected devices should wait before to retry.
+     */
+    public BootstrapAdmissionController(int maxActiveSessions, int maxQueuedSessions, double sessionsPerSecond,
+            int burst, Comparator<BootstrapSession> priority, long minRetryAfter) {
+        this(maxActiveSessions, maxQueuedSessions, sessionsPerSecond, burst, priority, minRetryAfter,
+                DEFAULT_MAX_QUEUE_WAIT, null);
+    }
+
+    /**
+     * @param maxActiveSessions the maximum number of sessions running at the same time.
+     * @param maxQueuedSessions the maximum number of sessions waiting for an active session to end.
+     * @param sessionsPerSecond the rate at which new sessions are accepted.
+     * @param burst the number of sessions which can be accepted at once over this rate.
+     * @param priority the order in which queued sessions are started, first ones first. If <code>null</code> sessions
+     *        are started in arrival order.
+     * @param minRetryAfter the minimum delay in seconds that rejected devices should wait before to retry.
+     * @param maxQueueWait the maximum time in seconds a session can stay queued before to expire.
+     * @param executor the executor used to start queued sessions and notify expired ones. If <code>null</code> a
+     *        dedicated thread is used.
+     */
+    public BootstrapAdmissionController(int maxActiveSessions, int maxQueuedSessions, double sessionsPerSecond,
+            int burst, final Comparator<BootstrapSession> priority, long minRetryAfter, long maxQueueWait,
+            Executor executor) {
+        Validate.isTrue(maxActiveSessions > 0, "maxActiveSessions must be positive");
+        Validate.isTrue(maxQueuedSessions >= 0, "maxQueuedSessions must not be negative");
+        Validate.isTrue(sessionsPerSecond > 0, "sessionsPerSecond must be positive");
+        Validate.isTrue(burst > 0, "burst must be positive");
+        Validate.isTrue(minRetryAfter > 0, "minRetryAfter must be positive");
+        Validate.isTrue(maxQueueWait > 0, "maxQueueWait must be positive");
+        this.maxActiveSessions = maxActiveSessions;
+        this.maxQueuedSessions = maxQueuedSessions;
+        this.minRetryAfter = minRetryAfter;
+        this.maxQueueWaitInNanos = TimeUnit.SECONDS.toNanos(maxQueueWait);
+        if (executor == null) {
+            // thread is stopped when there is nothing to start
+            ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new NamedThreadFactory("BootstrapAdmissionController Starter#%d", true));
+            threadPool.allowCoreThreadTimeOut(true);
+            executor = threadPool;
+        }
+        this.executor = executor;
+        this.maxTokens = burst;
+        this.tokensPerNano = sessionsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = burst;
+        this.queue = new PriorityQueue<>(11, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                if (priority != null) {
+                    int result = priority.compare(e1.session, e2.session);
+                    if (result != 0)
+                        return result;
+                }
+                return e1.sequence < e2.sequence ? -1 : (e1.sequence == e2.sequence ? 0 : 1);
+            }
+        });
+    }
+
+    /**
+     * Decides if a new session can start. An admitted or queued session must be started with
+     * {@link #start(BootstrapSession, Runnable, Runnable)} and released with {@link #release(BootstrapSession)} when it
+     * ends.
+     */
+    public synchronized Decision admit(BootstrapSession session) {
+        long now = refill();
+        if (activeSessions >= maxActiveSessions && queue.size() >= maxQueuedSessions) {
+            // make room by expiring stale sessions
+            for (Iterator<Entry> it = queue.iterator(); it.hasNext();) {
+                Entry entry = it.next();
+                if (isExpired(entry, now)) {
+                    it.remove();
+                    expire(entry);
+                }
+            }
+        }
+        if (tokens < 1 || (activeSessions >= maxActiveSessions && queue.size() >= maxQueuedSessions)) {
+            rejectedSessions.incrementAndGet();
+            return Decision.REJECTED;
+        }
+        tokens--;
+        admittedSessions.incrementAndGet();
+
+        Entry entry = new Entry(session, sequence++, now);
+        entries.put(session, entry);
+        if (activeSessions < maxActiveSessions) {
+            activeSessions++;
+            entry.active = true;
+            return Decision.ADMITTED;
+        } else {
+            queue.add(entry);
+            return Decision.QUEUED;
+        }
+    }
+
+    /**
+     * Runs the given task as soon as the session is active : now if it is already, or by the executor when an active
+     * session ends. The task is not run if the session is released before.
+     *
+     * @param session the admitted or queued session.
+     * @param task the task starting the session.
+     * @param onExpired the task run instead if the session expires while queued. The session is then already released.
+     */
+    public void start(BootstrapSession session, Runnable task, Runnable onExpired) {
+        Runnable toRun;
+        synchronized (this) {
+            Entry entry = entries.get(session);
+            if (entry == null) {
+                return;
+            }
+            if (entry.expired) {
+                entries.remove(session);
+                toRun = onExpired;
+            } else if (!entry.active) {
+                entry.task = task;
+                entry.onExpired = onExpired;
+                return;
+            } else {
+                toRun = task;
+            }
+        }
+        if (toRun != null) {
+            toRun.run();
+        }
+    }
+
+    /**
+     * Releases an active or queued session. Nothing is done if the session is already released.
+     * <p>
+     * The slot of an active session is given to the next queued session, which is started by the executor.
+     */
+    public synchronized void release(BootstrapSession session) {
+        Entry entry = entries.remove(session);
+        if (entry == null) {
+            return;
+        }
+        if (!entry.active) {
+            queue.remove(entry);
+            return;
+        }
+        long now = nanoTime();
+        Entry next;
+        while ((next = queue.poll()) != null && isExpired(next, now)) {
+            expire(next);
+        }
+        if (next == null) {
+            activeSessions--;
+            return;
+        }
+        // the freed slot goes to the next queued session
+        next.active = true;
+        if (next.task != null) {
+            executor.execute(next.task);
+        }
+        // else the session will be started by start()
+    }
+
+    /**
+     * Removes a session if it is still queued. Unlike {@link #release(BootstrapSession)}, an active session is kept.
+     *
+     * @return <code>true</code> if the session was queued and is now removed.
+     */
+    public synchronized boolean releaseIfQueued(BootstrapSession session) {
+        Entry entry = entries.get(session);
+        if (entry == null || entry.active) {
+            return false;
+        }
+        entries.remove(session);
+        queue.remove(entry);
+        return true;
+    }
+
+    /**
+     * @return the number of seconds a rejected device should wait before to retry.
+     */
+    public long getRetryAfter() {
+        long tokenDelay;
+        synchronized (this) {
+            refill();
+            tokenDelay = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano / TimeUnit.SECONDS.toNanos(1));
+        }
+        long delay = Math.max(minRetryAfter, tokenDelay);
+        synchronized (random) {
+            return delay + (long) (random.nextDouble() * minRetryAfter);
+        }
+    }
+
+    /**
+     * @return the number of sessions currently running.
+     */
+    public synchronized int getActiveSessions() {
+        return activeSessions;
+    }
+
+    /**
+     * @return the number of sessions waiting for an active session to end.
+     */
+    public synchronized int getQueuedSessions() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of sessions admitted or queued since creation.
+     */
+    public long getAdmittedSessions() {
+        return admittedSessions.get();
+    }
+
+    /**
+     * @return the number of sessions rejected since creation.
+     */
+    public long getRejectedSessions() {
+        return rejectedSessions.get();
+    }
+
+    /**
+     * @return the number of sessions which expired while queued since creation.
+     */
+    public long getExpiredSessions() {
+        return expiredSessions.get();
+    }
+
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private long refill() {
+        long now = nanoTime();
+        if (!refilled) {
+            // bucket is full at start
+            refilled = true;
+            lastRefill = now;
+            return now;
+        }
+        tokens = Math.min(maxTokens, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        return now;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.queuedAt > maxQueueWaitInNanos;
+    }
+
+    // entry must be already removed from queue
+    private void expire(Entry entry) {
+        expiredSessions.incrementAndGet();
+        entry.expired = true;
+        if (entry.onExpired != null) {
+            entries.remove(entry.session);
+            executor.execute(entry.onExpired);
+        }
+        // else start() will run onExpired
+    }
+
+    private static class Entry {
+        private final BootstrapSession session;
+        private final long sequence;
+        private final long queuedAt;
+        private boolean active;
+        private boolean expired;
+        private Runnable task;
+        private Runnable onExpired;
+
+        public Entry(BootstrapSession session, long sequence, long queuedAt) {
+            this.session = session;
+            this.sequence = sequence;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.bootstrap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.leshan.core.CertificateUsage;
+import org.eclipse.leshan.core.SecurityMode;
+import org.eclipse.leshan.core.request.BindingMode;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ACLConfig;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ServerConfig;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ServerSecurity;
+import org.eclipse.leshan.server.persistence.FileJournal;
+
+/**
+ * Persistence of {@link BootstrapConfig} indexed by endpoint using a {@link FileJournal}, in a compact binary format.
+ */
+@SuppressWarnings("deprecation")
+class BootstrapConfigJournal extends FileJournal<Entry<String, BootstrapConfig>> {
+
+    /**
+     * Gives access to the store content.
+     */
+    interface Store {
+        /**
+         * Add a config read from the files.
+         */
+        void put(String endpoint, BootstrapConfig config);
+
+        /**
+         * Remove a config read from the files.
+         */
+        void remove(String endpoint);
+
+        /**
+         * Remove all configs, when a clear record is read from the files.
+         */
+        void clear();
+
+        /**
+         * @return the current number of configs in the store.
+         */
+        int size();
+
+        /**
+         * @return a consistent copy of the store content. Implementation must call {@link #discardPending()} while
+         *         modifications are blocked.
+         */
+        Map<String, BootstrapConfig> snapshot();
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x4C42534E; // LBSN
+    private static final int JOURNAL_MAGIC = 0x4C424A4C; // LBJL
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    private final Store store;
+
+    BootstrapConfigJournal(String filename, int compactionThreshold, Store store) {
+        super(filename, SNAPSHOT_MAGIC, JOURNAL_MAGIC, compactionThreshold, "bootstrap configs");
+        this.store = store;
+    }
+
+    /**
+     * Append the addition of a config, should be called while store modifications are blocked to keep the order of
+     * modifications.
+     */
+    void appendPut(String endpoint, BootstrapConfig config) {
+        append(putRecord(endpoint, config));
+    }
+
+    /**
+     * Append the addition of several configs in one record, so they are applied at once when the journal is loaded.
+     * Should be called while store modifications are blocked to keep the order of modifications.
+     */
+    void appendPutAll(Map<String, BootstrapConfig> configs) {
+        appendBatch(putRecords(configs, false));
+    }
+
+    /**
+     * Append the replacement of all configs in one record, so the store is never partially replaced when the journal
+     * is loaded. Should be called while store modifications are blocked to keep the order of modifications.
+     */
+    void appendReplaceAll(Map<String, BootstrapConfig> configs) {
+        appendBatch(putRecords(configs, true));
+    }
+
+    /**
+     * Append the removal of a config, should be called while store modifications are blocked to keep the order of
+     * modifications.
+     */
+    void appendRemove(String endpoint) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(REMOVE);
+            out.writeUTF(endpoint);
+        } catch (IOException e) {
+            // can not happen when writing in memory
+            throw new IllegalStateException(e);
+        }
+        append(bytes.toByteArray());
+    }
+
+    @Override
+    protected byte[] snapshotRecord(Entry<String, BootstrapConfig> entry) {
+        return putRecord(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    protected int size() {
+        return store.size();
+    }
+
+    @Override
+    protected Collection<Entry<String, BootstrapConfig>> snapshot() {
+        return store.snapshot().entrySet();
+    }
+
+    @Override
+    protected void applyRecord(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        switch (type) {
+        case PUT:
+            String endpoint = in.readUTF();
+            store.put(endpoint, readConfig(in));
+            break;
+        case REMOVE:
+            store.remove(in.readUTF());
+            break;
+        case CLEAR:
+            store.clear();
+            break;
+        default:
+            throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    // ************ Encoding ************ //
+
+    private static List<byte[]> putRecords(Map<String, BootstrapConfig> configs, boolean clear) {
+        List<byte[]> records = new ArrayList<>(configs.size() + 1);
+        if (clear) {
+            records.add(new byte[] { CLEAR });
+        }
+        for (Entry<String, BootstrapConfig> entry : configs.entrySet()) {
+            records.add(putRecord(entry.getKey(), entry.getValue()));
+        }
+        return records;
+    }
+
+    private static byte[] putRecord(String endpoint, BootstrapConfig config) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(PUT);
+            out.writeUTF(endpoint);
+            writeConfig(out, config);
+        } catch (IOException e) {
+            // can not happen when writing in memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeConfig(DataOutputStream out, BootstrapConfig config) throws IOException {
+        out.writeInt(config.toDelete.size());
+        for (String path : config.toDelete) {
+            out.writeUTF(path);
+        }
+
+        out.writeInt(config.servers.size());
+        for (Entry<Integer, ServerConfig> entry : config.servers.entrySet()) {
+            ServerConfig server = entry.getValue();
+            out.writeInt(entry.getKey());
+            out.writeInt(server.shortId);
+            out.writeInt(server.lifetime);
+            writeInteger(out, server.defaultMinPeriod);
+            writeInteger(out, server.defaultMaxPeriod);
+            writeInteger(out, server.disableTimeout);
+            out.writeBoolean(server.notifIfDisabled);
+            if (server.binding == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(server.binding.size());
+                for (BindingMode mode : server.binding) {
+                    out.writeUTF(mode.name());
+                }
+            }
+        }
+
+        out.writeInt(config.security.size());
+        for (Entry<Integer, ServerSecurity> entry : config.security.entrySet()) {
+            ServerSecurity security = entry.getValue();
+            out.writeInt(entry.getKey());
+            writeString(out, security.uri);
+            out.writeBoolean(security.bootstrapServer);
+            writeEnum(out, security.securityMode);
+            writeBytes(out, security.publicKeyOrId);
+            writeBytes(out, security.serverPublicKey);
+            writeBytes(out, security.secretKey);
+            writeEnum(out, security.smsSecurityMode);
+            writeBytes(out, security.smsBindingKeyParam);
+            writeBytes(out, security.smsBindingKeySecret);
+            writeString(out, security.serverSmsNumber);
+            writeInteger(out, security.serverId);
+            writeInteger(out, security.clientOldOffTime);
+            writeInteger(out, security.bootstrapServerAccountTimeout);
+            writeEnum(out, security.certificateUsage);
+        }
+
+        out.writeInt(config.acls.size());
+        for (Entry<Integer, ACLConfig> entry : config.acls.entrySet()) {
+            ACLConfig acl = entry.getValue();
+            out.writeInt(entry.getKey());
+            out.writeInt(acl.objectId);
+            out.writeInt(acl.objectInstanceId);
+            if (acl.acls == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(acl.acls.size());
+                for (Entry<Integer, Long> access : acl.acls.entrySet()) {
+                    out.writeInt(access.getKey());
+                    out.writeLong(access.getValue());
+                }
+            }
+            writeInteger(out, acl.AccessControlOwner);
+        }
+    }
+
+    private static BootstrapConfig readConfig(DataInputStream in) throws IOException {
+        BootstrapConfig config = new BootstrapConfig();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            config.toDelete.add(in.readUTF());
+        }
+
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int instanceId = in.readInt();
+            ServerConfig server = new ServerConfig();
+            server.shortId = in.readInt();
+            server.lifetime = in.readInt();
+            server.defaultMinPeriod = readInteger(in);
+            server.defaultMaxPeriod = readInteger(in);
+            server.disableTimeout = readInteger(in);
+            server.notifIfDisabled = in.readBoolean();
+            int bindingCount = in.readInt();
+            if (bindingCount < 0) {
+                server.binding = null;
+            } else {
+                server.binding = EnumSet.noneOf(BindingMode.class);
+                for (int j = 0; j < bindingCount; j++) {
+                    server.binding.add(BindingMode.valueOf(in.readUTF()));
+                }
+            }
+            config.servers.put(instanceId, server);
+        }
+
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int instanceId = in.readInt();
+            ServerSecurity security = new ServerSecurity();
+            security.uri = readString(in);
+            security.bootstrapServer = in.readBoolean();
+            security.securityMode = readEnum(in, SecurityMode.class);
+            security.publicKeyOrId = readBytes(in);
+            security.serverPublicKey = readBytes(in);
+            security.secretKey = readBytes(in);
+            security.smsSecurityMode = readEnum(in, SmsSecurityMode.class);
+            security.smsBindingKeyParam = readBytes(in);
+            security.smsBindingKeySecret = readBytes(in);
+            security.serverSmsNumber = readString(in);
+            security.serverId = readInteger(in);
+            security.clientOldOffTime = readInteger(in);
+            security.bootstrapServerAccountTimeout = readInteger(in);
+            security.certificateUsage = readEnum(in, CertificateUsage.class);
+            config.security.put(instanceId, security);
+        }
+
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int instanceId = in.readInt();
+            ACLConfig acl = new ACLConfig();
+            acl.objectId = in.readInt();
+            acl.objectInstanceId = in.readInt();
+            int accessCount = in.readInt();
+            if (accessCount >= 0) {
+                acl.acls = new HashMap<>();
+                for (int j = 0; j < accessCount; j++) {
+                    acl.acls.put(in.readInt(), in.readLong());
+                }
+            }
+            acl.AccessControlOwner = readInteger(in);
+            config.acls.put(instanceId, acl);
+        }
+        return config;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        writeString(out, value == null ? null : value.name());
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> type) throws IOException {
+        String name = readString(in);
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.available())
+            throw new IOException("Invalid length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -15,29 +15,108 @@
  *******************************************************************************/
 package org.eclipse.leshan.server.bootstrap;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.leshan.core.request.ContentFormat;
 import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.core.util.Validate;
 
 /**
  * It allows to adapt the deprecated {@link BootstrapConfigStore} to the new API {@link BootstrapConfigurationStore}.
  * You can use it to adapt but it is clearly recommanded to rather directly implements
  * {@link BootstrapConfigurationStore} and maybe used {@link BootstrapUtil} if you still want to handle
  * {@link BootstrapConfig}.
+ * <p>
+ * Requests are computed once for each {@link BootstrapConfig} and content format, then reused for all the sessions
+ * which get this same config from the store. As configs are compared by identity, a config added to an
+ * {@link EditableBootstrapConfigStore} must not be modified : add a new instance instead. Configs are weakly
+ * referenced, so requests of a config removed from the store are discarded with it.
  */
 @SuppressWarnings("deprecation")
 public class BootstrapConfigurationStoreAdapter implements BootstrapConfigurationStore {
 
+    public static final int DEFAULT_MAX_CACHED_CONFIGS = 100_000;
+
     private BootstrapConfigStore internalStore;
 
+    private final int maxCachedConfigs;
+    // configs do not override equals(), so they are compared by identity
+    private final Map<BootstrapConfig, CompiledConfig> compiledConfigs = new WeakHashMap<>();
+
     public BootstrapConfigurationStoreAdapter(BootstrapConfigStore store) {
+        this(store, DEFAULT_MAX_CACHED_CONFIGS);
+    }
+
+    /**
+     * @param store the store to adapt.
+     * @param maxCachedConfigs the maximum number of configs for which computed requests are kept. Over this limit
+     *        requests are computed for each session.
+     * @since 2.0
+     */
+    public BootstrapConfigurationStoreAdapter(BootstrapConfigStore store, int maxCachedConfigs) {
+        Validate.isTrue(maxCachedConfigs >= 0, "maxCachedConfigs must not be negative");
         this.internalStore = store;
+        this.maxCachedConfigs = maxCachedConfigs;
     }
 
     @Override
     public BootstrapConfiguration get(String endpoint, Identity deviceIdentity, BootstrapSession session) {
         BootstrapConfig bootstrapConfig = internalStore.get(endpoint, deviceIdentity, session);
-        if (bootstrapConfig == null)
+        if (bootstrapConfig == null) {
             return null;
+        }
+        ContentFormat contentFormat = session.getContentFormat();
+        if (contentFormat == null) {
+            return compile(bootstrapConfig, contentFormat);
+        }
+
+        CompiledConfig compiled;
+        synchronized (compiledConfigs) {
+            compiled = compiledConfigs.get(bootstrapConfig);
+            if (compiled == null) {
+                if (compiledConfigs.size() >= maxCachedConfigs) {
+                    return compile(bootstrapConfig, contentFormat);
+                }
+                compiled = new CompiledConfig();
+                compiledConfigs.put(bootstrapConfig, compiled);
+            }
+        }
+        return compiled.get(bootstrapConfig, contentFormat);
+    }
+
+    /**
+     * Removes all computed requests.
+     * 
+     * @since 2.0
+     */
+    public void clear() {
+        synchronized (compiledConfigs) {
+            compiledConfigs.clear();
+        }
+    }
+
+    private static BootstrapConfiguration compile(BootstrapConfig bootstrapConfig, ContentFormat contentFormat) {
+        return new BootstrapConfiguration(
+                Collections.unmodifiableList(BootstrapUtil.toRequests(bootstrapConfig, contentFormat)));
+    }
+
+    /**
+     * The requests computed from a {@link BootstrapConfig}, by content format. It must not reference the config, else
+     * the config would never be removed from the {@link WeakHashMap}.
+     */
+    private static class CompiledConfig {
+        private final Map<ContentFormat, BootstrapConfiguration> byContentFormat = new HashMap<>();
 
-        return new BootstrapConfiguration(BootstrapUtil.toRequests(bootstrapConfig, session.getContentFormat()));
+        public synchronized BootstrapConfiguration get(BootstrapConfig source, ContentFormat contentFormat) {
+            BootstrapConfiguration configuration = byContentFormat.get(contentFormat);
+            if (configuration == null) {
+                configuration = compile(source, contentFormat);
+                byContentFormat.put(contentFormat, configuration);
+            }
+            return configuration;
+        }
     }
 }
@@ -43,4 +43,10 @@ public enum BootstrapFailureCause {
      * An unexpected error occured
      */
     INTERNAL_SERVER_ERROR,
+    /**
+     * The bootstrap server handles too many sessions, device should retry later.
+     * 
+     * @since 2.0
+     */
+    OVERLOADED,
 }
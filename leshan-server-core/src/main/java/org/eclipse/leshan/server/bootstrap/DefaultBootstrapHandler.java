@@ -18,12 +18,15 @@ package org.eclipse.leshan.server.bootstrap;
 import static org.eclipse.leshan.server.bootstrap.BootstrapFailureCause.*;
 
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.leshan.core.node.LwM2mPath;
 import org.eclipse.leshan.core.request.BootstrapDownlinkRequest;
 import org.eclipse.leshan.core.request.BootstrapFinishRequest;
 import org.eclipse.leshan.core.request.BootstrapRequest;
+import org.eclipse.leshan.core.request.BootstrapWriteRequest;
 import org.eclipse.leshan.core.request.Identity;
 import org.eclipse.leshan.core.response.BootstrapFinishResponse;
 import org.eclipse.leshan.core.response.BootstrapResponse;
@@ -31,6 +34,8 @@ import org.eclipse.leshan.core.response.ErrorCallback;
 import org.eclipse.leshan.core.response.LwM2mResponse;
 import org.eclipse.leshan.core.response.ResponseCallback;
 import org.eclipse.leshan.core.response.SendableResponse;
+import org.eclipse.leshan.core.util.Validate;
+import org.eclipse.leshan.server.bootstrap.BootstrapAdmissionController.Decision;
 import org.eclipse.leshan.server.bootstrap.BootstrapSessionManager.BootstrapPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,9 +55,11 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
 
     protected final LwM2mBootstrapRequestSender sender;
     protected final long requestTimeout;
+    protected final int pipelineWindow;
 
     protected final ConcurrentHashMap<String, BootstrapSession> onGoingSession = new ConcurrentHashMap<>();
     protected final BootstrapSessionManager sessionManager;
+    protected final BootstrapAdmissionController admissionController;
 
     @Deprecated
     public DefaultBootstrapHandler(BootstrapConfigStore store, LwM2mBootstrapRequestSender sender,
@@ -73,10 +80,38 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
 
     public DefaultBootstrapHandler(BootstrapConfigurationStore store, LwM2mBootstrapRequestSender sender,
             BootstrapSessionManager sessionManager, long requestTimeout) {
+        this(store, sender, sessionManager, requestTimeout, null);
+    }
+
+    /**
+     * @param admissionController the controller limiting the number of sessions, or <code>null</code> to start all
+     *        sessions immediately.
+     * @since 2.0
+     */
+    public DefaultBootstrapHandler(BootstrapConfigurationStore store, LwM2mBootstrapRequestSender sender,
+            BootstrapSessionManager sessionManager, long requestTimeout,
+            BootstrapAdmissionController admissionController) {
+        this(store, sender, sessionManager, requestTimeout, admissionController, 1);
+    }
+
+    /**
+     * @param admissionController the controller limiting the number of sessions, or <code>null</code> to start all
+     *        sessions immediately.
+     * @param pipelineWindow the maximum number of write requests sent to a device without waiting for their responses.
+     *        With 1, requests are sent one after another. Other requests are always sent alone, once previous ones
+     *        are done.
+     * @since 2.0
+     */
+    public DefaultBootstrapHandler(BootstrapConfigurationStore store, LwM2mBootstrapRequestSender sender,
+            BootstrapSessionManager sessionManager, long requestTimeout,
+            BootstrapAdmissionController admissionController, int pipelineWindow) {
+        Validate.isTrue(pipelineWindow > 0, "pipelineWindow must be positive");
         this.store = store;
         this.sender = sender;
         this.sessionManager = sessionManager;
         this.requestTimeout = requestTimeout;
+        this.admissionController = admissionController;
+        this.pipelineWindow = pipelineWindow;
     }
 
     @Override
@@ -92,6 +127,14 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
             return new SendableResponse<>(BootstrapResponse.badRequest("Unauthorized"));
         }
 
+        // check if the bootstrap server is not overloaded
+        if (admissionController != null && admissionController.admit(session) == Decision.REJECTED) {
+            LOG.debug("Too many bootstrap sessions, {} is rejected", session);
+            sessionManager.failed(session, OVERLOADED);
+            return new SendableResponse<>(BootstrapResponse.serviceUnavailable("Too many bootstrap sessions",
+                    admissionController.getRetryAfter()));
+        }
+
         // check if there is not an ongoing session.
         BootstrapSession oldSession = onGoingSession.put(endpoint, session);
         if (oldSession != null) {
@@ -100,6 +143,10 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
                 oldSession.cancel();
                 this.sender.cancelOngoingRequests(oldSession);
             }
+            // a queued session has no ongoing request to end it. An active one is released once its requests end.
+            if (admissionController != null && admissionController.releaseIfQueued(oldSession)) {
+                sessionManager.failed(oldSession, CANCELLED);
+            }
         }
 
         try {
@@ -111,13 +158,29 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
                 return new SendableResponse<>(BootstrapResponse.badRequest("no bootstrap config"));
             }
 
-            // Start bootstrap once response is sent.
-            Runnable onSent = new Runnable() {
+            // Start bootstrap once response is sent, or later if session is queued.
+            final Runnable start = new Runnable() {
                 @Override
                 public void run() {
                     startBootstrap(session, cfg);
                 }
             };
+            Runnable onSent = start;
+            if (admissionController != null) {
+                final Runnable expire = new Runnable() {
+                    @Override
+                    public void run() {
+                        LOG.debug("{} was queued for too long", session);
+                        stopSession(session, OVERLOADED);
+                    }
+                };
+                onSent = new Runnable() {
+                    @Override
+                    public void run() {
+                        admissionController.start(session, start, expire);
+                    }
+                };
+            }
             return new SendableResponse<>(BootstrapResponse.success(), onSent);
 
         } catch (RuntimeException e) {
@@ -128,7 +191,11 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
     }
 
     protected void startBootstrap(BootstrapSession session, BootstrapConfiguration cfg) {
-        sendRequest(session, cfg, new ArrayList<>(cfg.getRequests()));
+        if (pipelineWindow > 1) {
+            sendPipelinedRequests(session, cfg, new Pipeline(cfg.getRequests()));
+        } else {
+            sendRequest(session, cfg, new ArrayList<>(cfg.getRequests()));
+        }
     }
 
     protected void stopSession(BootstrapSession session, BootstrapFailureCause cause) {
@@ -137,11 +204,18 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
                 LOG.warn("{} was already removed", session);
             }
         }
-        // if there is no cause of failure, this is a success
-        if (cause == null) {
-            sessionManager.end(session);
-        } else {
-            sessionManager.failed(session, cause);
+        try {
+            // if there is no cause of failure, this is a success
+            if (cause == null) {
+                sessionManager.end(session);
+            } else {
+                sessionManager.failed(session, cause);
+            }
+        } finally {
+            // slot is freed only once the session is finalized
+            if (admissionController != null) {
+                admissionController.release(session);
+            }
         }
     }
 
@@ -207,6 +281,165 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
         }
     }
 
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected void sendPipelinedRequests(final BootstrapSession session, final BootstrapConfiguration cfg,
+            final Pipeline pipeline) {
+        if (session.isCancelled()) {
+            stopPipeline(session, pipeline, CANCELLED);
+            return;
+        }
+
+        List<BootstrapDownlinkRequest<? extends LwM2mResponse>> requestsToSend;
+        boolean finished;
+        synchronized (pipeline) {
+            if (pipeline.isAborted()) {
+                return;
+            }
+            requestsToSend = pipeline.next(pipelineWindow);
+            // pipeline is closed once all requests are done
+            finished = requestsToSend.isEmpty() && pipeline.isDone() && pipeline.abort();
+        }
+        if (finished) {
+            // we are done, send bootstrap finished.
+            leavePipeline(session, cfg, BootstrapPolicy.SEND_FINISHED);
+            return;
+        }
+
+        for (final BootstrapDownlinkRequest request : requestsToSend) {
+            ResponseCallback responseCallback = new SafeResponseCallback(session, pipeline) {
+                @Override
+                public void safeOnResponse(LwM2mResponse response) {
+                    if (pipeline.isAborted()) {
+                        // response to a request cancelled by a previous failure
+                        return;
+                    }
+                    if (response.isSuccess()) {
+                        LOG.trace("{} receives {} for {}", session, response, request);
+                        sessionManager.onResponseSuccess(session, request);
+                        afterPipelinedRequest(session, cfg, pipeline, request, BootstrapPolicy.CONTINUE);
+                    } else {
+                        LOG.debug("{} receives {} for {}", session, response, request);
+                        BootstrapPolicy policy = sessionManager.onResponseError(session, request, response);
+                        afterPipelinedRequest(session, cfg, pipeline, request, policy);
+                    }
+                }
+            };
+            ErrorCallback errorCallback = new SafeErrorCallback(session, pipeline) {
+                @Override
+                public void safeOnError(Exception e) {
+                    if (pipeline.isAborted()) {
+                        // request cancelled by a previous failure
+                        return;
+                    }
+                    LOG.debug("Error for {} while sending {} ", session, request, e);
+                    BootstrapPolicy policy = sessionManager.onRequestFailure(session, request, e);
+                    afterPipelinedRequest(session, cfg, pipeline, request, policy);
+                }
+            };
+            if (!sendPipelined(session, pipeline, request, responseCallback, errorCallback)) {
+                return;
+            }
+        }
+    }
+
+    protected void afterPipelinedRequest(BootstrapSession session, BootstrapConfiguration cfg, Pipeline pipeline,
+            BootstrapDownlinkRequest<? extends LwM2mResponse> request, BootstrapPolicy policy) {
+        if (pipeline.isAborted()) {
+            // response to a request cancelled by a previous failure
+            return;
+        }
+        if (session.isCancelled()) {
+            stopPipeline(session, pipeline, CANCELLED);
+            return;
+        }
+        switch (policy) {
+        case CONTINUE:
+            pipeline.done(request);
+            sendPipelinedRequests(session, cfg, pipeline);
+            break;
+        case RETRY:
+            pipeline.retry(request);
+            sendPipelinedRequests(session, cfg, pipeline);
+            break;
+        case RETRYALL:
+        case SEND_FINISHED:
+            if (abort(session, pipeline))
+                leavePipeline(session, cfg, policy);
+            break;
+        case STOP:
+            stopPipeline(session, pipeline, REQUEST_FAILED);
+            break;
+        default:
+            throw new IllegalStateException("unknown policy :" + policy);
+        }
+    }
+
+    /**
+     * Sends a request of a pipeline, or stops the session if it can not be sent.
+     * 
+     * @return <code>false</code> if the session is stopped, so following requests must not be sent.
+     */
+    private <T extends LwM2mResponse> boolean sendPipelined(BootstrapSession session, Pipeline pipeline,
+            BootstrapDownlinkRequest<T> request, ResponseCallback<T> responseCallback, ErrorCallback errorCallback) {
+        try {
+            synchronized (session) {
+                if (!session.isCancelled()) {
+                    sender.send(session, request, requestTimeout, responseCallback, errorCallback);
+                    return true;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to send {} for {}", request, session, e);
+            stopPipeline(session, pipeline, INTERNAL_SERVER_ERROR);
+            return false;
+        }
+        // cancelled while sending a window : requests already sent are cancelled too
+        stopPipeline(session, pipeline, CANCELLED);
+        return false;
+    }
+
+    /**
+     * Stops the session on failure of a pipeline. Whatever the number of requests failing or cancelled, the session is
+     * stopped only once.
+     */
+    private void stopPipeline(BootstrapSession session, Pipeline pipeline, BootstrapFailureCause cause) {
+        if (abort(session, pipeline)) {
+            stopSession(session, cause);
+        }
+    }
+
+    /**
+     * Goes on with the session once its pipeline is closed. As failures are no more handled by the pipeline, errors
+     * stop the session.
+     */
+    private void leavePipeline(BootstrapSession session, BootstrapConfiguration cfg, BootstrapPolicy policy) {
+        try {
+            if (policy == BootstrapPolicy.RETRYALL) {
+                startBootstrap(session, cfg);
+            } else {
+                bootstrapFinished(session, cfg);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Unexpected error after requests of {}", session, e);
+            stopSession(session, INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Stops a pipeline, cancelling requests still waiting for a response.
+     * 
+     * @return <code>true</code> if the pipeline was not already stopped.
+     */
+    private boolean abort(BootstrapSession session, Pipeline pipeline) {
+        if (!pipeline.abort()) {
+            return false;
+        }
+        synchronized (session) {
+            this.sender.cancelOngoingRequests(session);
+        }
+        return true;
+    }
+
     protected void bootstrapFinished(final BootstrapSession session, final BootstrapConfiguration cfg) {
 
         final BootstrapFinishRequest finishBootstrapRequest = new BootstrapFinishRequest();
@@ -274,18 +507,33 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
     protected abstract class SafeResponseCallback<T extends LwM2mResponse> implements ResponseCallback<T> {
 
         private BootstrapSession session;
+        private Pipeline pipeline;
 
         public SafeResponseCallback(BootstrapSession session) {
             this.session = session;
         }
 
+        /**
+         * Creates a callback for a request of the given pipeline, which is aborted on unexpected error.
+         * 
+         * @since 2.0
+         */
+        public SafeResponseCallback(BootstrapSession session, Pipeline pipeline) {
+            this.session = session;
+            this.pipeline = pipeline;
+        }
+
         @Override
         public void onResponse(T response) {
             try {
                 safeOnResponse(response);
             } catch (RuntimeException e) {
                 LOG.warn("Unexpected error on response callback for {}", session, e);
-                stopSession(session, INTERNAL_SERVER_ERROR);
+                if (pipeline != null) {
+                    stopPipeline(session, pipeline, INTERNAL_SERVER_ERROR);
+                } else {
+                    stopSession(session, INTERNAL_SERVER_ERROR);
+                }
             }
         }
 
@@ -295,21 +543,124 @@ public class DefaultBootstrapHandler implements BootstrapHandler {
     protected abstract class SafeErrorCallback implements ErrorCallback {
 
         private BootstrapSession session;
+        private Pipeline pipeline;
 
         public SafeErrorCallback(BootstrapSession session) {
             this.session = session;
         }
 
+        /**
+         * Creates a callback for a request of the given pipeline, which is aborted on unexpected error.
+         * 
+         * @since 2.0
+         */
+        public SafeErrorCallback(BootstrapSession session, Pipeline pipeline) {
+            this.session = session;
+            this.pipeline = pipeline;
+        }
+
         @Override
         public void onError(Exception error) {
             try {
                 safeOnError(error);
             } catch (RuntimeException e) {
                 LOG.warn("Unexpected error on error callback for {}", session, e);
-                stopSession(session, INTERNAL_SERVER_ERROR);
+                if (pipeline != null) {
+                    stopPipeline(session, pipeline, INTERNAL_SERVER_ERROR);
+                } else {
+                    stopSession(session, INTERNAL_SERVER_ERROR);
+                }
             }
         }
 
         public abstract void safeOnError(Exception e);
     }
+
+    /**
+     * The state of requests sent concurrently to a device.
+     * <p>
+     * Only consecutive write requests are sent concurrently, if they do not target the same node or one of its
+     * children. Other requests (like delete) are sent once all previous requests are done, and following requests wait
+     * for them.
+     */
+    protected static class Pipeline {
+
+        private final LinkedList<BootstrapDownlinkRequest<? extends LwM2mResponse>> pending;
+        private final List<BootstrapDownlinkRequest<? extends LwM2mResponse>> inFlight = new ArrayList<>();
+        private boolean barrierInFlight = false;
+        private volatile boolean aborted = false;
+
+        public Pipeline(List<BootstrapDownlinkRequest<? extends LwM2mResponse>> requests) {
+            this.pending = new LinkedList<>(requests);
+        }
+
+        /**
+         * @return the requests which can be sent now, which are considered in flight.
+         */
+        public synchronized List<BootstrapDownlinkRequest<? extends LwM2mResponse>> next(int window) {
+            List<BootstrapDownlinkRequest<? extends LwM2mResponse>> next = new ArrayList<>();
+            while (!pending.isEmpty() && inFlight.size() < window && !barrierInFlight) {
+                BootstrapDownlinkRequest<? extends LwM2mResponse> request = pending.getFirst();
+                boolean barrier = !(request instanceof BootstrapWriteRequest);
+                if (!inFlight.isEmpty() && (barrier || overlapsInFlight(request.getPath()))) {
+                    break;
+                }
+                pending.removeFirst();
+                next.add(request);
+                inFlight.add(request);
+                barrierInFlight = barrier;
+            }
+            return next;
+        }
+
+        private boolean overlapsInFlight(LwM2mPath path) {
+            for (BootstrapDownlinkRequest<? extends LwM2mResponse> request : inFlight) {
+                LwM2mPath inFlightPath = request.getPath();
+                if (path.startWith(inFlightPath) || inFlightPath.startWith(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Called when a request in flight is done.
+         */
+        public synchronized void done(BootstrapDownlinkRequest<? extends LwM2mResponse> request) {
+            inFlight.remove(request);
+            barrierInFlight = false;
+        }
+
+        /**
+         * Called when a request in flight must be sent again.
+         */
+        public synchronized void retry(BootstrapDownlinkRequest<? extends LwM2mResponse> request) {
+            done(request);
+            pending.addFirst(request);
+        }
+
+        /**
+         * @return <code>true</code> if all requests are done.
+         */
+        public synchronized boolean isDone() {
+            return pending.isEmpty() && inFlight.isEmpty();
+        }
+
+        public boolean isAborted() {
+            return aborted;
+        }
+
+        /**
+         * Closes the pipeline, once all requests are done or on failure. Responses received after are ignored.
+         * 
+         * @return <code>true</code> if the pipeline was not already closed.
+         */
+        public synchronized boolean abort() {
+            if (aborted) {
+                return false;
+            }
+            aborted = true;
+            return true;
+        }
+    }
 }
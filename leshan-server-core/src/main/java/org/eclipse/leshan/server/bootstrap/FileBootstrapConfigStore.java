@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.bootstrap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.leshan.core.Destroyable;
+import org.eclipse.leshan.core.SecurityMode;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.core.util.Validate;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ServerSecurity;
+
+/**
+ * A {@link EditableBootstrapConfigStore} which persists {@link BootstrapConfig} in a file, able to hold a large number
+ * of devices.
+ * <p>
+ * Configs are indexed by endpoint and by PSK identity used to connect to the bootstrap server, so both lookups are done
+ * in constant time (see {@link PskIdentityIndexedBootstrapConfigStore}). A PSK identity can only be used by one
+ * endpoint.
+ * <p>
+ * Modifications are appended to a journal file ({@code <file>.journal}) which is periodically compacted into a
+ * snapshot ({@code <file>}), both using a compact binary format. The journal is written asynchronously by a dedicated
+ * thread, so lookups never wait for disk access. Modifications done just before a crash could be lost, use
+ * {@link #destroy()} to write pending modifications before exiting.
+ * <p>
+ * Lookups are never blocked, even while all configs are replaced with {@link #replaceAll(Map)}.
+ * <p>
+ * Configs must not be modified once added, add a new instance instead.
+ *
+ * @since 2.0
+ */
+@SuppressWarnings("deprecation")
+public class FileBootstrapConfigStore
+        implements EditableBootstrapConfigStore, PskIdentityIndexedBootstrapConfigStore, Destroyable {
+
+    // default location for persistence
+    private static final String DEFAULT_FILE = "data/bootstrap.data";
+
+    /**
+     * Default minimum number of modifications in the journal before compaction. Compaction also waits for the journal
+     * to be bigger than the store.
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10000;
+
+    protected final ConfigurationChecker configChecker = new ConfigurationChecker();
+
+    // replaced at once by replaceAll
+    private volatile Index index = new Index();
+
+    private final BootstrapConfigJournal journal;
+
+    public FileBootstrapConfigStore() {
+        this(DEFAULT_FILE);
+    }
+
+    public FileBootstrapConfigStore(String file) {
+        this(file, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param file the path of the snapshot file, journal is stored next to it.
+     * @param compactionThreshold minimum number of modifications in the journal before compacting it in a new
+     *        snapshot.
+     * @throws IllegalStateException if the files can not be loaded.
+     */
+    public FileBootstrapConfigStore(String file, int compactionThreshold) {
+        Validate.notEmpty(file);
+        Validate.isTrue(compactionThreshold >= 0, "compactionThreshold must not be negative");
+        journal = new BootstrapConfigJournal(file, compactionThreshold, new BootstrapConfigJournal.Store() {
+            @Override
+            public void put(String endpoint, BootstrapConfig config) {
+                index.put(endpoint, config);
+            }
+
+            @Override
+            public void remove(String endpoint) {
+                index.remove(endpoint);
+            }
+
+            @Override
+            public void clear() {
+                index = new Index();
+            }
+
+            @Override
+            public int size() {
+                return index.byEndpoint.size();
+            }
+
+            @Override
+            public Map<String, BootstrapConfig> snapshot() {
+                // block modifications, so pending ones are all part of the snapshot
+                synchronized (FileBootstrapConfigStore.this) {
+                    journal.discardPending();
+                    return new HashMap<>(index.byEndpoint);
+                }
+            }
+        });
+        journal.open();
+    }
+
+    @Override
+    public BootstrapConfig get(String endpoint, Identity deviceIdentity, BootstrapSession session) {
+        return index.byEndpoint.get(endpoint);
+    }
+
+    @Override
+    public String getEndpointByPskIdentity(String identity) {
+        return index.endpointByPskIdentity.get(identity);
+    }
+
+    @Override
+    public Map<String, BootstrapConfig> getAll() {
+        return Collections.unmodifiableMap(index.byEndpoint);
+    }
+
+    @Override
+    public synchronized void add(String endpoint, BootstrapConfig config) throws InvalidConfigurationException {
+        Validate.notNull(endpoint);
+        configChecker.verify(config);
+        checkPskIdentity(index, endpoint, config);
+
+        index.put(endpoint, config);
+        journal.appendPut(endpoint, config);
+    }
+
+    /**
+     * Adds or replaces several configs at once. No config is added if one of them is invalid.
+     *
+     * @param configs the configs indexed by endpoint.
+     * @throws InvalidConfigurationException if one of the configs is not valid.
+     */
+    public void addAll(Map<String, BootstrapConfig> configs) throws InvalidConfigurationException {
+        for (BootstrapConfig config : configs.values()) {
+            configChecker.verify(config);
+        }
+        synchronized (this) {
+            checkPskIdentities(index, configs);
+            for (Entry<String, BootstrapConfig> entry : configs.entrySet()) {
+                index.put(entry.getKey(), entry.getValue());
+            }
+            journal.appendPutAll(configs);
+        }
+    }
+
+    /**
+     * Replaces all configs of the store, e.g. to reload them from an external source. Lookups done during the
+     * replacement get previous configs, then new ones once they are all available.
+     *
+     * @param configs the new configs indexed by endpoint.
+     * @throws InvalidConfigurationException if one of the configs is not valid, then the store is not modified.
+     */
+    public void replaceAll(Map<String, BootstrapConfig> configs) throws InvalidConfigurationException {
+        // new index is built without blocking anything
+        Index newIndex = new Index();
+        for (BootstrapConfig config : configs.values()) {
+            configChecker.verify(config);
+        }
+        checkPskIdentities(newIndex, configs);
+        for (Entry<String, BootstrapConfig> entry : configs.entrySet()) {
+            newIndex.put(entry.getKey(), entry.getValue());
+        }
+
+        synchronized (this) {
+            index = newIndex;
+            journal.appendReplaceAll(configs);
+            journal.requestCompaction();
+        }
+    }
+
+    @Override
+    public synchronized BootstrapConfig remove(String endpoint) {
+        BootstrapConfig config = index.remove(endpoint);
+        if (config != null) {
+            journal.appendRemove(endpoint);
+        }
+        return config;
+    }
+
+    /**
+     * Write pending modifications and stop the journal writer thread.
+     */
+    @Override
+    public void destroy() {
+        journal.close();
+    }
+
+    private static void checkPskIdentities(Index index, Map<String, BootstrapConfig> configs)
+            throws InvalidConfigurationException {
+        Map<String, String> added = new HashMap<>();
+        for (Entry<String, BootstrapConfig> entry : configs.entrySet()) {
+            Validate.notNull(entry.getKey());
+            checkPskIdentity(index, entry.getKey(), entry.getValue());
+            String identity = getBootstrapPskIdentity(entry.getValue());
+            if (identity != null) {
+                String endpoint = added.put(identity, entry.getKey());
+                if (endpoint != null) {
+                    throw new InvalidConfigurationException("Psk identity [%s] already used by endpoint [%s]",
+                            identity, endpoint);
+                }
+            }
+        }
+    }
+
+    private static void checkPskIdentity(Index index, String endpoint, BootstrapConfig config)
+            throws InvalidConfigurationException {
+        String identity = getBootstrapPskIdentity(config);
+        if (identity != null) {
+            String existingEndpoint = index.endpointByPskIdentity.get(identity);
+            if (existingEndpoint != null && !existingEndpoint.equals(endpoint)) {
+                throw new InvalidConfigurationException("Psk identity [%s] already used by endpoint [%s]", identity,
+                        existingEndpoint);
+            }
+        }
+    }
+
+    private static String getBootstrapPskIdentity(BootstrapConfig config) {
+        for (ServerSecurity security : config.security.values()) {
+            if (security.bootstrapServer && security.securityMode == SecurityMode.PSK
+                    && security.publicKeyOrId != null) {
+                return new String(security.publicKeyOrId, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Configs indexed by endpoint and by PSK identity.
+     */
+    private static class Index {
+        private final ConcurrentHashMap<String, BootstrapConfig> byEndpoint = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, String> endpointByPskIdentity = new ConcurrentHashMap<>();
+
+        public void put(String endpoint, BootstrapConfig config) {
+            String identity = getBootstrapPskIdentity(config);
+            if (identity != null) {
+                endpointByPskIdentity.put(identity, endpoint);
+            }
+            BootstrapConfig previous = byEndpoint.put(endpoint, config);
+            if (previous != null) {
+                String previousIdentity = getBootstrapPskIdentity(previous);
+                if (previousIdentity != null && !previousIdentity.equals(identity)) {
+                    endpointByPskIdentity.remove(previousIdentity, endpoint);
+                }
+            }
+        }
+
+        public BootstrapConfig remove(String endpoint) {
+            BootstrapConfig config = byEndpoint.remove(endpoint);
+            if (config != null) {
+                removeIdentity(endpoint, config);
+            }
+            return config;
+        }
+
+        private void removeIdentity(String endpoint, BootstrapConfig config) {
+            String identity = getBootstrapPskIdentity(config);
+            if (identity != null) {
+                endpointByPskIdentity.remove(identity, endpoint);
+            }
+        }
+    }
+}
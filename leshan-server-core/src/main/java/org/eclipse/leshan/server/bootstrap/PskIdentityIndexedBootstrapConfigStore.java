@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.bootstrap;
+
+/**
+ * A {@link BootstrapConfigStore} able to find a config by the PSK identity used to connect to the bootstrap server,
+ * without iterating over all configs.
+ *
+ * @since 2.0
+ */
+@SuppressWarnings("deprecation")
+public interface PskIdentityIndexedBootstrapConfigStore extends BootstrapConfigStore {
+
+    /**
+     * @param identity the PSK identity used by a device to connect to the bootstrap server.
+     * @return the endpoint using this PSK identity, or <code>null</code> if no config uses it.
+     */
+    String getEndpointByPskIdentity(String identity);
+}
@@ -16,9 +16,14 @@
 package org.eclipse.leshan.server.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import org.eclipse.leshan.core.model.LwM2mModel;
 import org.eclipse.leshan.core.model.LwM2mModelRepository;
@@ -29,61 +34,137 @@ import org.eclipse.leshan.server.registration.Registration;
 /**
  * A LwM2mModelProvider which supports object versioning. It returns a LwM2mModel taking into account object version
  * given in registration.
+ * <p>
+ * The model of a set of supported objects is resolved once and shared by all registrations supporting the same objects
+ * in the same versions, so getting the model of a registration and looking up objects or resources in it does not
+ * allocate. Models only keep object ids and versions, definitions are always looked up in the repository.
  */
 public class VersionedModelProvider implements LwM2mModelProvider {
 
+    /** @since 2.0 */
+    public static final int DEFAULT_MAX_CACHED_MODELS = 1024;
+
+    // size of the table of recently used models, must be a power of 2
+    private static final int RECENT_MODELS_SIZE = 256;
+
     private LwM2mModelRepository repository;
 
+    // resolved models indexed by supported objects (object id to version), least recently used first
+    private final Map<Map<Integer, String>, LwM2mModel> models;
+
+    // direct-mapped table of recently used models indexed by identity of the supported objects map of registrations.
+    // It avoids to compute hashcode and equals of this map on each lookup.
+    private final RecentModel[] recentModels = new RecentModel[RECENT_MODELS_SIZE];
+
     public VersionedModelProvider(Collection<ObjectModel> objectModels) {
-        this.repository = new LwM2mModelRepository(objectModels);
+        this(new LwM2mModelRepository(objectModels));
     }
 
     public VersionedModelProvider(LwM2mModelRepository repository) {
+        this(repository, DEFAULT_MAX_CACHED_MODELS);
+    }
+
+    /**
+     * @param repository the object definitions available.
+     * @param maxCachedModels the maximum number of distinct sets of supported objects for which a resolved model is
+     *        kept. Once reached, the least recently used model is evicted.
+     * @since 2.0
+     */
+    public VersionedModelProvider(LwM2mModelRepository repository, final int maxCachedModels) {
         this.repository = repository;
+        this.models = new LinkedHashMap<Map<Integer, String>, LwM2mModel>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<Map<Integer, String>, LwM2mModel> eldest) {
+                return size() > maxCachedModels;
+            }
+        };
     }
 
     @Override
     public LwM2mModel getObjectModel(Registration registration) {
-        return new DynamicModel(registration);
+        Map<Integer, String> supportedObjects = registration.getSupportedObject();
+
+        int slot = System.identityHashCode(supportedObjects) & (RECENT_MODELS_SIZE - 1);
+        RecentModel recent = recentModels[slot];
+        if (recent != null && recent.supportedObjects == supportedObjects) {
+            return recent.model;
+        }
+
+        LwM2mModel model;
+        synchronized (models) {
+            model = models.get(supportedObjects);
+            if (model == null) {
+                model = new ResolvedModel(supportedObjects);
+                models.put(supportedObjects, model);
+            }
+        }
+        recentModels[slot] = new RecentModel(supportedObjects, model);
+        return model;
+    }
+
+    private static class RecentModel {
+        private final Map<Integer, String> supportedObjects;
+        private final LwM2mModel model;
+
+        public RecentModel(Map<Integer, String> supportedObjects, LwM2mModel model) {
+            this.supportedObjects = supportedObjects;
+            this.model = model;
+        }
     }
 
-    private class DynamicModel implements LwM2mModel {
+    /**
+     * Object ids and versions of a set of supported objects, sorted by id. Object and resource models are looked up in
+     * the repository.
+     */
+    private class ResolvedModel implements LwM2mModel {
 
-        private final Registration registration;
+        private final int[] objectIds;
+        private final String[] versions;
 
-        public DynamicModel(Registration registration) {
-            this.registration = registration;
+        public ResolvedModel(Map<Integer, String> supportedObjects) {
+            List<Integer> ids = new ArrayList<>(supportedObjects.size());
+            List<String> idVersions = new ArrayList<>(supportedObjects.size());
+            for (Entry<Integer, String> supportedObject : new TreeMap<>(supportedObjects).entrySet()) {
+                if (supportedObject.getValue() != null) {
+                    ids.add(supportedObject.getKey());
+                    idVersions.add(supportedObject.getValue());
+                }
+            }
+
+            objectIds = new int[ids.size()];
+            for (int i = 0; i < objectIds.length; i++) {
+                objectIds[i] = ids.get(i);
+            }
+            versions = idVersions.toArray(new String[idVersions.size()]);
         }
 
         @Override
         public ResourceModel getResourceModel(int objectId, int resourceId) {
-            ObjectModel objectModel = getObjectModel(objectId);
-            if (objectModel != null)
-                return objectModel.resources.get(resourceId);
-            else
+            int index = Arrays.binarySearch(objectIds, objectId);
+            if (index < 0)
                 return null;
+            return repository.getResourceModel(objectId, versions[index], resourceId);
         }
 
         @Override
         public ObjectModel getObjectModel(int objectId) {
-            String version = registration.getSupportedVersion(objectId);
-            if (version != null) {
-                return repository.getObjectModel(objectId, version);
-            }
-            return null;
+            int index = Arrays.binarySearch(objectIds, objectId);
+            if (index < 0)
+                return null;
+            return repository.getObjectModel(objectId, versions[index]);
         }
 
         @Override
         public Collection<ObjectModel> getObjectModels() {
-            Map<Integer, String> supportedObjects = registration.getSupportedObject();
-            Collection<ObjectModel> result = new ArrayList<>(supportedObjects.size());
-            for (Entry<Integer, String> supportedObject : supportedObjects.entrySet()) {
-                ObjectModel objectModel = repository.getObjectModel(supportedObject.getKey(),
-                        supportedObject.getValue());
+            List<ObjectModel> objectModels = new ArrayList<>(objectIds.length);
+            for (int i = 0; i < objectIds.length; i++) {
+                ObjectModel objectModel = repository.getObjectModel(objectIds[i], versions[i]);
                 if (objectModel != null)
-                    result.add(objectModel);
+                    objectModels.add(objectModel);
             }
-            return result;
+            return Collections.unmodifiableList(objectModels);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,545 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.eclipse.leshan.core.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistence of a store content using a snapshot file and an append-only journal.
+ * <p>
+ * Modifications are encoded by subclasses as binary records, which are appended to the journal by a dedicated writer
+ * thread. This thread writes all the pending records at once and syncs the file only once per group (group commit).
+ * When the journal grows bigger than the store, the whole content is written to a new snapshot and the journal is
+ * reset (compaction).
+ * <p>
+ * Snapshot and journal have an epoch in their header: a journal with an epoch different from the snapshot one was
+ * already compacted into the snapshot and is ignored, so a crash during compaction is harmless. Each record is
+ * protected by a CRC, a truncated or corrupted journal tail (e.g. crash while writing) is discarded.
+ * <p>
+ * The first byte of a record is its type, chosen by subclasses. Type 0 is reserved for batches of records, which are
+ * applied together or not at all.
+ *
+ * @param <E> the type of the elements written in the snapshot.
+ * @since 2.0
+ */
+public abstract class FileJournal<E> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileJournal.class);
+
+    private static final byte VERSION = 1;
+    // header : magic (int) + version (byte) + epoch (long)
+    private static final int HEADER_SIZE = 4 + 1 + 8;
+    // frame : length (int) + record + crc (int)
+    private static final int FRAME_OVERHEAD = 4 + 4;
+
+    private static final byte BATCH = 0;
+
+    // markers given to the writer thread
+    private static final byte[] COMPACT = new byte[0];
+    private static final byte[] CLOSE = new byte[0];
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File tmpFile;
+    private final int snapshotMagic;
+    private final int journalMagic;
+    private final int compactionThreshold;
+    private final String description;
+
+    private final BlockingQueue<byte[]> pending = new LinkedBlockingQueue<>();
+    private final ExecutorService writerExecutor;
+
+    // only accessed by the writer thread once recovered
+    private long epoch = 0;
+    private int journalEntries = 0;
+    private FileOutputStream journalOut;
+    private boolean compactionRequested = false;
+    private boolean closeRequested = false;
+
+    /**
+     * @param filename the path of the snapshot file, journal is stored next to it.
+     * @param snapshotMagic the first bytes of the snapshot file.
+     * @param journalMagic the first bytes of the journal file.
+     * @param compactionThreshold minimum number of records in the journal before compacting it in a new snapshot.
+     * @param description the name of the stored elements, used in logs (e.g. "security infos").
+     */
+    protected FileJournal(String filename, int snapshotMagic, int journalMagic, int compactionThreshold,
+            String description) {
+        this.snapshotFile = new File(filename);
+        this.journalFile = new File(filename + ".journal");
+        this.tmpFile = new File(filename + ".tmp");
+        this.snapshotMagic = snapshotMagic;
+        this.journalMagic = journalMagic;
+        this.compactionThreshold = compactionThreshold;
+        this.description = description;
+        this.writerExecutor = Executors
+                .newSingleThreadExecutor(new NamedThreadFactory(snapshotFile.getName().replace("%", "%%") + " Journal Writer", true));
+    }
+
+    /**
+     * Apply a record read from the files to the store.
+     *
+     * @param record the record, starting with its type.
+     * @throws IOException if the record is not valid.
+     */
+    protected abstract void applyRecord(byte[] record) throws IOException;
+
+    /**
+     * Apply records written together with {@link #appendBatch(List)}. By default, records are applied one by one.
+     *
+     * @throws IOException if a record is not valid.
+     */
+    protected void applyBatch(List<byte[]> records) throws IOException {
+        for (byte[] record : records) {
+            applyRecord(record);
+        }
+    }
+
+    /**
+     * @return the record which adds the given element to the store, used to write snapshots.
+     */
+    protected abstract byte[] snapshotRecord(E element);
+
+    /**
+     * @return the current number of elements in the store.
+     */
+    protected abstract int size();
+
+    /**
+     * @return a consistent copy of the store content. Implementation must call {@link #discardPending()} while
+     *         modifications are blocked.
+     */
+    protected abstract Collection<E> snapshot();
+
+    /**
+     * Load a snapshot written with a previous format, to migrate it. The stream is reset if nothing is loaded.
+     *
+     * @return <code>true</code> if the snapshot was loaded, then a new snapshot is written.
+     * @throws IOException if the snapshot could not be loaded.
+     */
+    protected boolean readLegacySnapshot(DataInputStream in) throws IOException {
+        return false;
+    }
+
+    /**
+     * Load snapshot and journal content into the store and start the writer thread.
+     *
+     * @throws IllegalStateException if the files can not be loaded. The store must not be used as it could be only
+     *         partially loaded, and its next snapshot would overwrite the content not loaded.
+     */
+    public void open() {
+        boolean compactionNeeded;
+        try {
+            compactionNeeded = recover();
+        } catch (IOException | RuntimeException e) {
+            writerExecutor.shutdown();
+            throw new IllegalStateException(String.format("Could not load %s from %s", description, snapshotFile),
+                    e);
+        }
+        if (compactionNeeded) {
+            compact(snapshot());
+        }
+        writerExecutor.execute(new Writer());
+    }
+
+    /**
+     * Append a record, should be called while store modifications are blocked to keep the order of modifications.
+     */
+    protected void append(byte[] record) {
+        pending.add(record);
+    }
+
+    /**
+     * Append several records in one record, so they are applied at once when the journal is loaded. Should be called
+     * while store modifications are blocked to keep the order of modifications.
+     */
+    protected void appendBatch(List<byte[]> records) {
+        int size = 1 + 4;
+        for (byte[] record : records) {
+            size += 4 + record.length;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(BATCH);
+            out.writeInt(records.size());
+            for (byte[] record : records) {
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        } catch (IOException e) {
+            // can not happen when writing in memory
+            throw new IllegalStateException(e);
+        }
+        pending.add(bytes.toByteArray());
+    }
+
+    /**
+     * Ask the writer thread to write a new snapshot.
+     */
+    public void requestCompaction() {
+        pending.add(COMPACT);
+    }
+
+    /**
+     * Discard modifications not yet written, because they are part of the snapshot being created.
+     */
+    public void discardPending() {
+        List<byte[]> discarded = new ArrayList<>();
+        pending.drainTo(discarded);
+        for (byte[] record : discarded) {
+            if (record == CLOSE)
+                closeRequested = true;
+        }
+    }
+
+    /**
+     * Write all the pending modifications and stop the writer thread.
+     */
+    public void close() {
+        pending.add(CLOSE);
+        writerExecutor.shutdown();
+        try {
+            if (!writerExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOG.warn("Journal of {} was not closed in time, some modifications could be lost.", description);
+                writerExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Closing journal of {} was interrupted.", description, e);
+        }
+    }
+
+    private class Writer implements Runnable {
+        @Override
+        public void run() {
+            List<byte[]> batch = new ArrayList<>();
+            try {
+                while (!closeRequested) {
+                    batch.add(pending.take());
+                    pending.drainTo(batch);
+                    write(batch);
+                    batch.clear();
+
+                    if (compactionRequested || journalEntries > Math.max(compactionThreshold, size())) {
+                        compactionRequested = false;
+                        compact(snapshot());
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("Journal writer of {} was interrupted, some modifications could be lost.", description);
+            } finally {
+                closeJournal();
+            }
+        }
+    }
+
+    private void write(List<byte[]> records) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int count = 0;
+        try {
+            for (byte[] record : records) {
+                if (record == COMPACT) {
+                    compactionRequested = true;
+                } else if (record == CLOSE) {
+                    closeRequested = true;
+                } else {
+                    writeFrame(out, record);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                if (journalOut == null) {
+                    journalOut = openJournal();
+                }
+                journalOut.write(bytes.toByteArray());
+                // one sync for the whole group
+                journalOut.getFD().sync();
+                journalEntries += count;
+            }
+        } catch (IOException e) {
+            LOG.error("Could not save {} modifications of {} to file", count, description, e);
+            closeJournal();
+            // a new snapshot will contain all modifications
+            compactionRequested = true;
+        }
+    }
+
+    /**
+     * Write the given content as a new snapshot and reset the journal.
+     */
+    private void compact(Collection<E> content) {
+        closeJournal();
+        long newEpoch = epoch + 1;
+        try {
+            File parent = snapshotFile.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+
+            // write new snapshot
+            try (FileOutputStream fileOut = new FileOutputStream(tmpFile)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+                writeHeader(out, snapshotMagic, newEpoch);
+                out.writeInt(content.size());
+                for (E element : content) {
+                    writeFrame(out, snapshotRecord(element));
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            replace(tmpFile, snapshotFile);
+            epoch = newEpoch;
+
+            // reset journal, the previous one is now ignored as its epoch is outdated.
+            journalEntries = 0;
+            journalOut = createJournal();
+            LOG.debug("{} {} saved in snapshot", content.size(), description);
+        } catch (IOException e) {
+            LOG.error("Could not save {} to file", description, e);
+            closeJournal();
+            // pending modifications were discarded for this snapshot, they are only in the store now
+            compactionRequested = true;
+        }
+    }
+
+    private FileOutputStream createJournal() throws IOException {
+        try (FileOutputStream fileOut = new FileOutputStream(tmpFile)) {
+            DataOutputStream out = new DataOutputStream(fileOut);
+            writeHeader(out, journalMagic, epoch);
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        replace(tmpFile, journalFile);
+        return new FileOutputStream(journalFile, true);
+    }
+
+    private static void replace(File source, File target) throws IOException {
+        // rename is atomic on POSIX systems, but some systems does not allow to rename to an existing file
+        if (!source.renameTo(target)) {
+            target.delete();
+            if (!source.renameTo(target))
+                throw new IOException(String.format("Unable to rename %s to %s", source, target));
+        }
+    }
+
+    private FileOutputStream openJournal() throws IOException {
+        // a journal of another epoch is ignored by recovery, never append to it
+        if (journalFile.exists() && readJournalEpoch() == epoch)
+            return new FileOutputStream(journalFile, true);
+        return createJournal();
+    }
+
+    /**
+     * @return the epoch of the journal file, or -1 if its header can not be read.
+     */
+    private long readJournalEpoch() {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(journalFile))) {
+            return readHeader(in, journalMagic);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void closeJournal() {
+        if (journalOut != null) {
+            try {
+                journalOut.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close journal of {}", description, e);
+            }
+            journalOut = null;
+        }
+    }
+
+    // ************ Recovery ************ //
+
+    /**
+     * @return true if a compaction is needed (legacy format, journal bigger than the snapshot or corrupted)
+     */
+    private boolean recover() throws IOException {
+        if (!snapshotFile.exists() || snapshotFile.length() == 0) {
+            // journal could be present if crash occurred before first snapshot
+            if (journalFile.exists()) {
+                readJournal();
+                return true;
+            }
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            in.mark(HEADER_SIZE);
+            if (readLegacySnapshot(in)) {
+                return true;
+            }
+            in.reset();
+            epoch = readHeader(in, snapshotMagic);
+            int count = in.readInt();
+            long remaining = snapshotFile.length() - HEADER_SIZE - 4;
+            for (int i = 0; i < count; i++) {
+                byte[] record = readFrame(in, remaining);
+                if (record == null)
+                    throw new IOException("Corrupted snapshot");
+                apply(record);
+                remaining -= FRAME_OVERHEAD + record.length;
+            }
+            if (count > 0) {
+                LOG.debug("{} {} loaded", count, description);
+            }
+        }
+
+        if (journalFile.exists()) {
+            return readJournal();
+        }
+        return false;
+    }
+
+    /**
+     * @return true if a compaction is needed
+     */
+    private boolean readJournal() throws IOException {
+        long validLength = HEADER_SIZE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            long journalEpoch;
+            try {
+                journalEpoch = readHeader(in, journalMagic);
+            } catch (EOFException e) {
+                return true;
+            }
+            if (journalEpoch != epoch) {
+                // journal was already compacted in snapshot
+                return true;
+            }
+            while (true) {
+                byte[] record;
+                try {
+                    record = readFrame(in, journalFile.length() - validLength);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (record == null)
+                    break;
+                apply(record);
+                journalEntries++;
+                validLength += FRAME_OVERHEAD + record.length;
+            }
+        }
+
+        if (journalFile.length() > validLength) {
+            // crash while writing : remove the incomplete tail so next records can be appended
+            LOG.warn("Journal of {} is corrupted after {} modifications, next ones are ignored", description,
+                    journalEntries);
+            try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                file.setLength(validLength);
+            }
+        }
+        if (journalEntries > 0) {
+            LOG.debug("{} modifications of {} loaded from journal", journalEntries, description);
+        }
+        return journalEntries > Math.max(compactionThreshold, size());
+    }
+
+    private void apply(byte[] record) throws IOException {
+        if (record[0] != BATCH) {
+            applyRecord(record);
+            return;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1));
+        int count = in.readInt();
+        // each record needs at least its length
+        if (count < 0 || count > record.length / 4)
+            throw new IOException("Invalid number of records in batch " + count);
+        List<byte[]> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = in.readInt();
+            if (length <= 0 || length > in.available())
+                throw new IOException("Invalid record length in batch " + length);
+            byte[] batched = new byte[length];
+            in.readFully(batched);
+            records.add(batched);
+        }
+        applyBatch(records);
+    }
+
+    // ************ Encoding ************ //
+
+    private static void writeHeader(DataOutputStream out, int magic, long epoch) throws IOException {
+        out.writeInt(magic);
+        out.writeByte(VERSION);
+        out.writeLong(epoch);
+    }
+
+    private static long readHeader(DataInputStream in, int magic) throws IOException {
+        if (in.readInt() != magic)
+            throw new IOException("Unexpected file format");
+        byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported file version " + version);
+        return in.readLong();
+    }
+
+    private static void writeFrame(DataOutputStream out, byte[] record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        out.writeInt(record.length);
+        out.write(record);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * @param remaining the number of bytes left in the file, including the frame.
+     * @return the record or null if it is corrupted
+     * @throws EOFException if there is no more complete record
+     */
+    private static byte[] readFrame(DataInputStream in, long remaining) throws IOException {
+        int length = in.readInt();
+        // a length bigger than the file means a corrupted length, do not allocate it
+        if (length <= 0 || length > remaining - FRAME_OVERHEAD)
+            return null;
+        byte[] record = new byte[length];
+        in.readFully(record);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        if (in.readInt() != (int) crc.getValue())
+            return null;
+        return record;
+    }
+}
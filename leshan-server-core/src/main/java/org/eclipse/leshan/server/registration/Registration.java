@@ -376,6 +376,9 @@ public class Registration implements Serializable {
      */
     public static Map<Integer, String> getSupportedObject(String rootPath, Link[] objectLinks) {
         Map<Integer, String> objects = new HashMap<>();
+        if (objectLinks == null) {
+            return objects;
+        }
         for (Link link : objectLinks) {
             if (link != null) {
                 Pattern p = Pattern.compile("^\\Q" + rootPath + "\\E(\\d+)(?:/\\d+)*$");
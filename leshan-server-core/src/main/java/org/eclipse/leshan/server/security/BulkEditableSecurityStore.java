@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+import java.util.Iterator;
+
+/**
+ * An {@link EditableSecurityStore} able to add a lot of {@link SecurityInfo} at once, e.g. to provision many devices.
+ *
+ * @since 2.0
+ */
+public interface BulkEditableSecurityStore extends EditableSecurityStore {
+
+    /**
+     * Registers security information for several client end-points at once.
+     * <p>
+     * This is equivalent to calling {@link #add(SecurityInfo)} for each info, but uniqueness is validated in one pass
+     * and infos are persisted by batch. A {@link SecurityStoreAdditionListener} is notified once (or once per batch)
+     * with all the added infos. Whether some infos are added when a {@link NonUniqueSecurityInfoException} is raised
+     * depends on the implementation.
+     * 
+     * @param infos the new security information
+     * @throws NonUniqueSecurityInfoException if some identifiers (PSK identity, RPK public key...) are not unique among
+     *         all end-points.
+     */
+    void addAll(Iterator<SecurityInfo> infos) throws NonUniqueSecurityInfoException;
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A {@link NegativeCachingSecurityStore} for {@link EditableSecurityStore}.
+ * <p>
+ * PSK identity of security info added through this store, or notified to a {@link SecurityStoreAdditionListener} by the
+ * wrapped store, are immediately removed from the cache.
+ *
+ * @since 2.0
+ */
+public class EditableNegativeCachingSecurityStore extends NegativeCachingSecurityStore
+        implements BulkEditableSecurityStore {
+
+    private final EditableSecurityStore store;
+    private volatile SecurityStoreListener listener;
+
+    public EditableNegativeCachingSecurityStore(EditableSecurityStore store) {
+        this(store, DEFAULT_TTL, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param store the wrapped store.
+     * @param ttl the time in milliseconds during which an unknown identity is not looked up again.
+     * @param maxSize the maximum number of unknown identities kept in cache.
+     */
+    public EditableNegativeCachingSecurityStore(EditableSecurityStore store, long ttl, int maxSize) {
+        super(store, ttl, maxSize);
+        this.store = store;
+        store.setListener(new SecurityStoreAdditionListener() {
+            @Override
+            public void securityInfoRemoved(boolean infosAreCompromised, SecurityInfo... infos) {
+                for (SecurityInfo info : infos) {
+                    invalidate(info.getIdentity());
+                }
+                SecurityStoreListener l = listener;
+                if (l != null) {
+                    l.securityInfoRemoved(infosAreCompromised, infos);
+                }
+            }
+
+            @Override
+            public void securityInfoAdded(SecurityInfo... infos) {
+                for (SecurityInfo info : infos) {
+                    invalidate(info.getIdentity());
+                }
+                SecurityStoreListener l = listener;
+                if (l instanceof SecurityStoreAdditionListener) {
+                    ((SecurityStoreAdditionListener) l).securityInfoAdded(infos);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Collection<SecurityInfo> getAll() {
+        return store.getAll();
+    }
+
+    @Override
+    public SecurityInfo add(SecurityInfo info) throws NonUniqueSecurityInfoException {
+        try {
+            return store.add(info);
+        } finally {
+            invalidate(info.getIdentity());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Infos are added one by one if the wrapped store is not a {@link BulkEditableSecurityStore}.
+     */
+    @Override
+    public void addAll(Iterator<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+        try {
+            if (store instanceof BulkEditableSecurityStore) {
+                ((BulkEditableSecurityStore) store).addAll(infos);
+            } else {
+                while (infos.hasNext()) {
+                    store.add(infos.next());
+                }
+            }
+        } finally {
+            // infos are not kept to avoid to hold a whole bulk import in memory
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public SecurityInfo remove(String endpoint, boolean infosAreCompromised) {
+        return store.remove(endpoint, infosAreCompromised);
+    }
+
+    @Override
+    public void setListener(SecurityStoreListener listener) {
+        this.listener = listener;
+    }
+}
@@ -15,41 +15,94 @@
  *******************************************************************************/
 package org.eclipse.leshan.server.security;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
+import org.eclipse.leshan.core.Destroyable;
 import org.eclipse.leshan.core.util.Validate;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * A {@link SecurityStore} which persists {@link SecurityInfo} in a file.
  * <p>
- * This implementation serializes the store content into a file to be able to re-load the {@link SecurityInfo} when the
- * server is restarted.
+ * Modifications are appended to a journal file ({@code <file>.journal}) which is periodically compacted into a
+ * snapshot ({@code <file>}), both using a compact binary format, to be able to re-load the {@link SecurityInfo} when
+ * the server is restarted. Files written by previous versions using java serialization are still loaded.
+ * <p>
+ * The journal is written asynchronously by a dedicated thread, so lookups never wait for disk access. Modifications
+ * done just before a crash could be lost, use {@link #destroy()} to write pending modifications before exiting.
  * </p>
  */
-public class FileSecurityStore extends InMemorySecurityStore {
-
-    private static final Logger LOG = LoggerFactory.getLogger(FileSecurityStore.class);
-
-    // the name of the file used to persist the store content
-    private final String filename;
+public class FileSecurityStore extends InMemorySecurityStore implements Destroyable {
 
     // default location for persistence
     private static final String DEFAULT_FILE = "data/security.data";
 
+    /**
+     * Default minimum number of modifications in the journal before compaction. Compaction also waits for the journal
+     * to be bigger than the store.
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10000;
+
+    private final SecurityInfoJournal journal;
+
     public FileSecurityStore() {
         this(DEFAULT_FILE);
     }
 
     public FileSecurityStore(String file) {
+        this(file, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param file the path of the snapshot file, journal is stored next to it.
+     * @param compactionThreshold minimum number of modifications in the journal before compacting it in a new
+     *        snapshot.
+     * @throws IllegalStateException if existing files can not be loaded.
+     * @since 2.0
+     */
+    public FileSecurityStore(String file, int compactionThreshold) {
         Validate.notEmpty(file);
-        filename = file;
+        Validate.isTrue(compactionThreshold >= 0, "compactionThreshold must not be negative");
+        journal = new SecurityInfoJournal(file, compactionThreshold, new SecurityInfoJournal.Store() {
+            @Override
+            public void put(SecurityInfo info) throws NonUniqueSecurityInfoException {
+                addToStore(info);
+            }
+
+            @Override
+            public void putAll(Collection<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+                addAllToStore(infos);
+            }
+
+            @Override
+            public void remove(String endpoint) {
+                removeFromStore(endpoint);
+            }
+
+            @Override
+            public int size() {
+                readLock.lock();
+                try {
+                    return securityByEp.size();
+                } finally {
+                    readLock.unlock();
+                }
+            }
+
+            @Override
+            public Collection<SecurityInfo> snapshot() {
+                // block modifications, so pending ones are all part of the snapshot
+                readLock.lock();
+                try {
+                    journal.discardPending();
+                    return new ArrayList<>(securityByEp.values());
+                } finally {
+                    readLock.unlock();
+                }
+            }
+        });
         loadFromFile();
     }
 
@@ -57,25 +110,57 @@ public class FileSecurityStore extends InMemorySecurityStore {
         return super.add(info);
     }
 
+    private void addAllToStore(Collection<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+        super.addAll(infos.iterator());
+    }
+
+    private SecurityInfo removeFromStore(String endpoint) {
+        return super.remove(endpoint, false);
+    }
+
     @Override
     public SecurityInfo add(SecurityInfo info) throws NonUniqueSecurityInfoException {
         writeLock.lock();
         try {
             SecurityInfo previous = addToStore(info);
-            saveToFile();
+            journal.appendPut(info);
             return previous;
         } finally {
             writeLock.unlock();
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * No info is added if a {@link NonUniqueSecurityInfoException} is raised. All infos are written to the journal in
+     * one record, so they are loaded at once too.
+     */
+    @Override
+    public void addAll(Iterator<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+        List<SecurityInfo> list = new ArrayList<>();
+        while (infos.hasNext()) {
+            list.add(infos.next());
+        }
+
+        writeLock.lock();
+        try {
+            addAllToStore(list);
+            if (!list.isEmpty()) {
+                journal.appendPutAll(list);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     @Override
     public SecurityInfo remove(String endpoint, boolean infosAreCompromised) {
         writeLock.lock();
         try {
             SecurityInfo info = super.remove(endpoint, infosAreCompromised);
             if (info != null) {
-                saveToFile();
+                journal.appendRemove(endpoint);
             }
             return info;
         } finally {
@@ -83,43 +168,27 @@ public class FileSecurityStore extends InMemorySecurityStore {
         }
     }
 
+    /**
+     * Load the snapshot and the journal, then start to write modifications in the journal.
+     *
+     * @throws IllegalStateException if existing files can not be loaded.
+     */
     protected void loadFromFile() {
-        File file = new File(filename);
-        if (!file.exists()) {
-            return;
-        }
-
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file));) {
-            SecurityInfo[] infos = (SecurityInfo[]) in.readObject();
-
-            if (infos != null) {
-                for (SecurityInfo info : infos) {
-                    addToStore(info);
-                }
-                if (infos.length > 0) {
-                    LOG.debug("{} security infos loaded", infos.length);
-                }
-            }
-        } catch (NonUniqueSecurityInfoException | IOException | ClassNotFoundException e) {
-            LOG.error("Could not load security infos from file", e);
-        }
+        journal.open();
     }
 
+    /**
+     * Request to write the whole store content in a new snapshot. This is done asynchronously.
+     */
     protected void saveToFile() {
-        try {
-            File file = new File(filename);
-            if (!file.exists()) {
-                File parent = file.getParentFile();
-                if (parent != null) {
-                    parent.mkdirs();
-                }
-                file.createNewFile();
-            }
-            try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filename));) {
-                out.writeObject(this.getAll().toArray(new SecurityInfo[0]));
-            }
-        } catch (IOException e) {
-            LOG.error("Could not save security infos to file", e);
-        }
+        journal.requestCompaction();
+    }
+
+    /**
+     * Write pending modifications and stop the journal writer thread.
+     */
+    @Override
+    public void destroy() {
+        journal.close();
     }
 }
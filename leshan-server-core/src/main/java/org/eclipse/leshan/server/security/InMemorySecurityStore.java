@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -27,7 +29,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 /**
  * A {@link SecurityStore} which store {@link SecurityInfo} in memory.
  */
-public class InMemorySecurityStore implements EditableSecurityStore {
+public class InMemorySecurityStore implements BulkEditableSecurityStore {
 
     // lock for the two maps
     protected final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
@@ -91,22 +93,90 @@ public class InMemorySecurityStore implements EditableSecurityStore {
                 if (infoByIdentity != null && !info.getEndpoint().equals(infoByIdentity.getEndpoint())) {
                     throw new NonUniqueSecurityInfoException("PSK Identity " + info.getIdentity() + " is already used");
                 }
+            }
+
+            SecurityInfo previous = put(info);
+            notifyAdded(info);
+            return previous;
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-                securityByIdentity.put(info.getIdentity(), info);
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uniqueness of all infos is validated before adding any of them, so no info is added if a
+     * {@link NonUniqueSecurityInfoException} is raised.
+     */
+    @Override
+    public void addAll(Iterator<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+        writeLock.lock();
+        try {
+            // last info wins when an endpoint is present several times
+            Map<String, SecurityInfo> byEndpoint = new LinkedHashMap<>();
+            while (infos.hasNext()) {
+                SecurityInfo info = infos.next();
+                byEndpoint.put(info.getEndpoint(), info);
             }
 
-            SecurityInfo previous = securityByEp.put(info.getEndpoint(), info);
-            String previousIdentity = previous == null ? null : previous.getIdentity();
-            if (previousIdentity != null && !previousIdentity.equals(identity)) {
-                securityByIdentity.remove(previousIdentity);
+            // validate identities uniqueness in one pass before any modification
+            Map<String, String> endpointByIdentity = new HashMap<>();
+            for (SecurityInfo info : byEndpoint.values()) {
+                String identity = info.getIdentity();
+                if (identity == null)
+                    continue;
+                String batchOwner = endpointByIdentity.put(identity, info.getEndpoint());
+                if (batchOwner != null) {
+                    throw new NonUniqueSecurityInfoException("PSK Identity " + identity + " is already used");
+                }
+                SecurityInfo owner = securityByIdentity.get(identity);
+                // identity of an endpoint which is also in the batch is released or detected as duplicate above
+                if (owner != null && !owner.getEndpoint().equals(info.getEndpoint())
+                        && !byEndpoint.containsKey(owner.getEndpoint())) {
+                    throw new NonUniqueSecurityInfoException("PSK Identity " + identity + " is already used");
+                }
             }
 
-            return previous;
+            for (SecurityInfo info : byEndpoint.values()) {
+                put(info);
+            }
+
+            if (!byEndpoint.isEmpty()) {
+                notifyAdded(byEndpoint.values().toArray(new SecurityInfo[byEndpoint.size()]));
+            }
         } finally {
             writeLock.unlock();
         }
     }
 
+    private void notifyAdded(SecurityInfo... infos) {
+        if (listener instanceof SecurityStoreAdditionListener) {
+            ((SecurityStoreAdditionListener) listener).securityInfoAdded(infos);
+        }
+    }
+
+    /**
+     * Add info to the maps, uniqueness must be validated before.
+     */
+    private SecurityInfo put(SecurityInfo info) {
+        String identity = info.getIdentity();
+        if (identity != null) {
+            securityByIdentity.put(identity, info);
+        }
+
+        SecurityInfo previous = securityByEp.put(info.getEndpoint(), info);
+        String previousIdentity = previous == null ? null : previous.getIdentity();
+        if (previousIdentity != null && !previousIdentity.equals(identity)) {
+            // only remove the index if it was not taken by another endpoint of a bulk addition
+            SecurityInfo infoByIdentity = securityByIdentity.get(previousIdentity);
+            if (infoByIdentity != null && infoByIdentity.getEndpoint().equals(info.getEndpoint())) {
+                securityByIdentity.remove(previousIdentity);
+            }
+        }
+        return previous;
+    }
+
     @Override
     public SecurityInfo remove(String endpoint, boolean infosAreCompromised) {
         writeLock.lock();
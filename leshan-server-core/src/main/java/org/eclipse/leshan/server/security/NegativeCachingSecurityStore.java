@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.Destroyable;
+import org.eclipse.leshan.core.Startable;
+import org.eclipse.leshan.core.Stoppable;
+import org.eclipse.leshan.core.util.Validate;
+
+/**
+ * A {@link SecurityStore} which remembers for a while the PSK identities unknown by another {@link SecurityStore}.
+ * <p>
+ * During reconnection storms or scans, a lot of handshakes use unknown PSK identities and each of them would reach the
+ * store. This store avoids to ask again the wrapped store for an unknown identity until the cached entry expires. The
+ * number of cached entries is bounded, least recently used entries are evicted first.
+ * <p>
+ * Lookups by endpoint are never cached: an unknown endpoint means that the device is allowed to connect without
+ * security, so a security info added for this endpoint must be taken into account immediately.
+ * <p>
+ * Security info added directly in the wrapped store are visible only once the entry expires. Use
+ * {@link EditableNegativeCachingSecurityStore} to wrap an {@link EditableSecurityStore}, so modifications done through
+ * it are visible immediately.
+ * <p>
+ * {@link Startable}, {@link Stoppable} and {@link Destroyable} calls are forwarded to the wrapped store.
+ *
+ * @since 2.0
+ */
+public class NegativeCachingSecurityStore implements SecurityStore, Startable, Stoppable, Destroyable {
+
+    /** Default time to live of an unknown identity in milliseconds. */
+    public static final long DEFAULT_TTL = 30000;
+    /** Default maximum number of unknown identities kept in cache. */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final SecurityStore store;
+    private final long ttlInNanos;
+
+    private final Map<String, Long> unknownIdentities;
+    // incremented on each invalidation, so a lookup started before is not cached
+    private long generation = 0;
+
+    public NegativeCachingSecurityStore(SecurityStore store) {
+        this(store, DEFAULT_TTL, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param store the wrapped store.
+     * @param ttl the time in milliseconds during which an unknown identity is not looked up again.
+     * @param maxSize the maximum number of unknown identities kept in cache.
+     */
+    public NegativeCachingSecurityStore(SecurityStore store, long ttl, final int maxSize) {
+        Validate.notNull(store);
+        Validate.isTrue(ttl > 0, "ttl must be positive");
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        this.store = store;
+        this.ttlInNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.unknownIdentities = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public SecurityInfo getByEndpoint(String endpoint) {
+        // not cached, a missing security info allows unsecured connections
+        return store.getByEndpoint(endpoint);
+    }
+
+    @Override
+    public SecurityInfo getByIdentity(String pskIdentity) {
+        long lookupGeneration;
+        synchronized (this) {
+            if (isCached(pskIdentity))
+                return null;
+            lookupGeneration = generation;
+        }
+
+        SecurityInfo info = store.getByIdentity(pskIdentity);
+        if (info == null) {
+            cache(pskIdentity, lookupGeneration);
+        }
+        return info;
+    }
+
+    private boolean isCached(String pskIdentity) {
+        Long expiration = unknownIdentities.get(pskIdentity);
+        if (expiration == null)
+            return false;
+        if (expiration - System.nanoTime() <= 0) {
+            unknownIdentities.remove(pskIdentity);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void cache(String pskIdentity, long lookupGeneration) {
+        // do not cache if security info was added during lookup
+        if (lookupGeneration == generation) {
+            unknownIdentities.put(pskIdentity, System.nanoTime() + ttlInNanos);
+        }
+    }
+
+    /**
+     * Forget that this PSK identity is unknown.
+     *
+     * @param pskIdentity the PSK identity, could be null
+     */
+    public synchronized void invalidate(String pskIdentity) {
+        generation++;
+        if (pskIdentity != null)
+            unknownIdentities.remove(pskIdentity);
+    }
+
+    /**
+     * Forget all unknown PSK identities.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        unknownIdentities.clear();
+    }
+
+    @Override
+    public void start() {
+        if (store instanceof Startable) {
+            ((Startable) store).start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (store instanceof Stoppable) {
+            ((Stoppable) store).stop();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (store instanceof Destroyable) {
+            ((Destroyable) store).destroy();
+        } else if (store instanceof Stoppable) {
+            ((Stoppable) store).stop();
+        }
+    }
+}
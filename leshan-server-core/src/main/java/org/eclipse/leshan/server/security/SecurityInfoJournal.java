@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.leshan.server.persistence.FileJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistence of {@link SecurityInfo} using a {@link FileJournal}, in a compact binary format.
+ * <p>
+ * A snapshot written with java serialization (format used before the journal) is loaded and replaced by a new one.
+ */
+class SecurityInfoJournal extends FileJournal<SecurityInfo> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SecurityInfoJournal.class);
+
+    /**
+     * Gives access to the store content.
+     */
+    interface Store {
+        /**
+         * Add a security info read from the files.
+         */
+        void put(SecurityInfo info) throws NonUniqueSecurityInfoException;
+
+        /**
+         * Add security infos written at once, which are valid together but maybe not one by one (e.g. a PSK identity
+         * moved from an endpoint to another).
+         */
+        void putAll(Collection<SecurityInfo> infos) throws NonUniqueSecurityInfoException;
+
+        /**
+         * Remove a security info read from the files.
+         */
+        void remove(String endpoint);
+
+        /**
+         * @return the current number of security info in the store.
+         */
+        int size();
+
+        /**
+         * @return a consistent copy of the store content. Implementation must call {@link #discardPending()} while
+         *         modifications are blocked.
+         */
+        Collection<SecurityInfo> snapshot();
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x4C534553; // LSES
+    private static final int JOURNAL_MAGIC = 0x4C534A4C; // LSJL
+    // first bytes of a java serialization stream (format used before the journal)
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte PUT_ALL = 3;
+
+    private static final byte PSK = 0;
+    private static final byte RPK = 1;
+    private static final byte X509 = 2;
+
+    private final Store store;
+
+    SecurityInfoJournal(String filename, int compactionThreshold, Store store) {
+        super(filename, SNAPSHOT_MAGIC, JOURNAL_MAGIC, compactionThreshold, "security infos");
+        this.store = store;
+    }
+
+    /**
+     * Append the addition of a security info, should be called while store modifications are blocked to keep the
+     * order of modifications.
+     */
+    void appendPut(SecurityInfo info) {
+        append(snapshotRecord(info));
+    }
+
+    /**
+     * Append the addition of several security infos in one record, so they are applied at once when the journal is
+     * loaded. Should be called while store modifications are blocked to keep the order of modifications.
+     */
+    void appendPutAll(Collection<SecurityInfo> infos) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * infos.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(PUT_ALL);
+            out.writeInt(infos.size());
+            for (SecurityInfo info : infos) {
+                writeSecurityInfo(out, info);
+            }
+        } catch (IOException e) {
+            // can not happen when writing in memory
+            throw new IllegalStateException(e);
+        }
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Append the removal of a security info, should be called while store modifications are blocked to keep the order
+     * of modifications.
+     */
+    void appendRemove(String endpoint) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(REMOVE);
+            out.writeUTF(endpoint);
+        } catch (IOException e) {
+            // can not happen when writing in memory
+            throw new IllegalStateException(e);
+        }
+        append(bytes.toByteArray());
+    }
+
+    @Override
+    protected byte[] snapshotRecord(SecurityInfo info) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(PUT);
+            writeSecurityInfo(out, info);
+        } catch (IOException e) {
+            // can not happen when writing in memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    protected int size() {
+        return store.size();
+    }
+
+    @Override
+    protected Collection<SecurityInfo> snapshot() {
+        return store.snapshot();
+    }
+
+    @Override
+    protected boolean readLegacySnapshot(DataInputStream in) throws IOException {
+        if (in.readUnsignedShort() != JAVA_SERIALIZATION_MAGIC) {
+            return false;
+        }
+        in.reset();
+        try (ObjectInputStream objectIn = new ObjectInputStream(in)) {
+            SecurityInfo[] infos = (SecurityInfo[]) objectIn.readObject();
+            if (infos != null) {
+                for (SecurityInfo info : infos) {
+                    store.put(info);
+                }
+                if (infos.length > 0) {
+                    LOG.debug("{} security infos loaded from java serialization file", infos.length);
+                }
+            }
+        } catch (ClassNotFoundException | NonUniqueSecurityInfoException e) {
+            throw new IOException("Invalid java serialization file", e);
+        }
+        return true;
+    }
+
+    @Override
+    protected void applyRecord(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        try {
+            switch (type) {
+            case PUT:
+                store.put(readSecurityInfo(in));
+                break;
+            case PUT_ALL:
+                int count = in.readInt();
+                if (count < 0 || count > record.length)
+                    throw new IOException("Invalid number of security infos " + count);
+                List<SecurityInfo> infos = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    infos.add(readSecurityInfo(in));
+                }
+                store.putAll(infos);
+                break;
+            case REMOVE:
+                store.remove(in.readUTF());
+                break;
+            default:
+                throw new IOException("Unknown record type " + type);
+            }
+        } catch (GeneralSecurityException | NonUniqueSecurityInfoException e) {
+            throw new IOException("Invalid security info", e);
+        }
+    }
+
+    // ************ Encoding ************ //
+
+    private static void writeSecurityInfo(DataOutputStream out, SecurityInfo info) throws IOException {
+        out.writeUTF(info.getEndpoint());
+        if (info.usePSK()) {
+            out.writeByte(PSK);
+            out.writeUTF(info.getIdentity());
+            writeBytes(out, info.getPreSharedKey());
+        } else if (info.useRPK()) {
+            out.writeByte(RPK);
+            out.writeUTF(info.getRawPublicKey().getAlgorithm());
+            writeBytes(out, info.getRawPublicKey().getEncoded());
+        } else {
+            out.writeByte(X509);
+        }
+    }
+
+    private static SecurityInfo readSecurityInfo(DataInputStream in) throws IOException, GeneralSecurityException {
+        String endpoint = in.readUTF();
+        byte mode = in.readByte();
+        switch (mode) {
+        case PSK:
+            String identity = in.readUTF();
+            return SecurityInfo.newPreSharedKeyInfo(endpoint, identity, readBytes(in));
+        case RPK:
+            String algorithm = in.readUTF();
+            PublicKey key = KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(readBytes(in)));
+            return SecurityInfo.newRawPublicKeyInfo(endpoint, key);
+        case X509:
+            return SecurityInfo.newX509CertInfo(endpoint);
+        default:
+            throw new IOException("Unknown security mode " + mode);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available())
+            throw new IOException("Invalid length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
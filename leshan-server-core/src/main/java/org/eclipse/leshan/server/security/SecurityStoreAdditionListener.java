@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+/**
+ * A {@link SecurityStoreListener} which is also notified when {@link SecurityInfo} are added.
+ *
+ * @since 2.0
+ */
+public interface SecurityStoreAdditionListener extends SecurityStoreListener {
+
+    /**
+     * Called when {@link SecurityInfo} are added or replaced. A bulk addition is notified in one call, or in one call
+     * per batch for stores which persist infos by batch.
+     * 
+     * @param infos Array of added {@link SecurityInfo}
+     */
+    void securityInfoAdded(SecurityInfo... infos);
+}
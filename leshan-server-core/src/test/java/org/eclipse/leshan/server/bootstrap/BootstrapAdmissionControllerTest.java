@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.bootstrap;
+
+import static org.junit.Assert.*;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.request.BootstrapRequest;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.server.bootstrap.BootstrapAdmissionController.Decision;
+import org.junit.Test;
+
+public class BootstrapAdmissionControllerTest {
+
+    private long now = 0;
+    private final List<String> started = new ArrayList<>();
+    private final List<String> expired = new ArrayList<>();
+    // tasks handed to the executor, run on demand
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+    };
+
+    @Test
+    public void sessions_are_rejected_over_rate() {
+        BootstrapAdmissionController controller = new Controller(100, 0, 2, 2, null);
+
+        // burst is accepted
+        assertEquals(Decision.ADMITTED, controller.admit(session("ep1")));
+        assertEquals(Decision.ADMITTED, controller.admit(session("ep2")));
+        assertEquals(Decision.REJECTED, controller.admit(session("ep3")));
+        assertTrue(controller.getRetryAfter() >= BootstrapAdmissionController.DEFAULT_MIN_RETRY_AFTER);
+
+        // then one session every 500ms
+        now += TimeUnit.MILLISECONDS.toNanos(499);
+        assertEquals(Decision.REJECTED, controller.admit(session("ep3")));
+        now += TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(Decision.ADMITTED, controller.admit(session("ep3")));
+
+        assertEquals(3, controller.getAdmittedSessions());
+        assertEquals(2, controller.getRejectedSessions());
+    }
+
+    @Test
+    public void queued_sessions_are_started_by_priority_when_active_ones_end() {
+        // endpoints starting by "vip" first
+        Comparator<BootstrapSession> priority = new Comparator<BootstrapSession>() {
+            @Override
+            public int compare(BootstrapSession s1, BootstrapSession s2) {
+                return Boolean.compare(!s1.getEndpoint().startsWith("vip"), !s2.getEndpoint().startsWith("vip"));
+            }
+        };
+        BootstrapAdmissionController controller = new Controller(1, 3, 100, 100, priority);
+        BootstrapSession active = session("ep1");
+        BootstrapSession queued = session("ep2");
+        BootstrapSession vip = session("vip");
+        BootstrapSession cancelled = session("vip2");
+
+        assertEquals(Decision.ADMITTED, admitAndStart(controller, active));
+        assertEquals(Decision.QUEUED, admitAndStart(controller, queued));
+        assertEquals(Decision.QUEUED, admitAndStart(controller, vip));
+        assertEquals(Decision.QUEUED, admitAndStart(controller, cancelled));
+        assertEquals(Decision.REJECTED, controller.admit(session("ep3")));
+        controller.release(cancelled);
+        assertEquals(2, controller.getQueuedSessions());
+
+        controller.release(active);
+        // next session is not started by the releasing thread
+        assertEquals("[ep1]", started.toString());
+        runTasks();
+        controller.release(vip);
+        runTasks();
+        // already released
+        controller.release(vip);
+        assertEquals(1, controller.getActiveSessions());
+        controller.release(queued);
+
+        assertEquals("[ep1, vip, ep2]", started.toString());
+        assertEquals(0, controller.getActiveSessions());
+        assertEquals(0, controller.getQueuedSessions());
+    }
+
+    @Test
+    public void sessions_queued_for_too_long_expire() {
+        BootstrapAdmissionController controller = new Controller(1, 2, 100, 100, null);
+        BootstrapSession active = session("ep1");
+        BootstrapSession stale = session("ep2");
+        BootstrapSession notStarted = session("ep3");
+        assertEquals(Decision.ADMITTED, admitAndStart(controller, active));
+        assertEquals(Decision.QUEUED, admitAndStart(controller, stale));
+        assertEquals(Decision.QUEUED, controller.admit(notStarted));
+
+        // queue is full, until queued sessions expire
+        assertEquals(Decision.REJECTED, controller.admit(session("ep4")));
+        now += TimeUnit.SECONDS.toNanos(BootstrapAdmissionController.DEFAULT_MAX_QUEUE_WAIT + 1);
+        BootstrapSession fresh = session("ep5");
+        assertEquals(Decision.QUEUED, admitAndStart(controller, fresh));
+        runTasks();
+        assertEquals("[ep2]", expired.toString());
+        // expiration is notified when session is started
+        start(controller, notStarted);
+        assertEquals("[ep2, ep3]", expired.toString());
+
+        controller.release(active);
+        runTasks();
+        assertEquals("[ep1, ep5]", started.toString());
+        assertEquals(2, controller.getExpiredSessions());
+    }
+
+    private Decision admitAndStart(BootstrapAdmissionController controller, BootstrapSession session) {
+        Decision decision = controller.admit(session);
+        start(controller, session);
+        return decision;
+    }
+
+    private void start(BootstrapAdmissionController controller, final BootstrapSession session) {
+        controller.start(session, new Runnable() {
+            @Override
+            public void run() {
+                started.add(session.getEndpoint());
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                expired.add(session.getEndpoint());
+            }
+        });
+    }
+
+    private void runTasks() {
+        List<Runnable> toRun = new ArrayList<>(tasks);
+        tasks.clear();
+        for (Runnable task : toRun) {
+            task.run();
+        }
+    }
+
+    private static BootstrapSession session(String endpoint) {
+        return new DefaultBootstrapSession(new BootstrapRequest(endpoint),
+                Identity.unsecure(new InetSocketAddress(4242)), true);
+    }
+
+    private class Controller extends BootstrapAdmissionController {
+        public Controller(int maxActiveSessions, int maxQueuedSessions, double sessionsPerSecond, int burst,
+                Comparator<BootstrapSession> priority) {
+            super(maxActiveSessions, maxQueuedSessions, sessionsPerSecond, burst, priority, DEFAULT_MIN_RETRY_AFTER,
+                    DEFAULT_MAX_QUEUE_WAIT, executor);
+        }
+
+        @Override
+        protected long nanoTime() {
+            return now;
+        }
+    }
+}
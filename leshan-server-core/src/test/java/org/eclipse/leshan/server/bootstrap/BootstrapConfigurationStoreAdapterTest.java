@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.bootstrap;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+import java.net.InetSocketAddress;
+
+import org.eclipse.leshan.core.request.BootstrapRequest;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ServerConfig;
+import org.junit.Test;
+
+@SuppressWarnings("deprecation")
+public class BootstrapConfigurationStoreAdapterTest {
+
+    private final Identity identity = Identity.unsecure(new InetSocketAddress(4242));
+    private final EditableBootstrapConfigStore store = new InMemoryBootstrapConfigStore() {
+        @Override
+        protected void checkConfig(String endpoint, BootstrapConfig config) {
+            // configs of this test are incomplete
+        }
+    };
+
+    @Test
+    public void requests_are_reused_for_same_config_and_content_format() throws InvalidConfigurationException {
+        store.add("endpoint", config(123));
+        BootstrapConfigurationStoreAdapter adapter = new BootstrapConfigurationStoreAdapter(store);
+
+        BootstrapConfiguration tlv = adapter.get("endpoint", identity, session(ContentFormat.TLV));
+        BootstrapConfiguration senml = adapter.get("endpoint", identity, session(ContentFormat.SENML_JSON));
+
+        assertEquals(2, tlv.getRequests().size());
+        assertSame(tlv, adapter.get("endpoint", identity, session(ContentFormat.TLV)));
+        assertSame(senml, adapter.get("endpoint", identity, session(ContentFormat.SENML_JSON)));
+        assertNotSame(tlv, senml);
+    }
+
+    @Test
+    public void requests_are_computed_again_when_config_is_replaced_or_removed() throws InvalidConfigurationException {
+        store.add("endpoint", config(123));
+        BootstrapConfigurationStoreAdapter adapter = new BootstrapConfigurationStoreAdapter(store);
+        BootstrapConfiguration previous = adapter.get("endpoint", identity, session(ContentFormat.TLV));
+
+        store.add("endpoint", config(456));
+        BootstrapConfiguration replaced = adapter.get("endpoint", identity, session(ContentFormat.TLV));
+        assertNotSame(previous, replaced);
+        assertNotEquals(previous.getRequests().toString(), replaced.getRequests().toString());
+
+        store.remove("endpoint");
+        assertNull(adapter.get("endpoint", identity, session(ContentFormat.TLV)));
+    }
+
+    @Test
+    public void removed_config_is_not_kept_by_adapter() throws Exception {
+        BootstrapConfig config = config(123);
+        WeakReference<BootstrapConfig> reference = new WeakReference<>(config);
+        store.add("endpoint", config);
+        BootstrapConfigurationStoreAdapter adapter = new BootstrapConfigurationStoreAdapter(store);
+        adapter.get("endpoint", identity, session(ContentFormat.TLV));
+
+        store.remove("endpoint");
+        config = null;
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    @Test
+    public void requests_are_not_kept_over_max_size() throws InvalidConfigurationException {
+        store.add("endpoint1", config(123));
+        store.add("endpoint2", config(123));
+        BootstrapConfigurationStoreAdapter adapter = new BootstrapConfigurationStoreAdapter(store, 1);
+        adapter.get("endpoint1", identity, session(ContentFormat.TLV));
+
+        BootstrapConfiguration configuration = adapter.get("endpoint2", identity, session(ContentFormat.TLV));
+
+        assertEquals(2, configuration.getRequests().size());
+        assertNotSame(configuration, adapter.get("endpoint2", identity, session(ContentFormat.TLV)));
+    }
+
+    private BootstrapSession session(ContentFormat contentFormat) {
+        return new DefaultBootstrapSession(new BootstrapRequest("endpoint"), identity, true, contentFormat);
+    }
+
+    private static BootstrapConfig config(int shortId) {
+        BootstrapConfig config = new BootstrapConfig();
+        config.toDelete.add("/1");
+        ServerConfig server = new ServerConfig();
+        server.shortId = shortId;
+        config.servers.put(0, server);
+        return config;
+    }
+}
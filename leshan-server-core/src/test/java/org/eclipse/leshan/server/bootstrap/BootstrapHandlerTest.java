@@ -22,13 +22,18 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.eclipse.leshan.core.ResponseCode;
+import org.eclipse.leshan.core.node.LwM2mObjectInstance;
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.node.LwM2mSingleResource;
 import org.eclipse.leshan.core.request.BootstrapDeleteRequest;
 import org.eclipse.leshan.core.request.BootstrapDownlinkRequest;
 import org.eclipse.leshan.core.request.BootstrapFinishRequest;
 import org.eclipse.leshan.core.request.BootstrapRequest;
 import org.eclipse.leshan.core.request.BootstrapWriteRequest;
+import org.eclipse.leshan.core.request.ContentFormat;
 import org.eclipse.leshan.core.request.DownlinkRequest;
 import org.eclipse.leshan.core.request.Identity;
 import org.eclipse.leshan.core.request.exception.RequestCanceledException;
@@ -143,6 +148,270 @@ public class BootstrapHandlerTest {
         assertTrue(bsSessionManager.failedWasCalled(firstSession, BootstrapFailureCause.CANCELLED));
     }
 
+    @Test
+    public void bootstrap_queued_then_rejected_when_overloaded() throws InvalidConfigurationException {
+        // prepare a bootstrap handler which accepts only 1 active and 1 queued session
+        // and a sender which never get response.
+        MockBootstrapSessionManager bsSessionManager = new MockBootstrapSessionManager(true);
+        MockRequestSender requestSender = new MockRequestSender(Mode.NO_RESPONSE);
+        EditableBootstrapConfigurationStore bsStore = new InMemoryBootstrapConfigurationStore();
+        bsStore.add("endpoint1", new BootstrapConfiguration());
+        bsStore.add("endpoint2", new BootstrapConfiguration());
+        bsStore.add("endpoint3", new BootstrapConfiguration());
+        // queued sessions are started synchronously to be able to test
+        BootstrapAdmissionController admissionController = new BootstrapAdmissionController(1, 1, 1000, 10, null,
+                BootstrapAdmissionController.DEFAULT_MIN_RETRY_AFTER,
+                BootstrapAdmissionController.DEFAULT_MAX_QUEUE_WAIT, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+        BootstrapHandler bsHandler = new DefaultBootstrapHandler(bsStore, requestSender, bsSessionManager,
+                DefaultBootstrapHandler.DEFAULT_TIMEOUT, admissionController);
+
+        // First bootstrap : which will not end (because of sender)
+        bsHandler.bootstrap(Identity.psk(new InetSocketAddress(4242), "pskdentity"), new BootstrapRequest("endpoint1"))
+                .sent();
+        BootstrapSession firstSession = bsSessionManager.lastSession;
+
+        // Second bootstrap : accepted but queued
+        requestSender.setMode(Mode.ALWAYS_SUCCESS);
+        SendableResponse<BootstrapResponse> second_response = bsHandler
+                .bootstrap(Identity.psk(new InetSocketAddress(4243), "pskdentity"), new BootstrapRequest("endpoint2"));
+        second_response.sent();
+        BootstrapSession secondSession = bsSessionManager.lastSession;
+        assertTrue(second_response.getResponse().isSuccess());
+        assertFalse(bsSessionManager.endWasCalled());
+        assertEquals(1, admissionController.getActiveSessions());
+        assertEquals(1, admissionController.getQueuedSessions());
+
+        // Third bootstrap : rejected with a retry hint
+        BootstrapResponse third_response = bsHandler
+                .bootstrap(Identity.psk(new InetSocketAddress(4244), "pskdentity"), new BootstrapRequest("endpoint3"))
+                .getResponse();
+        assertEquals(ResponseCode.SERVICE_UNAVAILABLE, third_response.getCode());
+        assertTrue(third_response.getRetryAfter() >= BootstrapAdmissionController.DEFAULT_MIN_RETRY_AFTER);
+        assertTrue(bsSessionManager.failedWasCalled(bsSessionManager.lastSession, BootstrapFailureCause.OVERLOADED));
+        assertEquals(1, admissionController.getRejectedSessions());
+
+        // When first session ends, queued one is started
+        requestSender.cancelOngoingRequests(firstSession);
+        assertTrue(bsSessionManager.failedWasCalled(firstSession, BootstrapFailureCause.FINISH_FAILED));
+        assertTrue(bsSessionManager.endWasCalled(secondSession));
+        assertEquals(0, admissionController.getActiveSessions());
+        assertEquals(0, admissionController.getQueuedSessions());
+    }
+
+    @Test
+    public void pipelined_bootstrap_sends_writes_concurrently() throws InvalidConfigurationException {
+        // prepare a bootstrap handler which sends up to 2 writes at the same time
+        // and a sender which responds only on demand.
+        MockBootstrapSessionManager bsSessionManager = new MockBootstrapSessionManager(true);
+        PendingRequestSender requestSender = new PendingRequestSender();
+        EditableBootstrapConfigurationStore bsStore = new InMemoryBootstrapConfigurationStore();
+        bsStore.add("endpoint", new BootstrapConfiguration(new BootstrapDeleteRequest("/"), write(0), write(1),
+                write(2)));
+        BootstrapHandler bsHandler = new DefaultBootstrapHandler(bsStore, requestSender, bsSessionManager,
+                DefaultBootstrapHandler.DEFAULT_TIMEOUT, null, 2);
+
+        bsHandler.bootstrap(Identity.psk(new InetSocketAddress(4242), "pskdentity"), new BootstrapRequest("endpoint"))
+                .sent();
+
+        // delete is sent alone
+        assertEquals(1, requestSender.pending.size());
+        requestSender.respondSuccess(0);
+        // then writes, 2 by 2
+        assertEquals(2, requestSender.pending.size());
+        requestSender.respondSuccess(1);
+        assertEquals(2, requestSender.pending.size());
+        requestSender.respondSuccess(0);
+        requestSender.respondSuccess(0);
+        // then finish
+        assertEquals(1, requestSender.pending.size());
+        assertTrue(requestSender.pending.get(0).request instanceof BootstrapFinishRequest);
+        requestSender.respondSuccess(0);
+
+        assertTrue(bsSessionManager.endWasCalled());
+        assertFalse(bsSessionManager.failedWasCalled());
+    }
+
+    @Test
+    public void pipelined_bootstrap_stops_on_failure() throws InvalidConfigurationException {
+        // prepare a bootstrap handler which sends up to 2 writes at the same time
+        // and a sender which responds only on demand.
+        MockBootstrapSessionManager bsSessionManager = new MockBootstrapSessionManager(true);
+        PendingRequestSender requestSender = new PendingRequestSender();
+        EditableBootstrapConfigurationStore bsStore = new InMemoryBootstrapConfigurationStore();
+        bsStore.add("endpoint", new BootstrapConfiguration(write(0), write(1), write(2)));
+        BootstrapHandler bsHandler = new DefaultBootstrapHandler(bsStore, requestSender, bsSessionManager,
+                DefaultBootstrapHandler.DEFAULT_TIMEOUT, null, 2);
+
+        bsHandler.bootstrap(Identity.psk(new InetSocketAddress(4242), "pskdentity"), new BootstrapRequest("endpoint"))
+                .sent();
+        assertEquals(2, requestSender.pending.size());
+
+        // first write failure stops the session and cancels the second one
+        requestSender.pending.remove(0).errorCallback.onError(new RuntimeException("failure"));
+        assertTrue(bsSessionManager.failedWasCalled(bsSessionManager.lastSession,
+                BootstrapFailureCause.REQUEST_FAILED));
+        assertTrue(requestSender.pending.isEmpty());
+        assertEquals(2, requestSender.sentCount);
+        // cancelled request is not reported as a failure
+        assertEquals(1, bsSessionManager.requestFailures);
+    }
+
+    @Test
+    public void pipelined_bootstrap_cancelled_while_sending_is_stopped_once() throws InvalidConfigurationException {
+        // prepare a bootstrap handler which sends up to 3 writes at the same time
+        // and a sender which cancels the session once the first write is sent.
+        MockBootstrapSessionManager bsSessionManager = new MockBootstrapSessionManager(true);
+        PendingRequestSender requestSender = new PendingRequestSender();
+        requestSender.cancelSessionAfter = 1;
+        EditableBootstrapConfigurationStore bsStore = new InMemoryBootstrapConfigurationStore();
+        bsStore.add("endpoint", new BootstrapConfiguration(write(0), write(1), write(2)));
+        BootstrapHandler bsHandler = new DefaultBootstrapHandler(bsStore, requestSender, bsSessionManager,
+                DefaultBootstrapHandler.DEFAULT_TIMEOUT, null, 3);
+
+        bsHandler.bootstrap(Identity.psk(new InetSocketAddress(4242), "pskdentity"), new BootstrapRequest("endpoint"))
+                .sent();
+
+        // following writes are not sent and the write already sent is cancelled
+        assertEquals(1, requestSender.sentCount);
+        assertTrue(requestSender.pending.isEmpty());
+        assertTrue(bsSessionManager.failedWasCalled(bsSessionManager.lastSession, BootstrapFailureCause.CANCELLED));
+        assertEquals(1, bsSessionManager.failures);
+        assertEquals(0, bsSessionManager.requestFailures);
+    }
+
+    @Test
+    public void pipelined_bootstrap_stops_once_on_unexpected_error() throws InvalidConfigurationException {
+        // prepare a bootstrap handler which sends up to 2 writes at the same time
+        // and a session manager which fails on response.
+        MockBootstrapSessionManager bsSessionManager = new MockBootstrapSessionManager(true) {
+            @Override
+            public void onResponseSuccess(BootstrapSession bsSession,
+                    BootstrapDownlinkRequest<? extends LwM2mResponse> request) {
+                throw new IllegalStateException("unexpected");
+            }
+        };
+        PendingRequestSender requestSender = new PendingRequestSender();
+        EditableBootstrapConfigurationStore bsStore = new InMemoryBootstrapConfigurationStore();
+        bsStore.add("endpoint", new BootstrapConfiguration(write(0), write(1)));
+        BootstrapHandler bsHandler = new DefaultBootstrapHandler(bsStore, requestSender, bsSessionManager,
+                DefaultBootstrapHandler.DEFAULT_TIMEOUT, null, 2);
+
+        bsHandler.bootstrap(Identity.psk(new InetSocketAddress(4242), "pskdentity"), new BootstrapRequest("endpoint"))
+                .sent();
+        assertEquals(2, requestSender.pending.size());
+
+        // error stops the session and cancels the other write
+        requestSender.respondSuccess(0);
+        assertTrue(bsSessionManager.failedWasCalled(bsSessionManager.lastSession,
+                BootstrapFailureCause.INTERNAL_SERVER_ERROR));
+        assertTrue(requestSender.pending.isEmpty());
+        assertEquals(1, bsSessionManager.failures);
+    }
+
+    @Test
+    public void pipelined_bootstrap_waits_for_overlapping_writes() throws InvalidConfigurationException {
+        // prepare a bootstrap handler which sends up to 3 writes at the same time
+        // and a sender which responds only on demand.
+        MockBootstrapSessionManager bsSessionManager = new MockBootstrapSessionManager(true);
+        PendingRequestSender requestSender = new PendingRequestSender();
+        EditableBootstrapConfigurationStore bsStore = new InMemoryBootstrapConfigurationStore();
+        BootstrapWriteRequest resourceWrite = new BootstrapWriteRequest(new LwM2mPath(1, 0, 0),
+                LwM2mSingleResource.newIntegerResource(0, 42), ContentFormat.TLV);
+        bsStore.add("endpoint", new BootstrapConfiguration(write(0), write(1), resourceWrite, write(2)));
+        BootstrapHandler bsHandler = new DefaultBootstrapHandler(bsStore, requestSender, bsSessionManager,
+                DefaultBootstrapHandler.DEFAULT_TIMEOUT, null, 3);
+
+        bsHandler.bootstrap(Identity.psk(new InetSocketAddress(4242), "pskdentity"), new BootstrapRequest("endpoint"))
+                .sent();
+
+        // write to /1/0/0 waits for write to /1/0, following ones keep their order
+        assertEquals(2, requestSender.pending.size());
+        requestSender.respondSuccess(1);
+        assertEquals(1, requestSender.pending.size());
+        requestSender.respondSuccess(0);
+        assertEquals(2, requestSender.pending.size());
+        assertEquals(resourceWrite, requestSender.pending.get(0).request);
+        requestSender.respondSuccess(0);
+        requestSender.respondSuccess(0);
+        // then finish
+        assertEquals(1, requestSender.pending.size());
+        assertTrue(requestSender.pending.get(0).request instanceof BootstrapFinishRequest);
+        requestSender.respondSuccess(0);
+
+        assertTrue(bsSessionManager.endWasCalled());
+        assertFalse(bsSessionManager.failedWasCalled());
+    }
+
+    private static BootstrapWriteRequest write(int instanceId) {
+        return new BootstrapWriteRequest(new LwM2mPath(1, instanceId),
+                new LwM2mObjectInstance(instanceId, LwM2mSingleResource.newIntegerResource(0, instanceId)),
+                ContentFormat.TLV);
+    }
+
+    static class PendingRequestSender implements LwM2mBootstrapRequestSender {
+
+        static class PendingRequest {
+            DownlinkRequest<?> request;
+            ResponseCallback<?> responseCallback;
+            ErrorCallback errorCallback;
+        }
+
+        private final List<PendingRequest> pending = new ArrayList<>();
+        private int sentCount = 0;
+        // number of requests sent before cancelling the session, if positive
+        private int cancelSessionAfter = 0;
+
+        @Override
+        public <T extends LwM2mResponse> T send(BootstrapSession session, DownlinkRequest<T> request, long timeout)
+                throws InterruptedException {
+            // Not Implemented
+            return null;
+        }
+
+        @Override
+        public <T extends LwM2mResponse> void send(BootstrapSession session, DownlinkRequest<T> request, long timeout,
+                ResponseCallback<T> responseCallback, ErrorCallback errorCallback) {
+            PendingRequest pendingRequest = new PendingRequest();
+            pendingRequest.request = request;
+            pendingRequest.responseCallback = responseCallback;
+            pendingRequest.errorCallback = errorCallback;
+            pending.add(pendingRequest);
+            sentCount++;
+            if (sentCount == cancelSessionAfter) {
+                session.cancel();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public void respondSuccess(int index) {
+            PendingRequest pendingRequest = pending.remove(index);
+            if (pendingRequest.request instanceof BootstrapDeleteRequest) {
+                ((ResponseCallback<BootstrapDeleteResponse>) pendingRequest.responseCallback)
+                        .onResponse(BootstrapDeleteResponse.success());
+            } else if (pendingRequest.request instanceof BootstrapWriteRequest) {
+                ((ResponseCallback<BootstrapWriteResponse>) pendingRequest.responseCallback)
+                        .onResponse(BootstrapWriteResponse.success());
+            } else if (pendingRequest.request instanceof BootstrapFinishRequest) {
+                ((ResponseCallback<BootstrapFinishResponse>) pendingRequest.responseCallback)
+                        .onResponse(BootstrapFinishResponse.success());
+            }
+        }
+
+        @Override
+        public void cancelOngoingRequests(BootstrapSession destination) {
+            List<PendingRequest> cancelled = new ArrayList<>(pending);
+            pending.clear();
+            for (PendingRequest pendingRequest : cancelled) {
+                pendingRequest.errorCallback.onError(new RequestCanceledException("cancelled"));
+            }
+        }
+    }
+
     static class MockRequestSender implements LwM2mBootstrapRequestSender {
 
         public enum Mode {
@@ -218,6 +487,8 @@ public class BootstrapHandlerTest {
         private BootstrapFailureCause lastFailureCause;
         private List<BootstrapSession> endedSession = new ArrayList<BootstrapSession>();
         private Map<BootstrapSession, BootstrapFailureCause> failureCauses = new HashMap<>();
+        private int requestFailures = 0;
+        private int failures = 0;
 
         public MockBootstrapSessionManager(boolean authorized) {
             this.authorized = authorized;
@@ -254,6 +525,7 @@ public class BootstrapHandlerTest {
         public void failed(BootstrapSession bsSession, BootstrapFailureCause cause) {
             lastFailureCause = cause;
             failureCauses.put(bsSession, cause);
+            failures++;
         }
 
         @Override
@@ -274,6 +546,7 @@ public class BootstrapHandlerTest {
         @Override
         public BootstrapPolicy onRequestFailure(BootstrapSession bsSession,
                 BootstrapDownlinkRequest<? extends LwM2mResponse> request, Throwable cause) {
+            requestFailures++;
             return BootstrapPolicy.STOP;
         }
 
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.bootstrap;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.leshan.core.CertificateUsage;
+import org.eclipse.leshan.core.SecurityMode;
+import org.eclipse.leshan.core.request.BindingMode;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ACLConfig;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ServerConfig;
+import org.eclipse.leshan.server.bootstrap.BootstrapConfig.ServerSecurity;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SuppressWarnings("deprecation")
+public class FileBootstrapConfigStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String filename;
+
+    @Before
+    public void setUp() {
+        filename = new File(folder.getRoot(), "bootstrap.data").getPath();
+    }
+
+    @Test
+    public void configs_are_reloaded() throws Exception {
+        BootstrapConfig config = config("identity1");
+        FileBootstrapConfigStore store = new FileBootstrapConfigStore(filename);
+        store.add("ep1", config);
+        store.add("ep2", config("identity2"));
+        store.add("removed", config("identity3"));
+        store.remove("removed");
+        store.destroy();
+
+        FileBootstrapConfigStore reloaded = new FileBootstrapConfigStore(filename);
+        assertEquals(2, reloaded.getAll().size());
+        assertEquals(requests(config), requests(reloaded.get("ep1", null, null)));
+        assertEquals("ep2", reloaded.getEndpointByPskIdentity("identity2"));
+        assertNull(reloaded.get("removed", null, null));
+        assertNull(reloaded.getEndpointByPskIdentity("identity3"));
+        reloaded.destroy();
+    }
+
+    @Test
+    public void configs_are_reloaded_after_compactions() throws Exception {
+        FileBootstrapConfigStore store = new FileBootstrapConfigStore(filename, 0);
+        for (int i = 0; i < 100; i++) {
+            store.add("ep" + i % 10, config("identity" + i));
+        }
+        store.remove("ep0");
+        store.destroy();
+
+        FileBootstrapConfigStore reloaded = new FileBootstrapConfigStore(filename, 0);
+        assertEquals(9, reloaded.getAll().size());
+        assertEquals("ep9", reloaded.getEndpointByPskIdentity("identity99"));
+        assertNull(reloaded.getEndpointByPskIdentity("identity9"));
+        reloaded.destroy();
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void psk_identity_is_used_by_only_one_endpoint() throws Exception {
+        FileBootstrapConfigStore store = new FileBootstrapConfigStore(filename);
+        try {
+            store.add("ep1", config("identity"));
+            // same endpoint can reuse it
+            store.add("ep1", config("identity"));
+            store.add("ep2", config("identity"));
+        } finally {
+            store.destroy();
+        }
+    }
+
+    @Test
+    public void all_configs_are_replaced() throws Exception {
+        FileBootstrapConfigStore store = new FileBootstrapConfigStore(filename);
+        store.add("ep1", config("identity1"));
+        Map<String, BootstrapConfig> configs = new HashMap<>();
+        configs.put("ep2", config("identity2"));
+        configs.put("ep3", config("identity3"));
+
+        store.replaceAll(configs);
+        store.addAll(Collections.singletonMap("ep4", config("identity4")));
+
+        assertNull(store.get("ep1", null, null));
+        assertNull(store.getEndpointByPskIdentity("identity1"));
+        assertEquals(3, store.getAll().size());
+        store.destroy();
+
+        FileBootstrapConfigStore reloaded = new FileBootstrapConfigStore(filename);
+        assertEquals(store.getAll().keySet(), reloaded.getAll().keySet());
+        assertEquals("ep4", reloaded.getEndpointByPskIdentity("identity4"));
+        reloaded.destroy();
+    }
+
+    @Test
+    public void truncated_batch_is_not_partially_reloaded() throws Exception {
+        FileBootstrapConfigStore store = new FileBootstrapConfigStore(filename);
+        store.add("ep1", config("identity1"));
+        Map<String, BootstrapConfig> configs = new HashMap<>();
+        configs.put("ep2", config("identity2"));
+        configs.put("ep3", config("identity3"));
+        store.addAll(configs);
+        store.destroy();
+
+        // simulate a crash while writing the batch
+        try (RandomAccessFile journal = new RandomAccessFile(filename + ".journal", "rw")) {
+            journal.setLength(journal.length() - 3);
+        }
+
+        FileBootstrapConfigStore reloaded = new FileBootstrapConfigStore(filename);
+        assertEquals(Collections.singleton("ep1"), reloaded.getAll().keySet());
+        reloaded.destroy();
+    }
+
+    @Test
+    public void unreadable_file_is_not_overwritten() throws Exception {
+        byte[] content = new byte[] { 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08 };
+        Files.write(Paths.get(filename), content);
+
+        try {
+            new FileBootstrapConfigStore(filename, 0);
+            fail("store must not be created from an unreadable file");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(filename)));
+    }
+
+    private static String requests(BootstrapConfig config) {
+        return BootstrapUtil.toRequests(config, ContentFormat.TLV).toString();
+    }
+
+    private static BootstrapConfig config(String identity) {
+        BootstrapConfig config = new BootstrapConfig();
+        config.toDelete.add("/0");
+        config.toDelete.add("/1");
+
+        ServerSecurity bsSecurity = new ServerSecurity();
+        bsSecurity.uri = "coaps://localhost:5784";
+        bsSecurity.bootstrapServer = true;
+        bsSecurity.securityMode = SecurityMode.PSK;
+        bsSecurity.publicKeyOrId = identity.getBytes(StandardCharsets.UTF_8);
+        bsSecurity.secretKey = new byte[] { 0x01, 0x02 };
+        config.security.put(0, bsSecurity);
+
+        ServerSecurity dmSecurity = new ServerSecurity();
+        dmSecurity.uri = "coap://localhost:5683";
+        dmSecurity.securityMode = SecurityMode.NO_SEC;
+        dmSecurity.serverId = 123;
+        dmSecurity.certificateUsage = CertificateUsage.DOMAIN_ISSUER_CERTIFICATE;
+        config.security.put(1, dmSecurity);
+
+        ServerConfig server = new ServerConfig();
+        server.shortId = 123;
+        server.defaultMaxPeriod = 600;
+        server.binding = EnumSet.of(BindingMode.U, BindingMode.Q);
+        config.servers.put(0, server);
+
+        ACLConfig acl = new ACLConfig();
+        acl.objectId = 3;
+        acl.objectInstanceId = 0;
+        acl.acls = Collections.singletonMap(123, 15l);
+        acl.AccessControlOwner = 123;
+        config.acls.put(0, acl);
+        return config;
+    }
+}
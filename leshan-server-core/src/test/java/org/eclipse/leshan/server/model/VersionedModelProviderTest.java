@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import org.eclipse.leshan.core.Link;
+import org.eclipse.leshan.core.model.LazyLwM2mModelRepository;
+import org.eclipse.leshan.core.model.LwM2mModel;
+import org.eclipse.leshan.core.model.LwM2mModelRepository;
+import org.eclipse.leshan.core.model.ObjectModel;
+import org.eclipse.leshan.core.model.ResourceModel;
+import org.eclipse.leshan.core.model.ResourceModel.Operations;
+import org.eclipse.leshan.core.model.ResourceModel.Type;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.server.registration.Registration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VersionedModelProviderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectModel device10 = objectModel(3, "1.0", 0, 1);
+    private final ObjectModel device11 = objectModel(3, "1.1", 0, 1, 5700);
+    private final ObjectModel server = objectModel(1, "1.0", 0);
+
+    private final LwM2mModelRepository repository = new LwM2mModelRepository(device10, device11, server);
+
+    @Test
+    public void repository_returns_model_of_requested_version() {
+        assertSame(device10, repository.getObjectModel(3, "1.0"));
+        assertSame(device11, repository.getObjectModel(Integer.valueOf(3), "1.1"));
+        assertNull(repository.getObjectModel(3, "2.0"));
+        assertNull(repository.getObjectModel(4, "1.0"));
+        assertSame(device11.resources.get(5700), repository.getResourceModel(3, "1.1", 5700));
+        assertNull(repository.getResourceModel(3, "1.0", 5700));
+    }
+
+    @Test
+    public void model_uses_versions_supported_by_registration() {
+        VersionedModelProvider provider = new VersionedModelProvider(repository);
+
+        LwM2mModel model = provider.getObjectModel(registration("</1/0>,</3>;ver=1.1,</3/0>"));
+
+        assertSame(device11, model.getObjectModel(3));
+        assertSame(server, model.getObjectModel(1));
+        assertNull(model.getObjectModel(2));
+        assertSame(device11.resources.get(5700), model.getResourceModel(3, 5700));
+        assertNull(model.getResourceModel(3, 2));
+        assertNull(model.getResourceModel(4, 0));
+        assertEquals(2, model.getObjectModels().size());
+    }
+
+    @Test
+    public void model_ignores_unknown_version() {
+        VersionedModelProvider provider = new VersionedModelProvider(repository);
+
+        LwM2mModel model = provider.getObjectModel(registration("</1/0>,</3>;ver=2.0,</3/0>"));
+
+        assertNull(model.getObjectModel(3));
+        assertNull(model.getResourceModel(3, 0));
+        assertEquals(1, model.getObjectModels().size());
+    }
+
+    @Test
+    public void model_is_shared_by_registrations_supporting_same_objects() {
+        VersionedModelProvider provider = new VersionedModelProvider(repository);
+
+        LwM2mModel model = provider.getObjectModel(registration("</1/0>,</3/0>"));
+
+        assertSame(model, provider.getObjectModel(registration("</3/0>,</1/0>")));
+        assertNotSame(model, provider.getObjectModel(registration("</1/0>,</3>;ver=1.1,</3/0>")));
+    }
+
+    @Test
+    public void least_recently_used_model_is_evicted_over_max_size() {
+        VersionedModelProvider provider = new VersionedModelProvider(repository, 2);
+        LwM2mModel serverModel = provider.getObjectModel(registration("</1/0>"));
+        LwM2mModel deviceModel = provider.getObjectModel(registration("</3/0>"));
+        assertSame(serverModel, provider.getObjectModel(registration("</1/0>")));
+
+        provider.getObjectModel(registration("</3>;ver=1.1,</3/0>"));
+
+        assertSame(serverModel, provider.getObjectModel(registration("</1/0>")));
+        LwM2mModel model = provider.getObjectModel(registration("</3/0>"));
+        assertNotSame(deviceModel, model);
+        assertSame(device10, model.getObjectModel(3));
+    }
+
+    @Test
+    public void model_uses_definitions_of_repository_subclass() {
+        // a repository providing its own definitions, as done by lazy repositories
+        LwM2mModelRepository subclassRepository = new LwM2mModelRepository() {
+            @Override
+            public ObjectModel getObjectModel(int objectId, String version) {
+                return objectId == 3 && version.equals("1.1") ? device11 : null;
+            }
+        };
+        VersionedModelProvider provider = new VersionedModelProvider(subclassRepository);
+
+        LwM2mModel model = provider.getObjectModel(registration("</3>;ver=1.1,</3/0>"));
+
+        assertSame(device11, model.getObjectModel(3));
+        assertSame(device11.resources.get(5700), model.getResourceModel(3, 5700));
+        assertNull(model.getResourceModel(3, 2));
+        assertEquals(1, model.getObjectModels().size());
+    }
+
+    @Test
+    public void model_uses_definitions_of_lazy_repository() throws IOException {
+        File modelsDir = folder.newFolder("models");
+        copy("/models/3-1_1.xml", new File(modelsDir, "3-1_1.xml"));
+        VersionedModelProvider provider = new VersionedModelProvider(new LazyLwM2mModelRepository(modelsDir));
+
+        LwM2mModel model = provider.getObjectModel(registration("</3>;ver=1.1,</3/0>"));
+
+        assertEquals("Manufacturer", model.getResourceModel(3, 0).name);
+        assertSame(model.getObjectModel(3).resources.get(0), model.getResourceModel(3, 0));
+        assertNull(model.getResourceModel(3, 5700));
+    }
+
+    private static void copy(String resource, File file) throws IOException {
+        try (InputStream input = VersionedModelProviderTest.class.getResourceAsStream(resource);
+                OutputStream output = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static ObjectModel objectModel(int id, String version, int... resourceIds) {
+        ResourceModel[] resources = new ResourceModel[resourceIds.length];
+        for (int i = 0; i < resourceIds.length; i++) {
+            resources[i] = new ResourceModel(resourceIds[i], "resource " + resourceIds[i], Operations.R, false,
+                    false, Type.INTEGER, null, null, null);
+        }
+        return new ObjectModel(id, "object " + id, null, version, false, false, resources);
+    }
+
+    private static Registration registration(String objectLinks) {
+        Registration.Builder builder = new Registration.Builder("id", "endpoint",
+                Identity.unsecure(InetSocketAddress.createUnresolved("localhost", 0)));
+        builder.objectLinks(Link.parse(objectLinks.getBytes()));
+        return builder.build();
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String filename;
+
+    @Before
+    public void setUp() {
+        filename = new File(folder.getRoot(), "journal.data").getPath();
+    }
+
+    @Test
+    public void modifications_discarded_by_failed_compaction_are_saved_later() throws Exception {
+        final File tmpFile = new File(filename + ".tmp");
+        final CountDownLatch failedCompaction = new CountDownLatch(1);
+        StringJournal journal = new StringJournal(filename) {
+            private int snapshots = 0;
+
+            @Override
+            protected Collection<String> snapshot() {
+                snapshots++;
+                if (snapshots == 1) {
+                    // a directory can not be written as a file : compaction fails
+                    tmpFile.mkdir();
+                    // modification done while the writer starts compaction, it is part of the snapshot only
+                    put("b");
+                    failedCompaction.countDown();
+                } else {
+                    // disk is writable again
+                    tmpFile.delete();
+                }
+                return super.snapshot();
+            }
+        };
+        journal.open();
+
+        journal.put("a");
+        journal.requestCompaction();
+        assertTrue(failedCompaction.await(5, TimeUnit.SECONDS));
+        journal.put("c");
+        journal.close();
+
+        StringJournal reloaded = new StringJournal(filename);
+        reloaded.open();
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), reloaded.content);
+        reloaded.close();
+    }
+
+    @Test
+    public void file_name_is_not_used_as_format() {
+        StringJournal journal = new StringJournal(new File(folder.getRoot(), "100%.data").getPath());
+        journal.open();
+        journal.put("a");
+        journal.close();
+    }
+
+    /**
+     * A journal of a set of strings, never compacted automatically.
+     */
+    private static class StringJournal extends FileJournal<String> {
+
+        private static final byte PUT = 1;
+
+        private final Set<String> content = new HashSet<>();
+
+        StringJournal(String filename) {
+            super(filename, 0x54455354, 0x544A4E4C, Integer.MAX_VALUE, "strings");
+        }
+
+        synchronized void put(String value) {
+            content.add(value);
+            append(snapshotRecord(value));
+        }
+
+        @Override
+        protected void applyRecord(byte[] record) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            if (in.readByte() != PUT)
+                throw new IOException("Unknown record type");
+            content.add(in.readUTF());
+        }
+
+        @Override
+        protected byte[] snapshotRecord(String value) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                out.writeByte(PUT);
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        protected synchronized int size() {
+            return content.size();
+        }
+
+        @Override
+        protected synchronized Collection<String> snapshot() {
+            discardPending();
+            return new ArrayList<>(content);
+        }
+    }
+}
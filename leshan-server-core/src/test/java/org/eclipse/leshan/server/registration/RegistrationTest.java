@@ -65,8 +65,9 @@ public class RegistrationTest {
 
     @Test
     public void test_supported_object_given_an_object_link_with_regexp_rootpath() {
-        Registration reg = given_a_registration_with_object_link_like(
-                "</r(\\d+)oot>;rt=\"oma.lwm2m\", </r(\\d+)oot/1/0>,</3/0>");
+        // not a valid link format, so links are created directly
+        Registration reg = given_a_registration_with_object_links(new Link("/r(\\d+)oot", "rt", "\"oma.lwm2m\""),
+                new Link("/r(\\d+)oot/1/0"), new Link("/3/0"));
 
         // Ensure supported objects are correct
         Map<Integer, String> supportedObject = reg.getSupportedObject();
@@ -88,8 +89,10 @@ public class RegistrationTest {
 
     @Test
     public void test_supported_object_given_an_object_link_with_not_lwm2m_url() {
-        Registration reg = given_a_registration_with_object_link_like(
-                "<text>,</1/text/0/in/path>,empty,</2/O/test/in/path>,</3/0>;ver=\"1.1\",<4/0/0/>");
+        // not a valid link format, so links are created directly
+        Registration reg = given_a_registration_with_object_links(new Link("text"), new Link("/1/text/0/in/path"),
+                new Link("empty"), new Link("/2/O/test/in/path"), new Link("/3/0", "ver", "\"1.1\""),
+                new Link("4/0/0/"));
 
         // Ensure supported objects are correct
         Map<Integer, String> supportedObject = reg.getSupportedObject();
@@ -104,4 +107,12 @@ public class RegistrationTest {
         builder.objectLinks(Link.parse(objectLinks.getBytes()));
         return builder.build();
     }
+
+    private Registration given_a_registration_with_object_links(Link... objectLinks) {
+        Builder builder = new Registration.Builder("id", "endpoin",
+                Identity.unsecure(InetSocketAddress.createUnresolved("localhost", 0)));
+
+        builder.objectLinks(objectLinks);
+        return builder.build();
+    }
 }
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileSecurityStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String filename;
+
+    @Before
+    public void setUp() {
+        filename = new File(folder.getRoot(), "security.data").getPath();
+    }
+
+    @Test
+    public void security_infos_are_reloaded() throws Exception {
+        PublicKey publicKey = KeyPairGenerator.getInstance("EC").generateKeyPair().getPublic();
+        SecurityInfo psk = SecurityInfo.newPreSharedKeyInfo("psk", "identity", new byte[] { 0x01, 0x02 });
+        SecurityInfo rpk = SecurityInfo.newRawPublicKeyInfo("rpk", publicKey);
+        SecurityInfo x509 = SecurityInfo.newX509CertInfo("x509");
+
+        FileSecurityStore store = new FileSecurityStore(filename);
+        store.add(psk);
+        store.add(rpk);
+        store.add(x509);
+        store.add(SecurityInfo.newX509CertInfo("removed"));
+        store.remove("removed", false);
+        store.destroy();
+
+        FileSecurityStore reloaded = new FileSecurityStore(filename);
+        assertEquals(new HashSet<>(store.getAll()), new HashSet<>(reloaded.getAll()));
+        assertEquals(psk, reloaded.getByIdentity("identity"));
+        assertEquals(rpk, reloaded.getByEndpoint("rpk"));
+        assertNull(reloaded.getByEndpoint("removed"));
+        reloaded.destroy();
+    }
+
+    @Test
+    public void security_infos_are_reloaded_after_compactions() throws Exception {
+        FileSecurityStore store = new FileSecurityStore(filename, 0);
+        for (int i = 0; i < 100; i++) {
+            store.add(SecurityInfo.newPreSharedKeyInfo("ep" + i % 10, "identity" + i, new byte[] { (byte) i }));
+        }
+        store.remove("ep0", false);
+        store.destroy();
+
+        FileSecurityStore reloaded = new FileSecurityStore(filename, 0);
+        assertEquals(9, reloaded.getAll().size());
+        assertEquals(new HashSet<>(store.getAll()), new HashSet<>(reloaded.getAll()));
+        assertEquals("ep9", reloaded.getByIdentity("identity99").getEndpoint());
+        assertNull(reloaded.getByIdentity("identity9"));
+        reloaded.destroy();
+    }
+
+    @Test
+    public void java_serialization_file_is_loaded_and_migrated() throws Exception {
+        SecurityInfo psk = SecurityInfo.newPreSharedKeyInfo("psk", "identity", new byte[] { 0x01, 0x02 });
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filename))) {
+            out.writeObject(new SecurityInfo[] { psk });
+        }
+
+        FileSecurityStore store = new FileSecurityStore(filename);
+        assertEquals(psk, store.getByIdentity("identity"));
+        store.destroy();
+
+        // file was rewritten using the new format
+        try (FileInputStream in = new FileInputStream(filename)) {
+            assertNotEquals(0xAC, in.read());
+        }
+        FileSecurityStore reloaded = new FileSecurityStore(filename);
+        assertEquals(psk, reloaded.getByIdentity("identity"));
+        reloaded.destroy();
+    }
+
+    @Test
+    public void corrupted_journal_tail_is_ignored() throws Exception {
+        FileSecurityStore store = new FileSecurityStore(filename);
+        store.add(SecurityInfo.newX509CertInfo("ep1"));
+        store.add(SecurityInfo.newX509CertInfo("ep2"));
+        store.destroy();
+
+        // simulate a crash while writing a record
+        appendToFile(filename + ".journal", new byte[] { 0x00, 0x00, 0x00, 0x20, 0x01, 0x02 });
+
+        store = new FileSecurityStore(filename);
+        assertEquals(2, store.getAll().size());
+        store.add(SecurityInfo.newX509CertInfo("ep3"));
+        store.destroy();
+
+        FileSecurityStore reloaded = new FileSecurityStore(filename);
+        assertEquals(3, reloaded.getAll().size());
+        reloaded.destroy();
+    }
+
+    @Test
+    public void unreadable_file_is_not_overwritten() throws Exception {
+        byte[] content = new byte[] { 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08 };
+        appendToFile(filename, content);
+
+        try {
+            new FileSecurityStore(filename, 0);
+            fail("store must not be created from an unreadable file");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(filename)));
+    }
+
+    @Test
+    public void bulk_added_security_infos_are_reloaded() throws Exception {
+        FileSecurityStore store = new FileSecurityStore(filename);
+        store.add(SecurityInfo.newPreSharedKeyInfo("ep1", "identity1", new byte[] { 0x01 }));
+        store.addAll(Arrays.asList( //
+                SecurityInfo.newPreSharedKeyInfo("ep1", "identity2", new byte[] { 0x02 }), //
+                SecurityInfo.newPreSharedKeyInfo("ep2", "identity1", new byte[] { 0x03 })).iterator());
+        store.destroy();
+
+        FileSecurityStore reloaded = new FileSecurityStore(filename);
+        assertEquals(2, reloaded.getAll().size());
+        assertEquals("ep1", reloaded.getByIdentity("identity2").getEndpoint());
+        assertEquals("ep2", reloaded.getByIdentity("identity1").getEndpoint());
+        reloaded.destroy();
+    }
+
+    @Test
+    public void identity_moved_by_bulk_addition_is_reloaded() throws Exception {
+        FileSecurityStore store = new FileSecurityStore(filename);
+        store.add(SecurityInfo.newPreSharedKeyInfo("ep1", "identity1", new byte[] { 0x01 }));
+        store.add(SecurityInfo.newX509CertInfo("ep3"));
+        // ep2 takes identity1 given up by ep1, which is only valid once the whole batch is applied
+        store.addAll(Arrays.asList( //
+                SecurityInfo.newPreSharedKeyInfo("ep2", "identity1", new byte[] { 0x02 }), //
+                SecurityInfo.newPreSharedKeyInfo("ep1", "identity2", new byte[] { 0x03 })).iterator());
+        store.remove("ep3", false);
+        store.destroy();
+
+        FileSecurityStore reloaded = new FileSecurityStore(filename);
+        assertEquals(2, reloaded.getAll().size());
+        assertEquals("ep2", reloaded.getByIdentity("identity1").getEndpoint());
+        assertEquals("ep1", reloaded.getByIdentity("identity2").getEndpoint());
+        // modifications after the batch are loaded too
+        assertNull(reloaded.getByEndpoint("ep3"));
+        reloaded.destroy();
+    }
+
+    private void appendToFile(String file, byte[] bytes) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(bytes);
+        }
+    }
+}
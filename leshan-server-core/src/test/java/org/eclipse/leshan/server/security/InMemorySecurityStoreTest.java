@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InMemorySecurityStoreTest {
+
+    private InMemorySecurityStore store;
+    private List<SecurityInfo[]> addedEvents;
+
+    @Before
+    public void setUp() {
+        store = new InMemorySecurityStore();
+        addedEvents = new ArrayList<>();
+        store.setListener(new SecurityStoreAdditionListener() {
+            @Override
+            public void securityInfoRemoved(boolean infosAreCompromised, SecurityInfo... infos) {
+            }
+
+            @Override
+            public void securityInfoAdded(SecurityInfo... infos) {
+                addedEvents.add(infos);
+            }
+        });
+    }
+
+    @Test
+    public void add_all_notifies_listener_once() throws NonUniqueSecurityInfoException {
+        store.addAll(Arrays.asList(psk("ep1", "identity1"), psk("ep2", "identity2"), psk("ep3", "identity3"))
+                .iterator());
+
+        assertEquals(3, store.getAll().size());
+        assertEquals("ep2", store.getByIdentity("identity2").getEndpoint());
+        assertEquals(1, addedEvents.size());
+        assertEquals(3, addedEvents.get(0).length);
+    }
+
+    @Test
+    public void add_all_is_all_or_nothing() throws NonUniqueSecurityInfoException {
+        store.add(psk("ep1", "identity1"));
+        addedEvents.clear();
+
+        try {
+            store.addAll(Arrays.asList(psk("ep2", "identity2"), psk("ep3", "identity1")).iterator());
+            fail("identity1 is already used by ep1");
+        } catch (NonUniqueSecurityInfoException e) {
+            // expected
+        }
+
+        assertEquals(1, store.getAll().size());
+        assertNull(store.getByEndpoint("ep2"));
+        assertEquals(0, addedEvents.size());
+    }
+
+    @Test
+    public void add_all_rejects_duplicate_identity_in_batch() {
+        try {
+            store.addAll(Arrays.asList(psk("ep1", "identity"), psk("ep2", "identity")).iterator());
+            fail("identity is used twice");
+        } catch (NonUniqueSecurityInfoException e) {
+            // expected
+        }
+        assertEquals(0, store.getAll().size());
+    }
+
+    @Test
+    public void add_all_can_swap_identities() throws NonUniqueSecurityInfoException {
+        store.add(psk("ep1", "identity1"));
+        store.add(psk("ep2", "identity2"));
+
+        store.addAll(Arrays.asList(psk("ep1", "identity2"), psk("ep2", "identity1")).iterator());
+
+        assertEquals("ep1", store.getByIdentity("identity2").getEndpoint());
+        assertEquals("ep2", store.getByIdentity("identity1").getEndpoint());
+    }
+
+    private static SecurityInfo psk(String endpoint, String identity) {
+        return SecurityInfo.newPreSharedKeyInfo(endpoint, identity, new byte[] { 0x01 });
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NegativeCachingSecurityStoreTest {
+
+    private static final SecurityInfo INFO = SecurityInfo.newPreSharedKeyInfo("endpoint", "identity",
+            new byte[] { 0x01 });
+
+    private AtomicInteger lookups;
+    private InMemorySecurityStore backingStore;
+
+    @Before
+    public void setUp() {
+        lookups = new AtomicInteger();
+        backingStore = new InMemorySecurityStore() {
+            @Override
+            public SecurityInfo getByEndpoint(String endpoint) {
+                lookups.incrementAndGet();
+                return super.getByEndpoint(endpoint);
+            }
+
+            @Override
+            public SecurityInfo getByIdentity(String identity) {
+                lookups.incrementAndGet();
+                return super.getByIdentity(identity);
+            }
+        };
+    }
+
+    @Test
+    public void unknown_identity_is_looked_up_once() {
+        NegativeCachingSecurityStore store = new NegativeCachingSecurityStore(backingStore);
+
+        assertNull(store.getByIdentity("identity"));
+        assertNull(store.getByIdentity("identity"));
+
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void security_info_added_to_wrapped_store_after_endpoint_miss_is_returned()
+            throws NonUniqueSecurityInfoException {
+        // endpoint lookups must not be cached, a missing security info allows unsecured connection
+        NegativeCachingSecurityStore store = new NegativeCachingSecurityStore(backingStore);
+
+        assertNull(store.getByEndpoint("endpoint"));
+        backingStore.add(INFO);
+
+        assertEquals(INFO, store.getByEndpoint("endpoint"));
+    }
+
+    @Test
+    public void unknown_identity_expires() throws InterruptedException {
+        NegativeCachingSecurityStore store = new NegativeCachingSecurityStore(backingStore, 50, 10);
+
+        assertNull(store.getByIdentity("identity"));
+        Thread.sleep(100);
+        assertNull(store.getByIdentity("identity"));
+
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void cache_is_bounded() {
+        NegativeCachingSecurityStore store = new NegativeCachingSecurityStore(backingStore, 60000, 2);
+
+        store.getByIdentity("identity1");
+        store.getByIdentity("identity2");
+        store.getByIdentity("identity3");
+        // identity1 was evicted
+        store.getByIdentity("identity1");
+
+        assertEquals(4, lookups.get());
+    }
+
+    @Test
+    public void added_security_info_is_visible_immediately() throws NonUniqueSecurityInfoException {
+        EditableNegativeCachingSecurityStore store = new EditableNegativeCachingSecurityStore(backingStore);
+
+        assertNull(store.getByIdentity("identity"));
+        assertNull(store.getByEndpoint("endpoint"));
+        store.add(INFO);
+
+        assertEquals(INFO, store.getByIdentity("identity"));
+        assertEquals(INFO, store.getByEndpoint("endpoint"));
+    }
+
+    @Test
+    public void security_info_added_to_wrapped_store_is_visible_immediately() throws NonUniqueSecurityInfoException {
+        EditableNegativeCachingSecurityStore store = new EditableNegativeCachingSecurityStore(backingStore);
+
+        assertNull(store.getByIdentity("identity"));
+        backingStore.addAll(Arrays.asList(INFO).iterator());
+
+        assertEquals(INFO, store.getByIdentity("identity"));
+    }
+
+    @Test
+    public void removal_from_wrapped_store_is_forwarded_to_listener() throws NonUniqueSecurityInfoException {
+        EditableNegativeCachingSecurityStore store = new EditableNegativeCachingSecurityStore(backingStore);
+        final AtomicInteger removed = new AtomicInteger();
+        store.setListener(new SecurityStoreAdditionListener() {
+            @Override
+            public void securityInfoRemoved(boolean infosAreCompromised, SecurityInfo... infos) {
+                removed.addAndGet(infos.length);
+            }
+
+            @Override
+            public void securityInfoAdded(SecurityInfo... infos) {
+            }
+        });
+
+        store.add(INFO);
+        backingStore.remove("endpoint", false);
+
+        assertEquals(1, removed.get());
+        assertNull(store.getByIdentity("identity"));
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Utility functions to combine and wait for {@link CompletionStage}.
+ */
+class Futures {
+
+    private Futures() {
+    }
+
+    static <T> CompletableFuture<T> completed(T value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    static <T> CompletableFuture<T> failed(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    static CompletableFuture<Void> allOf(CompletionStage<?>... stages) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            futures[i] = stages[i].toCompletableFuture();
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    static CompletableFuture<Void> allOf(Collection<? extends CompletionStage<?>> stages) {
+        return allOf(stages.toArray(new CompletionStage<?>[stages.size()]));
+    }
+
+    /**
+     * Get the value of an already completed stage.
+     */
+    static <T> T valueOf(CompletionStage<T> stage) {
+        return stage.toCompletableFuture().join();
+    }
+
+    /**
+     * Remove {@link CompletionException} wrapping added by dependent stages.
+     */
+    static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Wait for the stage completion and return its value. Exceptions completing the stage are re-thrown.
+     * <p>
+     * This must never be called from a Redis client thread.
+     */
+    static <T> T await(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Redis response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException("Unexpected error while waiting for Redis response", cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A non-blocking Redis Lock based on the Lettuce asynchronous API.
+ * <p>
+ * This is the asynchronous counterpart of {@code org.eclipse.leshan.server.redis.JedisLock}.
+ */
+public interface LettuceLock {
+
+    /**
+     * Acquires a lock for the given key.
+     * 
+     * @param lockKey the key to use as lock
+     * @return a stage completed with a lock value that must be used to release the lock, or completed exceptionally if
+     *         the lock could not be acquired.
+     */
+    CompletionStage<byte[]> acquire(byte[] lockKey);
+
+    /**
+     * Releases a lock for a given key and value.
+     * 
+     * @param lockKey the locked key
+     * @param lockValue the value returned when the lock was acquired
+     * @return a stage completed when the lock is released.
+     */
+    CompletionStage<Void> release(byte[] lockKey, byte[] lockValue);
+}
@@ -0,0 +1,890 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.allOf;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.await;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.completed;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.failed;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.valueOf;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.eclipse.californium.core.coap.Token;
+import org.eclipse.californium.core.observe.ObservationStoreException;
+import org.eclipse.californium.elements.EndpointContext;
+import org.eclipse.leshan.core.Destroyable;
+import org.eclipse.leshan.core.Startable;
+import org.eclipse.leshan.core.Stoppable;
+import org.eclipse.leshan.core.observation.Observation;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.core.util.NamedThreadFactory;
+import org.eclipse.leshan.core.util.Validate;
+import org.eclipse.leshan.server.californium.observation.ObserveUtil;
+import org.eclipse.leshan.server.californium.registration.CaliforniumRegistrationStore;
+import org.eclipse.leshan.server.redis.serialization.IdentitySerDes;
+import org.eclipse.leshan.server.redis.serialization.ObservationSerDes;
+import org.eclipse.leshan.server.redis.serialization.RegistrationSerDes;
+import org.eclipse.leshan.server.registration.Deregistration;
+import org.eclipse.leshan.server.registration.ExpirationListener;
+import org.eclipse.leshan.server.registration.Registration;
+import org.eclipse.leshan.server.registration.RegistrationUpdate;
+import org.eclipse.leshan.server.registration.UpdatedRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+/**
+ * A RegistrationStore which stores registrations and observations in Redis using the asynchronous Lettuce client.
+ * <p>
+ * All Redis commands are sent on a single multiplexed connection and independent commands are pipelined, so no thread
+ * is dedicated to a Redis call. Each {@link CaliforniumRegistrationStore} method waits for the result of the
+ * corresponding asynchronous variant (e.g. {@link #addRegistrationAsync(Registration)}), which can be used directly by
+ * code able to handle a {@link CompletionStage}.
+ * <p>
+ * Data are stored using the same keys and serialization than {@code RedisRegistrationStore}.
+ */
+public class LettuceRegistrationStore implements CaliforniumRegistrationStore, Startable, Stoppable, Destroyable {
+
+    /** Default time in seconds between 2 cleaning tasks (used to remove expired registration). */
+    public static final long DEFAULT_CLEAN_PERIOD = 60;
+    public static final int DEFAULT_CLEAN_LIMIT = 500;
+    /** Defaut Extra time for registration lifetime in seconds */
+    public static final long DEFAULT_GRACE_PERIOD = 0;
+    /** Default number of registrations fetched in one round trip when iterating over all registrations. */
+    public static final int DEFAULT_SCAN_BATCH_SIZE = 100;
+
+    private static final Logger LOG = LoggerFactory.getLogger(LettuceRegistrationStore.class);
+
+    // Redis key prefixes
+    private static final String REG_EP = "REG:EP:"; // (Endpoint => Registration)
+    private static final String REG_EP_REGID_IDX = "EP:REGID:"; // secondary index key (Registration ID => Endpoint)
+    private static final String REG_EP_ADDR_IDX = "EP:ADDR:"; // secondary index key (Socket Address => Endpoint)
+    private static final String REG_EP_IDENTITY = "EP:IDENTITY:"; // secondary index key (Identity => Endpoint)
+    private static final String LOCK_EP = "LOCK:EP:";
+    private static final byte[] OBS_TKN = "OBS:TKN:".getBytes(UTF_8);
+    private static final String OBS_TKNS_REGID_IDX = "TKNS:REGID:"; // secondary index (token list by registration)
+    private static final byte[] EXP_EP = "EXP:EP".getBytes(UTF_8); // a sorted set used for registration expiration
+                                                                   // (expiration date, Endpoint)
+
+    // KEYS[1] : secondary index key, ARGV[1] : endpoint
+    private static final LuaScript REMOVE_INDEX_SCRIPT = new LuaScript(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end");
+
+    private final RedisAsyncCommands<byte[], byte[]> commands;
+
+    // Listener use to notify when a registration expires
+    private ExpirationListener expirationListener;
+
+    private final ScheduledExecutorService schedExecutor;
+    // listeners are notified on their own thread as they can call back blocking methods of the store
+    private final ExecutorService notificationExecutor;
+    private ScheduledFuture<?> cleanerTask;
+    private boolean started = false;
+
+    private final long cleanPeriod; // in seconds
+    private final int cleanLimit; // maximum number to clean in a clean period
+    private final long gracePeriod; // in seconds
+    private final int scanBatchSize; // number of registrations fetched in one round trip by getAllRegistrations
+
+    private final LettuceLock lock;
+
+    public LettuceRegistrationStore(StatefulRedisConnection<byte[], byte[]> connection) {
+        this(connection, DEFAULT_CLEAN_PERIOD, DEFAULT_GRACE_PERIOD, DEFAULT_CLEAN_LIMIT);
+    }
+
+    public LettuceRegistrationStore(StatefulRedisConnection<byte[], byte[]> connection, long cleanPeriodInSec,
+            long lifetimeGracePeriodInSec, int cleanLimit) {
+        this(connection, Executors.newScheduledThreadPool(1,
+                new NamedThreadFactory(String.format("LettuceRegistrationStore Cleaner (%ds)", cleanPeriodInSec))),
+                cleanPeriodInSec, lifetimeGracePeriodInSec, cleanLimit, DEFAULT_SCAN_BATCH_SIZE);
+    }
+
+    /**
+     * @param connection a connection using a byte array codec, it can be shared with other stores.
+     * @param schedExecutor the executor used to clean expired registrations and to retry lock acquisition. Tasks
+     *        executed on it never block.
+     * @param cleanPeriodInSec time in seconds between 2 cleaning tasks.
+     * @param lifetimeGracePeriodInSec extra time for registration lifetime in seconds.
+     * @param cleanLimit maximum number of registrations removed in a clean period.
+     * @param scanBatchSize the number of registrations fetched in one round trip when iterating over all registrations.
+     */
+    public LettuceRegistrationStore(StatefulRedisConnection<byte[], byte[]> connection,
+            ScheduledExecutorService schedExecutor, long cleanPeriodInSec, long lifetimeGracePeriodInSec,
+            int cleanLimit, int scanBatchSize) {
+        this(connection, schedExecutor, cleanPeriodInSec, lifetimeGracePeriodInSec, cleanLimit, scanBatchSize,
+                new SingleInstanceLettuceLock(connection.async(), schedExecutor));
+    }
+
+    public LettuceRegistrationStore(StatefulRedisConnection<byte[], byte[]> connection,
+            ScheduledExecutorService schedExecutor, long cleanPeriodInSec, long lifetimeGracePeriodInSec,
+            int cleanLimit, int scanBatchSize, LettuceLock lock) {
+        Validate.isTrue(scanBatchSize > 0, "scanBatchSize must be positive");
+        this.commands = connection.async();
+        this.schedExecutor = schedExecutor;
+        this.notificationExecutor = Executors
+                .newSingleThreadExecutor(new NamedThreadFactory("LettuceRegistrationStore Notifier"));
+        this.cleanPeriod = cleanPeriodInSec;
+        this.cleanLimit = cleanLimit;
+        this.gracePeriod = lifetimeGracePeriodInSec;
+        this.scanBatchSize = scanBatchSize;
+        this.lock = lock;
+    }
+
+    /* *************** Redis Key utility function **************** */
+
+    private byte[] toKey(byte[] prefix, byte[] key) {
+        byte[] result = new byte[prefix.length + key.length];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        System.arraycopy(key, 0, result, prefix.length, key.length);
+        return result;
+    }
+
+    private byte[] toKey(String prefix, String registrationID) {
+        return (prefix + registrationID).getBytes();
+    }
+
+    private byte[] toLockKey(String endpoint) {
+        return toKey(LOCK_EP, endpoint);
+    }
+
+    private byte[] toLockKey(byte[] endpoint) {
+        return toKey(LOCK_EP.getBytes(UTF_8), endpoint);
+    }
+
+    /**
+     * Execute the given action while holding the lock of the given key, the lock is released once the stage returned
+     * by the action is completed.
+     */
+    private <T> CompletionStage<T> withLock(final byte[] lockKey, final Supplier<CompletionStage<T>> action) {
+        return lock.acquire(lockKey).thenCompose(lockValue -> {
+            CompletionStage<T> actionResult;
+            try {
+                actionResult = action.get();
+            } catch (RuntimeException e) {
+                actionResult = failed(e);
+            }
+
+            final CompletableFuture<T> result = new CompletableFuture<>();
+            actionResult.whenComplete((value, error) -> lock.release(lockKey, lockValue).whenComplete((v, e) -> {
+                if (e != null) {
+                    LOG.warn("Unable to release lock {}", new String(lockKey), e);
+                }
+                if (error != null) {
+                    result.completeExceptionally(Futures.unwrap(error));
+                } else {
+                    result.complete(value);
+                }
+            }));
+            return result;
+        });
+    }
+
+    /* *************** Leshan Registration API **************** */
+
+    @Override
+    public Deregistration addRegistration(Registration registration) {
+        return await(addRegistrationAsync(registration));
+    }
+
+    /**
+     * Asynchronous variant of {@link #addRegistration(Registration)}.
+     */
+    public CompletionStage<Deregistration> addRegistrationAsync(final Registration registration) {
+        return withLock(toLockKey(registration.getEndpoint()), () -> {
+            byte[] ep = registration.getEndpoint().getBytes(UTF_8);
+
+            // add registration and its secondary indexes
+            final RedisFuture<byte[]> old = commands.getset(toEndpointKey(ep), serializeReg(registration));
+            CompletionStage<Void> indexes = allOf( //
+                    commands.set(toRegIdKey(registration.getId()), ep),
+                    commands.set(toRegAddrKey(registration.getSocketAddress()), ep),
+                    commands.set(toRegIdentityKey(registration.getIdentity()), ep),
+                    // Add or update expiration
+                    addOrUpdateExpiration(registration));
+
+            return indexes.thenCompose(v -> {
+                byte[] oldData = valueOf(old);
+                if (oldData == null) {
+                    return completed((Deregistration) null);
+                }
+
+                final Registration oldRegistration = deserializeReg(oldData);
+                // remove old secondary index
+                List<CompletionStage<?>> cleaning = new ArrayList<>();
+                if (!registration.getId().equals(oldRegistration.getId()))
+                    cleaning.add(commands.del(toRegIdKey(oldRegistration.getId())));
+                if (!oldRegistration.getSocketAddress().equals(registration.getSocketAddress())) {
+                    cleaning.add(removeAddrIndex(oldRegistration));
+                }
+                if (!oldRegistration.getIdentity().equals(registration.getIdentity())) {
+                    cleaning.add(removeIdentityIndex(oldRegistration));
+                }
+                // remove old observation
+                return allOf(cleaning).thenCombine(unsafeRemoveAllObservations(oldRegistration.getId()),
+                        (nothing, obsRemoved) -> new Deregistration(oldRegistration, obsRemoved));
+            });
+        });
+    }
+
+    @Override
+    public UpdatedRegistration updateRegistration(RegistrationUpdate update) {
+        return await(updateRegistrationAsync(update));
+    }
+
+    /**
+     * Asynchronous variant of {@link #updateRegistration(RegistrationUpdate)}.
+     */
+    public CompletionStage<UpdatedRegistration> updateRegistrationAsync(final RegistrationUpdate update) {
+        // Fetch the registration ep by registration ID index
+        return commands.get(toRegIdKey(update.getRegistrationId())).thenCompose(ep -> {
+            if (ep == null) {
+                return completed(null);
+            }
+
+            return withLock(toLockKey(ep), () -> commands.get(toEndpointKey(ep)).thenCompose(data -> {
+                if (data == null) {
+                    return completed(null);
+                }
+
+                final Registration r = deserializeReg(data);
+                final Registration updatedRegistration = update.update(r);
+                byte[] updatedEp = updatedRegistration.getEndpoint().getBytes(UTF_8);
+
+                List<CompletionStage<?>> stages = new ArrayList<>();
+                // Store the new registration
+                stages.add(commands.set(toEndpointKey(updatedEp), serializeReg(updatedRegistration)));
+
+                // Add or update expiration
+                stages.add(addOrUpdateExpiration(updatedRegistration));
+
+                // Update secondary index :
+                // If registration is already associated to this address we don't care as we only want to keep the
+                // most recent binding.
+                stages.add(commands.set(toRegAddrKey(updatedRegistration.getSocketAddress()), updatedEp));
+                if (!r.getSocketAddress().equals(updatedRegistration.getSocketAddress())) {
+                    stages.add(removeAddrIndex(r));
+                }
+                if (!r.getIdentity().equals(updatedRegistration.getIdentity())) {
+                    stages.add(commands.set(toRegIdentityKey(updatedRegistration.getIdentity()), updatedEp));
+                    stages.add(removeIdentityIndex(r));
+                }
+
+                return allOf(stages).thenApply(v -> new UpdatedRegistration(r, updatedRegistration));
+            }));
+        });
+    }
+
+    @Override
+    public Registration getRegistration(String registrationId) {
+        return await(getRegistrationAsync(registrationId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getRegistration(String)}.
+     */
+    public CompletionStage<Registration> getRegistrationAsync(String registrationId) {
+        return getRegistrationByIndex(toRegIdKey(registrationId));
+    }
+
+    @Override
+    public Registration getRegistrationByEndpoint(String endpoint) {
+        return await(getRegistrationByEndpointAsync(endpoint));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getRegistrationByEndpoint(String)}.
+     */
+    public CompletionStage<Registration> getRegistrationByEndpointAsync(String endpoint) {
+        Validate.notNull(endpoint);
+        return commands.get(toEndpointKey(endpoint)).thenApply(data -> data == null ? null : deserializeReg(data));
+    }
+
+    @Override
+    public Registration getRegistrationByAdress(InetSocketAddress address) {
+        return await(getRegistrationByAdressAsync(address));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getRegistrationByAdress(InetSocketAddress)}.
+     */
+    public CompletionStage<Registration> getRegistrationByAdressAsync(InetSocketAddress address) {
+        Validate.notNull(address);
+        return getRegistrationByIndex(toRegAddrKey(address));
+    }
+
+    @Override
+    public Registration getRegistrationByIdentity(Identity identity) {
+        return await(getRegistrationByIdentityAsync(identity));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getRegistrationByIdentity(Identity)}.
+     */
+    public CompletionStage<Registration> getRegistrationByIdentityAsync(Identity identity) {
+        Validate.notNull(identity);
+        return getRegistrationByIndex(toRegIdentityKey(identity));
+    }
+
+    private CompletionStage<Registration> getRegistrationByIndex(byte[] indexKey) {
+        return commands.get(indexKey).thenCompose(ep -> {
+            if (ep == null) {
+                return completed(null);
+            }
+            return commands.get(toEndpointKey(ep)).thenApply(data -> data == null ? null : deserializeReg(data));
+        });
+    }
+
+    @Override
+    public Iterator<Registration> getAllRegistrations() {
+        return new RegistrationIterator();
+    }
+
+    /**
+     * An {@link Iterator} which SCANs registration keys and fetches the corresponding values with one MGET per SCAN
+     * page. Values are only deserialized when {@link #next()} is called.
+     */
+    protected class RegistrationIterator implements Iterator<Registration> {
+
+        private final ScanArgs scanArgs = ScanArgs.Builder.matches(REG_EP + "*").limit(scanBatchSize);
+
+        private ScanCursor cursor = ScanCursor.INITIAL;
+        private List<KeyValue<byte[], byte[]>> values = Collections.emptyList();
+        private int index = 0;
+
+        private void fetchNext() {
+            // collect keys until we have a full batch or the scan is completed
+            List<byte[]> keys = new ArrayList<>(scanBatchSize);
+            do {
+                KeyScanCursor<byte[]> sc = await(commands.scan(cursor, scanArgs));
+                keys.addAll(sc.getKeys());
+                cursor = sc;
+            } while (!cursor.isFinished() && keys.size() < scanBatchSize);
+
+            if (keys.isEmpty()) {
+                values = Collections.emptyList();
+            } else {
+                values = await(commands.mget(keys.toArray(new byte[keys.size()][])));
+            }
+            index = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                // skip values of keys removed between SCAN and MGET
+                while (index < values.size()) {
+                    if (values.get(index).hasValue()) {
+                        return true;
+                    }
+                    index++;
+                }
+                if (cursor.isFinished()) {
+                    // no more elements to scan
+                    return false;
+                }
+                // read more elements
+                fetchNext();
+            }
+        }
+
+        @Override
+        public Registration next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return deserializeReg(values.get(index++).getValue());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Override
+    public Deregistration removeRegistration(String registrationId) {
+        return await(removeRegistrationAsync(registrationId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #removeRegistration(String)}.
+     */
+    public CompletionStage<Deregistration> removeRegistrationAsync(String registrationId) {
+        return removeRegistration(registrationId, false);
+    }
+
+    private CompletionStage<Deregistration> removeRegistration(final String registrationId,
+            final boolean removeOnlyIfNotAlive) {
+        // fetch the client ep by registration ID index
+        return commands.get(toRegIdKey(registrationId)).thenCompose(ep -> {
+            if (ep == null) {
+                return completed(null);
+            }
+
+            return withLock(toLockKey(ep), () -> commands.get(toEndpointKey(ep)).thenCompose(data -> {
+                // fetch the client
+                if (data == null) {
+                    return completed(null);
+                }
+                final Registration r = deserializeReg(data);
+
+                if (removeOnlyIfNotAlive && r.isAlive(gracePeriod)) {
+                    return completed(null);
+                }
+                return commands.del(toRegIdKey(r.getId())).thenCompose(nbRemoved -> {
+                    if (nbRemoved == 0) {
+                        return completed(null);
+                    }
+                    CompletionStage<Void> cleaning = allOf( //
+                            commands.del(toEndpointKey(r.getEndpoint())), //
+                            removeAddrIndex(r), //
+                            removeIdentityIndex(r), //
+                            removeExpiration(r));
+                    return cleaning.thenCombine(unsafeRemoveAllObservations(r.getId()),
+                            (v, obsRemoved) -> new Deregistration(r, obsRemoved));
+                });
+            }));
+        });
+    }
+
+    private CompletionStage<?> removeAddrIndex(Registration r) {
+        return removeSecondaryIndex(toRegAddrKey(r.getSocketAddress()), r.getEndpoint());
+    }
+
+    private CompletionStage<?> removeIdentityIndex(Registration r) {
+        return removeSecondaryIndex(toRegIdentityKey(r.getIdentity()), r.getEndpoint());
+    }
+
+    private CompletionStage<?> removeSecondaryIndex(byte[] indexKey, String endpointName) {
+        // Delete the key only if it still references this endpoint, as the index is probably reused else.
+        return REMOVE_INDEX_SCRIPT.<Long> eval(commands, ScriptOutputType.INTEGER, new byte[][] { indexKey },
+                endpointName.getBytes(UTF_8));
+    }
+
+    private CompletionStage<Long> addOrUpdateExpiration(Registration registration) {
+        return commands.zadd(EXP_EP, registration.getExpirationTimeStamp(gracePeriod),
+                registration.getEndpoint().getBytes(UTF_8));
+    }
+
+    private CompletionStage<Long> removeExpiration(Registration registration) {
+        return commands.zrem(EXP_EP, registration.getEndpoint().getBytes(UTF_8));
+    }
+
+    private byte[] toRegIdKey(String registrationId) {
+        return toKey(REG_EP_REGID_IDX, registrationId);
+    }
+
+    private byte[] toRegAddrKey(InetSocketAddress addr) {
+        return toKey(REG_EP_ADDR_IDX, addr.getAddress().toString() + ":" + addr.getPort());
+    }
+
+    private byte[] toRegIdentityKey(Identity identity) {
+        return toKey(REG_EP_IDENTITY, IdentitySerDes.serialize(identity).toString());
+    }
+
+    private byte[] toEndpointKey(String endpoint) {
+        return toKey(REG_EP, endpoint);
+    }
+
+    private byte[] toEndpointKey(byte[] endpoint) {
+        return toKey(REG_EP.getBytes(UTF_8), endpoint);
+    }
+
+    private byte[] serializeReg(Registration registration) {
+        return RegistrationSerDes.bSerialize(registration);
+    }
+
+    private Registration deserializeReg(byte[] data) {
+        return RegistrationSerDes.deserialize(data);
+    }
+
+    /* *************** Leshan Observation API **************** */
+
+    /*
+     * The observation is not persisted here, it is done by the Californium layer (in the implementation of the
+     * org.eclipse.californium.core.observe.ObservationStore#add method)
+     */
+    @Override
+    public Collection<Observation> addObservation(final String registrationId, final Observation observation) {
+        CompletionStage<Collection<Observation>> result = commands.get(toRegIdKey(registrationId)).thenCompose(ep -> {
+            // fetch the client ep by registration ID index
+            if (ep == null) {
+                return completed(null);
+            }
+
+            return withLock(toLockKey(ep), () -> getObservationsAsync(registrationId).thenCompose(observations -> {
+                // cancel existing observations for the same path and registration id.
+                final List<Observation> removed = new ArrayList<>();
+                List<CompletionStage<?>> removals = new ArrayList<>();
+                for (Observation obs : observations) {
+                    if (observation.getPath().equals(obs.getPath())
+                            && !Arrays.equals(observation.getId(), obs.getId())) {
+                        removed.add(obs);
+                        removals.add(unsafeRemoveObservation(registrationId, obs.getId()));
+                    }
+                }
+                return allOf(removals).thenApply(v -> (Collection<Observation>) removed);
+            }));
+        });
+        return await(result);
+    }
+
+    @Override
+    public Observation removeObservation(final String registrationId, final byte[] observationId) {
+        CompletionStage<Observation> result = commands.get(toRegIdKey(registrationId)).thenCompose(ep -> {
+            // fetch the client ep by registration ID index
+            if (ep == null) {
+                return completed(null);
+            }
+
+            // remove observation
+            return withLock(toLockKey(ep), () -> getAsync(new Token(observationId)).thenCompose(cfObs -> {
+                final Observation observation = build(cfObs);
+                if (observation != null && registrationId.equals(observation.getRegistrationId())) {
+                    return unsafeRemoveObservation(registrationId, observationId).thenApply(v -> observation);
+                }
+                return completed(null);
+            }));
+        });
+        return await(result);
+    }
+
+    @Override
+    public Observation getObservation(String registrationId, byte[] observationId) {
+        return build(get(new Token(observationId)));
+    }
+
+    @Override
+    public Collection<Observation> getObservations(String registrationId) {
+        return await(getObservationsAsync(registrationId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getObservations(String)}.
+     */
+    public CompletionStage<Collection<Observation>> getObservationsAsync(String registrationId) {
+        return commands.lrange(toKey(OBS_TKNS_REGID_IDX, registrationId), 0, -1).thenCompose(tokens -> {
+            final List<RedisFuture<byte[]>> observations = new ArrayList<>(tokens.size());
+            for (byte[] token : tokens) {
+                observations.add(commands.get(toKey(OBS_TKN, token)));
+            }
+            return allOf(observations).thenApply(v -> {
+                Collection<Observation> result = new ArrayList<>();
+                for (RedisFuture<byte[]> obs : observations) {
+                    byte[] data = valueOf(obs);
+                    if (data != null) {
+                        result.add(build(deserializeObs(data)));
+                    }
+                }
+                return result;
+            });
+        });
+    }
+
+    @Override
+    public Collection<Observation> removeObservations(String registrationId) {
+        return await(removeObservationsAsync(registrationId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #removeObservations(String)}.
+     */
+    public CompletionStage<Collection<Observation>> removeObservationsAsync(final String registrationId) {
+        // check registration exists
+        return getRegistrationAsync(registrationId).thenCompose(registration -> {
+            if (registration == null)
+                return completed(Collections.<Observation> emptyList());
+
+            // get endpoint and create lock
+            return withLock(toLockKey(registration.getEndpoint()),
+                    () -> unsafeRemoveAllObservations(registrationId));
+        });
+    }
+
+    /* *************** Californium ObservationStore API **************** */
+
+    @Override
+    public org.eclipse.californium.core.observe.Observation putIfAbsent(Token token,
+            org.eclipse.californium.core.observe.Observation obs) throws ObservationStoreException {
+        return await(add(obs, true));
+    }
+
+    @Override
+    public org.eclipse.californium.core.observe.Observation put(Token token,
+            org.eclipse.californium.core.observe.Observation obs) throws ObservationStoreException {
+        return await(add(obs, false));
+    }
+
+    private CompletionStage<org.eclipse.californium.core.observe.Observation> add(
+            final org.eclipse.californium.core.observe.Observation obs, final boolean ifAbsent)
+            throws ObservationStoreException {
+        String endpoint = ObserveUtil.validateCoapObservation(obs);
+
+        return withLock(toLockKey(endpoint), () -> {
+            final String registrationId = ObserveUtil.extractRegistrationId(obs);
+            final byte[] token = obs.getRequest().getToken().getBytes();
+            final byte[] key = toKey(OBS_TKN, token);
+            final byte[] serializeObs = serializeObs(obs);
+
+            return commands.exists(toRegIdKey(registrationId)).thenCompose(exists -> {
+                if (exists == 0)
+                    throw new ObservationStoreException("no registration for this Id");
+
+                if (ifAbsent) {
+                    return commands.get(key).thenCompose(previousValue -> {
+                        if (previousValue == null || previousValue.length == 0) {
+                            return commands.set(key, serializeObs).thenCompose(v -> addToIndex(registrationId, token))
+                                    .thenApply(v -> logCollision(null, obs));
+                        } else {
+                            return completed(deserializeObs(previousValue));
+                        }
+                    });
+                } else {
+                    final RedisFuture<byte[]> previousValue = commands.getset(key, serializeObs);
+                    return addToIndex(registrationId, token).thenApply(v -> logCollision(valueOf(previousValue), obs));
+                }
+            });
+        });
+    }
+
+    private CompletionStage<Long> addToIndex(String registrationId, byte[] token) {
+        // secondary index to get the list by registrationId
+        return commands.lpush(toKey(OBS_TKNS_REGID_IDX, registrationId), token);
+    }
+
+    private org.eclipse.californium.core.observe.Observation logCollision(byte[] previousValue,
+            org.eclipse.californium.core.observe.Observation obs) {
+        // log any collisions
+        if (previousValue != null && previousValue.length != 0) {
+            org.eclipse.californium.core.observe.Observation previousObservation = deserializeObs(previousValue);
+            LOG.warn(
+                    "Token collision ? observation from request [{}] will be replaced by observation from request [{}] ",
+                    previousObservation.getRequest(), obs.getRequest());
+            return previousObservation;
+        }
+        return null;
+    }
+
+    @Override
+    public void remove(final Token token) {
+        // fetch the observation by token
+        CompletionStage<Void> result = getAsync(token).thenCompose(obs -> {
+            if (obs == null)
+                return completed(null);
+
+            final String registrationId = ObserveUtil.extractRegistrationId(obs);
+            return getRegistrationAsync(registrationId).thenCompose(registration -> {
+                if (registration == null) {
+                    LOG.warn("Unable to remove observation {}, registration {} does not exist anymore",
+                            obs.getRequest(), registrationId);
+                    return completed(null);
+                }
+
+                return withLock(toLockKey(registration.getEndpoint()),
+                        () -> unsafeRemoveObservation(registrationId, token.getBytes()));
+            });
+        });
+        await(result);
+    }
+
+    @Override
+    public org.eclipse.californium.core.observe.Observation get(Token token) {
+        return await(getAsync(token));
+    }
+
+    private CompletionStage<org.eclipse.californium.core.observe.Observation> getAsync(Token token) {
+        return commands.get(toKey(OBS_TKN, token.getBytes())).thenApply(obs -> obs == null ? null : deserializeObs(obs));
+    }
+
+    /* *************** Observation utility functions **************** */
+
+    private CompletionStage<Void> unsafeRemoveObservation(final String registrationId, final byte[] observationId) {
+        return commands.del(toKey(OBS_TKN, observationId)).thenCompose(nbRemoved -> {
+            if (nbRemoved > 0L) {
+                return commands.lrem(toKey(OBS_TKNS_REGID_IDX, registrationId), 0, observationId)
+                        .thenApply(v -> (Void) null);
+            }
+            return completed(null);
+        });
+    }
+
+    private CompletionStage<Collection<Observation>> unsafeRemoveAllObservations(String registrationId) {
+        final byte[] regIdKey = toKey(OBS_TKNS_REGID_IDX, registrationId);
+
+        // fetch all observations by token
+        return commands.lrange(regIdKey, 0, -1).thenCompose(tokens -> {
+            final List<RedisFuture<byte[]>> observations = new ArrayList<>(tokens.size());
+            List<CompletionStage<?>> removals = new ArrayList<>(tokens.size() + 1);
+            for (byte[] token : tokens) {
+                observations.add(commands.get(toKey(OBS_TKN, token)));
+                removals.add(commands.del(toKey(OBS_TKN, token)));
+            }
+            removals.add(commands.del(regIdKey));
+
+            return allOf(removals).thenCombine(allOf(observations), (v1, v2) -> {
+                Collection<Observation> removed = new ArrayList<>();
+                for (RedisFuture<byte[]> obs : observations) {
+                    byte[] data = valueOf(obs);
+                    if (data != null) {
+                        removed.add(build(deserializeObs(data)));
+                    }
+                }
+                return removed;
+            });
+        });
+    }
+
+    @Override
+    public void setContext(Token token, EndpointContext correlationContext) {
+        // In Leshan we always set context when we send the request, so this should not be needed to implement this.
+    }
+
+    private byte[] serializeObs(org.eclipse.californium.core.observe.Observation obs) {
+        return ObservationSerDes.serialize(obs);
+    }
+
+    private org.eclipse.californium.core.observe.Observation deserializeObs(byte[] data) {
+        return ObservationSerDes.deserialize(data);
+    }
+
+    private Observation build(org.eclipse.californium.core.observe.Observation cfObs) {
+        if (cfObs == null)
+            return null;
+
+        return ObserveUtil.createLwM2mObservation(cfObs.getRequest());
+    }
+
+    /* *************** Expiration handling **************** */
+
+    /**
+     * Start regular cleanup of dead registrations.
+     */
+    @Override
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            cleanerTask = schedExecutor.scheduleAtFixedRate(new Cleaner(), cleanPeriod, cleanPeriod, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stop the underlying cleanup of the registrations.
+     */
+    @Override
+    public synchronized void stop() {
+        if (started) {
+            started = false;
+            if (cleanerTask != null) {
+                cleanerTask.cancel(false);
+                cleanerTask = null;
+            }
+        }
+    }
+
+    /**
+     * Destroy "cleanup" scheduler and listener notification thread.
+     */
+    @Override
+    public synchronized void destroy() {
+        started = false;
+        schedExecutor.shutdownNow();
+        notificationExecutor.shutdownNow();
+        try {
+            schedExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            notificationExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            LOG.warn("Destroying LettuceRegistrationStore was interrupted.", e);
+        }
+    }
+
+    private class Cleaner implements Runnable {
+
+        // the cleaning is asynchronous, we must not start a new one before the previous one is done.
+        private final AtomicBoolean cleaning = new AtomicBoolean(false);
+
+        @Override
+        public void run() {
+            if (!cleaning.compareAndSet(false, true)) {
+                return;
+            }
+
+            commands.zrangebyscore(EXP_EP, Range.create(Double.NEGATIVE_INFINITY, (double) System.currentTimeMillis()),
+                    Limit.create(0, cleanLimit)).thenCompose(endpointsExpired -> {
+                        List<CompletionStage<?>> removals = new ArrayList<>();
+                        for (byte[] endpoint : endpointsExpired) {
+                            removals.add(commands.get(toEndpointKey(endpoint)).thenCompose(data -> {
+                                if (data == null) {
+                                    return completed(null);
+                                }
+                                Registration r = deserializeReg(data);
+                                if (r.isAlive(gracePeriod)) {
+                                    return completed(null);
+                                }
+                                return removeRegistration(r.getId(), true).thenAcceptAsync(dereg -> {
+                                    if (dereg != null)
+                                        expirationListener.registrationExpired(dereg.getRegistration(),
+                                                dereg.getObservations());
+                                }, notificationExecutor);
+                            }));
+                        }
+                        return allOf(removals);
+                    }).whenComplete((v, e) -> {
+                        if (e != null) {
+                            LOG.warn("Unexpected Exception while registration cleaning", Futures.unwrap(e));
+                        }
+                        cleaning.set(false);
+                    });
+        }
+    }
+
+    @Override
+    public void setExpirationListener(ExpirationListener listener) {
+        expirationListener = listener;
+    }
+
+    @Override
+    public void setExecutor(ScheduledExecutorService executor) {
+        // not used, this store owns the executor given at construction, as it shuts it down on destroy.
+    }
+}
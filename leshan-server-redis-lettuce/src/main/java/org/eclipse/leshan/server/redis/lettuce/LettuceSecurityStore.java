@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.allOf;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.await;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.completed;
+import static org.eclipse.leshan.server.redis.lettuce.Futures.valueOf;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.eclipse.leshan.core.util.Validate;
+import org.eclipse.leshan.server.redis.SecurityInfoBatchWriter;
+import org.eclipse.leshan.server.redis.serialization.SecurityInfoSerDes;
+import org.eclipse.leshan.server.security.BulkEditableSecurityStore;
+import org.eclipse.leshan.server.security.NonUniqueSecurityInfoException;
+import org.eclipse.leshan.server.security.SecurityInfo;
+import org.eclipse.leshan.server.security.SecurityStore;
+import org.eclipse.leshan.server.security.SecurityStoreAdditionListener;
+import org.eclipse.leshan.server.security.SecurityStoreListener;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+/**
+ * A {@link SecurityStore} implementation based on Redis using the asynchronous Lettuce client.
+ * <p>
+ * Security info are stored using the endpoint as primary key and a secondary index is created for psk-identity lookup.
+ * Lookup by psk-identity is done in one round trip using a Lua script.
+ * <p>
+ * Data are stored using the same keys and serialization than {@code RedisSecurityStore} and modifications are
+ * published on the same invalidation channel, so both stores can share the same Redis.
+ */
+public class LettuceSecurityStore implements BulkEditableSecurityStore {
+
+    /** Default number of security info read or written in one round trip by {@link #getAll()} and {@link #addAll}. */
+    public static final int DEFAULT_SCAN_BATCH_SIZE = 100;
+
+    private static final String SEC_EP = "SEC#EP#";
+
+    private static final String PSKID_SEC = "PSKID#SEC";
+
+    private static final byte[] SEC_INVALIDATION_CHANNEL = "SEC#INVALIDATION".getBytes(UTF_8); // (Endpoint)
+
+    // KEYS[1] : psk-identity index, ARGV[1] : psk-identity, ARGV[2] : security info key prefix
+    // The security info key is not declared in KEYS as it is read from the index: single instance only.
+    private static final LuaScript GET_BY_IDENTITY_SCRIPT = new LuaScript(
+            "local ep = redis.call('HGET', KEYS[1], ARGV[1])\n" //
+                    + "if not ep then return false end\n" //
+                    + "return redis.call('GET', ARGV[2] .. ep)");
+
+    private final RedisAsyncCommands<byte[], byte[]> commands;
+    private final int scanBatchSize;
+    private SecurityStoreListener listener;
+
+    public LettuceSecurityStore(StatefulRedisConnection<byte[], byte[]> connection) {
+        this(connection, DEFAULT_SCAN_BATCH_SIZE);
+    }
+
+    /**
+     * @param connection a connection using a byte array codec, it can be shared with other stores.
+     * @param scanBatchSize the number of security info read or written in one round trip by {@link #getAll()} and
+     *        {@link #addAll(Iterator)}.
+     */
+    public LettuceSecurityStore(StatefulRedisConnection<byte[], byte[]> connection, int scanBatchSize) {
+        Validate.isTrue(scanBatchSize > 0, "scanBatchSize must be positive");
+        this.commands = connection.async();
+        this.scanBatchSize = scanBatchSize;
+    }
+
+    @Override
+    public SecurityInfo getByEndpoint(String endpoint) {
+        return await(getByEndpointAsync(endpoint));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getByEndpoint(String)}.
+     */
+    public CompletionStage<SecurityInfo> getByEndpointAsync(String endpoint) {
+        return commands.get(toKey(endpoint)).thenApply(data -> data == null ? null : deserialize(data));
+    }
+
+    @Override
+    public SecurityInfo getByIdentity(String identity) {
+        return await(getByIdentityAsync(identity));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getByIdentity(String)}.
+     */
+    public CompletionStage<SecurityInfo> getByIdentityAsync(String identity) {
+        return GET_BY_IDENTITY_SCRIPT
+                .<byte[]> eval(commands, ScriptOutputType.VALUE, new byte[][] { PSKID_SEC.getBytes(UTF_8) },
+                        identity.getBytes(UTF_8), SEC_EP.getBytes(UTF_8))
+                .thenApply(data -> data == null ? null : deserialize(data));
+    }
+
+    @Override
+    public Collection<SecurityInfo> getAll() {
+        ScanArgs params = ScanArgs.Builder.matches(SEC_EP + "*").limit(scanBatchSize);
+        Collection<SecurityInfo> list = new LinkedList<>();
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            KeyScanCursor<byte[]> res = await(commands.scan(cursor, params));
+            List<byte[]> keys = res.getKeys();
+            if (!keys.isEmpty()) {
+                for (KeyValue<byte[], byte[]> element : await(commands.mget(keys.toArray(new byte[keys.size()][])))) {
+                    // element has no value if security info was removed since the scan
+                    if (element.hasValue()) {
+                        list.add(deserialize(element.getValue()));
+                    }
+                }
+            }
+            cursor = res;
+        } while (!cursor.isFinished());
+        return list;
+    }
+
+    @Override
+    public SecurityInfo add(SecurityInfo info) throws NonUniqueSecurityInfoException {
+        final byte[] data = serialize(info);
+        final byte[] endpoint = info.getEndpoint().getBytes(UTF_8);
+        final String identity = info.getIdentity();
+
+        CompletionStage<Void> indexUpdated;
+        if (identity == null) {
+            indexUpdated = completed(null);
+        } else {
+            // populate the secondary index (security info by PSK id)
+            indexUpdated = commands.hget(PSKID_SEC.getBytes(UTF_8), identity.getBytes(UTF_8)).thenCompose(old -> {
+                String oldEndpoint = old == null ? null : new String(old, UTF_8);
+                if (oldEndpoint != null && !oldEndpoint.equals(info.getEndpoint())) {
+                    throw new CompletionException(
+                            new NonUniqueSecurityInfoException("PSK Identity " + identity + " is already used"));
+                }
+                return commands.hset(PSKID_SEC.getBytes(UTF_8), identity.getBytes(UTF_8), endpoint)
+                        .thenApply(v -> (Void) null);
+            });
+        }
+
+        CompletionStage<SecurityInfo> result = indexUpdated.thenCompose(v -> {
+            final RedisFuture<byte[]> previousData = commands.getset(toKey(info.getEndpoint()), data);
+            RedisFuture<Long> published = commands.publish(SEC_INVALIDATION_CHANNEL, endpoint);
+            return allOf(previousData, published).thenCompose(nothing -> {
+                byte[] previousValue = valueOf(previousData);
+                final SecurityInfo previous = previousValue == null ? null : deserialize(previousValue);
+                String previousIdentity = previous == null ? null : previous.getIdentity();
+                if (previousIdentity != null && !previousIdentity.equals(identity)) {
+                    return commands.hdel(PSKID_SEC.getBytes(UTF_8), previousIdentity.getBytes(UTF_8))
+                            .thenApply(n -> previous);
+                }
+                return completed(previous);
+            });
+        });
+
+        SecurityInfo previous;
+        try {
+            previous = await(result);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof NonUniqueSecurityInfoException)
+                throw (NonUniqueSecurityInfoException) e.getCause();
+            throw e;
+        }
+        notifyAdded(info);
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Security info are added by batch, each batch costs 2 round trips to Redis whatever its size. If a PSK identity is
+     * already used by another endpoint, the current batch is not written, but the previous batches are. Listener is
+     * notified once per batch.
+     */
+    @Override
+    public void addAll(Iterator<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+        new SecurityInfoBatchWriter(scanBatchSize) {
+            @Override
+            protected void read(Collection<SecurityInfo> batch, Map<String, String> owners,
+                    Map<String, SecurityInfo> previousInfos) {
+                // commands are pipelined
+                Map<String, RedisFuture<byte[]>> ownerFutures = new HashMap<>();
+                Map<String, RedisFuture<byte[]>> previousData = new HashMap<>();
+                for (SecurityInfo info : batch) {
+                    if (info.getIdentity() != null) {
+                        ownerFutures.put(info.getIdentity(),
+                                commands.hget(PSKID_SEC.getBytes(UTF_8), info.getIdentity().getBytes(UTF_8)));
+                    }
+                    previousData.put(info.getEndpoint(), commands.get(toKey(info.getEndpoint())));
+                }
+                List<CompletionStage<?>> reads = new ArrayList<>(ownerFutures.values());
+                reads.addAll(previousData.values());
+                await(allOf(reads));
+
+                for (Entry<String, RedisFuture<byte[]>> owner : ownerFutures.entrySet()) {
+                    byte[] value = valueOf(owner.getValue());
+                    if (value != null) {
+                        owners.put(owner.getKey(), new String(value, UTF_8));
+                    }
+                }
+                for (Entry<String, RedisFuture<byte[]>> data : previousData.entrySet()) {
+                    byte[] value = valueOf(data.getValue());
+                    if (value != null) {
+                        previousInfos.put(data.getKey(), deserialize(value));
+                    }
+                }
+            }
+
+            @Override
+            protected void write(Collection<String> previousIdentities, Collection<SecurityInfo> batch) {
+                // commands are executed in order : old identities are removed before new ones are added
+                List<CompletionStage<?>> writes = new ArrayList<>();
+                for (String previousIdentity : previousIdentities) {
+                    writes.add(commands.hdel(PSKID_SEC.getBytes(UTF_8), previousIdentity.getBytes(UTF_8)));
+                }
+                for (SecurityInfo info : batch) {
+                    if (info.getIdentity() != null) {
+                        writes.add(commands.hset(PSKID_SEC.getBytes(UTF_8), info.getIdentity().getBytes(UTF_8),
+                                info.getEndpoint().getBytes(UTF_8)));
+                    }
+                    writes.add(commands.set(toKey(info.getEndpoint()), serialize(info)));
+                    writes.add(commands.publish(SEC_INVALIDATION_CHANNEL, info.getEndpoint().getBytes(UTF_8)));
+                }
+                await(allOf(writes));
+                notifyAdded(batch.toArray(new SecurityInfo[batch.size()]));
+            }
+        }.addAll(infos);
+    }
+
+    @Override
+    public SecurityInfo remove(final String endpoint, final boolean infosAreCompromised) {
+        CompletionStage<SecurityInfo> result = commands.get(toKey(endpoint)).thenCompose(data -> {
+            if (data == null) {
+                return completed(null);
+            }
+
+            final SecurityInfo info = deserialize(data);
+            List<CompletionStage<?>> removals = new LinkedList<>();
+            if (info.getIdentity() != null) {
+                removals.add(commands.hdel(PSKID_SEC.getBytes(UTF_8), info.getIdentity().getBytes(UTF_8)));
+            }
+            removals.add(commands.del(toKey(endpoint)));
+            removals.add(commands.publish(SEC_INVALIDATION_CHANNEL, endpoint.getBytes(UTF_8)));
+            return allOf(removals).thenApply(v -> info);
+        });
+
+        SecurityInfo info = await(result);
+        if (info != null && listener != null) {
+            listener.securityInfoRemoved(infosAreCompromised, info);
+        }
+        return info;
+    }
+
+    private byte[] toKey(String endpoint) {
+        return (SEC_EP + endpoint).getBytes(UTF_8);
+    }
+
+    private byte[] serialize(SecurityInfo secInfo) {
+        return SecurityInfoSerDes.serialize(secInfo);
+    }
+
+    private SecurityInfo deserialize(byte[] data) {
+        return SecurityInfoSerDes.deserialize(data);
+    }
+
+    @Override
+    public void setListener(SecurityStoreListener listener) {
+        this.listener = listener;
+    }
+
+    private void notifyAdded(SecurityInfo... infos) {
+        if (listener instanceof SecurityStoreAdditionListener) {
+            ((SecurityStoreAdditionListener) listener).securityInfoAdded(infos);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.eclipse.leshan.core.util.Hex;
+
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisScriptingAsyncCommands;
+
+/**
+ * A Lua script executed with EVALSHA, falling back to EVAL when the script is not yet in the Redis script cache.
+ */
+class LuaScript {
+
+    private final byte[] script;
+    private final String sha;
+
+    LuaScript(String script) {
+        this.script = script.getBytes(UTF_8);
+        try {
+            this.sha = Hex.encodeHexString(MessageDigest.getInstance("SHA-1").digest(this.script));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 algorithm is not available", e);
+        }
+    }
+
+    <T> CompletionStage<T> eval(final RedisScriptingAsyncCommands<byte[], byte[]> commands,
+            final ScriptOutputType type, final byte[][] keys, final byte[]... values) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        commands.<T> evalsha(sha, type, keys, values).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (Futures.unwrap(error) instanceof RedisNoScriptException) {
+                // EVAL adds the script to the Redis script cache
+                commands.<T> eval(script, type, keys, values).whenComplete((v, e) -> {
+                    if (e == null) {
+                        result.complete(v);
+                    } else {
+                        result.completeExceptionally(Futures.unwrap(e));
+                    }
+                });
+            } else {
+                result.completeExceptionally(Futures.unwrap(error));
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.util.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+/**
+ * An implementation of {@link LettuceLock} usable in a single instance environment.
+ * <p>
+ * Lock keys and values are compatible with {@code SingleInstanceJedisLock}, so stores based on Jedis and on Lettuce
+ * can share the same Redis.
+ * <p>
+ * Threads are never blocked while waiting for the lock : retries are scheduled on the given executor.
+ * 
+ * @see <a href="http://redis.io/topics/distlock#correct-implementation-with-a-single-instance"> algorithm details</a>
+ */
+public class SingleInstanceLettuceLock implements LettuceLock {
+    private static final Logger LOG = LoggerFactory.getLogger(SingleInstanceLettuceLock.class);
+
+    // KEYS[1] : lock key, ARGV[1] : lock value
+    private static final LuaScript RELEASE_SCRIPT = new LuaScript(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end");
+
+    protected final int DEFAULT_RANDOM_SIZE = 10;
+    protected final int DEFAULT_VALUE_SIZE = DEFAULT_RANDOM_SIZE + Long.SIZE / 8;
+
+    private final RedisAsyncCommands<byte[], byte[]> commands;
+    private final ScheduledExecutorService retryExecutor;
+    private final Random random = new Random();
+    private final int expiration; // in ms
+    private final long maxTime; // in ms
+    private final long iterationTime; // in ms
+
+    /**
+     * Create a {@link SingleInstanceLettuceLock} with {@code expiration} of 500ms, {@code maxTime} of 5000L and
+     * {@code iterationTime} of 10ms
+     * 
+     * @see #SingleInstanceLettuceLock(RedisAsyncCommands, ScheduledExecutorService, int, long, long)
+     */
+    public SingleInstanceLettuceLock(RedisAsyncCommands<byte[], byte[]> commands,
+            ScheduledExecutorService retryExecutor) {
+        this(commands, retryExecutor, 500, 5000L, 10L);
+    }
+
+    /**
+     * @param commands the Redis asynchronous API.
+     * @param retryExecutor the executor used to schedule new tries when the lock is already acquired.
+     * @param expiration The lockKey expiration time in milliseconds. After this time the lock will be release even if
+     *        {@link #release(byte[], byte[])} is not called.
+     * @param maxTime The maximum time to wait in milliseconds to acquire the lock. After this time the returned stage
+     *        is completed with an {@link IllegalStateException}.
+     * @param iterationTime The time to wait in milliseconds before each iteration when we try to acquire the lock.
+     */
+    public SingleInstanceLettuceLock(RedisAsyncCommands<byte[], byte[]> commands,
+            ScheduledExecutorService retryExecutor, int expiration, long maxTime, long iterationTime) {
+        this.commands = commands;
+        this.retryExecutor = retryExecutor;
+        this.expiration = expiration;
+        this.maxTime = maxTime;
+        this.iterationTime = iterationTime;
+    }
+
+    @Override
+    public CompletionStage<byte[]> acquire(byte[] lockKey) {
+        long start = System.currentTimeMillis();
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        tryAcquire(lockKey, generateLockValue(random, start), start, result);
+        return result;
+    }
+
+    private void tryAcquire(final byte[] lockKey, final byte[] lockValue, final long start,
+            final CompletableFuture<byte[]> result) {
+        commands.set(lockKey, lockValue, SetArgs.Builder.nx().px(expiration)).whenComplete((reply, error) -> {
+            if (error != null) {
+                result.completeExceptionally(Futures.unwrap(error));
+            } else if ("OK".equals(reply)) {
+                result.complete(lockValue);
+            } else if (System.currentTimeMillis() - start > maxTime) {
+                result.completeExceptionally(new IllegalStateException(
+                        String.format("Could not acquire a lock from redis after waiting for %dms", maxTime)));
+            } else {
+                retryExecutor.schedule(() -> tryAcquire(lockKey, lockValue, start, result), iterationTime,
+                        TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    @Override
+    public CompletionStage<Void> release(final byte[] lockKey, final byte[] lockValue) {
+        if (lockValue == null) {
+            LOG.warn("Trying to release a lock for {} with a null value", new String(lockKey));
+            return Futures.completed(null);
+        }
+        return RELEASE_SCRIPT.<Long> eval(commands, ScriptOutputType.INTEGER, new byte[][] { lockKey }, lockValue)
+                .thenAccept(nbDeleted -> {
+                    if (nbDeleted == 0) {
+                        LOG.warn(
+                                "Nothing to release for key {}/{}, meaning the key probably expired because of acquiring the lock for too long {}ms (expiration at {}ms)",
+                                new String(lockKey), Hex.encodeHexString(lockValue),
+                                System.currentTimeMillis() - extractTime(lockValue), expiration);
+                    }
+                });
+    }
+
+    protected byte[] generateLockValue(Random r, long timestamp) {
+        ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_VALUE_SIZE);
+        buffer.putLong(timestamp);
+
+        byte[] randomLockValue = new byte[DEFAULT_RANDOM_SIZE];
+        r.nextBytes(randomLockValue);
+        buffer.put(randomLockValue);
+
+        return buffer.array();
+    }
+
+    protected long extractTime(byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        return buffer.getLong();
+    }
+}
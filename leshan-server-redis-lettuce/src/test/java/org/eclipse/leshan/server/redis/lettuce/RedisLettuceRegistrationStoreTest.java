@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+import org.eclipse.leshan.core.Link;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.server.registration.Deregistration;
+import org.eclipse.leshan.server.registration.Registration;
+import org.eclipse.leshan.server.registration.RegistrationUpdate;
+import org.eclipse.leshan.server.registration.UpdatedRegistration;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import redis.embedded.RedisServer;
+
+public class RedisLettuceRegistrationStoreTest {
+
+    private static RedisServer redisServer;
+    private static RedisClient client;
+
+    private StatefulRedisConnection<byte[], byte[]> connection;
+    private LettuceRegistrationStore store;
+
+    @BeforeClass
+    public static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        client = RedisClient.create("redis://localhost:" + port);
+    }
+
+    @AfterClass
+    public static void stopRedis() {
+        client.shutdown();
+        redisServer.stop();
+    }
+
+    @Before
+    public void setUp() {
+        connection = client.connect(ByteArrayCodec.INSTANCE);
+        connection.sync().flushall();
+        store = new LettuceRegistrationStore(connection, 3600, 0, 500);
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+        connection.close();
+    }
+
+    private Registration registration(String id, String endpoint, int port) {
+        return new Registration.Builder(id, endpoint, Identity.unsecure(InetAddress.getLoopbackAddress(), port))
+                .objectLinks(new Link[] { new Link("/1/0") }).lifeTimeInSec(3600L).build();
+    }
+
+    @Test
+    public void add_get_and_remove_registration() {
+        Registration registration = registration("reg1", "ep1", 5683);
+
+        assertNull(store.addRegistration(registration));
+
+        assertEquals(registration, store.getRegistration("reg1"));
+        assertEquals(registration, store.getRegistrationByEndpoint("ep1"));
+        assertEquals(registration,
+                store.getRegistrationByAdress(new InetSocketAddress(InetAddress.getLoopbackAddress(), 5683)));
+        assertEquals(registration, store.getRegistrationByIdentity(registration.getIdentity()));
+
+        Deregistration deregistration = store.removeRegistration("reg1");
+        assertEquals(registration, deregistration.getRegistration());
+        assertNull(store.getRegistration("reg1"));
+        assertNull(store.getRegistrationByEndpoint("ep1"));
+        assertNull(store.getRegistrationByIdentity(registration.getIdentity()));
+    }
+
+    @Test
+    public void add_registration_replaces_previous_one() {
+        Registration first = registration("reg1", "ep1", 5683);
+        Registration second = registration("reg2", "ep1", 5684);
+        store.addRegistration(first);
+
+        Deregistration deregistration = store.addRegistration(second);
+
+        assertEquals(first, deregistration.getRegistration());
+        assertNull(store.getRegistration("reg1"));
+        assertNull(store.getRegistrationByIdentity(first.getIdentity()));
+        assertEquals(second, store.getRegistration("reg2"));
+    }
+
+    @Test
+    public void update_registration() {
+        Registration registration = registration("reg1", "ep1", 5683);
+        store.addRegistration(registration);
+        Identity newIdentity = Identity.unsecure(InetAddress.getLoopbackAddress(), 5690);
+
+        UpdatedRegistration updated = store
+                .updateRegistration(new RegistrationUpdate("reg1", newIdentity, 60L, null, null, null, null));
+
+        assertEquals(registration, updated.getPreviousRegistration());
+        assertEquals(Long.valueOf(60L), updated.getUpdatedRegistration().getLifeTimeInSec());
+        assertEquals(updated.getUpdatedRegistration(), store.getRegistrationByIdentity(newIdentity));
+        assertNull(store.getRegistrationByIdentity(registration.getIdentity()));
+        assertNull(store.updateRegistration(new RegistrationUpdate("unknown", newIdentity, 60L, null, null, null,
+                null)));
+    }
+
+    @Test
+    public void iterate_over_all_registrations() {
+        Set<String> endpoints = new HashSet<>();
+        for (int i = 0; i < 250; i++) {
+            store.addRegistration(registration("reg" + i, "ep" + i, 10000 + i));
+            endpoints.add("ep" + i);
+        }
+
+        Iterator<Registration> iterator = store.getAllRegistrations();
+        Set<String> iterated = new HashSet<>();
+        while (iterator.hasNext()) {
+            iterated.add(iterator.next().getEndpoint());
+        }
+
+        assertEquals(endpoints, iterated);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void concurrent_async_additions_for_same_endpoint() {
+        List<CompletionStage<Deregistration>> additions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            additions.add(store.addRegistrationAsync(registration("reg" + i, "ep", 10000 + i)));
+        }
+
+        int nbDeregistrations = 0;
+        for (CompletionStage<Deregistration> addition : additions) {
+            if (Futures.await(addition) != null) {
+                nbDeregistrations++;
+            }
+        }
+
+        // each addition but the first one replaced a registration
+        assertEquals(19, nbDeregistrations);
+        Registration registration = store.getRegistrationByEndpoint("ep");
+        assertEquals(registration, store.getRegistration(registration.getId()));
+        Iterator<Registration> iterator = store.getAllRegistrations();
+        assertEquals(registration, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.lettuce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.leshan.server.security.NonUniqueSecurityInfoException;
+import org.eclipse.leshan.server.security.SecurityInfo;
+import org.eclipse.leshan.server.security.SecurityStoreAdditionListener;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import redis.embedded.RedisServer;
+
+public class RedisLettuceSecurityStoreTest {
+
+    private static RedisServer redisServer;
+    private static RedisClient client;
+
+    private StatefulRedisConnection<byte[], byte[]> connection;
+    private LettuceSecurityStore store;
+
+    @BeforeClass
+    public static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        client = RedisClient.create("redis://localhost:" + port);
+    }
+
+    @AfterClass
+    public static void stopRedis() {
+        client.shutdown();
+        redisServer.stop();
+    }
+
+    @Before
+    public void setUp() {
+        connection = client.connect(ByteArrayCodec.INSTANCE);
+        connection.sync().flushall();
+        store = new LettuceSecurityStore(connection, 10);
+    }
+
+    @After
+    public void tearDown() {
+        connection.close();
+    }
+
+    @Test
+    public void add_get_and_remove_security_info() throws NonUniqueSecurityInfoException {
+        SecurityInfo info = SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1, 2 });
+
+        assertNull(store.add(info));
+
+        assertEquals(info, store.getByEndpoint("ep1"));
+        assertEquals(info, store.getByIdentity("id1"));
+        assertEquals(info, store.remove("ep1", false));
+        assertNull(store.getByEndpoint("ep1"));
+        assertNull(store.getByIdentity("id1"));
+    }
+
+    @Test
+    public void change_psk_identity() throws NonUniqueSecurityInfoException {
+        SecurityInfo info = SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1, 2 });
+        SecurityInfo newInfo = SecurityInfo.newPreSharedKeyInfo("ep1", "id2", new byte[] { 1, 2 });
+        store.add(info);
+
+        assertEquals(info, store.add(newInfo));
+
+        assertNull(store.getByIdentity("id1"));
+        assertEquals(newInfo, store.getByIdentity("id2"));
+    }
+
+    @Test(expected = NonUniqueSecurityInfoException.class)
+    public void psk_identity_must_be_unique() throws NonUniqueSecurityInfoException {
+        store.add(SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1, 2 }));
+        store.add(SecurityInfo.newPreSharedKeyInfo("ep2", "id1", new byte[] { 1, 2 }));
+    }
+
+    @Test
+    public void get_all_security_info() throws NonUniqueSecurityInfoException {
+        for (int i = 0; i < 35; i++) {
+            store.add(SecurityInfo.newPreSharedKeyInfo("ep" + i, "id" + i, new byte[] { 1, 2 }));
+        }
+
+        assertEquals(35, store.getAll().size());
+    }
+
+    @Test
+    public void add_all_security_info() throws NonUniqueSecurityInfoException {
+        final AtomicInteger events = new AtomicInteger();
+        store.setListener(new SecurityStoreAdditionListener() {
+            @Override
+            public void securityInfoRemoved(boolean infosAreCompromised, SecurityInfo... infos) {
+            }
+
+            @Override
+            public void securityInfoAdded(SecurityInfo... infos) {
+                events.incrementAndGet();
+            }
+        });
+        store.add(SecurityInfo.newPreSharedKeyInfo("ep0", "old", new byte[] { 1, 2 }));
+        List<SecurityInfo> infos = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            infos.add(SecurityInfo.newPreSharedKeyInfo("ep" + i, "id" + i, new byte[] { 1, 2 }));
+        }
+
+        store.addAll(infos.iterator());
+
+        assertEquals(25, store.getAll().size());
+        assertEquals("ep12", store.getByIdentity("id12").getEndpoint());
+        assertNull(store.getByIdentity("old"));
+        // one event for add, then one per batch of 10
+        assertEquals(4, events.get());
+    }
+}
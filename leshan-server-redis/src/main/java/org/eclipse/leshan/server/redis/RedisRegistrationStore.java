@@ -59,6 +59,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Transaction;
@@ -74,6 +76,8 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
     public static final int DEFAULT_CLEAN_LIMIT = 500;
     /** Defaut Extra time for registration lifetime in seconds */
     public static final long DEFAULT_GRACE_PERIOD = 0;
+    /** Default number of registrations fetched in one round trip when iterating over all registrations. */
+    public static final int DEFAULT_SCAN_BATCH_SIZE = 100;
 
     private static final Logger LOG = LoggerFactory.getLogger(RedisRegistrationStore.class);
 
@@ -100,6 +104,7 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
     private final long cleanPeriod; // in seconds
     private final int cleanLimit; // maximum number to clean in a clean period
     private final long gracePeriod; // in seconds
+    private final int scanBatchSize; // number of registrations fetched in one round trip by getAllRegistrations
 
     private final JedisLock lock;
 
@@ -123,12 +128,25 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
      */
     public RedisRegistrationStore(Pool<Jedis> p, ScheduledExecutorService schedExecutor, long cleanPeriodInSec,
             long lifetimeGracePeriodInSec, int cleanLimit, JedisLock redisLock) {
+        this(p, schedExecutor, cleanPeriodInSec, lifetimeGracePeriodInSec, cleanLimit, redisLock,
+                DEFAULT_SCAN_BATCH_SIZE);
+    }
+
+    /**
+     * @param scanBatchSize the number of registrations fetched in one round trip when iterating over all
+     *        registrations (see {@link #getAllRegistrations()}).
+     * @since 2.0
+     */
+    public RedisRegistrationStore(Pool<Jedis> p, ScheduledExecutorService schedExecutor, long cleanPeriodInSec,
+            long lifetimeGracePeriodInSec, int cleanLimit, JedisLock redisLock, int scanBatchSize) {
+        Validate.isTrue(scanBatchSize > 0, "scanBatchSize must be positive");
         this.pool = p;
         this.schedExecutor = schedExecutor;
         this.cleanPeriod = cleanPeriodInSec;
         this.cleanLimit = cleanLimit;
         this.gracePeriod = lifetimeGracePeriodInSec;
         this.lock = redisLock;
+        this.scanBatchSize = scanBatchSize;
     }
 
     /* *************** Redis Key utility function **************** */
@@ -306,56 +324,94 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
 
     @Override
     public Iterator<Registration> getAllRegistrations() {
-        return new RedisIterator(pool, new ScanParams().match(REG_EP + "*").count(100));
+        return new RedisIterator(pool, new ScanParams().match(REG_EP + "*").count(scanBatchSize), scanBatchSize);
     }
 
+    /**
+     * An {@link Iterator} which SCANs registration keys and fetches the corresponding values using pipelined MGET
+     * batches.
+     * <p>
+     * Keys are collected from SCAN until at least <code>batchSize</code> keys are available, then all their values are
+     * fetched in a single round trip (one MGET of at most <code>batchSize</code> keys per batch, all sent in the same
+     * pipeline). Values are only deserialized when {@link #next()} is called.
+     */
     protected class RedisIterator implements Iterator<Registration> {
 
-        private Pool<Jedis> pool;
-        private ScanParams scanParams;
+        private final Pool<Jedis> pool;
+        private final ScanParams scanParams;
+        private final int batchSize;
 
-        private String cursor;
-        private List<Registration> scanResult;
+        private byte[] cursor;
+        private boolean scanCompleted;
+        private List<byte[]> values;
+        private int index;
 
         public RedisIterator(Pool<Jedis> p, ScanParams scanParams) {
-            pool = p;
+            this(p, scanParams, DEFAULT_SCAN_BATCH_SIZE);
+        }
+
+        /**
+         * @since 2.0
+         */
+        public RedisIterator(Pool<Jedis> p, ScanParams scanParams, int batchSize) {
+            Validate.isTrue(batchSize > 0, "batchSize must be positive");
+            this.pool = p;
             this.scanParams = scanParams;
-            // init scan result
-            scanNext("0");
+            this.batchSize = batchSize;
+            this.cursor = ScanParams.SCAN_POINTER_START_BINARY;
+            this.values = Collections.emptyList();
+            this.index = 0;
         }
 
-        private void scanNext(String cursor) {
+        private void fetchNext() {
             try (Jedis j = pool.getResource()) {
+                // collect keys until we have a full batch or the scan is completed
+                List<byte[]> keys = new ArrayList<>(batchSize);
                 do {
-                    ScanResult<byte[]> sr = j.scan(cursor.getBytes(), scanParams);
-
-                    this.scanResult = new ArrayList<>();
-                    if (sr.getResult() != null && !sr.getResult().isEmpty()) {
-                        for (byte[] value : j.mget(sr.getResult().toArray(new byte[][] {}))) {
-                            this.scanResult.add(deserializeReg(value));
-                        }
+                    ScanResult<byte[]> sr = j.scan(cursor, scanParams);
+                    if (sr.getResult() != null) {
+                        keys.addAll(sr.getResult());
                     }
-
-                    cursor = sr.getCursor();
-                } while (!"0".equals(cursor) && scanResult.isEmpty());
-
-                this.cursor = cursor;
+                    cursor = sr.getCursorAsBytes();
+                    scanCompleted = Arrays.equals(ScanParams.SCAN_POINTER_START_BINARY, cursor);
+                } while (!scanCompleted && keys.size() < batchSize);
+
+                // fetch all values in one round trip
+                List<byte[]> fetched = new ArrayList<>(keys.size());
+                if (!keys.isEmpty()) {
+                    List<Response<List<byte[]>>> responses = new ArrayList<>();
+                    Pipeline pipeline = j.pipelined();
+                    for (int from = 0; from < keys.size(); from += batchSize) {
+                        List<byte[]> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+                        responses.add(pipeline.mget(batch.toArray(new byte[batch.size()][])));
+                    }
+                    pipeline.sync();
+                    for (Response<List<byte[]>> response : responses) {
+                        fetched.addAll(response.get());
+                    }
+                }
+                this.values = fetched;
+                this.index = 0;
             }
         }
 
         @Override
         public boolean hasNext() {
-            if (!scanResult.isEmpty()) {
-                return true;
-            }
-            if ("0".equals(cursor)) {
-                // no more elements to scan
-                return false;
+            while (true) {
+                // skip values of keys removed between SCAN and MGET
+                while (index < values.size()) {
+                    if (values.get(index) != null) {
+                        return true;
+                    }
+                    index++;
+                }
+                if (scanCompleted) {
+                    // no more elements to scan
+                    return false;
+                }
+                // read more elements
+                fetchNext();
             }
-
-            // read more elements
-            scanNext(cursor);
-            return !scanResult.isEmpty();
         }
 
         @Override
@@ -363,7 +419,9 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            return scanResult.remove(0);
+            byte[] value = values.get(index);
+            values.set(index++, null); // release serialized data as soon as possible
+            return deserializeReg(value);
         }
 
         @Override
@@ -15,82 +15,190 @@
  *******************************************************************************/
 package org.eclipse.leshan.server.redis;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.leshan.core.Destroyable;
+import org.eclipse.leshan.core.Startable;
+import org.eclipse.leshan.core.Stoppable;
+import org.eclipse.leshan.core.util.Hex;
+import org.eclipse.leshan.core.util.NamedThreadFactory;
+import org.eclipse.leshan.core.util.Validate;
 import org.eclipse.leshan.server.redis.serialization.SecurityInfoSerDes;
-import org.eclipse.leshan.server.security.EditableSecurityStore;
+import org.eclipse.leshan.server.security.BulkEditableSecurityStore;
 import org.eclipse.leshan.server.security.NonUniqueSecurityInfoException;
 import org.eclipse.leshan.server.security.SecurityInfo;
 import org.eclipse.leshan.server.security.SecurityStore;
+import org.eclipse.leshan.server.security.SecurityStoreAdditionListener;
 import org.eclipse.leshan.server.security.SecurityStoreListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 import redis.clients.jedis.util.Pool;
 
 /**
  * A {@link SecurityStore} implementation based on Redis.
- * 
+ * <p>
  * Security info are stored using the endpoint as primary key and a secondary index is created for psk-identity lookup.
+ * Lookup by psk-identity is done in one round trip using a Lua script.
+ * <p>
+ * <strong>This store only works with a single Redis instance</strong> (possibly replicated and monitored by Sentinel):
+ * the lookup script reads the security info key found in the psk-identity index, which can not be declared before
+ * running the script. Redis Cluster rejects such scripts, and tools relying on declared keys (e.g. to route or
+ * replicate scripts) do not see this access. Modifications also update both keys without sharing a hash slot.
+ * <p>
+ * An optional bounded in-process cache can be used (see {@link #RedisSecurityStore(Pool, int, int)}). Each
+ * modification is published on a Redis channel, so caches of all the stores sharing the same Redis are invalidated.
+ * The cache is only used between {@link #start()} and {@link #stop()} while the invalidation channel is subscribed.
  */
-public class RedisSecurityStore implements EditableSecurityStore {
+public class RedisSecurityStore implements BulkEditableSecurityStore, Startable, Stoppable, Destroyable {
+
+    /** Default number of security info read or written in one round trip by bulk operations. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final Logger LOG = LoggerFactory.getLogger(RedisSecurityStore.class);
 
     private static final String SEC_EP = "SEC#EP#";
 
     private static final String PSKID_SEC = "PSKID#SEC";
 
+    private static final byte[] SEC_INVALIDATION_CHANNEL = "SEC#INVALIDATION".getBytes(UTF_8); // (Endpoint)
+
+    // KEYS[1] : psk-identity index, ARGV[1] : psk-identity, ARGV[2] : security info key prefix
+    // The security info key is not declared in KEYS as it is read from the index: single instance only.
+    private static final byte[] GET_BY_IDENTITY_SCRIPT = ("local ep = redis.call('HGET', KEYS[1], ARGV[1])\n" //
+            + "if not ep then return false end\n" //
+            + "return redis.call('GET', ARGV[2] .. ep)").getBytes(UTF_8);
+    private static final byte[] GET_BY_IDENTITY_SCRIPT_SHA = sha1(GET_BY_IDENTITY_SCRIPT);
+
     private final Pool<Jedis> pool;
+    private final int batchSize;
     private SecurityStoreListener listener;
 
+    // cache and its invalidation subscriber, null if cache is not used
+    private final SecurityInfoCache cache;
+    private final ExecutorService subscriberExecutor;
+    private volatile boolean started = false;
+    private volatile BinaryJedisPubSub subscriber;
+
     public RedisSecurityStore(Pool<Jedis> pool) {
+        this(pool, 0, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param pool the Redis connection pool. When cache is used, one connection is dedicated to the invalidation
+     *        channel subscription.
+     * @param cacheSize the maximum number of security info kept in the in-process cache, 0 to disable it.
+     * @param batchSize the number of security info read or written in one round trip by {@link #getAll()} and
+     *        {@link #addAll(Iterator)}.
+     * @since 2.0
+     */
+    public RedisSecurityStore(Pool<Jedis> pool, int cacheSize, int batchSize) {
+        Validate.isTrue(cacheSize >= 0, "cacheSize must not be negative");
+        Validate.isTrue(batchSize > 0, "batchSize must be positive");
         this.pool = pool;
+        this.batchSize = batchSize;
+        if (cacheSize > 0) {
+            this.cache = new SecurityInfoCache(cacheSize);
+            this.subscriberExecutor = Executors
+                    .newSingleThreadExecutor(new NamedThreadFactory("RedisSecurityStore Invalidation Subscriber"));
+        } else {
+            this.cache = null;
+            this.subscriberExecutor = null;
+        }
     }
 
     @Override
     public SecurityInfo getByEndpoint(String endpoint) {
+        long generation = 0;
+        if (cache != null) {
+            SecurityInfo info = cache.getByEndpoint(endpoint);
+            if (info != null)
+                return info;
+            generation = cache.generation();
+        }
+
         try (Jedis j = pool.getResource()) {
-            byte[] data = j.get((SEC_EP + endpoint).getBytes());
+            byte[] data = j.get(toKey(endpoint));
             if (data == null) {
                 return null;
             } else {
-                return deserialize(data);
+                return cache(deserialize(data), generation);
             }
         }
     }
 
     @Override
     public SecurityInfo getByIdentity(String identity) {
+        long generation = 0;
+        if (cache != null) {
+            SecurityInfo info = cache.getByIdentity(identity);
+            if (info != null)
+                return info;
+            generation = cache.generation();
+        }
+
         try (Jedis j = pool.getResource()) {
-            String ep = j.hget(PSKID_SEC, identity);
-            if (ep == null) {
+            byte[] data = evalGetByIdentity(j, identity);
+            if (data == null) {
                 return null;
             } else {
-                byte[] data = j.get((SEC_EP + ep).getBytes());
-                if (data == null) {
-                    return null;
-                } else {
-                    return deserialize(data);
-                }
+                return cache(deserialize(data), generation);
             }
         }
     }
 
+    private byte[] evalGetByIdentity(Jedis j, String identity) {
+        byte[][] params = new byte[][] { PSKID_SEC.getBytes(UTF_8), identity.getBytes(UTF_8), SEC_EP.getBytes(UTF_8) };
+        Object result;
+        try {
+            result = j.evalsha(GET_BY_IDENTITY_SCRIPT_SHA, 1, params);
+        } catch (JedisNoScriptException e) {
+            // script is not yet in the Redis script cache, EVAL will add it.
+            result = j.eval(GET_BY_IDENTITY_SCRIPT, 1, params);
+        }
+        return (byte[]) result;
+    }
+
     @Override
     public Collection<SecurityInfo> getAll() {
         try (Jedis j = pool.getResource()) {
-            ScanParams params = new ScanParams().match(SEC_EP + "*").count(100);
+            ScanParams params = new ScanParams().match(SEC_EP + "*").count(batchSize);
             Collection<SecurityInfo> list = new LinkedList<>();
-            String cursor = "0";
+            byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
             do {
-                ScanResult<byte[]> res = j.scan(cursor.getBytes(), params);
-                for (byte[] key : res.getResult()) {
-                    byte[] element = j.get(key);
-                    list.add(deserialize(element));
+                ScanResult<byte[]> res = j.scan(cursor, params);
+                List<byte[]> keys = res.getResult();
+                if (keys != null && !keys.isEmpty()) {
+                    for (byte[] element : j.mget(keys.toArray(new byte[keys.size()][]))) {
+                        // element is null if security info was removed since the scan
+                        if (element != null) {
+                            list.add(deserialize(element));
+                        }
+                    }
                 }
-                cursor = res.getCursor();
-            } while (!"0".equals(cursor));
+                cursor = res.getCursorAsBytes();
+            } while (!Arrays.equals(ScanParams.SCAN_POINTER_START_BINARY, cursor));
             return list;
         }
     }
@@ -108,28 +216,99 @@ public class RedisSecurityStore implements EditableSecurityStore {
                 j.hset(PSKID_SEC.getBytes(), info.getIdentity().getBytes(), info.getEndpoint().getBytes());
             }
 
-            byte[] previousData = j.getSet((SEC_EP + info.getEndpoint()).getBytes(), data);
+            byte[] previousData = j.getSet(toKey(info.getEndpoint()), data);
             SecurityInfo previous = previousData == null ? null : deserialize(previousData);
             String previousIdentity = previous == null ? null : previous.getIdentity();
             if (previousIdentity != null && !previousIdentity.equals(info.getIdentity())) {
                 j.hdel(PSKID_SEC, previousIdentity);
             }
+            invalidate(j, info.getEndpoint());
+            notifyAdded(info);
 
             return previous;
         }
     }
 
+    /**
+     * Add several security info using pipelined requests : each batch of security info costs 2 round trips to Redis
+     * whatever its size.
+     * <p>
+     * All security info of a batch are validated before to be written. If a PSK identity is already used by another
+     * endpoint, a {@link NonUniqueSecurityInfoException} is raised and the current batch is not written, but the
+     * previous batches are. Listener is notified once per batch.
+     * 
+     * @param infos the security info to add.
+     * @throws NonUniqueSecurityInfoException if a PSK identity is already used by another endpoint.
+     * @since 2.0
+     */
+    @Override
+    public void addAll(Iterator<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+        try (final Jedis j = pool.getResource()) {
+            new SecurityInfoBatchWriter(batchSize) {
+                @Override
+                protected void read(Collection<SecurityInfo> batch, Map<String, String> owners,
+                        Map<String, SecurityInfo> previousInfos) {
+                    Map<String, Response<String>> ownerResponses = new HashMap<>();
+                    Map<String, Response<byte[]>> previousData = new HashMap<>();
+                    Pipeline pipeline = j.pipelined();
+                    for (SecurityInfo info : batch) {
+                        if (info.getIdentity() != null) {
+                            ownerResponses.put(info.getIdentity(), pipeline.hget(PSKID_SEC, info.getIdentity()));
+                        }
+                        previousData.put(info.getEndpoint(), pipeline.get(toKey(info.getEndpoint())));
+                    }
+                    pipeline.sync();
+
+                    for (Entry<String, Response<String>> owner : ownerResponses.entrySet()) {
+                        if (owner.getValue().get() != null) {
+                            owners.put(owner.getKey(), owner.getValue().get());
+                        }
+                    }
+                    for (Entry<String, Response<byte[]>> data : previousData.entrySet()) {
+                        if (data.getValue().get() != null) {
+                            previousInfos.put(data.getKey(), deserialize(data.getValue().get()));
+                        }
+                    }
+                }
+
+                @Override
+                protected void write(Collection<String> previousIdentities, Collection<SecurityInfo> batch) {
+                    Pipeline pipeline = j.pipelined();
+                    for (String previousIdentity : previousIdentities) {
+                        pipeline.hdel(PSKID_SEC, previousIdentity);
+                    }
+                    for (SecurityInfo info : batch) {
+                        if (info.getIdentity() != null) {
+                            pipeline.hset(PSKID_SEC.getBytes(UTF_8), info.getIdentity().getBytes(UTF_8),
+                                    info.getEndpoint().getBytes(UTF_8));
+                        }
+                        pipeline.set(toKey(info.getEndpoint()), serialize(info));
+                        pipeline.publish(SEC_INVALIDATION_CHANNEL, info.getEndpoint().getBytes(UTF_8));
+                    }
+                    pipeline.sync();
+                    if (cache != null) {
+                        for (SecurityInfo info : batch) {
+                            cache.invalidate(info.getEndpoint());
+                        }
+                    }
+                    notifyAdded(batch.toArray(new SecurityInfo[batch.size()]));
+                }
+            }.addAll(infos);
+        }
+    }
+
     @Override
     public SecurityInfo remove(String endpoint, boolean infosAreCompromised) {
         try (Jedis j = pool.getResource()) {
-            byte[] data = j.get((SEC_EP + endpoint).getBytes());
+            byte[] data = j.get(toKey(endpoint));
 
             if (data != null) {
                 SecurityInfo info = deserialize(data);
                 if (info.getIdentity() != null) {
                     j.hdel(PSKID_SEC.getBytes(), info.getIdentity().getBytes());
                 }
-                j.del((SEC_EP + endpoint).getBytes());
+                j.del(toKey(endpoint));
+                invalidate(j, endpoint);
                 if (listener != null) {
                     listener.securityInfoRemoved(infosAreCompromised, info);
                 }
@@ -139,6 +318,10 @@ public class RedisSecurityStore implements EditableSecurityStore {
         return null;
     }
 
+    private byte[] toKey(String endpoint) {
+        return (SEC_EP + endpoint).getBytes(UTF_8);
+    }
+
     private byte[] serialize(SecurityInfo secInfo) {
         return SecurityInfoSerDes.serialize(secInfo);
     }
@@ -151,4 +334,124 @@ public class RedisSecurityStore implements EditableSecurityStore {
     public void setListener(SecurityStoreListener listener) {
         this.listener = listener;
     }
-}
\ No newline at end of file
+
+    private void notifyAdded(SecurityInfo... infos) {
+        if (listener instanceof SecurityStoreAdditionListener) {
+            ((SecurityStoreAdditionListener) listener).securityInfoAdded(infos);
+        }
+    }
+
+    /* *************** Cache handling **************** */
+
+    private SecurityInfo cache(SecurityInfo info, long generation) {
+        if (cache != null) {
+            cache.put(info, generation);
+        }
+        return info;
+    }
+
+    private void invalidate(Jedis j, String endpoint) {
+        // local cache is invalidated immediately, other stores are notified through the invalidation channel.
+        if (cache != null) {
+            cache.invalidate(endpoint);
+        }
+        j.publish(SEC_INVALIDATION_CHANNEL, endpoint.getBytes(UTF_8));
+    }
+
+    /**
+     * Start to listen to the invalidation channel, the cache is used only once subscription is effective.
+     */
+    @Override
+    public synchronized void start() {
+        if (cache != null && !started) {
+            started = true;
+            subscriberExecutor.execute(new Subscriber());
+        }
+    }
+
+    /**
+     * Stop to listen to the invalidation channel and stop to use the cache.
+     */
+    @Override
+    public synchronized void stop() {
+        if (started) {
+            started = false;
+            BinaryJedisPubSub s = subscriber;
+            if (s != null && s.isSubscribed()) {
+                s.unsubscribe();
+            }
+            cache.disable();
+        }
+    }
+
+    /**
+     * Destroy the invalidation channel subscriber thread.
+     */
+    @Override
+    public synchronized void destroy() {
+        stop();
+        if (subscriberExecutor != null) {
+            subscriberExecutor.shutdownNow();
+            try {
+                subscriberExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                LOG.warn("Destroying RedisSecurityStore was interrupted.", e);
+            }
+        }
+    }
+
+    private class Subscriber implements Runnable {
+
+        @Override
+        public void run() {
+            while (started) {
+                try (Jedis j = pool.getResource()) {
+                    subscriber = new BinaryJedisPubSub() {
+                        @Override
+                        public void onSubscribe(byte[] channel, int subscribedChannels) {
+                            if (!started) {
+                                // store was stopped before subscription was effective
+                                unsubscribe();
+                                return;
+                            }
+                            // invalidation may have been missed before subscription
+                            cache.enable();
+                        }
+
+                        @Override
+                        public void onMessage(byte[] channel, byte[] message) {
+                            cache.invalidate(new String(message, UTF_8));
+                        }
+                    };
+                    if (started) {
+                        // blocks until unsubscribe or connection lost
+                        j.subscribe(subscriber, SEC_INVALIDATION_CHANNEL);
+                    }
+                } catch (RuntimeException e) {
+                    if (started) {
+                        LOG.warn("Invalidation channel subscription lost, security info cache is disabled", e);
+                    }
+                } finally {
+                    // invalidation messages can not be received anymore
+                    cache.disable();
+                }
+                if (started) {
+                    // wait before trying to subscribe again
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] sha1(byte[] script) {
+        try {
+            return Hex.encodeHexString(MessageDigest.getInstance("SHA-1").digest(script)).getBytes(UTF_8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 algorithm is not available", e);
+        }
+    }
+}
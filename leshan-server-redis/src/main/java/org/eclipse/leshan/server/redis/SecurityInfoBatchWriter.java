@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.leshan.server.security.NonUniqueSecurityInfoException;
+import org.eclipse.leshan.server.security.SecurityInfo;
+
+/**
+ * Adds {@link SecurityInfo} to Redis by batch, whatever the Redis client used.
+ * <p>
+ * Each batch costs 2 round trips: one to read the current owner of each PSK identity and the current security info of
+ * each endpoint, one to write. All security info of a batch are validated before to be written. If a PSK identity is
+ * already used by another endpoint, a {@link NonUniqueSecurityInfoException} is raised and the current batch is not
+ * written, but the previous batches are.
+ * <p>
+ * Implementations do the Redis commands and are used for one bulk addition.
+ *
+ * @since 2.0
+ */
+public abstract class SecurityInfoBatchWriter {
+
+    private final int batchSize;
+
+    /**
+     * @param batchSize the number of security info read or written in one round trip.
+     */
+    protected SecurityInfoBatchWriter(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds all the given security info, batch by batch.
+     * 
+     * @throws NonUniqueSecurityInfoException if a PSK identity is already used by another endpoint.
+     */
+    public void addAll(Iterator<SecurityInfo> infos) throws NonUniqueSecurityInfoException {
+        // last info wins when an endpoint is present several times
+        Map<String, SecurityInfo> batch = new LinkedHashMap<>();
+        while (infos.hasNext()) {
+            SecurityInfo info = infos.next();
+            batch.put(info.getEndpoint(), info);
+            if (batch.size() >= batchSize) {
+                addBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            addBatch(batch);
+        }
+    }
+
+    private void addBatch(Map<String, SecurityInfo> batch) throws NonUniqueSecurityInfoException {
+        // check unicity of PSK identity inside the batch
+        Map<String, String> endpointByIdentity = new HashMap<>();
+        for (SecurityInfo info : batch.values()) {
+            if (info.getIdentity() != null) {
+                String otherEndpoint = endpointByIdentity.put(info.getIdentity(), info.getEndpoint());
+                if (otherEndpoint != null) {
+                    throw new NonUniqueSecurityInfoException("PSK Identity " + info.getIdentity() + " is already used");
+                }
+            }
+        }
+
+        Map<String, String> owners = new HashMap<>();
+        Map<String, SecurityInfo> previousInfos = new HashMap<>();
+        read(batch.values(), owners, previousInfos);
+
+        // an identity owned by another endpoint is only available if this endpoint gets another identity in this batch
+        for (SecurityInfo info : batch.values()) {
+            if (info.getIdentity() != null) {
+                String owner = owners.get(info.getIdentity());
+                if (owner != null && !owner.equals(info.getEndpoint()) && !batch.containsKey(owner)) {
+                    throw new NonUniqueSecurityInfoException("PSK Identity " + info.getIdentity() + " is already used");
+                }
+            }
+        }
+
+        List<String> previousIdentities = new ArrayList<>();
+        for (SecurityInfo info : batch.values()) {
+            SecurityInfo previous = previousInfos.get(info.getEndpoint());
+            String previousIdentity = previous == null ? null : previous.getIdentity();
+            if (previousIdentity != null && !previousIdentity.equals(info.getIdentity())) {
+                previousIdentities.add(previousIdentity);
+            }
+        }
+        write(previousIdentities, batch.values());
+    }
+
+    /**
+     * Reads in one round trip the endpoint owning the PSK identity of each info and the security info currently stored
+     * for each endpoint.
+     * 
+     * @param infos the security info to add.
+     * @param owners to fill with the endpoint owning each PSK identity, if any.
+     * @param previousInfos to fill with the security info currently stored for each endpoint, if any.
+     */
+    protected abstract void read(Collection<SecurityInfo> infos, Map<String, String> owners,
+            Map<String, SecurityInfo> previousInfos);
+
+    /**
+     * Writes in one round trip, in this order: removal of the PSK identities no more used from the index, then for each
+     * info its PSK identity index, its value and its invalidation message. Listener should be notified once written.
+     * 
+     * @param previousIdentities the PSK identities to remove from the index.
+     * @param infos the security info to add.
+     */
+    protected abstract void write(Collection<String> previousIdentities, Collection<SecurityInfo> infos);
+}
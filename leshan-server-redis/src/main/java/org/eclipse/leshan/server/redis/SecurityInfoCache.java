@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.leshan.server.security.SecurityInfo;
+
+/**
+ * A bounded LRU cache of {@link SecurityInfo} indexed by endpoint and by PSK identity.
+ * <p>
+ * The cache is disabled until {@link #enable()} is called, this allows to use it only while invalidation messages can
+ * be received. Values read from the backing store are added with the generation read <strong>before</strong> accessing
+ * the store, so a value which was invalidated in the meantime is never cached.
+ */
+class SecurityInfoCache {
+
+    private final Map<String, SecurityInfo> byEndpoint;
+    private final Map<String, String> endpointByIdentity = new HashMap<>();
+
+    private long generation = 0;
+    private boolean enabled = false;
+
+    SecurityInfoCache(final int maxSize) {
+        this.byEndpoint = new LinkedHashMap<String, SecurityInfo>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<String, SecurityInfo> eldest) {
+                if (size() > maxSize) {
+                    removeIdentityIndex(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the current generation of the cache, to give to {@link #put(SecurityInfo, long)} once the value is read
+     *         from the backing store.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized SecurityInfo getByEndpoint(String endpoint) {
+        if (!enabled)
+            return null;
+        return byEndpoint.get(endpoint);
+    }
+
+    synchronized SecurityInfo getByIdentity(String identity) {
+        if (!enabled)
+            return null;
+        String endpoint = endpointByIdentity.get(identity);
+        if (endpoint == null)
+            return null;
+        return byEndpoint.get(endpoint);
+    }
+
+    /**
+     * Add a value to the cache if it was not invalidated since the given generation.
+     */
+    synchronized void put(SecurityInfo info, long generation) {
+        if (!enabled || generation != this.generation)
+            return;
+        removeIdentityIndex(byEndpoint.put(info.getEndpoint(), info));
+        if (info.getIdentity() != null) {
+            endpointByIdentity.put(info.getIdentity(), info.getEndpoint());
+        }
+    }
+
+    synchronized void invalidate(String endpoint) {
+        generation++;
+        removeIdentityIndex(byEndpoint.remove(endpoint));
+    }
+
+    synchronized void enable() {
+        clear();
+        enabled = true;
+    }
+
+    synchronized void disable() {
+        clear();
+        enabled = false;
+    }
+
+    private void clear() {
+        generation++;
+        byEndpoint.clear();
+        endpointByIdentity.clear();
+    }
+
+    private void removeIdentityIndex(SecurityInfo info) {
+        if (info != null && info.getIdentity() != null) {
+            endpointByIdentity.remove(info.getIdentity());
+        }
+    }
+}
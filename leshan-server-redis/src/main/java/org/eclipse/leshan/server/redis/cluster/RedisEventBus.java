@@ -0,0 +1,606 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.cluster;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.leshan.core.Destroyable;
+import org.eclipse.leshan.core.Startable;
+import org.eclipse.leshan.core.Stoppable;
+import org.eclipse.leshan.core.observation.Observation;
+import org.eclipse.leshan.core.response.ObserveResponse;
+import org.eclipse.leshan.core.util.NamedThreadFactory;
+import org.eclipse.leshan.core.util.Validate;
+import org.eclipse.leshan.server.observation.ObservationListener;
+import org.eclipse.leshan.server.queue.PresenceListener;
+import org.eclipse.leshan.server.redis.serialization.LwM2mObservationSerDes;
+import org.eclipse.leshan.server.redis.serialization.RegistrationSerDes;
+import org.eclipse.leshan.server.redis.serialization.RegistrationUpdateSerDes;
+import org.eclipse.leshan.server.registration.Registration;
+import org.eclipse.leshan.server.registration.RegistrationListener;
+import org.eclipse.leshan.server.registration.RegistrationUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.StreamPendingEntry;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.Pool;
+
+/**
+ * An event bus which shares registration, observation and presence events between the nodes of a Leshan server
+ * cluster using a Redis Stream.
+ * <p>
+ * Events received through the {@link RegistrationListener}, {@link ObservationListener} and {@link PresenceListener}
+ * interfaces (so events fired by the local server) are serialized in JSON and appended to the stream by batch, in one
+ * round trip. Events appended by other nodes are read from the stream and dispatched to the listeners added to this
+ * bus. Events appended by this node are not dispatched again.
+ * <p>
+ * Each node reads the stream using its own consumer group named after the node id, and acknowledges events once
+ * dispatched. Events for which a listener threw an exception are not acknowledged and are dispatched again later, up to
+ * a maximum number of deliveries. Then they are acknowledged and, if a dead-letter stream is configured, appended to it
+ * so they can be inspected.
+ * Events which were read but not acknowledged (e.g. node crash) and events appended while the node was stopped are
+ * dispatched when the node starts again, so delivery is <strong>at-least-once</strong> as long as the events were not
+ * trimmed from the stream. Listeners should be able to handle the same event twice.
+ * <p>
+ * Observation notifications and errors ({@link ObservationListener#onResponse(Observation, Registration, ObserveResponse)}
+ * and {@link ObservationListener#onError(Observation, Registration, Exception)}) are not shared.
+ * <p>
+ * Usage :
+ *
+ * <pre>
+ * RedisEventBus bus = new RedisEventBus(pool, nodeId);
+ * server.getRegistrationService().addListener(bus);
+ * server.getObservationService().addListener(bus);
+ * server.getPresenceService().addListener(bus);
+ * bus.addRegistrationListener(myListener);
+ * bus.start();
+ * </pre>
+ *
+ * Redis 5.0 or later is required.
+ *
+ * @since 2.0
+ */
+public class RedisEventBus
+        implements RegistrationListener, ObservationListener, PresenceListener, Startable, Stoppable, Destroyable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RedisEventBus.class);
+
+    /** Default key of the Redis Stream. */
+    public static final String DEFAULT_STREAM_KEY = "EVT:STREAM";
+    /** Default maximum number of events appended or read in one round trip. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    /** Default time in milliseconds to wait for more events before appending a batch. */
+    public static final long DEFAULT_FLUSH_INTERVAL = 10;
+    /** Default approximate maximum number of events kept in the stream. */
+    public static final long DEFAULT_MAX_LENGTH = 100000;
+    /** Default maximum number of times an event is dispatched before giving up. */
+    public static final int DEFAULT_MAX_DELIVERIES = 10;
+
+    // time in ms to block waiting for events, must be lower than the Jedis socket timeout
+    private static final long BLOCK_TIMEOUT = 1000;
+    // time in ms to wait before retrying when Redis is not reachable
+    private static final long RETRY_DELAY = 1000;
+
+    // stream entry fields
+    private static final String NODE = "n";
+    private static final String TYPE = "t";
+    private static final String DATA = "d";
+
+    // event types
+    private static final String REGISTERED = "reg";
+    private static final String UPDATED = "upd";
+    private static final String UNREGISTERED = "dereg";
+    private static final String NEW_OBSERVATION = "obs";
+    private static final String CANCELLED = "cancel";
+    private static final String AWAKE = "awake";
+    private static final String SLEEPING = "sleeping";
+
+    private final Pool<Jedis> pool;
+    private final String nodeId;
+    private final String streamKey;
+    private final int batchSize;
+    private final long flushInterval;
+    private final long maxLength;
+    private final int maxDeliveries;
+    private final String deadLetterStreamKey;
+
+    private final BlockingQueue<Map<String, String>> outgoing = new LinkedBlockingQueue<>();
+    private final List<RegistrationListener> registrationListeners = new CopyOnWriteArrayList<>();
+    private final List<ObservationListener> observationListeners = new CopyOnWriteArrayList<>();
+    private final List<PresenceListener> presenceListeners = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService publisherExecutor;
+    private final ExecutorService consumerExecutor;
+    private volatile boolean started = false;
+    private volatile boolean groupCreated = false;
+
+    /**
+     * @param pool the Redis connection pool. Two connections are used by the bus while it is started.
+     * @param nodeId the unique id of this node in the cluster, it must not change across restarts.
+     */
+    public RedisEventBus(Pool<Jedis> pool, String nodeId) {
+        this(pool, nodeId, DEFAULT_STREAM_KEY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param pool the Redis connection pool. Two connections are used by the bus while it is started.
+     * @param nodeId the unique id of this node in the cluster, it must not change across restarts.
+     * @param streamKey the key of the Redis Stream shared by all the nodes.
+     * @param batchSize the maximum number of events appended or read in one round trip.
+     * @param flushInterval the time in milliseconds to wait for more events before appending a batch.
+     * @param maxLength the approximate maximum number of events kept in the stream. Events of a node stopped for
+     *        longer than the time needed to append this number of events are lost for this node.
+     */
+    public RedisEventBus(Pool<Jedis> pool, String nodeId, String streamKey, int batchSize, long flushInterval,
+            long maxLength) {
+        this(pool, nodeId, streamKey, batchSize, flushInterval, maxLength, DEFAULT_MAX_DELIVERIES, null);
+    }
+
+    /**
+     * @param pool the Redis connection pool. Two connections are used by the bus while it is started.
+     * @param nodeId the unique id of this node in the cluster, it must not change across restarts.
+     * @param streamKey the key of the Redis Stream shared by all the nodes.
+     * @param batchSize the maximum number of events appended or read in one round trip.
+     * @param flushInterval the time in milliseconds to wait for more events before appending a batch.
+     * @param maxLength the approximate maximum number of events kept in the stream. Events of a node stopped for
+     *        longer than the time needed to append this number of events are lost for this node.
+     * @param maxDeliveries the maximum number of times an event is dispatched to the listeners when they fail to
+     *        handle it, before acknowledging it anyway.
+     * @param deadLetterStreamKey the key of the Redis Stream to which events are appended when they could not be
+     *        dispatched, or <code>null</code> to only log them.
+     */
+    public RedisEventBus(Pool<Jedis> pool, String nodeId, String streamKey, int batchSize, long flushInterval,
+            long maxLength, int maxDeliveries, String deadLetterStreamKey) {
+        Validate.notNull(pool);
+        Validate.notNull(nodeId);
+        Validate.notNull(streamKey);
+        Validate.isTrue(batchSize > 0, "batchSize must be positive");
+        Validate.isTrue(flushInterval >= 0, "flushInterval must not be negative");
+        Validate.isTrue(maxLength > 0, "maxLength must be positive");
+        Validate.isTrue(maxDeliveries > 0, "maxDeliveries must be positive");
+        this.pool = pool;
+        this.nodeId = nodeId;
+        this.streamKey = streamKey;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxLength = maxLength;
+        this.maxDeliveries = maxDeliveries;
+        this.deadLetterStreamKey = deadLetterStreamKey;
+        this.publisherExecutor = Executors
+                .newSingleThreadExecutor(new NamedThreadFactory(String.format("RedisEventBus Publisher [%s]", nodeId)));
+        this.consumerExecutor = Executors
+                .newSingleThreadExecutor(new NamedThreadFactory(String.format("RedisEventBus Consumer [%s]", nodeId)));
+    }
+
+    public void addRegistrationListener(RegistrationListener listener) {
+        registrationListeners.add(listener);
+    }
+
+    public void removeRegistrationListener(RegistrationListener listener) {
+        registrationListeners.remove(listener);
+    }
+
+    public void addObservationListener(ObservationListener listener) {
+        observationListeners.add(listener);
+    }
+
+    public void removeObservationListener(ObservationListener listener) {
+        observationListeners.remove(listener);
+    }
+
+    public void addPresenceListener(PresenceListener listener) {
+        presenceListeners.add(listener);
+    }
+
+    public void removePresenceListener(PresenceListener listener) {
+        presenceListeners.remove(listener);
+    }
+
+    // ************ Local events to publish ************ //
+
+    @Override
+    public void registered(Registration registration, Registration previousReg,
+            Collection<Observation> previousObservations) {
+        JsonObject o = Json.object();
+        o.add("reg", RegistrationSerDes.jSerialize(registration));
+        if (previousReg != null)
+            o.add("prev", RegistrationSerDes.jSerialize(previousReg));
+        if (previousObservations != null && !previousObservations.isEmpty())
+            o.add("obs", serialize(previousObservations));
+        publish(REGISTERED, o);
+    }
+
+    @Override
+    public void updated(RegistrationUpdate update, Registration updatedReg, Registration previousReg) {
+        JsonObject o = Json.object();
+        o.add("upd", RegistrationUpdateSerDes.jSerialize(update));
+        o.add("reg", RegistrationSerDes.jSerialize(updatedReg));
+        o.add("prev", RegistrationSerDes.jSerialize(previousReg));
+        publish(UPDATED, o);
+    }
+
+    @Override
+    public void unregistered(Registration registration, Collection<Observation> observations, boolean expired,
+            Registration newReg) {
+        JsonObject o = Json.object();
+        o.add("reg", RegistrationSerDes.jSerialize(registration));
+        if (observations != null && !observations.isEmpty())
+            o.add("obs", serialize(observations));
+        o.add("exp", expired);
+        if (newReg != null)
+            o.add("new", RegistrationSerDes.jSerialize(newReg));
+        publish(UNREGISTERED, o);
+    }
+
+    @Override
+    public void newObservation(Observation observation, Registration registration) {
+        JsonObject o = Json.object();
+        o.add("obs", LwM2mObservationSerDes.jSerialize(observation));
+        o.add("reg", RegistrationSerDes.jSerialize(registration));
+        publish(NEW_OBSERVATION, o);
+    }
+
+    @Override
+    public void cancelled(Observation observation) {
+        JsonObject o = Json.object();
+        o.add("obs", LwM2mObservationSerDes.jSerialize(observation));
+        publish(CANCELLED, o);
+    }
+
+    @Override
+    public void onResponse(Observation observation, Registration registration, ObserveResponse response) {
+        // notifications are not shared
+    }
+
+    @Override
+    public void onError(Observation observation, Registration registration, Exception error) {
+        // notification errors are not shared
+    }
+
+    @Override
+    public void onAwake(Registration registration) {
+        JsonObject o = Json.object();
+        o.add("reg", RegistrationSerDes.jSerialize(registration));
+        publish(AWAKE, o);
+    }
+
+    @Override
+    public void onSleeping(Registration registration) {
+        JsonObject o = Json.object();
+        o.add("reg", RegistrationSerDes.jSerialize(registration));
+        publish(SLEEPING, o);
+    }
+
+    private JsonArray serialize(Collection<Observation> observations) {
+        JsonArray a = Json.array();
+        for (Observation observation : observations) {
+            a.add(LwM2mObservationSerDes.jSerialize(observation));
+        }
+        return a;
+    }
+
+    private void publish(String type, JsonObject data) {
+        if (!started)
+            return;
+        Map<String, String> event = new HashMap<>(4);
+        event.put(NODE, nodeId);
+        event.put(TYPE, type);
+        event.put(DATA, data.toString());
+        outgoing.add(event);
+    }
+
+    // ************ Remote events to dispatch ************ //
+
+    private void dispatch(Map<String, String> event) {
+        String type = event.get(TYPE);
+        JsonObject o = Json.parse(event.get(DATA)).asObject();
+        switch (type) {
+        case REGISTERED: {
+            Registration registration = RegistrationSerDes.deserialize(o.get("reg").asObject());
+            Registration previousReg = deserializeRegistration(o.get("prev"));
+            Collection<Observation> previousObservations = deserializeObservations(o.get("obs"));
+            for (RegistrationListener l : registrationListeners) {
+                l.registered(registration, previousReg, previousObservations);
+            }
+            break;
+        }
+        case UPDATED: {
+            RegistrationUpdate update = RegistrationUpdateSerDes.deserialize(o.get("upd").asObject());
+            Registration updatedReg = RegistrationSerDes.deserialize(o.get("reg").asObject());
+            Registration previousReg = RegistrationSerDes.deserialize(o.get("prev").asObject());
+            for (RegistrationListener l : registrationListeners) {
+                l.updated(update, updatedReg, previousReg);
+            }
+            break;
+        }
+        case UNREGISTERED: {
+            Registration registration = RegistrationSerDes.deserialize(o.get("reg").asObject());
+            Collection<Observation> observations = deserializeObservations(o.get("obs"));
+            boolean expired = o.getBoolean("exp", false);
+            Registration newReg = deserializeRegistration(o.get("new"));
+            for (RegistrationListener l : registrationListeners) {
+                l.unregistered(registration, observations, expired, newReg);
+            }
+            break;
+        }
+        case NEW_OBSERVATION: {
+            Observation observation = LwM2mObservationSerDes.deserialize(o.get("obs").asObject());
+            Registration registration = RegistrationSerDes.deserialize(o.get("reg").asObject());
+            for (ObservationListener l : observationListeners) {
+                l.newObservation(observation, registration);
+            }
+            break;
+        }
+        case CANCELLED: {
+            Observation observation = LwM2mObservationSerDes.deserialize(o.get("obs").asObject());
+            for (ObservationListener l : observationListeners) {
+                l.cancelled(observation);
+            }
+            break;
+        }
+        case AWAKE: {
+            Registration registration = RegistrationSerDes.deserialize(o.get("reg").asObject());
+            for (PresenceListener l : presenceListeners) {
+                l.onAwake(registration);
+            }
+            break;
+        }
+        case SLEEPING: {
+            Registration registration = RegistrationSerDes.deserialize(o.get("reg").asObject());
+            for (PresenceListener l : presenceListeners) {
+                l.onSleeping(registration);
+            }
+            break;
+        }
+        default:
+            LOG.warn("Ignoring event of unknown type {}", type);
+        }
+    }
+
+    private Registration deserializeRegistration(JsonValue value) {
+        return value == null ? null : RegistrationSerDes.deserialize(value.asObject());
+    }
+
+    private Collection<Observation> deserializeObservations(JsonValue value) {
+        if (value == null)
+            return Collections.emptyList();
+        JsonArray a = value.asArray();
+        List<Observation> observations = new ArrayList<>(a.size());
+        for (JsonValue v : a) {
+            observations.add(LwM2mObservationSerDes.deserialize(v.asObject()));
+        }
+        return observations;
+    }
+
+    // ************ Lifecycle ************ //
+
+    /**
+     * Start to publish local events and to dispatch remote events.
+     * <p>
+     * When Redis is reachable, the consumer group of this node is created before this method returns, so all events
+     * appended after that are dispatched.
+     */
+    @Override
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            if (!groupCreated) {
+                try (Jedis j = pool.getResource()) {
+                    createGroup(j);
+                } catch (RuntimeException e) {
+                    LOG.warn("Unable to create consumer group, retrying later", e);
+                }
+            }
+            publisherExecutor.execute(new Publisher());
+            consumerExecutor.execute(new Consumer());
+        }
+    }
+
+    /**
+     * Stop to publish local events and to dispatch remote events. Events already received are still published.
+     */
+    @Override
+    public synchronized void stop() {
+        started = false;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        stop();
+        publisherExecutor.shutdown();
+        consumerExecutor.shutdown();
+        try {
+            // let the publisher flush pending events
+            if (!publisherExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                publisherExecutor.shutdownNow();
+            }
+            if (!consumerExecutor.awaitTermination(BLOCK_TIMEOUT * 2, TimeUnit.MILLISECONDS)) {
+                consumerExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Destroying RedisEventBus was interrupted.", e);
+        }
+    }
+
+    private void createGroup(Jedis j) {
+        try {
+            // only events appended after the first start of this node are delivered
+            j.xgroupCreate(streamKey, nodeId, StreamEntryID.LAST_ENTRY, true);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP"))
+                throw e;
+            // group already exists, this node was started before
+        }
+        groupCreated = true;
+    }
+
+    private class Publisher implements Runnable {
+
+        @Override
+        public void run() {
+            List<Map<String, String>> batch = new ArrayList<>(batchSize);
+            try {
+                while (started || !outgoing.isEmpty()) {
+                    Map<String, String> first = outgoing.poll(BLOCK_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (first == null)
+                        continue;
+
+                    // wait a bit for more events to append them in the same round trip
+                    batch.add(first);
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                    while (batch.size() < batchSize) {
+                        Map<String, String> next = outgoing.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null)
+                            break;
+                        batch.add(next);
+                    }
+
+                    append(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                if (!outgoing.isEmpty() || !batch.isEmpty()) {
+                    LOG.warn("{} events were not published", outgoing.size() + batch.size());
+                }
+            }
+        }
+
+        private void append(List<Map<String, String>> batch) throws InterruptedException {
+            while (true) {
+                try (Jedis j = pool.getResource()) {
+                    Pipeline p = j.pipelined();
+                    for (Map<String, String> event : batch) {
+                        p.xadd(streamKey, StreamEntryID.NEW_ENTRY, event, maxLength, true);
+                    }
+                    p.sync();
+                    return;
+                } catch (RuntimeException e) {
+                    if (!started) {
+                        LOG.warn("Unable to publish {} events", batch.size(), e);
+                        return;
+                    }
+                    LOG.warn("Unable to publish events, retrying", e);
+                }
+                // events are kept until they are appended
+                Thread.sleep(RETRY_DELAY);
+            }
+        }
+    }
+
+    private class Consumer implements Runnable {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            // start with events delivered to this node but never acknowledged, null when reading new events
+            StreamEntryID pendingFrom = new StreamEntryID();
+            // time of the next read of pending events, when some could not be dispatched
+            long retryPendingAt = -1;
+            while (started) {
+                try (Jedis j = pool.getResource()) {
+                    if (!groupCreated) {
+                        createGroup(j);
+                    }
+                    if (pendingFrom == null && retryPendingAt >= 0 && System.currentTimeMillis() >= retryPendingAt) {
+                        pendingFrom = new StreamEntryID();
+                        retryPendingAt = -1;
+                    }
+
+                    StreamEntryID from = pendingFrom != null ? pendingFrom : StreamEntryID.UNRECEIVED_ENTRY;
+                    List<Entry<String, List<StreamEntry>>> res = j.xreadGroup(nodeId, nodeId, batchSize,
+                            BLOCK_TIMEOUT, false, new SimpleEntry<>(streamKey, from));
+                    List<StreamEntry> entries = res == null || res.isEmpty() ? null : res.get(0).getValue();
+                    if (entries == null || entries.isEmpty()) {
+                        pendingFrom = null;
+                        continue;
+                    }
+                    if (pendingFrom != null) {
+                        // pending events are read once per pass
+                        pendingFrom = entries.get(entries.size() - 1).getID();
+                    }
+
+                    // events which could not be dispatched are not acknowledged, so they are read again later
+                    List<StreamEntryID> dispatched = new ArrayList<>(entries.size());
+                    for (StreamEntry entry : entries) {
+                        if (!nodeId.equals(entry.getFields().get(NODE))) {
+                            try {
+                                dispatch(entry.getFields());
+                            } catch (RuntimeException e) {
+                                if (getDeliveries(j, entry.getID()) < maxDeliveries) {
+                                    LOG.warn("Unable to dispatch event {}, retrying later", entry.getID(), e);
+                                    retryPendingAt = System.currentTimeMillis() + RETRY_DELAY;
+                                    continue;
+                                }
+                                LOG.error("Unable to dispatch event {} after {} attempts, giving up : {}",
+                                        entry.getID(), maxDeliveries, entry.getFields(), e);
+                                if (deadLetterStreamKey != null) {
+                                    j.xadd(deadLetterStreamKey, StreamEntryID.NEW_ENTRY, entry.getFields(), maxLength,
+                                            true);
+                                }
+                            }
+                        }
+                        dispatched.add(entry.getID());
+                    }
+                    if (!dispatched.isEmpty()) {
+                        j.xack(streamKey, nodeId, dispatched.toArray(new StreamEntryID[dispatched.size()]));
+                    }
+                } catch (RuntimeException e) {
+                    if (!started)
+                        return;
+                    LOG.warn("Unable to read events, retrying", e);
+                    // events read but not acknowledged will be read again
+                    pendingFrom = new StreamEntryID();
+                    try {
+                        Thread.sleep(RETRY_DELAY);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the number of times the event was delivered to this node, as counted by Redis.
+         */
+        private long getDeliveries(Jedis j, StreamEntryID id) {
+            List<StreamPendingEntry> pending = j.xpending(streamKey, nodeId, id, id, 1, nodeId);
+            return pending == null || pending.isEmpty() ? 0 : pending.get(0).getDeliveredTimes();
+        }
+    }
+}
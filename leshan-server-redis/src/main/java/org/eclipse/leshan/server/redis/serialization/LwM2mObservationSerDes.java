@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.serialization;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.observation.Observation;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.eclipse.leshan.core.util.Hex;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+
+/**
+ * Functions for serialize and deserialize a LWM2M {@link Observation} in JSON.
+ * <p>
+ * Unlike {@link ObservationSerDes}, this does not contain the CoAP request used to establish the observation.
+ *
+ * @since 2.0
+ */
+public class LwM2mObservationSerDes {
+
+    public static JsonObject jSerialize(Observation observation) {
+        JsonObject o = Json.object();
+        o.add("id", Hex.encodeHexString(observation.getId()));
+        o.add("regId", observation.getRegistrationId());
+        o.add("path", observation.getPath().toString());
+        if (observation.getContentFormat() != null) {
+            o.add("ct", observation.getContentFormat().getCode());
+        }
+        if (!observation.getContext().isEmpty()) {
+            JsonObject ctx = Json.object();
+            for (Map.Entry<String, String> e : observation.getContext().entrySet()) {
+                ctx.add(e.getKey(), e.getValue());
+            }
+            o.add("ctx", ctx);
+        }
+        return o;
+    }
+
+    public static Observation deserialize(JsonObject o) {
+        ContentFormat contentFormat = null;
+        if (o.get("ct") != null) {
+            contentFormat = ContentFormat.fromCode(o.getInt("ct", 0));
+        }
+        Map<String, String> context = null;
+        if (o.get("ctx") != null) {
+            context = new HashMap<>();
+            JsonObject ctx = o.get("ctx").asObject();
+            for (String k : ctx.names()) {
+                context.put(k, ctx.getString(k, null));
+            }
+        }
+        return new Observation(Hex.decodeHex(o.getString("id", null).toCharArray()), o.getString("regId", null),
+                new LwM2mPath(o.getString("path", null)), contentFormat, context);
+    }
+}
@@ -49,22 +49,7 @@ public class RegistrationSerDes {
         o.add("ep", r.getEndpoint());
         o.add("regId", r.getId());
 
-        JsonArray links = new JsonArray();
-        for (Link l : r.getObjectLinks()) {
-            JsonObject ol = Json.object();
-            ol.add("url", l.getUrl());
-            JsonObject at = Json.object();
-            for (Map.Entry<String, String> e : l.getAttributes().entrySet()) {
-                if (e.getValue() == null) {
-                    at.add(e.getKey(), Json.NULL);
-                } else {
-                    at.add(e.getKey(), e.getValue().toString());
-                }
-            }
-            ol.add("at", at);
-            links.add(ol);
-        }
-        o.add("objLink", links);
+        o.add("objLink", jSerialize(r.getObjectLinks()));
         JsonObject addAttr = Json.object();
         for (Map.Entry<String, String> e : r.getAdditionalRegistrationAttributes().entrySet()) {
             addAttr.add(e.getKey(), e.getValue());
@@ -79,25 +64,32 @@ public class RegistrationSerDes {
         return jSerialize(r).toString();
     }
 
-    public static byte[] bSerialize(Registration r) {
-        return jSerialize(r).toString().getBytes();
-    }
-
-    public static Registration deserialize(JsonObject jObj) {
-        Registration.Builder b = new Registration.Builder(jObj.getString("regId", null), jObj.getString("ep", null),
-                IdentitySerDes.deserialize(jObj.get("identity").asObject()));
-        b.bindingMode(BindingMode.parse(jObj.getString("bnd", null)));
-        if (jObj.get("qm") != null)
-            b.queueMode(jObj.getBoolean("qm", false));
-        b.lastUpdate(new Date(jObj.getLong("lastUp", 0)));
-        b.lifeTimeInSec(jObj.getLong("lt", 0));
-        b.lwM2mVersion(jObj.getString("ver", Version.getDefault().toString()));
-        b.registrationDate(new Date(jObj.getLong("regDate", 0)));
-        if (jObj.get("sms") != null) {
-            b.smsNumber(jObj.getString("sms", ""));
+    /**
+     * @since 2.0
+     */
+    public static JsonArray jSerialize(Link[] objectLinks) {
+        JsonArray links = new JsonArray();
+        for (Link l : objectLinks) {
+            JsonObject ol = Json.object();
+            ol.add("url", l.getUrl());
+            JsonObject at = Json.object();
+            for (Map.Entry<String, String> e : l.getAttributes().entrySet()) {
+                if (e.getValue() == null) {
+                    at.add(e.getKey(), Json.NULL);
+                } else {
+                    at.add(e.getKey(), e.getValue().toString());
+                }
+            }
+            ol.add("at", at);
+            links.add(ol);
         }
+        return links;
+    }
 
-        JsonArray links = (JsonArray) jObj.get("objLink");
+    /**
+     * @since 2.0
+     */
+    public static Link[] deserializeLinks(JsonArray links) {
         Link[] linkObjs = new Link[links.size()];
         for (int i = 0; i < links.size(); i++) {
             JsonObject ol = (JsonObject) links.get(i);
@@ -118,7 +110,28 @@ public class RegistrationSerDes {
             Link o = new Link(ol.getString("url", null), attMap);
             linkObjs[i] = o;
         }
-        b.objectLinks(linkObjs);
+        return linkObjs;
+    }
+
+    public static byte[] bSerialize(Registration r) {
+        return jSerialize(r).toString().getBytes();
+    }
+
+    public static Registration deserialize(JsonObject jObj) {
+        Registration.Builder b = new Registration.Builder(jObj.getString("regId", null), jObj.getString("ep", null),
+                IdentitySerDes.deserialize(jObj.get("identity").asObject()));
+        b.bindingMode(BindingMode.parse(jObj.getString("bnd", null)));
+        if (jObj.get("qm") != null)
+            b.queueMode(jObj.getBoolean("qm", false));
+        b.lastUpdate(new Date(jObj.getLong("lastUp", 0)));
+        b.lifeTimeInSec(jObj.getLong("lt", 0));
+        b.lwM2mVersion(jObj.getString("ver", Version.getDefault().toString()));
+        b.registrationDate(new Date(jObj.getLong("regDate", 0)));
+        if (jObj.get("sms") != null) {
+            b.smsNumber(jObj.getString("sms", ""));
+        }
+
+        b.objectLinks(deserializeLinks((JsonArray) jObj.get("objLink")));
         Map<String, String> addAttr = new HashMap<>();
         JsonObject o = (JsonObject) jObj.get("addAttr");
         for (String k : o.names()) {
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.serialization;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.leshan.core.Link;
+import org.eclipse.leshan.core.request.BindingMode;
+import org.eclipse.leshan.server.registration.RegistrationUpdate;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+
+/**
+ * Functions for serialize and deserialize a {@link RegistrationUpdate} in JSON.
+ * <p>
+ * Only the fields present in the update are serialized.
+ *
+ * @since 2.0
+ */
+public class RegistrationUpdateSerDes {
+
+    public static JsonObject jSerialize(RegistrationUpdate u) {
+        JsonObject o = Json.object();
+        o.add("regId", u.getRegistrationId());
+        o.add("identity", IdentitySerDes.serialize(u.getIdentity()));
+        if (u.getLifeTimeInSec() != null)
+            o.add("lt", u.getLifeTimeInSec());
+        if (u.getSmsNumber() != null)
+            o.add("sms", u.getSmsNumber());
+        if (u.getBindingMode() != null)
+            o.add("bnd", BindingMode.toString(u.getBindingMode()));
+        if (u.getObjectLinks() != null)
+            o.add("objLink", RegistrationSerDes.jSerialize(u.getObjectLinks()));
+        if (!u.getAdditionalAttributes().isEmpty()) {
+            JsonObject addAttr = Json.object();
+            for (Map.Entry<String, String> e : u.getAdditionalAttributes().entrySet()) {
+                addAttr.add(e.getKey(), e.getValue());
+            }
+            o.add("addAttr", addAttr);
+        }
+        return o;
+    }
+
+    public static RegistrationUpdate deserialize(JsonObject o) {
+        Long lifetime = null;
+        if (o.get("lt") != null)
+            lifetime = o.getLong("lt", 0);
+        Link[] objectLinks = null;
+        if (o.get("objLink") != null)
+            objectLinks = RegistrationSerDes.deserializeLinks((JsonArray) o.get("objLink"));
+        Map<String, String> addAttr = null;
+        if (o.get("addAttr") != null) {
+            addAttr = new HashMap<>();
+            JsonObject attributes = o.get("addAttr").asObject();
+            for (String k : attributes.names()) {
+                addAttr.put(k, attributes.getString(k, ""));
+            }
+        }
+        return new RegistrationUpdate(o.getString("regId", null),
+                IdentitySerDes.deserialize(o.get("identity").asObject()), lifetime, o.getString("sms", null),
+                o.get("bnd") == null ? null : BindingMode.parse(o.getString("bnd", null)), objectLinks, addAttr);
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.leshan.server.security.SecurityInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SecurityInfoCacheTest {
+
+    private SecurityInfoCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new SecurityInfoCache(2);
+        cache.enable();
+    }
+
+    @Test
+    public void get_cached_value_by_endpoint_and_identity() {
+        SecurityInfo info = SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1 });
+        cache.put(info, cache.generation());
+
+        assertEquals(info, cache.getByEndpoint("ep1"));
+        assertEquals(info, cache.getByIdentity("id1"));
+    }
+
+    @Test
+    public void invalidate_removes_value_and_identity() {
+        SecurityInfo info = SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1 });
+        cache.put(info, cache.generation());
+
+        cache.invalidate("ep1");
+
+        assertNull(cache.getByEndpoint("ep1"));
+        assertNull(cache.getByIdentity("id1"));
+    }
+
+    @Test
+    public void value_read_before_invalidation_is_not_cached() {
+        long generation = cache.generation();
+        cache.invalidate("ep1");
+        cache.put(SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1 }), generation);
+
+        assertNull(cache.getByEndpoint("ep1"));
+    }
+
+    @Test
+    public void eldest_value_is_evicted() {
+        cache.put(SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1 }), cache.generation());
+        cache.put(SecurityInfo.newPreSharedKeyInfo("ep2", "id2", new byte[] { 2 }), cache.generation());
+        cache.put(SecurityInfo.newPreSharedKeyInfo("ep3", "id3", new byte[] { 3 }), cache.generation());
+
+        assertNull(cache.getByEndpoint("ep1"));
+        assertNull(cache.getByIdentity("id1"));
+        assertEquals("ep3", cache.getByIdentity("id3").getEndpoint());
+    }
+
+    @Test
+    public void disabled_cache_returns_nothing() {
+        cache.put(SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1 }), cache.generation());
+
+        cache.disable();
+
+        assertNull(cache.getByEndpoint("ep1"));
+        cache.put(SecurityInfo.newPreSharedKeyInfo("ep1", "id1", new byte[] { 1 }), cache.generation());
+        assertNull(cache.getByEndpoint("ep1"));
+    }
+}
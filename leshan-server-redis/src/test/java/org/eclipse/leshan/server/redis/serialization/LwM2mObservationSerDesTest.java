@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.serialization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.leshan.core.node.LwM2mPath;
+import org.eclipse.leshan.core.observation.Observation;
+import org.eclipse.leshan.core.request.ContentFormat;
+import org.junit.Test;
+
+public class LwM2mObservationSerDesTest {
+
+    @Test
+    public void ser_and_des_are_equals() {
+        Map<String, String> context = new HashMap<>();
+        context.put("key", "value");
+        Observation obs = new Observation(new byte[] { 0x01, 0x7F, (byte) 0xFF }, "registrationId",
+                new LwM2mPath(3, 0, 1), ContentFormat.SENML_JSON, context);
+
+        Observation obs2 = LwM2mObservationSerDes.deserialize(LwM2mObservationSerDes.jSerialize(obs));
+
+        assertEquals(obs, obs2);
+        assertEquals(ContentFormat.SENML_JSON, obs2.getContentFormat());
+    }
+
+    @Test
+    public void ser_and_des_without_optional_fields() {
+        Observation obs = new Observation(new byte[] { 0x02 }, "registrationId", new LwM2mPath(3), null, null);
+
+        Observation obs2 = LwM2mObservationSerDes.deserialize(LwM2mObservationSerDes.jSerialize(obs));
+
+        assertEquals(obs, obs2);
+    }
+}
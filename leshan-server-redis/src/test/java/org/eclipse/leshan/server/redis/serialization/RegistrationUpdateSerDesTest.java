@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Sierra Wireless and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *     Sierra Wireless - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.leshan.server.redis.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.net.Inet4Address;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.leshan.core.Link;
+import org.eclipse.leshan.core.request.BindingMode;
+import org.eclipse.leshan.core.request.Identity;
+import org.eclipse.leshan.server.registration.RegistrationUpdate;
+import org.junit.Test;
+
+public class RegistrationUpdateSerDesTest {
+
+    @Test
+    public void ser_and_des_are_equals() {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("key", "value");
+        RegistrationUpdate update = new RegistrationUpdate("registrationId",
+                Identity.unsecure(Inet4Address.getLoopbackAddress(), 1), 60L, "+33612345678",
+                EnumSet.of(BindingMode.U, BindingMode.Q), new Link[] { new Link("/1/0"), new Link("/3/0") },
+                attributes);
+
+        RegistrationUpdate update2 = RegistrationUpdateSerDes
+                .deserialize(RegistrationUpdateSerDes.jSerialize(update));
+
+        assertEquals(update.getRegistrationId(), update2.getRegistrationId());
+        assertEquals(update.getIdentity(), update2.getIdentity());
+        assertEquals(update.getLifeTimeInSec(), update2.getLifeTimeInSec());
+        assertEquals(update.getSmsNumber(), update2.getSmsNumber());
+        assertEquals(update.getBindingMode(), update2.getBindingMode());
+        assertArrayEquals(update.getObjectLinks(), update2.getObjectLinks());
+        assertEquals(update.getAdditionalAttributes(), update2.getAdditionalAttributes());
+    }
+
+    @Test
+    public void ser_and_des_without_optional_fields() {
+        RegistrationUpdate update = new RegistrationUpdate("registrationId",
+                Identity.unsecure(Inet4Address.getLoopbackAddress(), 1), null, null, null, null, null);
+
+        RegistrationUpdate update2 = RegistrationUpdateSerDes
+                .deserialize(RegistrationUpdateSerDes.jSerialize(update));
+
+        assertEquals(update, update2);
+    }
+}